@@ -4,6 +4,9 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Selenium自动化配置类
  */
@@ -15,6 +18,20 @@ public class SeleniumConfig {
     private Chrome chrome = new Chrome();
     // 通用超时配置
     private Timeout timeout = new Timeout();
+    // 驱动池配置
+    private Pool pool = new Pool();
+    // 异步任务配置
+    private Job job = new Job();
+    // 并发执行配置
+    private Execution execution = new Execution();
+    // 遍历获取内容的文件输出配置
+    private Output output = new Output();
+    // 实时日志推送配置
+    private Log log = new Log();
+    // 代码生成结果缓存配置
+    private CodeCache codeCache = new CodeCache();
+    // Cookie文件缓存配置
+    private CookieCache cookieCache = new CookieCache();
 
     // 内部类：Chrome配置
     @Data
@@ -27,7 +44,125 @@ public class SeleniumConfig {
     // 内部类：超时配置
     @Data
     public static class Timeout {
+        // 页面加载超时（秒）
         private int seconds;
         private long waitAfterStep;
+        // 等待元素的超时时间（毫秒），不再使用隐式等待
+        private long elementTimeoutMs = 10000;
+        // 等待元素的轮询间隔（毫秒）
+        private long pollingMs = 500;
+        // 轮询期间忽略的异常（不含包名时为 org.openqa.selenium 包）
+        private List<String> ignoredExceptions = new ArrayList<>(List.of("NoSuchElementException", "StaleElementReferenceException"));
+        // 自适应等待的最长时间（毫秒），超时后继续执行
+        private long settleTimeoutMs = 5000;
+        // 网络空闲判定：最后一个请求结束后经过的时间（毫秒）
+        private long networkIdleMs = 500;
+        // DOM稳定判定：最后一次DOM变化后经过的时间（毫秒）
+        private long domQuietMs = 300;
+        // 自适应等待的轮询间隔（毫秒）
+        private long settlePollingMs = 100;
+    }
+
+    // 内部类：驱动池配置
+    @Data
+    public static class Pool {
+        // 是否启用驱动池（关闭时每次执行都新建浏览器）
+        private boolean enabled;
+        // 最少保持的空闲（预热）驱动数
+        private int minIdle = 1;
+        // 驱动总数上限（空闲 + 使用中）
+        private int maxTotal = 4;
+        // 单个驱动最长存活时间（分钟），超过后归还时销毁
+        private long maxAgeMinutes = 30;
+        // 单个驱动最多被借用的次数，超过后归还时销毁
+        private int maxUsesPerDriver = 50;
+        // 借用驱动的最长等待时间（秒）
+        private long borrowTimeoutSeconds = 60;
+        // 空闲驱动健康检查间隔（秒）
+        private long healthCheckIntervalSeconds = 60;
+    }
+
+    // 内部类：异步任务配置
+    @Data
+    public static class Job {
+        // 执行任务的工作线程数，0表示与并发上限一致
+        private int workerThreads;
+        // 排队任务上限，超出后拒绝提交
+        private int queueCapacity = 100;
+        // 已结束任务的保留时间（分钟）
+        private long retentionMinutes = 60;
+    }
+
+    // 内部类：并发执行配置
+    @Data
+    public static class Execution {
+        // 同时执行的任务数上限，0表示根据CPU核数和内存自动计算
+        private int maxConcurrentJobs;
+        // 估算每个浏览器占用的内存（MB），用于自动计算并发上限
+        private long memoryPerBrowserMb = 512;
+        // 等待执行名额的最长时间（秒）
+        private long acquireTimeoutSeconds = 300;
+        // 执行计划缓存条数（按脚本内容哈希）
+        private int planCacheSize = 64;
+    }
+
+    // 内部类：文件输出配置（步骤 parameters 中的同名参数优先）
+    @Data
+    public static class Output {
+        // 输出格式：LINES（每行一条）、CSV（index,text）、JSONL（每行一个JSON对象）
+        private String format = "LINES";
+        // 是否gzip压缩，文件名以 .gz 结尾时自动开启
+        private boolean gzip;
+        // 刷新到文件的间隔（毫秒），0表示每行都刷新
+        private long flushIntervalMs = 1000;
+        // fsync策略：NONE（交给操作系统）、FLUSH（每次刷新后落盘）、CLOSE（关闭时落盘）
+        private String fsync = "CLOSE";
+        // 写缓冲区大小（字节）
+        private int bufferSize = 65536;
+    }
+
+    // 内部类：实时日志推送配置
+    @Data
+    public static class Log {
+        // 合并发送的间隔（毫秒），间隔内的日志合并为一帧
+        private long flushIntervalMs = 200;
+        // 每个连接待发送日志的上限，客户端接收过慢时超出部分丢弃并计数
+        private int sessionQueueCapacity = 2000;
+        // 每帧最多合并的日志条数
+        private int maxBatchSize = 500;
+        // 每个任务日志环形缓冲区的容量，日志线程来不及处理时超出部分丢弃并计数
+        private int ringBufferSize = 8192;
+        // 每个任务保留的最近日志条数，供重连后回放和REST分页查询
+        private int replayBufferSize = 5000;
+        // 任务最后一条日志之后回放缓冲区保留的时间（分钟）
+        private long replayRetentionMinutes = 60;
+        // 任务默认日志级别（TRACE/DEBUG/INFO/DATA/ERROR），可被请求中的 logLevel 和步骤参数 logLevel 覆盖
+        private String level = "INFO";
+        // 循环日志采样：只输出第一次、最后一次和每隔N次的迭代日志，错误始终输出；1表示全部输出
+        private int loopSampleEvery = 10;
+        // 循环进度汇总（完成数、速率、预计剩余时间）的输出间隔（毫秒）
+        private long progressIntervalMs = 2000;
+        // 客户端请求时是否启用WebSocket permessage-deflate压缩
+        private boolean compression = true;
+    }
+
+    // 内部类：代码生成结果缓存配置
+    @Data
+    public static class CodeCache {
+        // 是否缓存生成的代码（相同请求直接返回缓存结果）
+        private boolean enabled = true;
+        // 最多缓存的结果数，超出后淘汰最久未使用的
+        private int maxEntries = 256;
+        // 缓存结果的存活时间（分钟），0表示不过期
+        private long ttlMinutes = 30;
+        // 单条结果的最大大小（KB），更大的代码只流式输出不缓存
+        private int maxEntryKb = 1024;
+    }
+
+    // 内部类：Cookie文件缓存配置
+    @Data
+    public static class CookieCache {
+        // 最多缓存的Cookie文件数，文件修改时间或大小变化时重新读取；0表示不缓存
+        private int maxFiles = 32;
     }
-}
\ No newline at end of file
+}
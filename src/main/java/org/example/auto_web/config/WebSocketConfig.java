@@ -1,6 +1,9 @@
 package org.example.auto_web.config;
 
+import jakarta.annotation.PreDestroy;
+import org.example.auto_web.service.log.LogReplayStore;
 import org.example.auto_web.websocket.LogWebSocket;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
@@ -11,6 +14,12 @@ import org.springframework.web.socket.server.standard.ServerEndpointExporter;
 @EnableWebSocket
 public class WebSocketConfig {
 
+    @Autowired
+    private SeleniumConfig seleniumConfig;
+
+    @Autowired
+    private LogReplayStore logReplayStore;
+
     @Bean
     public ServerEndpointExporter serverEndpointExporter() {
         ServerEndpointExporter exporter = new ServerEndpointExporter();
@@ -20,8 +29,15 @@ public class WebSocketConfig {
 
     @Bean
     public LogWebSocket logWebSocket() {
+        // 启动按连接合并发送的定时任务，订阅时从回放缓冲区补齐历史日志
+        LogWebSocket.configure(seleniumConfig.getLog(), logReplayStore);
         return LogWebSocket.getInstance();
     }
 
+    @PreDestroy
+    public void shutdown() {
+        LogWebSocket.shutdown();
+    }
+
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(WebSocketConfig.class);
 }
\ No newline at end of file
@@ -2,13 +2,19 @@ package org.example.auto_web.controller;
 
 import org.example.auto_web.pojo.dto.CookieExportRequest;
 import org.example.auto_web.pojo.dto.ExecuteRequest;
+import org.example.auto_web.pojo.other.AutomationJob;
+import org.example.auto_web.pojo.other.LogPage;
 import org.example.auto_web.pojo.other.OperationStep;
+import org.example.auto_web.service.AutomationJobService;
 import org.example.auto_web.service.SeleniumAutoWebService;
+import org.example.auto_web.service.log.LogReplayStore;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auto")
@@ -17,8 +23,24 @@ public class AutoWebController {
     @Autowired
     private SeleniumAutoWebService seleniumAutoWebService;
 
+    @Autowired
+    private AutomationJobService automationJobService;
+
+    @Autowired
+    private LogReplayStore logReplayStore;
+
     @PostMapping("/execute")
-    public ResponseEntity<String> execute(@RequestBody ExecuteRequest request) {
+    public ResponseEntity<String> execute(@RequestBody ExecuteRequest request,
+                                          @RequestParam(defaultValue = "false") boolean async) {
+        if (async) {
+            // 异步模式：立即返回任务ID，通过 /jobs/{jobId} 查询状态
+            try {
+                AutomationJob job = automationJobService.submit(request);
+                return ResponseEntity.accepted().body(job.getJobId());
+            } catch (RejectedExecutionException e) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
+            }
+        }
         try {
             seleniumAutoWebService.executeOperations(request);
             return ResponseEntity.ok("自动化操作执行完成");
@@ -27,6 +49,55 @@ public class AutoWebController {
         }
     }
 
+    @GetMapping("/jobs")
+    public ResponseEntity<List<AutomationJob>> listJobs() {
+        return ResponseEntity.ok(automationJobService.listJobs());
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<AutomationJob> getJob(@PathVariable String jobId) {
+        AutomationJob job = automationJobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    @PostMapping("/jobs/{jobId}/cancel")
+    public ResponseEntity<String> cancelJob(@PathVariable String jobId) {
+        if (automationJobService.getJob(jobId) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!automationJobService.cancel(jobId)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("任务已结束，无法取消");
+        }
+        return ResponseEntity.ok("已请求取消任务: " + jobId);
+    }
+
+    @GetMapping("/jobs/{jobId}/result")
+    public ResponseEntity<AutomationJob> getJobResult(@PathVariable String jobId) {
+        AutomationJob job = automationJobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // 任务未结束时返回202，客户端继续轮询
+        if (!job.getStatus().isFinished()) {
+            return ResponseEntity.accepted().body(job);
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    @GetMapping("/jobs/{jobId}/logs")
+    public ResponseEntity<LogPage> getJobLogs(@PathVariable String jobId,
+                                              @RequestParam(defaultValue = "1") long fromSeq,
+                                              @RequestParam(defaultValue = "200") int limit) {
+        // 分页读取回放缓冲区中的日志，客户端用返回的 nextSeq 继续翻页
+        LogPage page = logReplayStore.getPage(jobId, fromSeq, Math.min(limit, 1000));
+        if (page == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(page);
+    }
 
     @PostMapping("/export-cookie")
     public ResponseEntity<String> exportCookie(@RequestBody CookieExportRequest request) {
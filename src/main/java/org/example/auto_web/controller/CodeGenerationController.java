@@ -1,13 +1,17 @@
 package org.example.auto_web.controller;
 
+import org.example.auto_web.pojo.dto.CodeBundleRequest;
 import org.example.auto_web.pojo.dto.CodeGenerationRequest;
-import org.example.auto_web.pojo.other.CodeFileResponse;
+import org.example.auto_web.pojo.other.CacheStats;
 import org.example.auto_web.service.CodeGenerationService;
+import org.example.auto_web.service.codegen.CodeBundle;
+import org.example.auto_web.service.codegen.CodeFileStream;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
@@ -20,37 +24,57 @@ public class CodeGenerationController {
     private CodeGenerationService codeGenerationService;
 
     @PostMapping("/generate")
-    public ResponseEntity<byte[]> generateCodeFile(@RequestBody CodeGenerationRequest request) {
+    public ResponseEntity<StreamingResponseBody> generateCodeFile(@RequestBody CodeGenerationRequest request) {
         try {
-            CodeFileResponse response = codeGenerationService.generateCodeFile(request);
+            CodeFileStream file = codeGenerationService.openCodeFile(request);
 
-            // 设置文件下载头
+            // 设置文件下载头，文件大小命中缓存时直接可得，否则先生成到内存（并放入缓存）再统计
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDispositionFormData("attachment", response.getFileName());
-            headers.add("X-File-Name", response.getFileName());
-            headers.add("X-File-Size", response.getFileSize().toString());
-            headers.add("X-Language", response.getLanguage());
+            headers.setContentDispositionFormData("attachment", file.getFileName());
+            headers.add("X-File-Name", file.getFileName());
+            headers.add("X-File-Size", String.valueOf(file.getFileSize()));
+            headers.add("X-Language", file.getLanguage());
 
+            // 代码边生成边以UTF-8写入响应（分块传输）
             return ResponseEntity.ok()
                     .headers(headers)
-                    .body(response.getFileContent().getBytes(StandardCharsets.UTF_8));
+                    .body(file::writeTo);
 
         } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body(("生成代码文件失败: " + e.getMessage()).getBytes(StandardCharsets.UTF_8));
+            return errorResponse(e);
         }
     }
     @PostMapping("/preview")
-    public ResponseEntity<byte[]> previewCodeFile(@RequestBody CodeGenerationRequest request) {
+    public ResponseEntity<StreamingResponseBody> previewCodeFile(@RequestBody CodeGenerationRequest request) {
         try {
-            CodeFileResponse response = codeGenerationService.generateCodeFile(request);
+            CodeFileStream file = codeGenerationService.openCodeFile(request);
             return ResponseEntity.ok()
-                    .contentType(MediaType.TEXT_PLAIN)
-                    .body(response.getFileContent().getBytes(StandardCharsets.UTF_8));
+                    .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                    .body(file::writeTo);
         } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body(("生成代码文件失败: " + e.getMessage()).getBytes(StandardCharsets.UTF_8));
+            return errorResponse(e);
+        }
+    }
+
+    @PostMapping("/bundle")
+    public ResponseEntity<StreamingResponseBody> generateBundle(@RequestBody CodeBundleRequest request) {
+        try {
+            CodeBundle bundle = codeGenerationService.openBundle(request);
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.parseMediaType("application/zip"));
+            headers.setContentDispositionFormData("attachment", bundle.getFileName());
+            headers.add("X-File-Name", bundle.getFileName());
+            headers.add("X-Languages", String.join(",", bundle.getLanguages()));
+
+            // 各语言并行生成，按顺序边生成边写入压缩包
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .body(bundle::writeTo);
+
+        } catch (Exception e) {
+            return errorResponse("生成代码压缩包失败: ", e);
         }
     }
 
@@ -58,4 +82,20 @@ public class CodeGenerationController {
     public ResponseEntity<List<String>> getSupportedLanguages() {
         return ResponseEntity.ok(codeGenerationService.getSupportedLanguages());
     }
+
+    @GetMapping("/cache-stats")
+    public ResponseEntity<CacheStats> getCacheStats() {
+        return ResponseEntity.ok(codeGenerationService.getCacheStats());
+    }
+
+    private static ResponseEntity<StreamingResponseBody> errorResponse(Exception e) {
+        return errorResponse("生成代码文件失败: ", e);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> errorResponse(String prefix, Exception e) {
+        byte[] body = (prefix + e.getMessage()).getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.badRequest()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(out -> out.write(body));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package org.example.auto_web.pojo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.auto_web.pojo.other.OperationStep;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CodeBundleRequest {
+    private List<String> languages; // ["java", "python"]，为空或包含 "all" 时生成全部语言
+    private List<OperationStep> steps;
+    private String initialUrl;
+    private String className; // 生成的类名，同时作为压缩包文件名
+    private Boolean includeComments = true; // 是否包含注释
+    private Boolean batchExtraction = false; // 遍历获取文本时一次脚本批量提取
+    private Integer parallelWorkers = 1; // 最外层循环任务并行执行的浏览器数
+}
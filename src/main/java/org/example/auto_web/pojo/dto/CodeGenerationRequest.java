@@ -16,4 +16,6 @@ public class CodeGenerationRequest {
     private String initialUrl;
     private String className; // 生成的类名
     private Boolean includeComments = true; // 是否包含注释
+    private Boolean batchExtraction = false; // 遍历获取文本时一次脚本批量提取（失败时逐个提取），步骤可用 parameters.batchMode 覆盖
+    private Integer parallelWorkers = 1; // 最外层循环任务按迭代分区并行执行的浏览器数，步骤可用 parameters.workers 覆盖；子步骤会写文件的循环任务仍顺序执行
 }
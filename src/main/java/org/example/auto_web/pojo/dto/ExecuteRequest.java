@@ -14,4 +14,5 @@ import java.util.Map;
 public class ExecuteRequest {
     private String url; // 目标网址
     private List<OperationStep> steps; // 操作步骤列表
+    private String logLevel; // 任务日志级别（TRACE/DEBUG/INFO/DATA/ERROR），为空时使用配置的默认级别
 }
\ No newline at end of file
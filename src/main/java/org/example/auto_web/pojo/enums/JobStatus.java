@@ -0,0 +1,13 @@
+package org.example.auto_web.pojo.enums;
+
+public enum JobStatus {
+    QUEUED,     // 排队中
+    RUNNING,    // 执行中
+    SUCCEEDED,  // 执行成功
+    FAILED,     // 执行失败
+    CANCELLED;  // 已取消
+
+    public boolean isFinished() {
+        return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+    }
+}
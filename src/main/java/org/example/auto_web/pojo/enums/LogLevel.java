@@ -0,0 +1,22 @@
+package org.example.auto_web.pojo.enums;
+
+import java.util.Locale;
+
+public enum LogLevel {
+    TRACE,  // 表达式解析等细节
+    DEBUG,  // 调试信息
+    INFO,   // 执行过程
+    DATA,   // 获取到的数据
+    ERROR;  // 错误
+
+    public static LogLevel parse(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return INFO;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支持的日志级别: " + value);
+        }
+    }
+}
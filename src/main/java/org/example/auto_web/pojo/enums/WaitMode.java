@@ -0,0 +1,14 @@
+package org.example.auto_web.pojo.enums;
+
+/**
+ * 操作后的等待方式（步骤 parameters.waitMode）
+ */
+public enum WaitMode {
+    SMART,           // 自适应：文档加载完成 + 网络空闲 + DOM稳定（有长轮询、动画的页面可能等到超时）
+    DOCUMENT_READY,  // 文档加载完成（默认）
+    NETWORK_IDLE,    // 没有进行中的XHR/fetch请求
+    DOM_STABLE,      // DOM在一段时间内没有变化
+    CONDITION,       // 自定义JS条件（parameters.waitCondition）为真
+    FIXED,           // 固定等待（旧行为）
+    NONE             // 不等待
+}
@@ -0,0 +1,33 @@
+package org.example.auto_web.pojo.other;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.auto_web.pojo.enums.JobStatus;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * 异步自动化任务，状态字段会被执行线程和查询线程同时访问
+ */
+@Data
+@NoArgsConstructor
+public class AutomationJob {
+    private String jobId;
+    private String url;               // 目标网址
+    private Integer stepCount;        // 顶层步骤数
+    private volatile JobStatus status;
+    private volatile String message;  // 执行结果或失败原因
+    private Long submittedAt;
+    private volatile Long startedAt;
+    private volatile Long finishedAt;
+    private volatile List<String> results;           // 获取的文本、URL、输出文件等
+    private volatile Map<String, Object> variables;  // 结束时的变量快照
+
+    @JsonIgnore
+    private volatile Future<?> future;
+    @JsonIgnore
+    private volatile boolean cancelRequested;
+}
@@ -0,0 +1,18 @@
+package org.example.auto_web.pojo.other;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheStats {
+    private int size;         // 当前缓存条数
+    private int maxEntries;   // 最大缓存条数
+    private long hits;        // 命中次数
+    private long misses;      // 未命中次数
+    private long evictions;   // 超出容量淘汰的条数
+    private long expirations; // 过期淘汰的条数
+    private double hitRate;   // 命中率
+}
@@ -0,0 +1,67 @@
+package org.example.auto_web.pojo.other;
+
+import org.example.auto_web.pojo.enums.LogLevel;
+import org.slf4j.helpers.MessageFormatter;
+
+/**
+ * 结构化日志事件
+ * 执行线程只记录模板和参数，消息文本在第一次读取时（日志消费线程中）才拼接
+ */
+public class LogEvent {
+    private final String jobId;       // 任务ID，null表示系统消息
+    private final long seq;           // 任务内的序号，从1开始递增
+    private final int stepIndex;      // 产生日志时正在执行的步骤序号，0表示不在步骤中
+    private final LogLevel level;
+    private final long timestamp;
+    private final String template;
+    private final Object[] args;
+    private String message;
+
+    public LogEvent(String jobId, long seq, int stepIndex, LogLevel level, String template, Object[] args) {
+        this.jobId = jobId;
+        this.seq = seq;
+        this.stepIndex = stepIndex;
+        this.level = level;
+        this.timestamp = System.currentTimeMillis();
+        this.template = template;
+        this.args = args;
+    }
+
+    /**
+     * 不属于任何任务的系统消息
+     */
+    public static LogEvent system(LogLevel level, String message) {
+        return new LogEvent(null, 0, 0, level, message, null);
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public int getStepIndex() {
+        return stepIndex;
+    }
+
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getMessage() {
+        String result = message;
+        if (result == null) {
+            result = args == null || args.length == 0
+                    ? template
+                    : MessageFormatter.arrayFormat(template, args).getMessage();
+            message = result;
+        }
+        return result;
+    }
+}
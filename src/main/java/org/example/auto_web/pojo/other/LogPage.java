@@ -0,0 +1,21 @@
+package org.example.auto_web.pojo.other;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 任务日志分页结果，按序号升序
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LogPage {
+    private String jobId;
+    private List<LogEvent> events;
+    private Long oldestSeq;   // 缓冲区中仍保留的最早序号，更早的日志已被淘汰
+    private Long nextSeq;     // 下一页的起始序号
+    private Boolean hasMore;  // 缓冲区中是否还有更多日志
+}
@@ -0,0 +1,29 @@
+package org.example.auto_web.service;
+
+import org.example.auto_web.pojo.dto.ExecuteRequest;
+import org.example.auto_web.pojo.other.AutomationJob;
+
+import java.util.List;
+
+public interface AutomationJobService {
+
+    /**
+     * 提交异步任务，队列已满时抛出RejectedExecutionException
+     */
+    AutomationJob submit(ExecuteRequest request);
+
+    /**
+     * 查询任务，不存在时返回null
+     */
+    AutomationJob getJob(String jobId);
+
+    /**
+     * 取消排队中或执行中的任务
+     */
+    boolean cancel(String jobId);
+
+    /**
+     * 获取所有保留中的任务
+     */
+    List<AutomationJob> listJobs();
+}
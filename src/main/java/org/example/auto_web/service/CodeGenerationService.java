@@ -1,7 +1,11 @@
 package org.example.auto_web.service;
 
+import org.example.auto_web.pojo.dto.CodeBundleRequest;
 import org.example.auto_web.pojo.dto.CodeGenerationRequest;
+import org.example.auto_web.pojo.other.CacheStats;
 import org.example.auto_web.pojo.other.CodeFileResponse;
+import org.example.auto_web.service.codegen.CodeBundle;
+import org.example.auto_web.service.codegen.CodeFileStream;
 
 import java.util.List;
 
@@ -12,6 +16,16 @@ public interface CodeGenerationService {
      */
     CodeFileResponse generateCodeFile(CodeGenerationRequest request);
 
+    /**
+     * 验证请求并准备代码文件，代码在写入输出流时才生成（命中缓存时直接输出）
+     */
+    CodeFileStream openCodeFile(CodeGenerationRequest request);
+
+    /**
+     * 按同一组步骤并行生成多种语言的代码，打包为ZIP（含 manifest.json）
+     */
+    CodeBundle openBundle(CodeBundleRequest request);
+
     /**
      * 验证代码生成请求
      */
@@ -21,4 +35,9 @@ public interface CodeGenerationService {
      * 获取支持的语言列表
      */
     List<String> getSupportedLanguages();
+
+    /**
+     * 获取生成结果缓存的命中统计
+     */
+    CacheStats getCacheStats();
 }
@@ -1,14 +1,23 @@
 package org.example.auto_web.service;
 
-import java.util.List;
-import java.util.Map;
+import org.example.auto_web.service.codegen.CodeWriter;
+import org.example.auto_web.service.codegen.GenerationPlan;
 
 public interface CodeGenerationStrategy {
 
     /**
-     * 生成代码
+     * 根据中间表示生成代码，逐段写入输出目标
      */
-    String generateCode(List<Map<String, Object>> steps, String initialUrl, String className, Boolean includeComments);
+    void writeCode(GenerationPlan plan, CodeWriter out);
+
+    /**
+     * 生成完整代码文本
+     */
+    default String generateCode(GenerationPlan plan) {
+        StringBuilder code = new StringBuilder();
+        writeCode(plan, new CodeWriter(code));
+        return code.toString();
+    }
 
     /**
      * 获取支持的语言
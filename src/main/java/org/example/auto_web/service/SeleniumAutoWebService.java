@@ -2,10 +2,13 @@ package org.example.auto_web.service;
 
 import org.example.auto_web.pojo.dto.CookieExportRequest;
 import org.example.auto_web.pojo.dto.ExecuteRequest;
+import org.example.auto_web.pojo.other.AutomationJob;
 
 import java.util.Map;
 
 public interface SeleniumAutoWebService {
     void executeOperations(ExecuteRequest request);
+    // 以指定任务身份执行，执行结束后将结果写回任务
+    void executeOperations(ExecuteRequest request, AutomationJob job);
     String exportCookie(CookieExportRequest request);
 }
\ No newline at end of file
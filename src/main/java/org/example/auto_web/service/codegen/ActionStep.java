@@ -0,0 +1,15 @@
+package org.example.auto_web.service.codegen;
+
+import org.example.auto_web.pojo.enums.OperationType;
+
+import java.util.Map;
+
+/**
+ * 单个操作：点击、输入、获取文本、等待、跳转、弹窗、Cookie等
+ *
+ * @param waitMillis WAIT 步骤的等待时间：parameters.milliseconds、waitBeforeMs、waitAfterMs 依次取值，默认1000
+ */
+public record ActionStep(OperationType type, String remark, long waitBeforeMs, long waitAfterMs,
+                         Map<String, Object> parameters, String xpath, String value, String filePath,
+                         Boolean acceptAlert, String alertText, long waitMillis) implements StepNode {
+}
@@ -0,0 +1,28 @@
+package org.example.auto_web.service.codegen;
+
+import org.example.auto_web.pojo.enums.OperationType;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 带子步骤的循环：LOOP_TASK、DYNAMIC_LOOP，循环变量从0开始
+ *
+ * @param variable 循环变量名，null表示使用各语言的默认名
+ * @param workers  LOOP_TASK 按迭代分区并行执行的浏览器数，1表示顺序执行；只有最外层、且子步骤不写文件的循环任务可以并行
+ */
+public record BlockLoopStep(OperationType type, String remark, long waitBeforeMs, long waitAfterMs,
+                            Map<String, Object> parameters, String variable, int iterations, int increment,
+                            List<StepNode> subSteps, int workers) implements StepNode {
+
+    public String variableOr(String defaultName) {
+        return variable != null ? variable : defaultName;
+    }
+
+    /**
+     * 是否由多个浏览器并行执行
+     */
+    public boolean parallel() {
+        return workers > 1;
+    }
+}
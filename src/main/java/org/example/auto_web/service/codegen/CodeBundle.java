@@ -0,0 +1,90 @@
+package org.example.auto_web.service.codegen;
+
+import org.example.auto_web.pojo.other.CodeFileResponse;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 多语言代码压缩包
+ * 各语言的代码由生成线程并行生成，写出时按语言顺序依次放入ZIP，
+ * 最后写入 manifest.json 记录每个文件的语言、文件名和大小
+ */
+public class CodeBundle {
+
+    public static final String MANIFEST_NAME = "manifest.json";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String fileName;
+    private final GenerationPlan plan;
+    private final List<String> languages;
+    private final List<CompletableFuture<CodeFileResponse>> files;
+
+    /**
+     * @param files 与 languages 一一对应的生成结果
+     */
+    public CodeBundle(String fileName, GenerationPlan plan, List<String> languages,
+                      List<CompletableFuture<CodeFileResponse>> files) {
+        this.fileName = fileName;
+        this.plan = plan;
+        this.languages = languages;
+        this.files = files;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public List<String> getLanguages() {
+        return languages;
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(outputStream, StandardCharsets.UTF_8);
+        List<Map<String, Object>> entries = new ArrayList<>(files.size());
+        for (CompletableFuture<CodeFileResponse> future : files) {
+            CodeFileResponse file = await(future);
+            zip.putNextEntry(new ZipEntry(file.getFileName()));
+            zip.write(file.getFileContent().getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("language", file.getLanguage());
+            entry.put("fileName", file.getFileName());
+            entry.put("fileSize", file.getFileSize());
+            entries.add(entry);
+        }
+
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("className", plan.className());
+        manifest.put("initialUrl", plan.initialUrl());
+        manifest.put("generatedAt", plan.generatedAt());
+        manifest.put("stepCount", plan.steps().size());
+        manifest.put("files", entries);
+        zip.putNextEntry(new ZipEntry(MANIFEST_NAME));
+        zip.write(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(manifest));
+        zip.closeEntry();
+        zip.finish();
+        zip.flush();
+    }
+
+    private static CodeFileResponse await(CompletableFuture<CodeFileResponse> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new IOException("生成代码失败: " + cause.getMessage(), cause);
+        }
+    }
+}
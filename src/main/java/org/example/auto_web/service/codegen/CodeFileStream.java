@@ -0,0 +1,82 @@
+package org.example.auto_web.service.codegen;
+
+import org.example.auto_web.pojo.other.CodeFileResponse;
+import org.example.auto_web.service.CodeGenerationStrategy;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 待输出的代码文件
+ * 命中缓存时直接写出缓存内容；否则生成时直接以UTF-8写入输出流，
+ * 不超过缓存上限的结果在写出的同时放入缓存。
+ * 需要先知道文件大小时，不超过上限的结果只生成一次，保存在内存中再写出
+ */
+public class CodeFileStream {
+
+    private final String fileName;
+    private final String language;
+    private final GenerationPlan plan;
+    private final CodeGenerationStrategy strategy;
+    private final CodeGenerationCache cache;
+    private final String cacheKey;
+    private CodeFileResponse cached;
+    private Long fileSize;
+
+    public CodeFileStream(String fileName, String language, GenerationPlan plan, CodeGenerationStrategy strategy,
+                   CodeGenerationCache cache, String cacheKey, CodeFileResponse cached) {
+        this.fileName = fileName;
+        this.language = language;
+        this.plan = plan;
+        this.strategy = strategy;
+        this.cache = cache;
+        this.cacheKey = cacheKey;
+        this.cached = cached;
+        this.fileSize = cached != null ? cached.getFileSize() : null;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    /**
+     * 文件的UTF-8字节数；未命中缓存时先在内存中生成，结果放入缓存并用于之后的写出，
+     * 超过单条缓存上限的结果只统计大小，写出时再生成一遍
+     */
+    public long getFileSize() {
+        if (fileSize == null) {
+            CodeWriter code = new CodeWriter((Appendable) null, cache.getMaxEntryChars());
+            strategy.writeCode(plan, code);
+            fileSize = code.getByteCount();
+            String content = code.getCapturedContent();
+            if (content != null) {
+                cached = new CodeFileResponse(fileName, content, language, fileSize);
+                if (cacheKey != null) {
+                    cache.put(cacheKey, cached);
+                }
+            }
+        }
+        return fileSize;
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        OutputStream out = new BufferedOutputStream(outputStream, 8192);
+        if (cached != null) {
+            out.write(cached.getFileContent().getBytes(StandardCharsets.UTF_8));
+        } else {
+            CodeWriter code = new CodeWriter(out, cacheKey != null ? cache.getMaxEntryChars() : 0);
+            strategy.writeCode(plan, code);
+            String content = code.getCapturedContent();
+            if (content != null) {
+                cache.put(cacheKey, new CodeFileResponse(fileName, content, language, code.getByteCount()));
+            }
+        }
+        out.flush();
+    }
+}
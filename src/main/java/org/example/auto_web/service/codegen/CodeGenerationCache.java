@@ -0,0 +1,244 @@
+package org.example.auto_web.service.codegen;
+
+import org.example.auto_web.config.SeleniumConfig;
+import org.example.auto_web.pojo.dto.CodeGenerationRequest;
+import org.example.auto_web.pojo.other.CacheStats;
+import org.example.auto_web.pojo.other.CodeFileResponse;
+import org.example.auto_web.pojo.other.OperationStep;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 生成代码的结果缓存
+ * 以请求内容（语言、步骤、初始URL、类名、是否包含注释）的规范化SHA-256为键，
+ * 相同脚本的重复预览和下载直接返回内存中的结果；按条数（LRU）和存活时间淘汰
+ */
+@Component
+public class CodeGenerationCache {
+
+    @Autowired
+    private SeleniumConfig seleniumConfig;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    private static final class Entry {
+        private final String fileName;
+        private final String fileContent;
+        private final long fileSize;
+        private final long createdAt;
+
+        private Entry(CodeFileResponse response, long createdAt) {
+            this.fileName = response.getFileName();
+            this.fileContent = response.getFileContent();
+            this.fileSize = response.getFileSize();
+            this.createdAt = createdAt;
+        }
+
+        // 每次返回新对象，调用方修改返回值不会影响缓存；语言沿用本次请求的写法
+        private CodeFileResponse toResponse(String language) {
+            return new CodeFileResponse(fileName, fileContent, language, fileSize);
+        }
+    }
+
+    /**
+     * 命中时返回缓存结果，否则生成并放入缓存；生成失败的结果不缓存
+     */
+    public CodeFileResponse get(CodeGenerationRequest request, Supplier<CodeFileResponse> generator) {
+        if (!isEnabled()) {
+            return generator.get();
+        }
+        String key = keyOf(request);
+        CodeFileResponse cached = getIfPresent(key, request.getLanguage());
+        if (cached != null) {
+            return cached;
+        }
+        // 在锁外生成，同一请求并发未命中时可能重复生成，结果相同
+        CodeFileResponse response = generator.get();
+        put(key, response);
+        return response;
+    }
+
+    public boolean isEnabled() {
+        SeleniumConfig.CodeCache config = seleniumConfig.getCodeCache();
+        return config.isEnabled() && config.getMaxEntries() > 0;
+    }
+
+    /**
+     * 单条缓存内容的最大字符数，更大的结果只流式输出不缓存
+     */
+    public int getMaxEntryChars() {
+        return (int) Math.min(Integer.MAX_VALUE, seleniumConfig.getCodeCache().getMaxEntryKb() * 1024L);
+    }
+
+    /**
+     * 查找缓存并计入命中/未命中
+     *
+     * @param language 本次请求的语言写法，用于返回结果
+     */
+    public CodeFileResponse getIfPresent(String key, String language) {
+        long now = System.currentTimeMillis();
+        long ttlMillis = TimeUnit.MINUTES.toMillis(seleniumConfig.getCodeCache().getTtlMinutes());
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (ttlMillis <= 0 || now - entry.createdAt < ttlMillis) {
+                    hits.increment();
+                    return entry.toResponse(language);
+                }
+                entries.remove(key);
+                expirations.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String key, CodeFileResponse response) {
+        SeleniumConfig.CodeCache config = seleniumConfig.getCodeCache();
+        if (response.getFileContent().length() > getMaxEntryChars()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            entries.put(key, new Entry(response, now));
+            evictExpired(now, TimeUnit.MINUTES.toMillis(config.getTtlMinutes()));
+            while (entries.size() > config.getMaxEntries()) {
+                Iterator<String> eldest = entries.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    public CacheStats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        return new CacheStats(size, seleniumConfig.getCodeCache().getMaxEntries(), hitCount, missCount,
+                evictions.sum(), expirations.sum(), total == 0 ? 0 : (double) hitCount / total);
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private void evictExpired(long now, long ttlMillis) {
+        if (ttlMillis <= 0) {
+            return;
+        }
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().createdAt >= ttlMillis) {
+                iterator.remove();
+                expirations.increment();
+            }
+        }
+    }
+
+    /**
+     * 计算请求的规范化哈希：每个字段带标签和长度写入摘要，参数按键排序，
+     * 语言不区分大小写；内容相同的请求得到相同的键
+     */
+    public static String keyOf(CodeGenerationRequest request) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("不支持SHA-256", e);
+        }
+        update(digest, "language", request.getLanguage() != null ? request.getLanguage().toLowerCase() : null);
+        update(digest, "initialUrl", request.getInitialUrl());
+        update(digest, "className", request.getClassName());
+        update(digest, "includeComments", request.getIncludeComments());
+        update(digest, "batchExtraction", request.getBatchExtraction());
+        update(digest, "parallelWorkers", request.getParallelWorkers());
+        updateSteps(digest, request.getSteps());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void updateSteps(MessageDigest digest, List<OperationStep> steps) {
+        if (steps == null) {
+            update(digest, "steps", null);
+            return;
+        }
+        update(digest, "steps", steps.size());
+        for (OperationStep step : steps) {
+            update(digest, "type", step.getType() != null ? step.getType().name() : null);
+            update(digest, "xpath", step.getXpath());
+            update(digest, "value", step.getValue());
+            update(digest, "startIndex", step.getStartIndex());
+            update(digest, "endIndex", step.getEndIndex());
+            update(digest, "iterations", step.getIterations());
+            update(digest, "increment", step.getIncrement());
+            update(digest, "waitBeforeMs", step.getWaitBeforeMs());
+            update(digest, "waitAfterMs", step.getWaitAfterMs());
+            update(digest, "remark", step.getRemark());
+            update(digest, "acceptAlert", step.getAcceptAlert());
+            update(digest, "alertText", step.getAlertText());
+            update(digest, "filePath", step.getFilePath());
+            updateValue(digest, "parameters", step.getParameters());
+            updateSteps(digest, step.getSubSteps());
+        }
+    }
+
+    private static void updateValue(MessageDigest digest, String name, Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> sorted.put(String.valueOf(k), v));
+            update(digest, name, "map:" + sorted.size());
+            sorted.forEach((k, v) -> updateValue(digest, k, v));
+        } else if (value instanceof Collection) {
+            Collection<?> items = (Collection<?>) value;
+            update(digest, name, "list:" + items.size());
+            for (Object item : items) {
+                updateValue(digest, "", item);
+            }
+        } else {
+            update(digest, name, value);
+        }
+    }
+
+    private static void update(MessageDigest digest, String name, Object value) {
+        updateString(digest, name);
+        if (value == null) {
+            digest.update((byte) 0);
+        } else {
+            // 类型标签区分 "1" 与 1
+            digest.update((byte) 1);
+            updateString(digest, value.getClass().getSimpleName());
+            updateString(digest, value.toString());
+        }
+    }
+
+    private static void updateString(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length;
+        digest.update(new byte[]{(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length});
+        digest.update(bytes);
+    }
+}
@@ -0,0 +1,200 @@
+package org.example.auto_web.service.codegen;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译的代码模板
+ * 模板文件位于 classpath:codegen/语言.tpl，以 "#@ 名称" 开始一个片段，片段内 {{@名称}} 为生成时填入的内容，
+ * 以 "#@#" 开头的行为注释；加载时拆分为静态片段和填充位置，静态片段只编码一次，输出时直接写入UTF-8字节。
+ * 填充内容中的 indent 为保留名称：提供时输出到片段每个非空行的行首，同一片段可在不同嵌套层级复用
+ */
+public final class CodeTemplate {
+
+    private static final String RESOURCE_PATH = "codegen/";
+    private static final String SECTION_PREFIX = "#@ ";
+    private static final String COMMENT_PREFIX = "#@#";
+    private static final String SLOT_START = "{{@";
+    private static final String SLOT_END = "}}";
+    /**
+     * 缩进的填充名称
+     */
+    public static final String INDENT = "indent";
+    // 片段中非空行的行首位置
+    private static final Object LINE_START = new Object();
+
+    private final String name;
+    private final Map<String, Section> sections;
+
+    private CodeTemplate(String name, Map<String, Section> sections) {
+        this.name = name;
+        this.sections = Collections.unmodifiableMap(sections);
+    }
+
+    /**
+     * 加载并编译 classpath:codegen/名称.tpl
+     */
+    public static CodeTemplate load(String name) {
+        String resource = RESOURCE_PATH + name + ".tpl";
+        try (InputStream in = CodeTemplate.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("代码模板不存在: " + resource);
+            }
+            return parse(name, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取代码模板失败: " + resource, e);
+        }
+    }
+
+    static CodeTemplate parse(String name, String content) {
+        Map<String, Section> sections = new HashMap<>();
+        String sectionName = null;
+        StringBuilder body = new StringBuilder();
+        String[] lines = content.split("\n", -1);
+        // 文件以换行结尾时，最后一个元素为空
+        int count = lines.length > 0 && lines[lines.length - 1].isEmpty() ? lines.length - 1 : lines.length;
+        for (int i = 0; i < count; i++) {
+            String line = lines[i].endsWith("\r") ? lines[i].substring(0, lines[i].length() - 1) : lines[i];
+            if (line.startsWith(COMMENT_PREFIX)) {
+                continue;
+            }
+            if (line.startsWith(SECTION_PREFIX)) {
+                if (sectionName != null) {
+                    sections.put(sectionName, Section.compile(name, sectionName, body.toString()));
+                }
+                sectionName = line.substring(SECTION_PREFIX.length()).trim();
+                if (sections.containsKey(sectionName)) {
+                    throw new IllegalStateException("代码模板 " + name + " 中片段重复: " + sectionName);
+                }
+                body.setLength(0);
+                continue;
+            }
+            if (sectionName == null) {
+                throw new IllegalStateException("代码模板 " + name + " 第 " + (i + 1) + " 行不属于任何片段");
+            }
+            body.append(line).append('\n');
+        }
+        if (sectionName != null) {
+            sections.put(sectionName, Section.compile(name, sectionName, body.toString()));
+        }
+        return new CodeTemplate(name, sections);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean hasSection(String sectionName) {
+        return sections.containsKey(sectionName);
+    }
+
+    public Section section(String sectionName) {
+        Section section = sections.get(sectionName);
+        if (section == null) {
+            throw new IllegalArgumentException("代码模板 " + name + " 中不存在片段: " + sectionName);
+        }
+        return section;
+    }
+
+    /**
+     * 输出不含填充位置的片段
+     */
+    public void write(CodeWriter out, String sectionName) {
+        section(sectionName).write(out, Collections.emptyMap());
+    }
+
+    public void write(CodeWriter out, String sectionName, Map<String, ?> slots) {
+        section(sectionName).write(out, slots);
+    }
+
+    /**
+     * 模板片段：静态文本与填充位置交替排列
+     */
+    public static final class Section {
+
+        private final String template;
+        private final String name;
+        // Fragment 为静态文本，String 为填充位置的名称，LINE_START 为输出缩进的位置
+        private final Object[] parts;
+
+        private Section(String template, String name, Object[] parts) {
+            this.template = template;
+            this.name = name;
+            this.parts = parts;
+        }
+
+        static Section compile(String template, String name, String body) {
+            List<Object> parts = new ArrayList<>();
+            int lineStart = 0;
+            while (lineStart < body.length()) {
+                int lineEnd = body.indexOf('\n', lineStart);
+                lineEnd = lineEnd < 0 ? body.length() : lineEnd + 1;
+                if (body.charAt(lineStart) != '\n') {
+                    parts.add(LINE_START);
+                }
+                compileLine(template, name, body.substring(lineStart, lineEnd), parts);
+                lineStart = lineEnd;
+            }
+            return new Section(template, name, parts.toArray());
+        }
+
+        private static void compileLine(String template, String name, String line, List<Object> parts) {
+            int position = 0;
+            while (position < line.length()) {
+                int start = line.indexOf(SLOT_START, position);
+                if (start < 0) {
+                    parts.add(new Fragment(line.substring(position)));
+                    return;
+                }
+                int end = line.indexOf(SLOT_END, start + SLOT_START.length());
+                if (end < 0) {
+                    throw new IllegalStateException("代码模板 " + template + " 片段 " + name + " 中的填充位置未闭合");
+                }
+                if (start > position) {
+                    parts.add(new Fragment(line.substring(position, start)));
+                }
+                parts.add(line.substring(start + SLOT_START.length(), end).trim());
+                position = end + SLOT_END.length();
+            }
+        }
+
+        public void write(CodeWriter out, Map<String, ?> slots) {
+            Object indent = slots.get(INDENT);
+            for (Object part : parts) {
+                if (part == LINE_START) {
+                    if (indent != null) {
+                        out.append(indent);
+                    }
+                } else if (part instanceof Fragment) {
+                    Fragment fragment = (Fragment) part;
+                    out.appendEncoded(fragment.text, fragment.utf8);
+                } else {
+                    if (!slots.containsKey(part)) {
+                        throw new IllegalStateException("代码模板 " + template + " 片段 " + name + " 缺少内容: " + part);
+                    }
+                    out.append(slots.get(part));
+                }
+            }
+        }
+    }
+
+    /**
+     * 静态文本及其UTF-8编码，加载时编码一次
+     */
+    private static final class Fragment {
+        private final String text;
+        private final byte[] utf8;
+
+        private Fragment(String text) {
+            this.text = text;
+            this.utf8 = text.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
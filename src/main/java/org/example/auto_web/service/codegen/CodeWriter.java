@@ -0,0 +1,147 @@
+package org.example.auto_web.service.codegen;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 生成代码的输出目标
+ * 策略把代码逐段写入这里，可直接写到HTTP响应流，不必先拼出完整程序；
+ * 同时统计UTF-8字节数，并可选地在不超过上限时保留一份副本供缓存使用；
+ * 写入字节流时，模板中预先编码的静态片段直接写出，不再重复编码
+ */
+public final class CodeWriter {
+
+    private final Appendable out;
+    private final OutputStream bytes;
+    private final int captureLimit;
+    private StringBuilder capture;
+    private long byteCount;
+
+    private CodeWriter(Appendable out, OutputStream bytes, int captureLimit) {
+        this.out = out;
+        this.bytes = bytes;
+        this.captureLimit = captureLimit;
+        this.capture = captureLimit > 0 ? new StringBuilder(Math.min(captureLimit, 8192)) : null;
+    }
+
+    /**
+     * @param out          输出目标，null表示只统计字节数
+     * @param captureLimit 保留副本的最大字符数，0表示不保留
+     */
+    public CodeWriter(Appendable out, int captureLimit) {
+        this(out, null, captureLimit);
+    }
+
+    public CodeWriter(Appendable out) {
+        this(out, 0);
+    }
+
+    /**
+     * 以UTF-8写入字节流（调用方负责缓冲和刷新）
+     */
+    public CodeWriter(OutputStream bytes, int captureLimit) {
+        this(null, bytes, captureLimit);
+    }
+
+    public CodeWriter append(CharSequence text) {
+        if (text == null) {
+            text = "null";
+        }
+        try {
+            if (bytes != null) {
+                byte[] encoded = text.toString().getBytes(StandardCharsets.UTF_8);
+                bytes.write(encoded);
+                byteCount += encoded.length;
+            } else {
+                if (out != null) {
+                    out.append(text);
+                }
+                byteCount += utf8Length(text);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        capture(text);
+        return this;
+    }
+
+    public CodeWriter append(char c) {
+        return append(String.valueOf(c));
+    }
+
+    public CodeWriter append(int value) {
+        return append(Integer.toString(value));
+    }
+
+    public CodeWriter append(long value) {
+        return append(Long.toString(value));
+    }
+
+    public CodeWriter append(Object value) {
+        return append(String.valueOf(value));
+    }
+
+    /**
+     * 写入已编码的文本，utf8 必须是 text 的UTF-8编码
+     */
+    CodeWriter appendEncoded(String text, byte[] utf8) {
+        try {
+            if (bytes != null) {
+                bytes.write(utf8);
+            } else if (out != null) {
+                out.append(text);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byteCount += utf8.length;
+        capture(text);
+        return this;
+    }
+
+    private void capture(CharSequence text) {
+        if (capture != null) {
+            if (capture.length() + text.length() <= captureLimit) {
+                capture.append(text);
+            } else {
+                // 超出上限后不再保留副本
+                capture = null;
+            }
+        }
+    }
+
+    /**
+     * 已写入内容的UTF-8字节数
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * 保留的完整副本，超出上限或未开启时为null
+     */
+    public String getCapturedContent() {
+        return capture != null ? capture.toString() : null;
+    }
+
+    static long utf8Length(CharSequence text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                // 代理对整体编码为4字节
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,210 @@
+package org.example.auto_web.service.codegen;
+
+import org.example.auto_web.pojo.dto.CodeGenerationRequest;
+import org.example.auto_web.pojo.enums.OperationType;
+import org.example.auto_web.pojo.other.OperationStep;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 代码生成的中间表示：每个请求构建一次，所有语言的生成策略共用
+ *
+ * @param generatedAt 生成时间，构建时确定，同一计划多次输出的内容一致
+ */
+public record GenerationPlan(String language, String initialUrl, String className, boolean includeComments,
+                             String generatedAt, List<StepNode> steps) {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationPlan.class);
+
+    public static GenerationPlan from(CodeGenerationRequest request) {
+        return new GenerationPlan(
+                request.getLanguage(),
+                request.getInitialUrl(),
+                request.getClassName(),
+                request.getIncludeComments() == null || request.getIncludeComments(),
+                new Date().toString(),
+                toNodes(request.getSteps(), Boolean.TRUE.equals(request.getBatchExtraction()),
+                        request.getParallelWorkers() != null ? request.getParallelWorkers() : 1));
+    }
+
+    /**
+     * 计划中出现的步骤类型（包括循环内的子步骤）
+     */
+    public Set<OperationType> operationTypes() {
+        Set<OperationType> types = EnumSet.noneOf(OperationType.class);
+        collectTypes(steps, types);
+        return types;
+    }
+
+    /**
+     * 是否有步骤设置了操作前/后等待（包括循环内的子步骤）
+     */
+    public boolean hasStepWaits() {
+        return hasStepWaits(steps);
+    }
+
+    /**
+     * 是否有并行执行的循环任务（只会出现在最外层）
+     */
+    public boolean hasParallelLoops() {
+        for (StepNode node : steps) {
+            if (node instanceof BlockLoopStep && ((BlockLoopStep) node).parallel()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void collectTypes(List<StepNode> nodes, Set<OperationType> types) {
+        for (StepNode node : nodes) {
+            types.add(node.type());
+            if (node instanceof BlockLoopStep) {
+                collectTypes(((BlockLoopStep) node).subSteps(), types);
+            }
+        }
+    }
+
+    private static boolean hasStepWaits(List<StepNode> nodes) {
+        for (StepNode node : nodes) {
+            if (node.waitBeforeMs() > 0 || node.waitAfterMs() > 0) {
+                return true;
+            }
+            if (node instanceof BlockLoopStep && hasStepWaits(((BlockLoopStep) node).subSteps())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param workers 循环任务的并行数，子步骤传0表示不允许并行
+     */
+    private static List<StepNode> toNodes(List<OperationStep> steps, boolean batch, int workers) {
+        if (steps == null || steps.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<StepNode> nodes = new ArrayList<>(steps.size());
+        for (OperationStep step : steps) {
+            nodes.add(toNode(step, batch, workers));
+        }
+        return Collections.unmodifiableList(nodes);
+    }
+
+    private static StepNode toNode(OperationStep step, boolean batch, int workers) {
+        long waitBeforeMs = step.getWaitBeforeMs() != null ? step.getWaitBeforeMs() : 0L;
+        long waitAfterMs = step.getWaitAfterMs() != null ? step.getWaitAfterMs() : 0L;
+        Map<String, Object> parameters = step.getParameters() != null
+                ? Collections.unmodifiableMap(new HashMap<>(step.getParameters()))
+                : Collections.emptyMap();
+        int increment = step.getIncrement() != null ? step.getIncrement() : 1;
+
+        switch (step.getType()) {
+            case LOOP_CLICK:
+            case LOOP_INPUT:
+            case LOOP_GET_TEXT:
+                String filePath = step.getFilePath();
+                if (filePath == null && step.getType() == OperationType.LOOP_GET_TEXT) {
+                    filePath = "text_output_" + System.currentTimeMillis() + ".txt";
+                }
+                return new RangeLoopStep(step.getType(), step.getRemark(), waitBeforeMs, waitAfterMs, parameters,
+                        step.getXpath(), step.getValue(), filePath,
+                        step.getStartIndex() != null ? step.getStartIndex() : 1,
+                        step.getEndIndex() != null ? step.getEndIndex() : 1,
+                        increment,
+                        step.getType() == OperationType.LOOP_GET_TEXT && isBatch(parameters, batch));
+            case LOOP_TASK:
+            case DYNAMIC_LOOP:
+                int iterations = step.getIterations() != null ? step.getIterations() : 1;
+                List<StepNode> subSteps = toNodes(step.getSubSteps(), batch, 0);
+                int loopWorkers = step.getType() == OperationType.LOOP_TASK && workers > 0
+                        ? workerCount(parameters, workers, iterations, increment) : 1;
+                if (loopWorkers > 1 && writesFile(subSteps)) {
+                    // 各工作函数只合并控制台输出，写同一个文件会互相覆盖，这种循环任务保持顺序执行
+                    logger.warn("循环任务包含写文件的子步骤，改为顺序执行，并行数: {}, 备注: {}", loopWorkers, step.getRemark());
+                    loopWorkers = 1;
+                }
+                return new BlockLoopStep(step.getType(), step.getRemark(), waitBeforeMs, waitAfterMs, parameters,
+                        step.getValue(),
+                        iterations,
+                        increment,
+                        subSteps,
+                        loopWorkers);
+            default:
+                return new ActionStep(step.getType(), step.getRemark(), waitBeforeMs, waitAfterMs, parameters,
+                        step.getXpath(), step.getValue(), step.getFilePath(),
+                        step.getAcceptAlert(), step.getAlertText(), waitMillis(step, parameters));
+        }
+    }
+
+    /**
+     * 子步骤（包括嵌套循环）中是否有写文件的步骤
+     */
+    private static boolean writesFile(List<StepNode> nodes) {
+        for (StepNode node : nodes) {
+            if (node.type() == OperationType.LOOP_GET_TEXT) {
+                return true;
+            }
+            if (node instanceof BlockLoopStep && writesFile(((BlockLoopStep) node).subSteps())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 步骤参数 batchMode 优先，未设置时使用请求的 batchExtraction
+     */
+    private static boolean isBatch(Map<String, Object> parameters, boolean batch) {
+        Object flag = parameters.get("batchMode");
+        if (flag == null) {
+            return batch;
+        }
+        return flag instanceof Boolean ? (Boolean) flag : Boolean.parseBoolean(flag.toString());
+    }
+
+    /**
+     * 步骤参数 workers 优先，不超过迭代次数；增量不为正时不并行
+     */
+    private static int workerCount(Map<String, Object> parameters, int workers, int iterations, int increment) {
+        Object value = parameters.get("workers");
+        if (value != null) {
+            try {
+                workers = Integer.parseInt(value.toString().trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("参数 workers 必须是整数: " + value);
+            }
+        }
+        if (increment <= 0 || iterations <= 0) {
+            return 1;
+        }
+        int rounds = (iterations + increment - 1) / increment;
+        return Math.max(1, Math.min(workers, rounds));
+    }
+
+    private static long waitMillis(OperationStep step, Map<String, Object> parameters) {
+        Object milliseconds = parameters.get("milliseconds");
+        if (milliseconds != null) {
+            try {
+                return Long.parseLong(milliseconds.toString().trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("参数 milliseconds 必须是整数: " + milliseconds);
+            }
+        }
+        if (step.getWaitBeforeMs() != null) {
+            return step.getWaitBeforeMs();
+        }
+        if (step.getWaitAfterMs() != null) {
+            return step.getWaitAfterMs();
+        }
+        return 1000L;
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.auto_web.service.codegen;
+
+import org.example.auto_web.pojo.enums.OperationType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 生成代码中辅助函数的使用规则
+ * 每种语言声明步骤类型、步骤前后等待、初始导航分别用到哪些辅助函数，以及辅助函数之间的依赖；
+ * 生成时根据中间表示实际出现的内容只输出用到的辅助函数
+ */
+public final class HelperUsage {
+
+    // 模板中的输出顺序
+    private final List<String> order;
+    private final Map<OperationType, List<String>> byType = new EnumMap<>(OperationType.class);
+    // 批量提取模式下代替 byType 的规则
+    private final Map<OperationType, List<String>> batchedByType = new EnumMap<>(OperationType.class);
+    private final Map<String, List<String>> dependencies = new HashMap<>();
+    private final List<String> onStepWait = new ArrayList<>();
+    private final List<String> onInitialUrl = new ArrayList<>();
+
+    public HelperUsage(String... order) {
+        this.order = List.of(order);
+    }
+
+    public HelperUsage use(OperationType type, String... helpers) {
+        byType.computeIfAbsent(type, key -> new ArrayList<>()).addAll(checked(helpers));
+        return this;
+    }
+
+    /**
+     * 步骤为批量提取模式（{@link RangeLoopStep#batch()}）时用到的辅助函数，代替 use 的声明
+     */
+    public HelperUsage useBatched(OperationType type, String... helpers) {
+        batchedByType.computeIfAbsent(type, key -> new ArrayList<>()).addAll(checked(helpers));
+        return this;
+    }
+
+    /**
+     * 步骤设置了操作前/后等待时用到的辅助函数
+     */
+    public HelperUsage onStepWait(String... helpers) {
+        onStepWait.addAll(checked(helpers));
+        return this;
+    }
+
+    /**
+     * 有初始导航时用到的辅助函数
+     */
+    public HelperUsage onInitialUrl(String... helpers) {
+        onInitialUrl.addAll(checked(helpers));
+        return this;
+    }
+
+    public HelperUsage depends(String helper, String... dependsOn) {
+        checked(helper);
+        dependencies.computeIfAbsent(helper, key -> new ArrayList<>()).addAll(checked(dependsOn));
+        return this;
+    }
+
+    /**
+     * 计划中用到的辅助函数（含依赖），按模板顺序排列
+     */
+    public Set<String> resolve(GenerationPlan plan) {
+        Set<String> used = new LinkedHashSet<>();
+        collect(plan.steps(), used);
+        if (plan.hasStepWaits()) {
+            used.addAll(onStepWait);
+        }
+        if (plan.initialUrl() != null && !plan.initialUrl().isEmpty()) {
+            used.addAll(onInitialUrl);
+        }
+        List<String> pending = new ArrayList<>(used);
+        while (!pending.isEmpty()) {
+            for (String dependency : dependencies.getOrDefault(pending.remove(pending.size() - 1), List.of())) {
+                if (used.add(dependency)) {
+                    pending.add(dependency);
+                }
+            }
+        }
+        Set<String> ordered = new LinkedHashSet<>();
+        for (String helper : order) {
+            if (used.contains(helper)) {
+                ordered.add(helper);
+            }
+        }
+        return ordered;
+    }
+
+    private void collect(List<StepNode> nodes, Set<String> used) {
+        for (StepNode node : nodes) {
+            boolean batch = node instanceof RangeLoopStep && ((RangeLoopStep) node).batch()
+                    && batchedByType.containsKey(node.type());
+            used.addAll((batch ? batchedByType : byType).getOrDefault(node.type(), List.of()));
+            if (node instanceof BlockLoopStep) {
+                collect(((BlockLoopStep) node).subSteps(), used);
+            }
+        }
+    }
+
+    private List<String> checked(String... helpers) {
+        for (String helper : helpers) {
+            if (!order.contains(helper)) {
+                throw new IllegalArgumentException("未声明的辅助函数: " + helper);
+            }
+        }
+        return Arrays.asList(helpers);
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.auto_web.service.codegen;
+
+import org.example.auto_web.pojo.enums.OperationType;
+
+import java.util.Map;
+
+/**
+ * 按索引 startIndex..endIndex 遍历：LOOP_CLICK、LOOP_INPUT、LOOP_GET_TEXT
+ *
+ * @param filePath LOOP_GET_TEXT 的输出文件，未指定时为 text_output_时间戳.txt
+ * @param batch    LOOP_GET_TEXT 是否生成一次脚本批量提取的代码
+ */
+public record RangeLoopStep(OperationType type, String remark, long waitBeforeMs, long waitAfterMs,
+                            Map<String, Object> parameters, String xpath, String value, String filePath,
+                            int startIndex, int endIndex, int increment, boolean batch) implements StepNode {
+}
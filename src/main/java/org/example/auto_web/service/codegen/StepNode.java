@@ -0,0 +1,28 @@
+package org.example.auto_web.service.codegen;
+
+import org.example.auto_web.pojo.enums.OperationType;
+
+import java.util.Map;
+
+/**
+ * 代码生成的步骤节点（不可变），默认值在构建时已确定
+ * 单个操作为 {@link ActionStep}，按索引遍历为 {@link RangeLoopStep}，带子步骤的循环为 {@link BlockLoopStep}
+ */
+public sealed interface StepNode permits ActionStep, RangeLoopStep, BlockLoopStep {
+
+    OperationType type();
+
+    String remark();
+
+    /**
+     * 操作前等待（毫秒），0表示不等待
+     */
+    long waitBeforeMs();
+
+    /**
+     * 操作后等待（毫秒），0表示不等待
+     */
+    long waitAfterMs();
+
+    Map<String, Object> parameters();
+}
@@ -0,0 +1,65 @@
+package org.example.auto_web.service.cookie;
+
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一个Cookie文件解析后的内容，按域名分组；创建后不再修改，可被多个任务同时使用
+ */
+public final class CookieJar {
+
+    private final List<StoredCookie> cookies;
+    // 域名（去掉开头的点，小写）-> 该域名下的Cookie
+    private final Map<String, List<StoredCookie>> byDomain;
+    // 解析时文件的修改时间和大小，两者都未变化时不重新读取
+    private final FileTime lastModified;
+    private final long size;
+
+    CookieJar(List<StoredCookie> cookies, FileTime lastModified, long size) {
+        this.cookies = Collections.unmodifiableList(new ArrayList<>(cookies));
+        Map<String, List<StoredCookie>> grouped = new HashMap<>();
+        for (StoredCookie cookie : cookies) {
+            grouped.computeIfAbsent(cookie.domainKey(), key -> new ArrayList<>()).add(cookie);
+        }
+        grouped.replaceAll((domain, list) -> Collections.unmodifiableList(list));
+        this.byDomain = Collections.unmodifiableMap(grouped);
+        this.lastModified = lastModified;
+        this.size = size;
+    }
+
+    boolean isCurrent(FileTime lastModified, long size) {
+        return this.size == size && this.lastModified.equals(lastModified);
+    }
+
+    public List<StoredCookie> getCookies() {
+        return cookies;
+    }
+
+    public int size() {
+        return cookies.size();
+    }
+
+    /**
+     * 当前页面主机名可以设置的Cookie：域名与主机名相同，或是主机名的上级域名
+     * 逐级去掉主机名最左边的一段查找，不必遍历全部Cookie
+     */
+    public List<StoredCookie> forHost(String host) {
+        if (host == null || host.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<StoredCookie> matched = new ArrayList<>();
+        String domain = host.toLowerCase();
+        while (true) {
+            matched.addAll(byDomain.getOrDefault(domain, Collections.emptyList()));
+            int dot = domain.indexOf('.');
+            if (dot < 0) {
+                return matched;
+            }
+            domain = domain.substring(dot + 1);
+        }
+    }
+}
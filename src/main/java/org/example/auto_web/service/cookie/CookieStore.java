@@ -0,0 +1,163 @@
+package org.example.auto_web.service.cookie;
+
+import org.example.auto_web.config.SeleniumConfig;
+import org.openqa.selenium.Cookie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cookie文件存储
+ * 导出时写成紧凑的JSON（字段与原来相同，旧文件仍可导入）并原子替换原文件；
+ * 导入时按文件的修改时间和大小判断是否变化，未变化直接使用内存中已解析、按域名分组的结果
+ */
+@Component
+public class CookieStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CookieStore.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Autowired
+    private SeleniumConfig seleniumConfig;
+
+    // 文件绝对路径 -> 解析结果，按访问顺序淘汰
+    private final Map<Path, CookieJar> jars = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * 读取Cookie文件，文件未变化时不重新读取和解析
+     */
+    public CookieJar load(Path path) throws IOException {
+        Path key = path.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        synchronized (jars) {
+            CookieJar cached = jars.get(key);
+            if (cached != null && cached.isCurrent(attributes.lastModifiedTime(), attributes.size())) {
+                return cached;
+            }
+        }
+        byte[] content = Files.readAllBytes(key);
+        List<Map<String, Object>> entries = OBJECT_MAPPER.readValue(content,
+                OBJECT_MAPPER.getTypeFactory().constructCollectionType(List.class, Map.class));
+        List<StoredCookie> cookies = new ArrayList<>(entries.size());
+        for (Map<String, Object> entry : entries) {
+            StoredCookie cookie = parse(entry);
+            if (cookie != null) {
+                cookies.add(cookie);
+            }
+        }
+        if (cookies.size() < entries.size()) {
+            logger.warn("Cookie文件 {} 中有 {} 条缺少名称或值，已忽略", key, entries.size() - cookies.size());
+        }
+        // 读取期间文件可能被改写，使用读取前的属性，下次加载时会发现变化并重新读取
+        CookieJar jar = new CookieJar(cookies, attributes.lastModifiedTime(), attributes.size());
+        put(key, jar);
+        return jar;
+    }
+
+    /**
+     * 写入Cookie文件：先写临时文件再替换，导入方不会读到写了一半的文件
+     */
+    public CookieJar save(Path path, Collection<Cookie> cookies) throws IOException {
+        Path key = path.toAbsolutePath().normalize();
+        List<StoredCookie> stored = new ArrayList<>(cookies.size());
+        List<Map<String, Object>> entries = new ArrayList<>(cookies.size());
+        for (Cookie cookie : cookies) {
+            StoredCookie storedCookie = StoredCookie.from(cookie);
+            stored.add(storedCookie);
+            entries.add(storedCookie.toFileEntry());
+        }
+        byte[] content = OBJECT_MAPPER.writeValueAsBytes(entries);
+
+        Path directory = key.getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path temp = key.resolveSibling(key.getFileName() + ".tmp");
+        Files.write(temp, content);
+        try {
+            Files.move(temp, key, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, key, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        CookieJar jar = new CookieJar(stored, attributes.lastModifiedTime(), attributes.size());
+        put(key, jar);
+        return jar;
+    }
+
+    private void put(Path key, CookieJar jar) {
+        int maxFiles = seleniumConfig.getCookieCache().getMaxFiles();
+        synchronized (jars) {
+            if (maxFiles <= 0) {
+                jars.clear();
+                return;
+            }
+            jars.put(key, jar);
+            Iterator<Path> eldest = jars.keySet().iterator();
+            while (jars.size() > maxFiles) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    private static StoredCookie parse(Map<String, Object> entry) {
+        Object name = entry.get("name");
+        Object value = entry.get("value");
+        if (name == null || value == null) {
+            return null;
+        }
+        Object domain = entry.get("domain");
+        Object path = entry.get("path");
+        return new StoredCookie(name.toString(), value.toString(),
+                domain != null ? domain.toString() : null,
+                path != null ? path.toString() : "/",
+                parseExpiry(entry.get("expiry")),
+                isTrue(entry.get("secure")),
+                isTrue(entry.get("httpOnly")));
+    }
+
+    /**
+     * 过期时间支持毫秒时间戳和导出时写入的日期字符串
+     */
+    private static Long parseExpiry(Object expiry) {
+        if (expiry == null) {
+            return null;
+        }
+        if (expiry instanceof Number) {
+            return ((Number) expiry).longValue();
+        }
+        String text = expiry.toString().trim();
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            try {
+                return OBJECT_MAPPER.convertValue(text, Date.class).getTime();
+            } catch (RuntimeException ex) {
+                logger.warn("解析Cookie过期时间失败，按会话Cookie处理: {}", text);
+                return null;
+            }
+        }
+    }
+
+    private static boolean isTrue(Object flag) {
+        return flag != null && Boolean.parseBoolean(flag.toString());
+    }
+}
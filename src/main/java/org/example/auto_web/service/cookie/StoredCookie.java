@@ -0,0 +1,82 @@
+package org.example.auto_web.service.cookie;
+
+import org.openqa.selenium.Cookie;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cookie文件中的一条Cookie
+ *
+ * @param expiry 过期时间（毫秒时间戳），null表示会话Cookie
+ */
+public record StoredCookie(String name, String value, String domain, String path, Long expiry,
+                           boolean secure, boolean httpOnly) {
+
+    public static StoredCookie from(Cookie cookie) {
+        return new StoredCookie(cookie.getName(), cookie.getValue(), cookie.getDomain(), cookie.getPath(),
+                cookie.getExpiry() != null ? cookie.getExpiry().getTime() : null,
+                cookie.isSecure(), cookie.isHttpOnly());
+    }
+
+    /**
+     * 去掉开头的点并转为小写，作为按域名分组的键
+     */
+    public String domainKey() {
+        if (domain == null) {
+            return "";
+        }
+        String key = domain.startsWith(".") ? domain.substring(1) : domain;
+        return key.toLowerCase();
+    }
+
+    /**
+     * 文件中的字段，与原来导出的格式相同（生成的脚本直接把这些字段交给 add_cookie）
+     */
+    Map<String, Object> toFileEntry() {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("name", name);
+        entry.put("value", value);
+        entry.put("domain", domain);
+        entry.put("path", path);
+        entry.put("expiry", expiry != null ? new Date(expiry) : null);
+        entry.put("secure", secure);
+        entry.put("httpOnly", httpOnly);
+        return entry;
+    }
+
+    public Cookie toSeleniumCookie() {
+        Cookie.Builder builder = new Cookie.Builder(name, value)
+                .path(path != null ? path : "/")
+                .isSecure(secure)
+                .isHttpOnly(httpOnly);
+        if (domain != null) {
+            builder.domain(domain);
+        }
+        if (expiry != null) {
+            builder.expiresOn(new Date(expiry));
+        }
+        return builder.build();
+    }
+
+    /**
+     * CDP Network.setCookies 的参数，expires 单位为秒
+     */
+    public Map<String, Object> toCdpCookie() {
+        Map<String, Object> cookie = new HashMap<>();
+        cookie.put("name", name);
+        cookie.put("value", value);
+        if (domain != null) {
+            cookie.put("domain", domain);
+        }
+        cookie.put("path", path != null ? path : "/");
+        cookie.put("secure", secure);
+        cookie.put("httpOnly", httpOnly);
+        if (expiry != null) {
+            cookie.put("expires", expiry / 1000.0);
+        }
+        return cookie;
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.auto_web.service.driver;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * 驱动池中的一个ChromeDriver实例，记录创建时间与借用次数
+ */
+public class PooledDriver {
+    private final WebDriver driver;
+    private final long createdAt;
+    private int useCount;
+
+    PooledDriver(WebDriver driver) {
+        this.driver = driver;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    public WebDriver getDriver() {
+        return driver;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getUseCount() {
+        return useCount;
+    }
+
+    void markBorrowed() {
+        useCount++;
+    }
+
+    long getAgeMillis() {
+        return System.currentTimeMillis() - createdAt;
+    }
+}
@@ -0,0 +1,430 @@
+package org.example.auto_web.service.driver;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.auto_web.config.SeleniumConfig;
+import org.example.auto_web.service.execution.AdaptiveWait;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ChromeDriver驱动池
+ * 启用后保持一定数量的预热浏览器，按任务借出，归还时清理状态（Cookie、标签页、Storage），
+ * 超龄、超次数或健康检查失败的驱动会被销毁；未启用时每次借用都新建浏览器
+ */
+@Component
+public class WebDriverPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebDriverPool.class);
+
+    @Autowired
+    private SeleniumConfig seleniumConfig;
+
+    // 空闲驱动（后进先出，优先复用最近使用过的浏览器）
+    private final LinkedBlockingDeque<PooledDriver> idleDrivers = new LinkedBlockingDeque<>();
+    // 当前存活的驱动总数（空闲 + 使用中）
+    private final AtomicInteger totalDrivers = new AtomicInteger();
+
+    private ScheduledExecutorService maintenanceExecutor;
+    private volatile boolean closed;
+
+    @PostConstruct
+    public void init() {
+        if (!isEnabled()) {
+            logger.info("驱动池未启用，每次执行将新建ChromeDriver");
+            return;
+        }
+        maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "webdriver-pool-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, getPoolConfig().getHealthCheckIntervalSeconds());
+        // 启动时异步预热，避免浏览器启动拖慢应用启动
+        maintenanceExecutor.execute(this::ensureMinIdle);
+        maintenanceExecutor.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.SECONDS);
+        logger.info("驱动池已启用，最少空闲: {}, 最大总数: {}", getPoolConfig().getMinIdle(), getPoolConfig().getMaxTotal());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        if (maintenanceExecutor != null) {
+            maintenanceExecutor.shutdownNow();
+        }
+        PooledDriver pooled;
+        while ((pooled = idleDrivers.pollFirst()) != null) {
+            destroy(pooled);
+        }
+        logger.info("驱动池已关闭");
+    }
+
+    public boolean isEnabled() {
+        return getPoolConfig().isEnabled();
+    }
+
+    /**
+     * 借用一个驱动；池中无空闲且已达上限时等待，超时抛出异常
+     */
+    public PooledDriver borrow() throws TimeoutException, InterruptedException {
+        if (!isEnabled()) {
+            PooledDriver pooled = new PooledDriver(createDriver());
+            pooled.markBorrowed();
+            return pooled;
+        }
+
+        long deadline = System.currentTimeMillis() + getPoolConfig().getBorrowTimeoutSeconds() * 1000L;
+        while (true) {
+            if (closed) {
+                throw new IllegalStateException("驱动池已关闭");
+            }
+            PooledDriver pooled = idleDrivers.pollFirst();
+            if (pooled == null && tryReserveSlot()) {
+                try {
+                    pooled = new PooledDriver(createDriver());
+                } catch (RuntimeException e) {
+                    totalDrivers.decrementAndGet();
+                    throw e;
+                }
+                logger.info("驱动池新建ChromeDriver，当前总数: {}", totalDrivers.get());
+            }
+            if (pooled == null) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new TimeoutException("等待可用浏览器超时，当前总数: " + totalDrivers.get());
+                }
+                // 分段等待：驱动被销毁时不会放回空闲队列，需要重新尝试新建
+                pooled = idleDrivers.pollFirst(Math.min(remaining, 500), TimeUnit.MILLISECONDS);
+                if (pooled == null) {
+                    continue;
+                }
+            }
+            if (isExpired(pooled) || !isHealthy(pooled)) {
+                destroy(pooled);
+                continue;
+            }
+            pooled.markBorrowed();
+            return pooled;
+        }
+    }
+
+    /**
+     * 归还驱动：清理浏览器状态后放回空闲队列，不再适合复用的驱动直接销毁
+     *
+     * @param visitedOrigins 任务期间记录的来源（如已关闭标签页中访问过的页面），与仍打开标签页的历史一起逐个清理存储
+     */
+    public void release(PooledDriver pooled, Set<String> visitedOrigins) {
+        if (pooled == null) {
+            return;
+        }
+        if (!isEnabled()) {
+            destroy(pooled);
+            return;
+        }
+        if (closed || isExpired(pooled) || !resetState(pooled, visitedOrigins)) {
+            destroy(pooled);
+            ensureMinIdleAsync();
+            return;
+        }
+        idleDrivers.offerFirst(pooled);
+    }
+
+    /**
+     * 直接销毁驱动（不放回池中）
+     */
+    public void invalidate(PooledDriver pooled) {
+        if (pooled == null) {
+            return;
+        }
+        destroy(pooled);
+        ensureMinIdleAsync();
+    }
+
+    /**
+     * 从池中移出驱动但不关闭浏览器（执行后保留窗口供查看），空出的名额可新建驱动
+     */
+    public void detach(PooledDriver pooled) {
+        if (pooled == null) {
+            return;
+        }
+        if (isEnabled()) {
+            totalDrivers.decrementAndGet();
+            ensureMinIdleAsync();
+        }
+    }
+
+    public int getIdleCount() {
+        return idleDrivers.size();
+    }
+
+    public int getTotalCount() {
+        return totalDrivers.get();
+    }
+
+    /**
+     * 创建WebDriver实例
+     */
+    public WebDriver createDriver() {
+        ChromeOptions options = new ChromeOptions();
+        if (seleniumConfig.getChrome().isHeadlessMode()) {
+            options.addArguments("--headless");
+            options.addArguments("--disable-gpu");
+            options.addArguments("--no-sandbox");
+        }
+        options.addArguments("--disable-blink-features=AutomationControlled");
+        options.addArguments("--disable-extensions");
+        options.addArguments("--start-maximized");
+        options.setExperimentalOption("excludeSwitches", new String[]{"enable-automation"});
+
+        // 每个驱动使用独立的ChromeDriverService，不再修改全局的 webdriver.chrome.driver 系统属性
+        ChromeDriverService.Builder serviceBuilder = new ChromeDriverService.Builder().usingAnyFreePort();
+        String driverPath = seleniumConfig.getChrome().getDriverPath();
+        if (driverPath != null && !driverPath.isEmpty()) {
+            serviceBuilder.usingDriverExecutable(new File(driverPath));
+        }
+
+        logger.info("创建ChromeDriver实例，无头模式: {}", seleniumConfig.getChrome().isHeadlessMode());
+        ChromeDriver driver = new ChromeDriver(serviceBuilder.build(), options);
+        // 注入请求与DOM变化跟踪脚本，供自适应等待判断页面是否稳定
+        AdaptiveWait.installTracker(driver);
+        return driver;
+    }
+
+    /**
+     * 定期维护：淘汰超龄或不健康的空闲驱动，并补足最少空闲数
+     */
+    private void maintain() {
+        try {
+            List<PooledDriver> checked = new ArrayList<>();
+            PooledDriver pooled;
+            while ((pooled = idleDrivers.pollLast()) != null) {
+                if (isExpired(pooled) || !isHealthy(pooled)) {
+                    destroy(pooled);
+                } else {
+                    checked.add(pooled);
+                }
+            }
+            for (PooledDriver healthy : checked) {
+                idleDrivers.offerFirst(healthy);
+            }
+            ensureMinIdle();
+        } catch (Exception e) {
+            logger.warn("驱动池维护失败: {}", e.getMessage());
+        }
+    }
+
+    private void ensureMinIdleAsync() {
+        if (maintenanceExecutor != null && !closed) {
+            maintenanceExecutor.execute(this::ensureMinIdle);
+        }
+    }
+
+    private void ensureMinIdle() {
+        while (!closed && idleDrivers.size() < getPoolConfig().getMinIdle() && tryReserveSlot()) {
+            try {
+                idleDrivers.offerLast(new PooledDriver(createDriver()));
+                logger.info("驱动池预热ChromeDriver完成，空闲: {}, 总数: {}", idleDrivers.size(), totalDrivers.get());
+            } catch (Exception e) {
+                totalDrivers.decrementAndGet();
+                logger.warn("驱动池预热ChromeDriver失败: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private boolean tryReserveSlot() {
+        int max = Math.max(1, getPoolConfig().getMaxTotal());
+        while (true) {
+            int current = totalDrivers.get();
+            if (current >= max) {
+                return false;
+            }
+            if (totalDrivers.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean isExpired(PooledDriver pooled) {
+        SeleniumConfig.Pool config = getPoolConfig();
+        if (config.getMaxAgeMinutes() > 0 && pooled.getAgeMillis() > config.getMaxAgeMinutes() * 60_000L) {
+            return true;
+        }
+        return config.getMaxUsesPerDriver() > 0 && pooled.getUseCount() >= config.getMaxUsesPerDriver();
+    }
+
+    private boolean isHealthy(PooledDriver pooled) {
+        try {
+            pooled.getDriver().getWindowHandle();
+            return true;
+        } catch (Exception e) {
+            logger.warn("ChromeDriver健康检查失败: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 记录当前标签页访问过的来源（导航历史中的每个页面），关闭标签页前调用，历史随标签页关闭而丢失
+     */
+    public static void collectOrigins(WebDriver driver, Set<String> origins) {
+        if (!(driver instanceof ChromeDriver)) {
+            return;
+        }
+        try {
+            Map<String, Object> history = ((ChromeDriver) driver).executeCdpCommand("Page.getNavigationHistory", Map.of());
+            Object entries = history.get("entries");
+            if (entries instanceof List) {
+                for (Object entry : (List<?>) entries) {
+                    if (entry instanceof Map) {
+                        addOrigin(origins, ((Map<?, ?>) entry).get("url"));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.debug("读取导航历史失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 清理浏览器状态：关闭多余标签页、清空Storage和Cookie、回到空白页
+     */
+    private boolean resetState(PooledDriver pooled, Set<String> visitedOrigins) {
+        WebDriver driver = pooled.getDriver();
+        try {
+            Set<String> origins = new LinkedHashSet<>(visitedOrigins != null ? visitedOrigins : Collections.emptySet());
+            Set<String> handles = driver.getWindowHandles();
+            String keepHandle = handles.iterator().next();
+            for (String handle : handles) {
+                driver.switchTo().window(handle);
+                collectOrigins(driver, origins);
+                clearStorage(driver);
+                if (!handle.equals(keepHandle)) {
+                    driver.close();
+                }
+            }
+            driver.switchTo().window(keepHandle);
+            driver.switchTo().defaultContent();
+            collectCookieOrigins(driver, origins);
+            clearAllCookies(driver);
+            clearOriginStorage(driver, origins);
+            driver.get("about:blank");
+            return true;
+        } catch (Exception e) {
+            logger.warn("清理ChromeDriver状态失败，将销毁该驱动: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 清理当前标签页的Storage；sessionStorage属于标签页，只能逐个页面清理
+     */
+    private void clearStorage(WebDriver driver) {
+        try {
+            ((JavascriptExecutor) driver).executeScript(
+                    "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+        } catch (Exception e) {
+            logger.debug("清理Storage失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 逐个清理任务访问过的来源的持久化存储（localStorage、IndexedDB、缓存等）；
+     * Storage.clearDataForOrigin 每次只接受一个来源，不支持通配
+     */
+    private void clearOriginStorage(WebDriver driver, Set<String> origins) {
+        if (!(driver instanceof ChromeDriver)) {
+            return;
+        }
+        for (String origin : origins) {
+            ((ChromeDriver) driver).executeCdpCommand("Storage.clearDataForOrigin",
+                    Map.of("origin", origin, "storageTypes", "all"));
+        }
+        logger.debug("已清理 {} 个来源的存储", origins.size());
+    }
+
+    /**
+     * 设置过Cookie的域名也视为访问过的来源（可能来自已关闭的标签页或跨域iframe）
+     */
+    private void collectCookieOrigins(WebDriver driver, Set<String> origins) {
+        if (!(driver instanceof ChromeDriver)) {
+            return;
+        }
+        Map<String, Object> result = ((ChromeDriver) driver).executeCdpCommand("Network.getAllCookies", Map.of());
+        Object cookies = result.get("cookies");
+        if (!(cookies instanceof List)) {
+            return;
+        }
+        for (Object cookie : (List<?>) cookies) {
+            if (cookie instanceof Map && ((Map<?, ?>) cookie).get("domain") != null) {
+                String domain = ((Map<?, ?>) cookie).get("domain").toString();
+                String host = domain.startsWith(".") ? domain.substring(1) : domain;
+                origins.add("https://" + host);
+                origins.add("http://" + host);
+            }
+        }
+    }
+
+    private static void addOrigin(Set<String> origins, Object url) {
+        if (url == null) {
+            return;
+        }
+        try {
+            URI uri = URI.create(url.toString());
+            String scheme = uri.getScheme();
+            // about:blank、data:、chrome: 等页面没有可清理的来源
+            if (uri.getHost() == null || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+                return;
+            }
+            origins.add(scheme.toLowerCase() + "://" + uri.getHost().toLowerCase()
+                    + (uri.getPort() != -1 ? ":" + uri.getPort() : ""));
+        } catch (IllegalArgumentException e) {
+            logger.debug("无法解析页面地址: {}", url);
+        }
+    }
+
+    private void clearAllCookies(WebDriver driver) {
+        if (driver instanceof ChromeDriver) {
+            // deleteAllCookies只能删除当前域名的Cookie，CDP可以一次清空整个浏览器
+            ((ChromeDriver) driver).executeCdpCommand("Network.clearBrowserCookies", Map.of());
+        } else {
+            driver.manage().deleteAllCookies();
+        }
+    }
+
+    private void destroy(PooledDriver pooled) {
+        if (isEnabled()) {
+            totalDrivers.decrementAndGet();
+        }
+        try {
+            pooled.getDriver().quit();
+        } catch (Exception e) {
+            logger.warn("关闭ChromeDriver失败: {}", e.getMessage());
+        }
+    }
+
+    private SeleniumConfig.Pool getPoolConfig() {
+        return seleniumConfig.getPool();
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.auto_web.service.execution;
+
+import org.example.auto_web.config.SeleniumConfig;
+import org.example.auto_web.pojo.enums.WaitMode;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.UnhandledAlertException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 自适应等待
+ * 操作后轮询页面状态（文档加载、进行中的XHR/fetch请求数、最后一次DOM变化时间），
+ * 页面稳定后立即返回，代替固定的 Thread.sleep；超时后不报错，继续执行后续步骤。
+ * 操作触发跳转时（beforeunload/pagehide 已触发）旧文档不算稳定，等新文档加载
+ */
+public class AdaptiveWait {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveWait.class);
+
+    // 页面内的请求与DOM变化跟踪器，通过CDP在每个新文档加载前注入
+    static final String TRACKER_SCRIPT =
+            "(function() {" +
+            "  if (window.__autoWebTracker) return;" +
+            "  var t = window.__autoWebTracker = { pending: 0, lastNetwork: 0, lastMutation: 0, leaving: false };" +
+            "  var leave = function() { t.leaving = true; };" +
+            "  window.addEventListener('beforeunload', leave);" +
+            "  window.addEventListener('pagehide', leave);" +
+            "  var done = function() { t.pending = Math.max(0, t.pending - 1); t.lastNetwork = Date.now(); };" +
+            "  var send = XMLHttpRequest.prototype.send;" +
+            "  XMLHttpRequest.prototype.send = function() {" +
+            "    t.pending++; t.lastNetwork = Date.now();" +
+            "    this.addEventListener('loadend', done);" +
+            "    return send.apply(this, arguments);" +
+            "  };" +
+            "  if (window.fetch) {" +
+            "    var fetch = window.fetch;" +
+            "    window.fetch = function() {" +
+            "      t.pending++; t.lastNetwork = Date.now();" +
+            "      return fetch.apply(this, arguments).then(function(r) { done(); return r; }, function(e) { done(); throw e; });" +
+            "    };" +
+            "  }" +
+            // 只统计节点和文本变化，动画、计时器频繁修改属性不应视为页面未稳定
+            "  new MutationObserver(function() { t.lastMutation = Date.now(); })" +
+            "    .observe(document, { childList: true, subtree: true, characterData: true });" +
+            "})();";
+
+    // 返回 [readyState, 进行中请求数, 距最后请求的毫秒数, 距最后DOM变化的毫秒数, 是否正在离开当前文档]
+    private static final String STATE_SCRIPT = TRACKER_SCRIPT +
+            "var t = window.__autoWebTracker, now = Date.now();" +
+            "return [document.readyState, t.pending, now - t.lastNetwork, now - t.lastMutation, t.leaving];";
+
+    private final WebDriver driver;
+    private final SeleniumConfig.Timeout config;
+
+    public AdaptiveWait(WebDriver driver, SeleniumConfig.Timeout config) {
+        this.driver = driver;
+        this.config = config;
+    }
+
+    /**
+     * 为浏览器安装跟踪器：之后加载的每个文档在页面脚本执行前都会注入
+     */
+    public static void installTracker(WebDriver driver) {
+        if (!(driver instanceof ChromeDriver)) {
+            return;
+        }
+        try {
+            ((ChromeDriver) driver).executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
+                    Map.of("source", TRACKER_SCRIPT));
+        } catch (Exception e) {
+            // 注入失败时，等待时会在当前页面临时注入
+            logger.warn("注入页面跟踪脚本失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按等待方式等待页面稳定
+     *
+     * @param mode      等待方式，FIXED/NONE 不在这里处理
+     * @param condition CONDITION 方式使用的JS表达式
+     * @return 是否在超时前达到稳定
+     */
+    public boolean settle(WaitMode mode, String condition) throws InterruptedException {
+        if (mode == null || mode == WaitMode.NONE || mode == WaitMode.FIXED) {
+            return true;
+        }
+        long start = System.currentTimeMillis();
+        long deadline = start + config.getSettleTimeoutMs();
+        while (true) {
+            try {
+                if (isSettled(mode, condition)) {
+                    logger.debug("页面已稳定({})，耗时 {}ms", mode, System.currentTimeMillis() - start);
+                    return true;
+                }
+            } catch (UnhandledAlertException | NoSuchWindowException e) {
+                // 出现弹窗或窗口已关闭，交给后续步骤处理
+                return true;
+            } catch (WebDriverException e) {
+                // 页面跳转过程中脚本可能执行失败，继续轮询
+                logger.debug("检查页面状态失败: {}", e.getMessage());
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                logger.debug("等待页面稳定超时({})，继续执行", mode);
+                return false;
+            }
+            Thread.sleep(Math.max(10, config.getSettlePollingMs()));
+        }
+    }
+
+    private boolean isSettled(WaitMode mode, String condition) {
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        if (mode == WaitMode.CONDITION) {
+            return condition == null || Boolean.TRUE.equals(js.executeScript("return !!(" + condition + ");"));
+        }
+        List<?> state = (List<?>) js.executeScript(STATE_SCRIPT);
+        boolean ready = "complete".equals(state.get(0));
+        long pending = ((Number) state.get(1)).longValue();
+        long sinceNetwork = ((Number) state.get(2)).longValue();
+        long sinceMutation = ((Number) state.get(3)).longValue();
+        if (Boolean.TRUE.equals(state.get(4))) {
+            // 点击触发了跳转：旧文档仍是complete且安静，需等新文档替换它
+            return false;
+        }
+        boolean networkIdle = pending == 0 && sinceNetwork >= config.getNetworkIdleMs();
+        boolean domStable = sinceMutation >= config.getDomQuietMs();
+
+        switch (mode) {
+            case DOCUMENT_READY:
+                return ready;
+            case NETWORK_IDLE:
+                return ready && networkIdle;
+            case DOM_STABLE:
+                return domStable;
+            default:
+                return ready && networkIdle && domStable;
+        }
+    }
+}
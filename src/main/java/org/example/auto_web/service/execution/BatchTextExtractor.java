@@ -0,0 +1,101 @@
+package org.example.auto_web.service.execution;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量提取文本
+ * 通过一次 executeScript 在页面内用 document.evaluate 计算全部XPath并返回文本数组，
+ * 代替逐个元素的 查找 + getText 往返；找不到的元素返回null，与内容为空的元素区分开
+ */
+public final class BatchTextExtractor {
+
+    // 单次脚本调用最多计算的XPath数量，避免参数和返回值过大
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String TEXT_FUNCTION =
+            "var textOf = function(node) {" +
+            "  if (!node) return null;" +
+            "  var text = node.innerText !== undefined ? node.innerText : node.textContent;" +
+            "  return text ? text.trim() : '';" +
+            "};";
+
+    // 参数：XPath数组；每个XPath取第一个匹配节点
+    private static final String XPATH_LIST_SCRIPT = TEXT_FUNCTION +
+            "var xpaths = arguments[0], texts = [];" +
+            "for (var i = 0; i < xpaths.length; i++) {" +
+            "  var node = null;" +
+            "  try {" +
+            "    node = document.evaluate(xpaths[i], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;" +
+            "  } catch (e) {}" +
+            "  texts.push(textOf(node));" +
+            "}" +
+            "return texts;";
+
+    // 参数：XPath、起始位置、结束位置、增量（位置从1开始，与XPath下标一致）
+    private static final String NODE_SET_SCRIPT = TEXT_FUNCTION +
+            "var snapshot = document.evaluate(arguments[0], document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);" +
+            "var texts = [];" +
+            "for (var p = arguments[1]; p <= arguments[2]; p += arguments[3]) {" +
+            "  texts.push(textOf(snapshot.snapshotItem(p - 1)));" +
+            "}" +
+            "return texts;";
+
+    private BatchTextExtractor() {
+    }
+
+    /**
+     * 按顺序提取每个XPath第一个匹配元素的文本，找不到元素的位置为null
+     */
+    public static List<String> extract(WebDriver driver, List<String> xpaths) {
+        List<String> texts = new ArrayList<>(xpaths.size());
+        for (int from = 0; from < xpaths.size(); from += CHUNK_SIZE) {
+            List<String> chunk = xpaths.subList(from, Math.min(xpaths.size(), from + CHUNK_SIZE));
+            Object result = ((JavascriptExecutor) driver).executeScript(XPATH_LIST_SCRIPT, chunk);
+            appendTexts(texts, result, chunk.size());
+        }
+        return texts;
+    }
+
+    /**
+     * 将单个XPath作为节点集合计算，按位置 start..end（步长 increment）提取文本，超出节点数的位置为null
+     */
+    public static List<String> extractNodeSet(WebDriver driver, String xpath, int start, int end, int increment) {
+        int expected = countPositions(start, end, increment);
+        if (expected == 0) {
+            return Collections.emptyList();
+        }
+        Object result = ((JavascriptExecutor) driver).executeScript(NODE_SET_SCRIPT, xpath, start, end, increment);
+        List<String> texts = new ArrayList<>(expected);
+        appendTexts(texts, result, expected);
+        return texts;
+    }
+
+    private static int countPositions(int start, int end, int increment) {
+        if (increment <= 0 || start > end) {
+            return 0;
+        }
+        return (end - start) / increment + 1;
+    }
+
+    private static void appendTexts(List<String> target, Object result, int expected) {
+        int added = 0;
+        if (result instanceof List) {
+            for (Object text : (List<?>) result) {
+                if (added == expected) {
+                    break;
+                }
+                target.add(text != null ? text.toString() : null);
+                added++;
+            }
+        }
+        // 返回值缺失时按找不到元素处理，保持行数与索引一致
+        for (; added < expected; added++) {
+            target.add(null);
+        }
+    }
+}
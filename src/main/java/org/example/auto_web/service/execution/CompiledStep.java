@@ -0,0 +1,344 @@
+package org.example.auto_web.service.execution;
+
+import org.example.auto_web.pojo.enums.LogLevel;
+import org.example.auto_web.pojo.enums.OperationType;
+import org.example.auto_web.pojo.enums.WaitMode;
+import org.example.auto_web.pojo.other.OperationStep;
+import org.openqa.selenium.By;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的不可变步骤
+ * 默认值、表达式模板、常量XPath的定位器、常量按键序列和等待时间都在编译期计算完成，
+ * 循环体执行成千上万次时不再重复解析；同一个计划可被多个任务共享
+ */
+public final class CompiledStep {
+
+    private final OperationType type;
+    private final String remark;
+    private final PlaceholderTemplate xpath;
+    private final PlaceholderTemplate value;
+    // XPath不含表达式时预先构建的定位器
+    private final By constantLocator;
+    // 按键值不含表达式时预先解析的按键序列
+    private final KeySequence constantKeys;
+
+    private final Long waitBeforeMs;
+    private final Long waitAfterMs;
+    private final long waitMillis;
+
+    private final int startIndex;
+    private final int endIndex;
+    private final int increment;
+    private final int iterations;
+    // 循环变量名或GET_CURRENT_URL保存的变量名
+    private final String variableName;
+
+    private final String filePath;
+    private final Boolean acceptAlert;
+    private final String alertText;
+    private final Map<String, Object> parameters;
+    private final List<CompiledStep> subSteps;
+    // LOOP_GET_TEXT 批量模式（parameters.batchMode=true）：一次脚本调用提取全部文本
+    private final boolean batchMode;
+    // 操作后的等待方式（parameters.waitMode / parameters.waitCondition）
+    private final WaitMode waitMode;
+    private final String waitCondition;
+    // 元素等待参数覆盖（parameters.timeoutMs / pollingMs / ignoredExceptions），null表示沿用任务默认值
+    private final Long timeoutMs;
+    private final Long pollingMs;
+    private final List<Class<? extends Throwable>> ignoredExceptions;
+    // 执行后是否需要检查窗口变化（可能打开新窗口的步骤，parameters.trackWindows 可覆盖）
+    private final boolean tracksWindows;
+    // 步骤日志级别（parameters.logLevel），null表示沿用任务级别；子步骤继承循环步骤的级别
+    private final LogLevel logLevel;
+    // 循环日志采样间隔（parameters.logEvery），null表示使用配置值
+    private final Integer logEvery;
+    // LOOP_GET_TEXT 文件输出参数（parameters.outputFormat / fsync / flushIntervalMs），null表示使用配置值
+    private final TextOutputWriter.Format outputFormat;
+    private final TextOutputWriter.FsyncPolicy fsyncPolicy;
+    private final Long flushIntervalMs;
+
+    CompiledStep(OperationStep step, List<CompiledStep> subSteps) {
+        this.type = step.getType();
+        this.remark = step.getRemark();
+        this.xpath = PlaceholderTemplate.compile(step.getXpath());
+        this.value = PlaceholderTemplate.compile(step.getValue());
+        this.constantLocator = xpath != null && xpath.isConstant() && isElementLocator(step) ? By.xpath(xpath.getConstantValue()) : null;
+        this.constantKeys = compileKeys(type, value);
+
+        this.waitBeforeMs = step.getWaitBeforeMs();
+        this.waitAfterMs = step.getWaitAfterMs();
+        this.waitMillis = computeWaitMillis(step);
+
+        this.startIndex = step.getStartIndex() != null ? step.getStartIndex() : 1;
+        this.endIndex = step.getEndIndex() != null ? step.getEndIndex() : 1;
+        this.increment = step.getIncrement() != null ? step.getIncrement() : 1;
+        this.iterations = step.getIterations() != null ? step.getIterations() : 1;
+        this.variableName = computeVariableName(type, step.getValue());
+
+        this.filePath = step.getFilePath();
+        this.acceptAlert = step.getAcceptAlert();
+        this.alertText = step.getAlertText();
+        this.parameters = step.getParameters() != null
+                ? Collections.unmodifiableMap(new HashMap<>(step.getParameters()))
+                : Collections.emptyMap();
+        this.subSteps = subSteps != null ? Collections.unmodifiableList(subSteps) : null;
+        this.batchMode = isEnabled(parameters.get("batchMode"));
+        this.waitCondition = parameters.get("waitCondition") != null ? parameters.get("waitCondition").toString() : null;
+        this.waitMode = computeWaitMode(parameters.get("waitMode"), waitCondition);
+        this.timeoutMs = longParameter(parameters, "timeoutMs");
+        this.pollingMs = longParameter(parameters, "pollingMs");
+        this.ignoredExceptions = parameters.containsKey("ignoredExceptions")
+                ? Collections.unmodifiableList(WaitPolicy.parseExceptions(parameters.get("ignoredExceptions")))
+                : null;
+        this.tracksWindows = parameters.containsKey("trackWindows")
+                ? isEnabled(parameters.get("trackWindows"))
+                : mayOpenWindow(type);
+        this.logLevel = parameters.get("logLevel") != null ? LogLevel.parse(parameters.get("logLevel").toString()) : null;
+        Long every = longParameter(parameters, "logEvery");
+        this.logEvery = every != null ? (int) Math.max(1, every) : null;
+        this.outputFormat = isSet(parameters.get("outputFormat"))
+                ? TextOutputWriter.Format.parse(parameters.get("outputFormat").toString()) : null;
+        this.fsyncPolicy = isSet(parameters.get("fsync"))
+                ? TextOutputWriter.FsyncPolicy.parse(parameters.get("fsync").toString()) : null;
+        this.flushIntervalMs = longParameter(parameters, "flushIntervalMs");
+        if (flushIntervalMs != null && flushIntervalMs < 0) {
+            throw new IllegalArgumentException("参数 flushIntervalMs 不能为负数: " + flushIntervalMs);
+        }
+    }
+
+    private static boolean isSet(Object value) {
+        return value != null && !value.toString().trim().isEmpty();
+    }
+
+    private static boolean mayOpenWindow(OperationType type) {
+        switch (type) {
+            case CLICK:
+            case LOOP_CLICK:
+            case PRESS_KEYS:
+            case KEYBOARD_INPUT:
+            case NAVIGATE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static Long longParameter(Map<String, Object> parameters, String name) {
+        Object value = parameters.get(name);
+        if (value == null || value.toString().isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("参数 " + name + " 必须是整数: " + value);
+        }
+    }
+
+    private static WaitMode computeWaitMode(Object mode, String condition) {
+        if (mode != null && !mode.toString().isEmpty()) {
+            try {
+                return WaitMode.valueOf(mode.toString().trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("不支持的等待方式: " + mode);
+            }
+        }
+        return condition != null ? WaitMode.CONDITION : WaitMode.DOCUMENT_READY;
+    }
+
+    private static boolean isEnabled(Object flag) {
+        return flag instanceof Boolean ? (Boolean) flag : flag != null && Boolean.parseBoolean(flag.toString());
+    }
+
+    private static boolean isElementLocator(OperationStep step) {
+        // SWITCH_IFRAME 的 default/parent 是关键字而不是XPath
+        return !(step.getType() == OperationType.SWITCH_IFRAME
+                && ("default".equalsIgnoreCase(step.getXpath()) || "parent".equalsIgnoreCase(step.getXpath())));
+    }
+
+    private static KeySequence compileKeys(OperationType type, PlaceholderTemplate value) {
+        if (value == null || !value.isConstant()) {
+            return null;
+        }
+        if (type == OperationType.PRESS_KEYS) {
+            return KeySequence.parsePressKeys(value.getConstantValue());
+        }
+        if (type == OperationType.KEYBOARD_INPUT) {
+            return KeySequence.parseKeyboardInput(value.getConstantValue());
+        }
+        return null;
+    }
+
+    private static long computeWaitMillis(OperationStep step) {
+        if (step.getParameters() != null && step.getParameters().containsKey("milliseconds")) {
+            return Long.parseLong(step.getParameters().get("milliseconds").toString());
+        } else if (step.getWaitBeforeMs() != null) {
+            return step.getWaitBeforeMs();
+        } else if (step.getWaitAfterMs() != null) {
+            return step.getWaitAfterMs();
+        }
+        return 1000L;
+    }
+
+    private static String computeVariableName(OperationType type, String value) {
+        if (value != null) {
+            return value;
+        }
+        switch (type) {
+            case DYNAMIC_LOOP:
+                return "dynamic_index";
+            case GET_CURRENT_URL:
+                return "current_url";
+            default:
+                return "i";
+        }
+    }
+
+    /**
+     * 获取元素定位器：常量XPath直接复用编译期定位器
+     */
+    public By locator(String resolvedXpath) {
+        return constantLocator != null ? constantLocator : By.xpath(resolvedXpath);
+    }
+
+    /**
+     * 获取按键序列：常量值直接复用编译期解析结果
+     */
+    public KeySequence keys(String resolvedValue) {
+        if (constantKeys != null) {
+            return constantKeys;
+        }
+        return type == OperationType.PRESS_KEYS
+                ? KeySequence.parsePressKeys(resolvedValue)
+                : KeySequence.parseKeyboardInput(resolvedValue);
+    }
+
+    public OperationType getType() {
+        return type;
+    }
+
+    public String getRemark() {
+        return remark;
+    }
+
+    public PlaceholderTemplate getXpath() {
+        return xpath;
+    }
+
+    public PlaceholderTemplate getValue() {
+        return value;
+    }
+
+    public Long getWaitBeforeMs() {
+        return waitBeforeMs;
+    }
+
+    public Long getWaitAfterMs() {
+        return waitAfterMs;
+    }
+
+    public long getWaitMillis() {
+        return waitMillis;
+    }
+
+    public int getStartIndex() {
+        return startIndex;
+    }
+
+    public int getEndIndex() {
+        return endIndex;
+    }
+
+    public int getIncrement() {
+        return increment;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public String getVariableName() {
+        return variableName;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public Boolean getAcceptAlert() {
+        return acceptAlert;
+    }
+
+    public String getAlertText() {
+        return alertText;
+    }
+
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+    public List<CompiledStep> getSubSteps() {
+        return subSteps;
+    }
+
+    public boolean isBatchMode() {
+        return batchMode;
+    }
+
+    public WaitMode getWaitMode() {
+        return waitMode;
+    }
+
+    public String getWaitCondition() {
+        return waitCondition;
+    }
+
+    public boolean isTracksWindows() {
+        return tracksWindows;
+    }
+
+    public LogLevel getLogLevel() {
+        return logLevel;
+    }
+
+    public Integer getLogEvery() {
+        return logEvery;
+    }
+
+    public TextOutputWriter.Format getOutputFormat() {
+        return outputFormat;
+    }
+
+    public TextOutputWriter.FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    public Long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    /**
+     * 是否覆盖了任务默认的元素等待策略
+     */
+    public boolean hasWaitOverride() {
+        return timeoutMs != null || pollingMs != null || ignoredExceptions != null;
+    }
+
+    public Long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public Long getPollingMs() {
+        return pollingMs;
+    }
+
+    public List<Class<? extends Throwable>> getIgnoredExceptions() {
+        return ignoredExceptions;
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.auto_web.service.execution;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 单个任务的执行上下文
+ * 每个任务独占自己的浏览器、变量表、窗口状态和结果列表，只由执行该任务的线程访问，
+ * 因此多个任务可以在同一节点上并行执行而互不干扰
+ */
+public class ExecutionContext {
+    private final String jobId;
+    private final WebDriver driver;
+    private final AdaptiveWait adaptiveWait;
+    private final WaitPolicy waitPolicy;
+    // 任务默认的元素等待（可重复使用），以及覆盖了等待参数的步骤各自的等待
+    private final WebDriverWait defaultWait;
+    private final Map<CompiledStep, WebDriverWait> stepWaits = new IdentityHashMap<>();
+    // 表达式变量（循环索引、GET_CURRENT_URL保存的值等）
+    private final Map<String, Object> variables = new HashMap<>();
+    // 任务产出（获取的文本、URL、输出文件等）
+    private final List<String> results = new ArrayList<>();
+    private final long startedAt = System.currentTimeMillis();
+    // 渲染表达式模板时复用的缓冲区（任务单线程执行，无需同步）
+    private final StringBuilder renderBuffer = new StringBuilder(256);
+    // 已在首次导航前写入浏览器的导入Cookie步骤，执行到这些步骤时不再重复导入
+    private final Set<CompiledStep> preloadedCookieSteps = Collections.newSetFromMap(new IdentityHashMap<>());
+    // 已关闭标签页中访问过的来源，归还驱动池时与仍打开的标签页一起清理存储
+    private final Set<String> visitedOrigins = new LinkedHashSet<>();
+
+    public ExecutionContext(String jobId, WebDriver driver, AdaptiveWait adaptiveWait, WaitPolicy waitPolicy) {
+        this.jobId = jobId;
+        this.driver = driver;
+        this.adaptiveWait = adaptiveWait;
+        this.waitPolicy = waitPolicy;
+        this.defaultWait = waitPolicy.newWait(driver);
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public WebDriver getDriver() {
+        return driver;
+    }
+
+    public AdaptiveWait getAdaptiveWait() {
+        return adaptiveWait;
+    }
+
+    /**
+     * 获取步骤使用的元素等待，同一步骤在循环中重复执行时复用同一个实例
+     */
+    public WebDriverWait elementWait(CompiledStep step) {
+        if (step == null || !step.hasWaitOverride()) {
+            return defaultWait;
+        }
+        return stepWaits.computeIfAbsent(step, s -> waitPolicy
+                .override(s.getTimeoutMs(), s.getPollingMs(), s.getIgnoredExceptions())
+                .newWait(driver));
+    }
+
+    public WaitPolicy getWaitPolicy() {
+        return waitPolicy;
+    }
+
+    public Set<String> getVisitedOrigins() {
+        return visitedOrigins;
+    }
+
+    public Map<String, Object> getVariables() {
+        return variables;
+    }
+
+    public void addResult(String result) {
+        results.add(result);
+    }
+
+    public List<String> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * 获取清空后的模板渲染缓冲区
+     */
+    public StringBuilder renderBuffer() {
+        renderBuffer.setLength(0);
+        return renderBuffer;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public void markCookiesPreloaded(CompiledStep step) {
+        preloadedCookieSteps.add(step);
+    }
+
+    public boolean isCookiesPreloaded(CompiledStep step) {
+        return preloadedCookieSteps.contains(step);
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.auto_web.service.execution;
+
+import jakarta.annotation.PostConstruct;
+import org.example.auto_web.config.SeleniumConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 全局并发执行上限
+ * 未显式配置时按 min(CPU核数, 可用物理内存 / 单浏览器内存) 计算；启用驱动池时不超过驱动池最大总数
+ */
+@Component
+public class ExecutionLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionLimiter.class);
+
+    @Autowired
+    private SeleniumConfig seleniumConfig;
+
+    private Semaphore permits;
+    private int maxConcurrentJobs;
+
+    @PostConstruct
+    public void init() {
+        SeleniumConfig.Execution config = seleniumConfig.getExecution();
+        int configured = config.getMaxConcurrentJobs() > 0
+                ? config.getMaxConcurrentJobs()
+                : computeDefaultLimit(config.getMemoryPerBrowserMb());
+        maxConcurrentJobs = configured;
+        SeleniumConfig.Pool pool = seleniumConfig.getPool();
+        if (pool.isEnabled() && configured > Math.max(1, pool.getMaxTotal())) {
+            // 驱动池最多只有 maxTotal 个浏览器，多出的名额只会在借用浏览器时超时失败，不如在这里排队
+            maxConcurrentJobs = Math.max(1, pool.getMaxTotal());
+            logger.warn("并发执行上限 {} 超过驱动池最大总数，按驱动池限制为 {}", configured, maxConcurrentJobs);
+        }
+        permits = new Semaphore(maxConcurrentJobs, true);
+        logger.info("并发执行上限: {}", maxConcurrentJobs);
+    }
+
+    /**
+     * 获取执行名额，超时抛出异常
+     */
+    public void acquire() throws InterruptedException, TimeoutException {
+        long timeout = seleniumConfig.getExecution().getAcquireTimeoutSeconds();
+        if (!permits.tryAcquire(timeout, TimeUnit.SECONDS)) {
+            throw new TimeoutException("等待执行名额超时，当前并发上限: " + maxConcurrentJobs);
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getMaxConcurrentJobs() {
+        return maxConcurrentJobs;
+    }
+
+    public int getRunningJobs() {
+        return maxConcurrentJobs - permits.availablePermits();
+    }
+
+    private int computeDefaultLimit(long memoryPerBrowserMb) {
+        int cpuLimit = Runtime.getRuntime().availableProcessors();
+        int memoryLimit = Integer.MAX_VALUE;
+        if (memoryPerBrowserMb > 0
+                && ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            // 浏览器是独立进程，按物理内存而不是JVM堆估算
+            long totalMb = os.getTotalMemorySize() / (1024 * 1024);
+            memoryLimit = (int) Math.min(Integer.MAX_VALUE, totalMb * 3 / 4 / memoryPerBrowserMb);
+        }
+        return Math.max(1, Math.min(cpuLimit, memoryLimit));
+    }
+}
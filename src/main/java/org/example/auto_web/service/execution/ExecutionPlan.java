@@ -0,0 +1,35 @@
+package org.example.auto_web.service.execution;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 编译后的执行计划（不可变，可按脚本哈希缓存并在任务间共享）
+ */
+public final class ExecutionPlan {
+
+    private final String scriptHash;
+    private final List<CompiledStep> steps;
+    private final int totalSteps;
+
+    ExecutionPlan(String scriptHash, List<CompiledStep> steps, int totalSteps) {
+        this.scriptHash = scriptHash;
+        this.steps = Collections.unmodifiableList(steps);
+        this.totalSteps = totalSteps;
+    }
+
+    public String getScriptHash() {
+        return scriptHash;
+    }
+
+    public List<CompiledStep> getSteps() {
+        return steps;
+    }
+
+    /**
+     * 包含嵌套子步骤在内的步骤总数
+     */
+    public int getTotalSteps() {
+        return totalSteps;
+    }
+}
@@ -0,0 +1,232 @@
+package org.example.auto_web.service.execution;
+
+import org.openqa.selenium.Keys;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 解析后的按键序列
+ * PRESS_KEYS 使用 "CTRL+A" 形式（修饰键按下、其余键发送），
+ * KEYBOARD_INPUT 使用 "文本{ENTER}" 形式；常量值在编译期解析一次
+ */
+public final class KeySequence {
+
+    private final CharSequence[] keys;
+    // 对应位置是否为需要按住的修饰键（keyDown）
+    private final boolean[] keyDown;
+    private final List<String> unsupportedKeys;
+
+    private KeySequence(List<CharSequence> keys, List<Boolean> keyDown, List<String> unsupportedKeys) {
+        this.keys = keys.toArray(new CharSequence[0]);
+        this.keyDown = new boolean[keyDown.size()];
+        for (int i = 0; i < this.keyDown.length; i++) {
+            this.keyDown[i] = keyDown.get(i);
+        }
+        this.unsupportedKeys = Collections.unmodifiableList(unsupportedKeys);
+    }
+
+    public CharSequence[] getKeys() {
+        return keys.clone();
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public CharSequence getKey(int index) {
+        return keys[index];
+    }
+
+    public boolean isKeyDown(int index) {
+        return keyDown[index];
+    }
+
+    public List<String> getUnsupportedKeys() {
+        return unsupportedKeys;
+    }
+
+    /**
+     * 解析组合键序列（支持组合键，用+连接）
+     */
+    public static KeySequence parsePressKeys(String value) {
+        List<CharSequence> keys = new ArrayList<>();
+        List<Boolean> keyDown = new ArrayList<>();
+        List<String> unsupported = new ArrayList<>();
+
+        for (String key : value.split("\\+")) {
+            key = key.trim().toUpperCase();
+            switch (key) {
+                case "CTRL":
+                    keys.add(Keys.CONTROL);
+                    keyDown.add(true);
+                    continue;
+                case "SHIFT":
+                    keys.add(Keys.SHIFT);
+                    keyDown.add(true);
+                    continue;
+                case "ALT":
+                    keys.add(Keys.ALT);
+                    keyDown.add(true);
+                    continue;
+                default:
+                    break;
+            }
+
+            CharSequence sent = pressKey(key);
+            if (sent == null) {
+                unsupported.add(key);
+            } else {
+                keys.add(sent);
+                keyDown.add(false);
+            }
+        }
+        return new KeySequence(keys, keyDown, unsupported);
+    }
+
+    private static CharSequence pressKey(String key) {
+        switch (key) {
+            case "ENTER":
+                return Keys.ENTER;
+            case "TAB":
+                return Keys.TAB;
+            case "ESC":
+                return Keys.ESCAPE;
+            case "BACKSPACE":
+                return Keys.BACK_SPACE;
+            case "DELETE":
+                return Keys.DELETE;
+            case "HOME":
+                return Keys.HOME;
+            case "END":
+                return Keys.END;
+            case "PAGEUP":
+                return Keys.PAGE_UP;
+            case "PAGEDOWN":
+                return Keys.PAGE_DOWN;
+            case "ARROW_UP":
+                return Keys.ARROW_UP;
+            case "ARROW_DOWN":
+                return Keys.ARROW_DOWN;
+            case "ARROW_LEFT":
+                return Keys.ARROW_LEFT;
+            case "ARROW_RIGHT":
+                return Keys.ARROW_RIGHT;
+            case "SPACE":
+                return Keys.SPACE;
+            default:
+                if (key.matches("F[1-9]|F1[0-2]")) {
+                    return Keys.valueOf(key);
+                }
+                if (key.length() == 1 && ((key.charAt(0) >= 'A' && key.charAt(0) <= 'Z')
+                        || (key.charAt(0) >= '0' && key.charAt(0) <= '9'))) {
+                    // 将大写字母转换为小写，因为 sendKeys 需要小写字母
+                    return key.toLowerCase();
+                }
+                return null;
+        }
+    }
+
+    /**
+     * 解析键盘输入序列，{ENTER} 等特殊键会被转换为对应按键
+     */
+    public static KeySequence parseKeyboardInput(String input) {
+        List<CharSequence> sequence = new ArrayList<>();
+        List<String> unsupported = new ArrayList<>();
+        StringBuilder currentText = new StringBuilder();
+
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+
+            if (c == '{' && i + 1 < input.length()) {
+                // 处理特殊键
+                int endIndex = input.indexOf('}', i);
+                if (endIndex != -1) {
+                    String specialKey = input.substring(i + 1, endIndex).toUpperCase();
+                    if (currentText.length() > 0) {
+                        sequence.add(currentText.toString());
+                        currentText.setLength(0);
+                    }
+
+                    Keys key = specialKey(specialKey);
+                    if (key != null) {
+                        sequence.add(key);
+                    } else {
+                        unsupported.add(specialKey);
+                        currentText.append("{").append(specialKey).append("}");
+                    }
+
+                    i = endIndex; // 跳过已处理的部分
+                } else {
+                    currentText.append(c);
+                }
+            } else {
+                currentText.append(c);
+            }
+        }
+
+        // 添加剩余文本
+        if (currentText.length() > 0) {
+            sequence.add(currentText.toString());
+        }
+
+        List<Boolean> keyDown = new ArrayList<>(Collections.nCopies(sequence.size(), Boolean.FALSE));
+        return new KeySequence(sequence, keyDown, unsupported);
+    }
+
+    /**
+     * 是否为 {ENTER} 等特殊键占位符的名称（仅大写形式，小写名称仍可作为变量）
+     */
+    static boolean isSpecialKey(String name) {
+        return name.equals(name.toUpperCase()) && specialKey(name) != null;
+    }
+
+    private static Keys specialKey(String specialKey) {
+        switch (specialKey) {
+            case "ENTER":
+                return Keys.ENTER;
+            case "TAB":
+                return Keys.TAB;
+            case "ESC":
+            case "ESCAPE":
+                return Keys.ESCAPE;
+            case "BACKSPACE":
+                return Keys.BACK_SPACE;
+            case "DELETE":
+                return Keys.DELETE;
+            case "HOME":
+                return Keys.HOME;
+            case "END":
+                return Keys.END;
+            case "PAGEUP":
+                return Keys.PAGE_UP;
+            case "PAGEDOWN":
+                return Keys.PAGE_DOWN;
+            case "UP":
+            case "ARROW_UP":
+                return Keys.ARROW_UP;
+            case "DOWN":
+            case "ARROW_DOWN":
+                return Keys.ARROW_DOWN;
+            case "LEFT":
+            case "ARROW_LEFT":
+                return Keys.ARROW_LEFT;
+            case "RIGHT":
+            case "ARROW_RIGHT":
+                return Keys.ARROW_RIGHT;
+            case "CTRL":
+                return Keys.CONTROL;
+            case "SHIFT":
+                return Keys.SHIFT;
+            case "ALT":
+                return Keys.ALT;
+            default:
+                // 如果是F1-F12
+                if (specialKey.matches("F[1-9]|F1[0-2]")) {
+                    return Keys.valueOf(specialKey);
+                }
+                return null;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.auto_web.service.execution;
+
+import org.example.auto_web.service.expression.CompiledExpression;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 含 {表达式} 占位符的字符串模板（XPath、输入值等）
+ * 编译时一次性拆分为文字片段和已编译的表达式，常量表达式直接折叠进文字，
+ * 执行时只需依次拼接到调用方复用的 StringBuilder；无法解析或变量未绑定的占位符保持原文。
+ * {ENTER} 等按键占位符视为文字，不作为变量，含按键的常量值可在编译期解析按键序列；
+ * 花括号嵌套时只替换最内层的占位符。
+ * 编译结果按模板文本缓存（有界LRU），不同步骤、不同脚本中的相同模板只编译一次
+ */
+public final class PlaceholderTemplate {
+
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\{([^{}]+)\\}");
+    private static final int MAX_CACHED_TEMPLATES = 1024;
+
+    // LRU缓存：模板文本 -> 编译结果（模板不可变，可跨任务共享）
+    private static final Map<String, PlaceholderTemplate> TEMPLATE_CACHE =
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PlaceholderTemplate> eldest) {
+                    return size() > MAX_CACHED_TEMPLATES;
+                }
+            };
+
+    /**
+     * 占位符解析回调（用于日志）
+     */
+    public interface Listener {
+        void onResolved(String placeholder, int value);
+
+        void onUnresolved(String placeholder);
+    }
+
+    private final String source;
+    // literals.length == placeholders.length + 1，文字与占位符交替出现
+    private final String[] literals;
+    private final String[] placeholders;
+    // 语法错误的占位符对应位置为null
+    private final CompiledExpression[] expressions;
+
+    private PlaceholderTemplate(String source, String[] literals, String[] placeholders,
+                                CompiledExpression[] expressions) {
+        this.source = source;
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.expressions = expressions;
+    }
+
+    public static PlaceholderTemplate compile(String source) {
+        if (source == null) {
+            return null;
+        }
+        synchronized (TEMPLATE_CACHE) {
+            PlaceholderTemplate cached = TEMPLATE_CACHE.get(source);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        PlaceholderTemplate template = parse(source);
+        synchronized (TEMPLATE_CACHE) {
+            TEMPLATE_CACHE.put(source, template);
+        }
+        return template;
+    }
+
+    private static PlaceholderTemplate parse(String source) {
+        List<String> literalList = new ArrayList<>();
+        List<String> placeholderList = new ArrayList<>();
+        List<CompiledExpression> expressionList = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        Matcher matcher = PLACEHOLDER_PATTERN.matcher(source);
+        int last = 0;
+        while (matcher.find()) {
+            literal.append(source, last, matcher.start());
+            last = matcher.end();
+
+            String body = matcher.group(1).trim();
+            CompiledExpression expression = KeySequence.isSpecialKey(body) ? null : compileExpression(body);
+            if (expression == null) {
+                // 按键占位符或不是合法表达式（如XPath中的其他花括号），按原文保留
+                literal.append(matcher.group(0));
+            } else if (expression.isConstant()) {
+                literal.append(expression.evaluate(Map.of()));
+            } else {
+                literalList.add(literal.toString());
+                literal.setLength(0);
+                placeholderList.add(matcher.group(0));
+                expressionList.add(expression);
+            }
+        }
+        literal.append(source.substring(last));
+        literalList.add(literal.toString());
+        return new PlaceholderTemplate(source,
+                literalList.toArray(new String[0]),
+                placeholderList.toArray(new String[0]),
+                expressionList.toArray(new CompiledExpression[0]));
+    }
+
+    private static CompiledExpression compileExpression(String expression) {
+        try {
+            return CompiledExpression.compile(expression);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * 是否不含变量占位符（可在编译期确定最终值）
+     */
+    public boolean isConstant() {
+        return placeholders.length == 0;
+    }
+
+    /**
+     * 编译期确定的值（仅 isConstant 时有意义）
+     */
+    public String getConstantValue() {
+        return literals[0];
+    }
+
+    public String render(Map<String, Object> variables) {
+        if (isConstant()) {
+            return literals[0];
+        }
+        StringBuilder result = new StringBuilder(source.length() + 16);
+        appendTo(result, variables, null);
+        return result.toString();
+    }
+
+    /**
+     * 使用当前变量渲染模板，追加到调用方提供（可复用）的 StringBuilder，listener 可为null
+     */
+    public void appendTo(StringBuilder out, Map<String, Object> variables, Listener listener) {
+        if (isConstant()) {
+            out.append(literals[0]);
+            return;
+        }
+        for (int i = 0; i < placeholders.length; i++) {
+            out.append(literals[i]);
+            CompiledExpression expression = expressions[i];
+            if (expression.canEvaluate(variables)) {
+                try {
+                    int value = expression.evaluate(variables);
+                    out.append(value);
+                    if (listener != null) {
+                        listener.onResolved(placeholders[i], value);
+                    }
+                    continue;
+                } catch (ArithmeticException e) {
+                    // 除零等运算错误，按未解析处理
+                }
+            }
+            out.append(placeholders[i]);
+            if (listener != null) {
+                listener.onUnresolved(placeholders[i]);
+            }
+        }
+        out.append(literals[placeholders.length]);
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.auto_web.service.execution;
+
+import org.example.auto_web.config.SeleniumConfig;
+import org.example.auto_web.pojo.other.OperationStep;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 将 OperationStep 树编译为不可变的执行计划，并按脚本内容哈希缓存
+ */
+@Component
+public class StepCompiler {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Autowired
+    private SeleniumConfig seleniumConfig;
+
+    // LRU缓存：脚本哈希 -> 执行计划
+    private final Map<String, ExecutionPlan> planCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ExecutionPlan> eldest) {
+            return size() > seleniumConfig.getExecution().getPlanCacheSize();
+        }
+    };
+
+    public ExecutionPlan compile(List<OperationStep> steps) {
+        if (steps == null) {
+            steps = new ArrayList<>();
+        }
+        String scriptHash = hash(steps);
+        synchronized (planCache) {
+            ExecutionPlan cached = planCache.get(scriptHash);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        int[] counter = new int[1];
+        ExecutionPlan plan = new ExecutionPlan(scriptHash, compileSteps(steps, counter), counter[0]);
+        synchronized (planCache) {
+            planCache.put(scriptHash, plan);
+        }
+        return plan;
+    }
+
+    private List<CompiledStep> compileSteps(List<OperationStep> steps, int[] counter) {
+        List<CompiledStep> compiled = new ArrayList<>(steps.size());
+        for (int i = 0; i < steps.size(); i++) {
+            OperationStep step = steps.get(i);
+            if (step.getType() == null) {
+                throw new IllegalArgumentException("第 " + (i + 1) + " 步操作类型不能为空");
+            }
+            List<CompiledStep> subSteps = step.getSubSteps() != null
+                    ? compileSteps(step.getSubSteps(), counter)
+                    : null;
+            compiled.add(new CompiledStep(step, subSteps));
+            counter[0]++;
+        }
+        return compiled;
+    }
+
+    private String hash(List<OperationStep> steps) {
+        try {
+            byte[] json = OBJECT_MAPPER.writeValueAsString(steps).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
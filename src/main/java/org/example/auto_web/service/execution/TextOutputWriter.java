@@ -0,0 +1,217 @@
+package org.example.auto_web.service.execution;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 遍历获取内容的流式输出
+ * 每获取一行立即写入缓冲区，按刷新间隔写入文件，内存占用与行数无关；
+ * 任务中途失败或取消时，已写入的行仍保留在文件中
+ */
+public class TextOutputWriter implements Closeable {
+
+    /**
+     * 输出格式
+     */
+    public enum Format {
+        // 每行一条文本
+        LINES,
+        // 两列：index,text
+        CSV,
+        // 每行一个JSON对象：{"index":1,"text":"..."}
+        JSONL;
+
+        public static Format parse(String value) {
+            if (value == null || value.trim().isEmpty()) {
+                return LINES;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("不支持的输出格式: " + value + "，可选 LINES、CSV、JSONL");
+            }
+        }
+    }
+
+    /**
+     * fsync策略
+     */
+    public enum FsyncPolicy {
+        // 不主动落盘，交给操作系统
+        NONE,
+        // 每次刷新后落盘
+        FLUSH,
+        // 关闭文件时落盘
+        CLOSE;
+
+        public static FsyncPolicy parse(String value) {
+            if (value == null || value.trim().isEmpty()) {
+                return CLOSE;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("不支持的fsync策略: " + value + "，可选 NONE、FLUSH、CLOSE");
+            }
+        }
+    }
+
+    private static final byte[] NEW_LINE = "\n".getBytes(StandardCharsets.UTF_8);
+
+    private final FileChannel channel;
+    private final OutputStream out;
+    private final GZIPOutputStream gzipOut;
+    private final Format format;
+    private final FsyncPolicy fsyncPolicy;
+    private final long flushIntervalMs;
+    private final StringBuilder line = new StringBuilder(256);
+
+    private long lastFlushAt = System.currentTimeMillis();
+    private int rowCount;
+    private boolean closed;
+
+    public TextOutputWriter(Path path, Format format, boolean gzip, long flushIntervalMs,
+                            FsyncPolicy fsyncPolicy, int bufferSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.format = format;
+        this.fsyncPolicy = fsyncPolicy;
+        this.flushIntervalMs = flushIntervalMs;
+        try {
+            OutputStream channelOut = Channels.newOutputStream(channel);
+            if (gzip) {
+                // syncFlush：每次刷新都输出完整的压缩块，中途失败时已刷新的数据可以解压
+                this.gzipOut = new GZIPOutputStream(channelOut, bufferSize, true);
+                this.out = new BufferedOutputStream(gzipOut, bufferSize);
+            } else {
+                this.gzipOut = null;
+                this.out = new BufferedOutputStream(channelOut, bufferSize);
+            }
+            if (format == Format.CSV) {
+                out.write("index,text\n".getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 写入一行结果，到达刷新间隔时写入文件
+     */
+    public void writeRow(int index, String text) throws IOException {
+        line.setLength(0);
+        switch (format) {
+            case CSV:
+                line.append(index).append(',');
+                appendCsv(line, text);
+                break;
+            case JSONL:
+                line.append("{\"index\":").append(index).append(",\"text\":\"");
+                appendJson(line, text);
+                line.append("\"}");
+                break;
+            default:
+                line.append(text);
+        }
+        out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+        out.write(NEW_LINE);
+        rowCount++;
+
+        long now = System.currentTimeMillis();
+        if (now - lastFlushAt >= flushIntervalMs) {
+            flush();
+            lastFlushAt = now;
+        }
+    }
+
+    /**
+     * 将缓冲区写入文件，按策略落盘
+     */
+    public void flush() throws IOException {
+        out.flush();
+        if (fsyncPolicy == FsyncPolicy.FLUSH) {
+            channel.force(false);
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            out.flush();
+            if (gzipOut != null) {
+                gzipOut.finish();
+                gzipOut.flush();
+            }
+            if (fsyncPolicy != FsyncPolicy.NONE) {
+                channel.force(false);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void appendCsv(StringBuilder sb, String text) {
+        boolean quote = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        if (!quote) {
+            sb.append(text);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    private static void appendJson(StringBuilder sb, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.auto_web.service.execution;
+
+import org.example.auto_web.config.SeleniumConfig;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 元素等待策略：超时时间、轮询间隔、轮询期间忽略的异常
+ * 任务级默认值来自 selenium.timeout，步骤可通过 parameters.timeoutMs / pollingMs / ignoredExceptions 覆盖
+ */
+public final class WaitPolicy {
+
+    private final Duration timeout;
+    private final Duration polling;
+    private final List<Class<? extends Throwable>> ignoredExceptions;
+
+    private WaitPolicy(Duration timeout, Duration polling, List<Class<? extends Throwable>> ignoredExceptions) {
+        this.timeout = timeout;
+        this.polling = polling;
+        this.ignoredExceptions = Collections.unmodifiableList(ignoredExceptions);
+    }
+
+    public static WaitPolicy from(SeleniumConfig.Timeout config) {
+        return new WaitPolicy(
+                Duration.ofMillis(config.getElementTimeoutMs()),
+                Duration.ofMillis(config.getPollingMs()),
+                parseExceptions(config.getIgnoredExceptions()));
+    }
+
+    /**
+     * 使用步骤参数覆盖，参数为null时沿用当前值
+     */
+    public WaitPolicy override(Long timeoutMs, Long pollingMs, List<Class<? extends Throwable>> ignored) {
+        return new WaitPolicy(
+                timeoutMs != null ? Duration.ofMillis(timeoutMs) : timeout,
+                pollingMs != null ? Duration.ofMillis(pollingMs) : polling,
+                ignored != null ? ignored : ignoredExceptions);
+    }
+
+    public WebDriverWait newWait(WebDriver driver) {
+        WebDriverWait wait = new WebDriverWait(driver, timeout, polling);
+        wait.ignoreAll(ignoredExceptions);
+        return wait;
+    }
+
+    /**
+     * 解析异常类型列表，支持集合或逗号分隔的字符串；不含包名时默认为 org.openqa.selenium 包
+     */
+    public static List<Class<? extends Throwable>> parseExceptions(Object value) {
+        List<Class<? extends Throwable>> result = new ArrayList<>();
+        if (value == null) {
+            return result;
+        }
+        Collection<?> names = value instanceof Collection
+                ? (Collection<?>) value
+                : List.of(value.toString().split(","));
+        for (Object item : names) {
+            String name = item.toString().trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            String className = name.contains(".") ? name : "org.openqa.selenium." + name;
+            try {
+                result.add(Class.forName(className).asSubclass(Throwable.class));
+            } catch (ClassNotFoundException | ClassCastException e) {
+                throw new IllegalArgumentException("不支持的异常类型: " + name);
+            }
+        }
+        return result;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public Duration getPolling() {
+        return polling;
+    }
+
+    public List<Class<? extends Throwable>> getIgnoredExceptions() {
+        return ignoredExceptions;
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.auto_web.service.execution;
+
+import java.util.Set;
+
+/**
+ * 窗口句柄状态，每个任务（及其循环子步骤）独立持有
+ */
+public class WindowState {
+    private String mainWindowHandle;
+    private Set<String> previousHandles;
+
+    public WindowState(String mainHandle, Set<String> handles) {
+        this.mainWindowHandle = mainHandle;
+        this.previousHandles = handles;
+    }
+
+    public String getMainWindowHandle() {
+        return mainWindowHandle;
+    }
+
+    public void setMainWindowHandle(String mainWindowHandle) {
+        this.mainWindowHandle = mainWindowHandle;
+    }
+
+    public Set<String> getPreviousHandles() {
+        return previousHandles;
+    }
+
+    public void setPreviousHandles(Set<String> previousHandles) {
+        this.previousHandles = previousHandles;
+    }
+}
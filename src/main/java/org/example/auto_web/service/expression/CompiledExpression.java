@@ -0,0 +1,54 @@
+package org.example.auto_web.service.expression;
+
+import java.util.Map;
+
+/**
+ * 编译后的表达式，可在任意变量表上重复求值
+ * 支持多变量、括号、+ - * / %、比较运算、&& || !、三元运算 ?:
+ */
+public final class CompiledExpression {
+
+    private final String source;
+    private final ExpressionNode root;
+    private final ExpressionNode.Variable[] variables;
+
+    CompiledExpression(String source, ExpressionNode root, ExpressionNode.Variable[] variables) {
+        this.source = source;
+        this.root = root;
+        this.variables = variables;
+    }
+
+    public static CompiledExpression compile(String expression) {
+        return ExpressionParser.parse(expression);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * 是否为常量表达式（不引用变量）
+     */
+    public boolean isConstant() {
+        return variables.length == 0;
+    }
+
+    /**
+     * 引用的变量是否都已绑定为整数
+     */
+    public boolean canEvaluate(Map<String, Object> variableValues) {
+        for (ExpressionNode.Variable variable : variables) {
+            if (!variable.isBound(variableValues)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 求值，调用前应先通过 canEvaluate 检查变量
+     */
+    public int evaluate(Map<String, Object> variableValues) {
+        return root.evaluate(variableValues);
+    }
+}
@@ -0,0 +1,182 @@
+package org.example.auto_web.service.expression;
+
+import java.util.Map;
+
+/**
+ * 表达式语法树节点，求值只做整数运算，不分配对象
+ * 布尔结果用 1 / 0 表示
+ */
+abstract class ExpressionNode {
+
+    abstract int evaluate(Map<String, Object> variables);
+
+    static final class Constant extends ExpressionNode {
+        final int value;
+
+        Constant(int value) {
+            this.value = value;
+        }
+
+        @Override
+        int evaluate(Map<String, Object> variables) {
+            return value;
+        }
+    }
+
+    static final class Variable extends ExpressionNode {
+        final String name;
+
+        Variable(String name) {
+            this.name = name;
+        }
+
+        @Override
+        int evaluate(Map<String, Object> variables) {
+            return toInt(variables.get(name));
+        }
+
+        /**
+         * 变量是否存在且为整数（数字或可解析为整数的字符串）
+         */
+        boolean isBound(Map<String, Object> variables) {
+            Object value = variables.get(name);
+            if (value instanceof Number) {
+                return true;
+            }
+            if (value instanceof String) {
+                return isInteger((String) value);
+            }
+            return false;
+        }
+
+        static int toInt(Object value) {
+            if (value instanceof Number) {
+                return ((Number) value).intValue();
+            }
+            return Integer.parseInt(((String) value).trim());
+        }
+
+        private static boolean isInteger(String text) {
+            int start = 0;
+            int end = text.length();
+            while (start < end && Character.isWhitespace(text.charAt(start))) start++;
+            while (end > start && Character.isWhitespace(text.charAt(end - 1))) end--;
+            if (start < end && (text.charAt(start) == '-' || text.charAt(start) == '+')) start++;
+            if (start >= end || end - start > 9) {
+                return false;
+            }
+            for (int i = start; i < end; i++) {
+                if (text.charAt(i) < '0' || text.charAt(i) > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    static final class Unary extends ExpressionNode {
+        final char operator;
+        final ExpressionNode operand;
+
+        Unary(char operator, ExpressionNode operand) {
+            this.operator = operator;
+            this.operand = operand;
+        }
+
+        @Override
+        int evaluate(Map<String, Object> variables) {
+            int value = operand.evaluate(variables);
+            switch (operator) {
+                case '-':
+                    return -value;
+                case '!':
+                    return value == 0 ? 1 : 0;
+                default:
+                    return value;
+            }
+        }
+    }
+
+    static final class Binary extends ExpressionNode {
+        final BinaryOperator operator;
+        final ExpressionNode left;
+        final ExpressionNode right;
+
+        Binary(BinaryOperator operator, ExpressionNode left, ExpressionNode right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        int evaluate(Map<String, Object> variables) {
+            int l = left.evaluate(variables);
+            // 逻辑运算短路
+            if (operator == BinaryOperator.AND) {
+                return l != 0 && right.evaluate(variables) != 0 ? 1 : 0;
+            }
+            if (operator == BinaryOperator.OR) {
+                return l != 0 || right.evaluate(variables) != 0 ? 1 : 0;
+            }
+            return operator.apply(l, right.evaluate(variables));
+        }
+    }
+
+    static final class Conditional extends ExpressionNode {
+        final ExpressionNode condition;
+        final ExpressionNode whenTrue;
+        final ExpressionNode whenFalse;
+
+        Conditional(ExpressionNode condition, ExpressionNode whenTrue, ExpressionNode whenFalse) {
+            this.condition = condition;
+            this.whenTrue = whenTrue;
+            this.whenFalse = whenFalse;
+        }
+
+        @Override
+        int evaluate(Map<String, Object> variables) {
+            return condition.evaluate(variables) != 0
+                    ? whenTrue.evaluate(variables)
+                    : whenFalse.evaluate(variables);
+        }
+    }
+
+    enum BinaryOperator {
+        ADD, SUBTRACT, MULTIPLY, DIVIDE, MODULO,
+        LESS, LESS_EQUAL, GREATER, GREATER_EQUAL, EQUAL, NOT_EQUAL,
+        AND, OR;
+
+        int apply(int l, int r) {
+            switch (this) {
+                case ADD:
+                    return l + r;
+                case SUBTRACT:
+                    return l - r;
+                case MULTIPLY:
+                    return l * r;
+                case DIVIDE:
+                    return l / r;
+                case MODULO:
+                    return l % r;
+                case LESS:
+                    return l < r ? 1 : 0;
+                case LESS_EQUAL:
+                    return l <= r ? 1 : 0;
+                case GREATER:
+                    return l > r ? 1 : 0;
+                case GREATER_EQUAL:
+                    return l >= r ? 1 : 0;
+                case EQUAL:
+                    return l == r ? 1 : 0;
+                case NOT_EQUAL:
+                    return l != r ? 1 : 0;
+                case AND:
+                    return l != 0 && r != 0 ? 1 : 0;
+                case OR:
+                    return l != 0 || r != 0 ? 1 : 0;
+                default:
+                    throw new IllegalStateException("未知运算符: " + this);
+            }
+        }
+    }
+}
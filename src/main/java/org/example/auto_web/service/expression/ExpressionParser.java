@@ -0,0 +1,204 @@
+package org.example.auto_web.service.expression;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 递归下降表达式解析器
+ * 优先级（由低到高）: ?: , || , && , == != , < <= > >= , + - , * / % , 一元 - + !
+ */
+final class ExpressionParser {
+
+    private final String source;
+    private int pos;
+    // 同名变量共用一个节点，求值前只需检查一次
+    private final Map<String, ExpressionNode.Variable> variables = new LinkedHashMap<>();
+
+    private ExpressionParser(String source) {
+        this.source = source;
+    }
+
+    static CompiledExpression parse(String expression) {
+        if (expression == null || expression.trim().isEmpty()) {
+            throw new IllegalArgumentException("表达式不能为空");
+        }
+        ExpressionParser parser = new ExpressionParser(expression);
+        ExpressionNode root = parser.parseConditional();
+        parser.skipWhitespace();
+        if (parser.pos < expression.length()) {
+            throw parser.error("无法识别的字符 '" + expression.charAt(parser.pos) + "'");
+        }
+        ExpressionNode.Variable[] vars = parser.variables.values().toArray(new ExpressionNode.Variable[0]);
+        if (vars.length == 0) {
+            // 常量折叠
+            root = new ExpressionNode.Constant(root.evaluate(Collections.emptyMap()));
+        }
+        return new CompiledExpression(expression, root, vars);
+    }
+
+    private ExpressionNode parseConditional() {
+        ExpressionNode condition = parseOr();
+        if (match("?")) {
+            ExpressionNode whenTrue = parseConditional();
+            expect(":");
+            ExpressionNode whenFalse = parseConditional();
+            return new ExpressionNode.Conditional(condition, whenTrue, whenFalse);
+        }
+        return condition;
+    }
+
+    private ExpressionNode parseOr() {
+        ExpressionNode left = parseAnd();
+        while (match("||")) {
+            left = new ExpressionNode.Binary(ExpressionNode.BinaryOperator.OR, left, parseAnd());
+        }
+        return left;
+    }
+
+    private ExpressionNode parseAnd() {
+        ExpressionNode left = parseEquality();
+        while (match("&&")) {
+            left = new ExpressionNode.Binary(ExpressionNode.BinaryOperator.AND, left, parseEquality());
+        }
+        return left;
+    }
+
+    private ExpressionNode parseEquality() {
+        ExpressionNode left = parseRelational();
+        while (true) {
+            if (match("==")) {
+                left = new ExpressionNode.Binary(ExpressionNode.BinaryOperator.EQUAL, left, parseRelational());
+            } else if (match("!=")) {
+                left = new ExpressionNode.Binary(ExpressionNode.BinaryOperator.NOT_EQUAL, left, parseRelational());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private ExpressionNode parseRelational() {
+        ExpressionNode left = parseAdditive();
+        while (true) {
+            if (match("<=")) {
+                left = new ExpressionNode.Binary(ExpressionNode.BinaryOperator.LESS_EQUAL, left, parseAdditive());
+            } else if (match(">=")) {
+                left = new ExpressionNode.Binary(ExpressionNode.BinaryOperator.GREATER_EQUAL, left, parseAdditive());
+            } else if (match("<")) {
+                left = new ExpressionNode.Binary(ExpressionNode.BinaryOperator.LESS, left, parseAdditive());
+            } else if (match(">")) {
+                left = new ExpressionNode.Binary(ExpressionNode.BinaryOperator.GREATER, left, parseAdditive());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private ExpressionNode parseAdditive() {
+        ExpressionNode left = parseMultiplicative();
+        while (true) {
+            if (match("+")) {
+                left = new ExpressionNode.Binary(ExpressionNode.BinaryOperator.ADD, left, parseMultiplicative());
+            } else if (match("-")) {
+                left = new ExpressionNode.Binary(ExpressionNode.BinaryOperator.SUBTRACT, left, parseMultiplicative());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private ExpressionNode parseMultiplicative() {
+        ExpressionNode left = parseUnary();
+        while (true) {
+            if (match("*")) {
+                left = new ExpressionNode.Binary(ExpressionNode.BinaryOperator.MULTIPLY, left, parseUnary());
+            } else if (match("/")) {
+                left = new ExpressionNode.Binary(ExpressionNode.BinaryOperator.DIVIDE, left, parseUnary());
+            } else if (match("%")) {
+                left = new ExpressionNode.Binary(ExpressionNode.BinaryOperator.MODULO, left, parseUnary());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private ExpressionNode parseUnary() {
+        if (match("-")) {
+            return new ExpressionNode.Unary('-', parseUnary());
+        }
+        if (match("+")) {
+            return parseUnary();
+        }
+        // "!=" 已在相等运算中处理，这里的 "!" 一定是逻辑非
+        if (match("!")) {
+            return new ExpressionNode.Unary('!', parseUnary());
+        }
+        return parsePrimary();
+    }
+
+    private ExpressionNode parsePrimary() {
+        skipWhitespace();
+        if (pos >= source.length()) {
+            throw error("表达式不完整");
+        }
+        char c = source.charAt(pos);
+        if (c == '(') {
+            pos++;
+            ExpressionNode inner = parseConditional();
+            expect(")");
+            return inner;
+        }
+        if (Character.isDigit(c)) {
+            int start = pos;
+            while (pos < source.length() && Character.isDigit(source.charAt(pos))) {
+                pos++;
+            }
+            try {
+                return new ExpressionNode.Constant(Integer.parseInt(source.substring(start, pos)));
+            } catch (NumberFormatException e) {
+                throw error("数字超出范围");
+            }
+        }
+        if (Character.isLetter(c) || c == '_') {
+            int start = pos;
+            while (pos < source.length()
+                    && (Character.isLetterOrDigit(source.charAt(pos)) || source.charAt(pos) == '_')) {
+                pos++;
+            }
+            return variables.computeIfAbsent(source.substring(start, pos), ExpressionNode.Variable::new);
+        }
+        throw error("无法识别的字符 '" + c + "'");
+    }
+
+    private boolean match(String token) {
+        skipWhitespace();
+        if (!source.startsWith(token, pos)) {
+            return false;
+        }
+        // 避免把 "<=" 的 "<"、"!=" 的 "!"、"||" 的 "|" 等提前消费
+        if (token.length() == 1 && pos + 1 < source.length()) {
+            char next = source.charAt(pos + 1);
+            if ((token.equals("<") || token.equals(">") || token.equals("!")) && next == '=') {
+                return false;
+            }
+        }
+        pos += token.length();
+        return true;
+    }
+
+    private void expect(String token) {
+        if (!match(token)) {
+            throw error("缺少 '" + token + "'");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("表达式语法错误: " + source + "，位置 " + pos + ": " + message);
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.auto_web.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.auto_web.config.SeleniumConfig;
+import org.example.auto_web.pojo.dto.ExecuteRequest;
+import org.example.auto_web.pojo.enums.JobStatus;
+import org.example.auto_web.pojo.other.AutomationJob;
+import org.example.auto_web.service.AutomationJobService;
+import org.example.auto_web.service.SeleniumAutoWebService;
+import org.example.auto_web.service.execution.ExecutionLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步任务管理：有界队列 + 固定工作线程执行自动化脚本，请求线程只负责提交
+ */
+@Service
+public class AutomationJobServiceImpl implements AutomationJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutomationJobServiceImpl.class);
+
+    @Autowired
+    private SeleniumAutoWebService seleniumAutoWebService;
+
+    @Autowired
+    private SeleniumConfig seleniumConfig;
+
+    @Autowired
+    private ExecutionLimiter executionLimiter;
+
+    private final Map<String, AutomationJob> jobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor jobExecutor;
+    private ScheduledExecutorService cleanupExecutor;
+
+    @PostConstruct
+    public void init() {
+        SeleniumConfig.Job config = seleniumConfig.getJob();
+        // 默认工作线程数与并发上限一致，多余的任务在队列中等待
+        int workers = config.getWorkerThreads() > 0 ? config.getWorkerThreads() : executionLimiter.getMaxConcurrentJobs();
+        AtomicInteger threadIndex = new AtomicInteger();
+        jobExecutor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity())),
+                r -> new Thread(r, "automation-job-" + threadIndex.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        cleanupExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "automation-job-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        cleanupExecutor.scheduleWithFixedDelay(this::removeExpiredJobs, 1, 1, TimeUnit.MINUTES);
+        logger.info("异步任务执行器已启动，工作线程: {}, 队列容量: {}", workers, config.getQueueCapacity());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cleanupExecutor.shutdownNow();
+        jobExecutor.shutdownNow();
+    }
+
+    @Override
+    public AutomationJob submit(ExecuteRequest request) {
+        AutomationJob job = new AutomationJob();
+        job.setJobId(UUID.randomUUID().toString().replace("-", ""));
+        job.setUrl(request.getUrl());
+        job.setStepCount(request.getSteps() != null ? request.getSteps().size() : 0);
+        job.setStatus(JobStatus.QUEUED);
+        job.setSubmittedAt(System.currentTimeMillis());
+
+        jobs.put(job.getJobId(), job);
+        try {
+            job.setFuture(jobExecutor.submit(() -> runJob(job, request)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getJobId());
+            throw new RejectedExecutionException("任务队列已满，请稍后重试", e);
+        }
+        logger.info("已提交异步任务: {}, 排队数: {}", job.getJobId(), jobExecutor.getQueue().size());
+        return job;
+    }
+
+    @Override
+    public AutomationJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    @Override
+    public boolean cancel(String jobId) {
+        AutomationJob job = jobs.get(jobId);
+        if (job == null) {
+            return false;
+        }
+        synchronized (job) {
+            if (job.getStatus().isFinished()) {
+                return false;
+            }
+            job.setCancelRequested(true);
+            // 排队中的任务不会再被执行，直接标记为已取消
+            if (job.getStatus() == JobStatus.QUEUED) {
+                finish(job, JobStatus.CANCELLED, "任务已取消");
+            }
+        }
+        if (job.getFuture() != null) {
+            job.getFuture().cancel(true);
+        }
+        logger.info("已请求取消任务: {}", jobId);
+        return true;
+    }
+
+    @Override
+    public List<AutomationJob> listJobs() {
+        List<AutomationJob> result = new ArrayList<>(jobs.values());
+        result.sort(Comparator.comparing(AutomationJob::getSubmittedAt).reversed());
+        return result;
+    }
+
+    private void runJob(AutomationJob job, ExecuteRequest request) {
+        synchronized (job) {
+            if (job.isCancelRequested()) {
+                return;
+            }
+            job.setStartedAt(System.currentTimeMillis());
+            job.setStatus(JobStatus.RUNNING);
+        }
+        try {
+            seleniumAutoWebService.executeOperations(request, job);
+            finish(job, JobStatus.SUCCEEDED, "自动化操作执行完成");
+        } catch (Exception e) {
+            if (job.isCancelRequested()) {
+                finish(job, JobStatus.CANCELLED, "任务已取消");
+            } else {
+                finish(job, JobStatus.FAILED, "执行失败: " + e.getMessage());
+            }
+        } finally {
+            // 清除取消时设置的中断标记，避免影响线程池中的下一个任务
+            Thread.interrupted();
+        }
+    }
+
+    private void finish(AutomationJob job, JobStatus status, String message) {
+        synchronized (job) {
+            if (job.getStatus().isFinished()) {
+                return;
+            }
+            job.setMessage(message);
+            job.setFinishedAt(System.currentTimeMillis());
+            job.setStatus(status);
+        }
+    }
+
+    private void removeExpiredJobs() {
+        long expireBefore = System.currentTimeMillis() - seleniumConfig.getJob().getRetentionMinutes() * 60_000L;
+        jobs.values().removeIf(job -> job.getStatus().isFinished()
+                && job.getFinishedAt() != null && job.getFinishedAt() < expireBefore);
+    }
+}
@@ -1,16 +1,28 @@
 package org.example.auto_web.service.impl;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.example.auto_web.pojo.dto.CodeBundleRequest;
 import org.example.auto_web.pojo.dto.CodeGenerationRequest;
+import org.example.auto_web.pojo.other.CacheStats;
 import org.example.auto_web.pojo.other.CodeFileResponse;
 import org.example.auto_web.pojo.other.OperationStep;
 import org.example.auto_web.service.CodeGenerationService;
 import org.example.auto_web.service.CodeGenerationStrategy;
+import org.example.auto_web.service.codegen.CodeBundle;
+import org.example.auto_web.service.codegen.CodeFileStream;
+import org.example.auto_web.service.codegen.CodeGenerationCache;
+import org.example.auto_web.service.codegen.CodeWriter;
+import org.example.auto_web.service.codegen.GenerationPlan;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Service
@@ -18,6 +30,12 @@ public class CodeGenerationServiceImpl implements CodeGenerationService {
 
     private final Map<String, CodeGenerationStrategy> strategyMap;
 
+    @Autowired
+    private CodeGenerationCache codeGenerationCache;
+
+    // 多语言压缩包的并行生成线程
+    private ExecutorService bundleExecutor;
+
     @Autowired
     public CodeGenerationServiceImpl(List<CodeGenerationStrategy> strategies) {
         this.strategyMap = new HashMap<>();
@@ -26,6 +44,23 @@ public class CodeGenerationServiceImpl implements CodeGenerationService {
         }
     }
 
+    @PostConstruct
+    public void init() {
+        // 线程数不超过语言数和CPU核数
+        int threads = Math.max(1, Math.min(strategyMap.size(), Runtime.getRuntime().availableProcessors()));
+        AtomicInteger threadIndex = new AtomicInteger();
+        bundleExecutor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "code-generation-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bundleExecutor.shutdownNow();
+    }
+
     @Override
     public CodeFileResponse generateCodeFile(CodeGenerationRequest request) {
         try {
@@ -36,28 +71,37 @@ public class CodeGenerationServiceImpl implements CodeGenerationService {
             }
 
             // 获取对应的策略
-            CodeGenerationStrategy strategy = strategyMap.get(request.getLanguage().toLowerCase());
-            if (strategy == null) {
-                throw new IllegalArgumentException("不支持的语言: " + request.getLanguage());
-            }
+            CodeGenerationStrategy strategy = getStrategy(request);
 
-            // 转换步骤为通用格式
-            List<Map<String, Object>> steps = convertStepsToMap(request.getSteps());
+            // 相同内容的请求直接返回缓存结果
+            return codeGenerationCache.get(request, () -> generate(request, strategy));
 
-            // 生成代码
-            String codeContent = strategy.generateCode(steps, request.getInitialUrl(),
-                    request.getClassName(), request.getIncludeComments());
+        } catch (Exception e) {
+            log.error("生成代码文件失败", e);
+            throw new RuntimeException("生成代码文件失败: " + e.getMessage(), e);
+        }
+    }
 
-            // 生成文件名
+    @Override
+    public CodeFileStream openCodeFile(CodeGenerationRequest request) {
+        try {
+            String validationResult = validateRequest(request);
+            if (!"验证通过".equals(validationResult)) {
+                throw new IllegalArgumentException(validationResult);
+            }
+            CodeGenerationStrategy strategy = getStrategy(request);
             String fileName = request.getClassName() + strategy.getFileExtension();
 
-            // 返回文件响应
-            return new CodeFileResponse(
-                    fileName,
-                    codeContent,
-                    request.getLanguage(),
-                    (long) codeContent.getBytes().length
-            );
+            String cacheKey = null;
+            CodeFileResponse cached = null;
+            if (codeGenerationCache.isEnabled()) {
+                cacheKey = CodeGenerationCache.keyOf(request);
+                cached = codeGenerationCache.getIfPresent(cacheKey, request.getLanguage());
+            }
+            // 未命中时只构建中间表示，代码在写出响应时才生成
+            GenerationPlan plan = cached == null ? GenerationPlan.from(request) : null;
+            return new CodeFileStream(fileName, request.getLanguage(), plan, strategy,
+                    codeGenerationCache, cacheKey, cached);
 
         } catch (Exception e) {
             log.error("生成代码文件失败", e);
@@ -65,6 +109,100 @@ public class CodeGenerationServiceImpl implements CodeGenerationService {
         }
     }
 
+    @Override
+    public CodeBundle openBundle(CodeBundleRequest bundleRequest) {
+        try {
+            if (bundleRequest == null) {
+                throw new IllegalArgumentException("请求不能为空");
+            }
+            List<String> languages = resolveLanguages(bundleRequest.getLanguages());
+            List<CodeGenerationRequest> requests = new ArrayList<>(languages.size());
+            for (String language : languages) {
+                requests.add(new CodeGenerationRequest(language, bundleRequest.getSteps(),
+                        bundleRequest.getInitialUrl(), bundleRequest.getClassName(), bundleRequest.getIncludeComments(),
+                        bundleRequest.getBatchExtraction(), bundleRequest.getParallelWorkers()));
+            }
+            // 各语言的请求只有语言不同，验证一次即可
+            String validationResult = validateRequest(requests.get(0));
+            if (!"验证通过".equals(validationResult)) {
+                throw new IllegalArgumentException(validationResult);
+            }
+
+            // 所有语言共用同一个中间表示，各策略并行生成
+            GenerationPlan plan = GenerationPlan.from(requests.get(0));
+            List<CompletableFuture<CodeFileResponse>> files = new ArrayList<>(requests.size());
+            for (CodeGenerationRequest request : requests) {
+                CodeGenerationStrategy strategy = getStrategy(request);
+                files.add(CompletableFuture.supplyAsync(
+                        () -> codeGenerationCache.get(request, () -> render(plan, request, strategy)),
+                        bundleExecutor));
+            }
+            return new CodeBundle(bundleRequest.getClassName() + ".zip", plan, languages, files);
+
+        } catch (Exception e) {
+            log.error("生成代码压缩包失败", e);
+            throw new RuntimeException("生成代码压缩包失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 解析要生成的语言：为空或包含 all 时为全部已注册的语言，去重并保持请求中的顺序
+     */
+    private List<String> resolveLanguages(List<String> requested) {
+        if (requested == null || requested.isEmpty()
+                || requested.stream().anyMatch(language -> "all".equalsIgnoreCase(language))) {
+            List<String> all = getSupportedLanguages();
+            Collections.sort(all);
+            return all;
+        }
+        Set<String> languages = new LinkedHashSet<>();
+        for (String language : requested) {
+            if (language == null || !strategyMap.containsKey(language.trim().toLowerCase())) {
+                throw new IllegalArgumentException("不支持的语言: " + language
+                        + "，支持的语言: " + String.join(", ", getSupportedLanguages()));
+            }
+            languages.add(language.trim().toLowerCase());
+        }
+        return new ArrayList<>(languages);
+    }
+
+    private CodeGenerationStrategy getStrategy(CodeGenerationRequest request) {
+        CodeGenerationStrategy strategy = strategyMap.get(request.getLanguage().toLowerCase());
+        if (strategy == null) {
+            throw new IllegalArgumentException("不支持的语言: " + request.getLanguage());
+        }
+        return strategy;
+    }
+
+    private CodeFileResponse generate(CodeGenerationRequest request, CodeGenerationStrategy strategy) {
+        // 构建中间表示（默认值在这里确定）
+        return render(GenerationPlan.from(request), request, strategy);
+    }
+
+    private CodeFileResponse render(GenerationPlan plan, CodeGenerationRequest request, CodeGenerationStrategy strategy) {
+        // 生成代码，同时统计UTF-8字节数
+        StringBuilder content = new StringBuilder();
+        CodeWriter code = new CodeWriter(content);
+        strategy.writeCode(plan, code);
+        String codeContent = content.toString();
+
+        // 生成文件名
+        String fileName = request.getClassName() + strategy.getFileExtension();
+
+        // 返回文件响应
+        return new CodeFileResponse(
+                fileName,
+                codeContent,
+                request.getLanguage(),
+                code.getByteCount()
+        );
+    }
+
+    @Override
+    public CacheStats getCacheStats() {
+        return codeGenerationCache.getStats();
+    }
+
     @Override
     public String validateRequest(CodeGenerationRequest request) {
         if (request == null) {
@@ -98,36 +236,4 @@ public class CodeGenerationServiceImpl implements CodeGenerationService {
     public List<String> getSupportedLanguages() {
         return new ArrayList<>(strategyMap.keySet());
     }
-
-    private List<Map<String, Object>> convertStepsToMap(List<OperationStep> steps) {
-        return steps.stream()
-                .map(this::convertStepToMap)
-                .collect(Collectors.toList());
-    }
-
-    private Map<String, Object> convertStepToMap(OperationStep step) {
-        Map<String, Object> stepMap = new HashMap<>();
-        stepMap.put("type", step.getType().name());
-        stepMap.put("xpath", step.getXpath());
-        stepMap.put("value", step.getValue());
-        stepMap.put("startIndex", step.getStartIndex());
-        stepMap.put("endIndex", step.getEndIndex());
-        stepMap.put("iterations", step.getIterations());
-        stepMap.put("filePath", step.getFilePath());
-        stepMap.put("waitBeforeMs", step.getWaitBeforeMs());
-        stepMap.put("waitAfterMs", step.getWaitAfterMs());
-        stepMap.put("acceptAlert", step.getAcceptAlert());
-        stepMap.put("alertText", step.getAlertText());
-        stepMap.put("remark", step.getRemark());
-
-        // 处理子步骤
-        if (step.getSubSteps() != null && !step.getSubSteps().isEmpty()) {
-            List<Map<String, Object>> subSteps = step.getSubSteps().stream()
-                    .map(this::convertStepToMap)
-                    .collect(Collectors.toList());
-            stepMap.put("subSteps", subSteps);
-        }
-
-        return stepMap;
-    }
 }
\ No newline at end of file
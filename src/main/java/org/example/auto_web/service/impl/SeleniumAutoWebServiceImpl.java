@@ -3,12 +3,33 @@ package org.example.auto_web.service.impl;
 import org.example.auto_web.config.SeleniumConfig;
 import org.example.auto_web.pojo.dto.CookieExportRequest;
 import org.example.auto_web.pojo.dto.ExecuteRequest;
-import org.example.auto_web.pojo.other.OperationStep;
+import org.example.auto_web.pojo.enums.LogLevel;
+import org.example.auto_web.pojo.enums.OperationType;
+import org.example.auto_web.pojo.enums.WaitMode;
+import org.example.auto_web.pojo.other.AutomationJob;
 import org.example.auto_web.service.SeleniumAutoWebService;
-import org.example.auto_web.websocket.LogWebSocket;
+import org.example.auto_web.service.cookie.CookieJar;
+import org.example.auto_web.service.cookie.CookieStore;
+import org.example.auto_web.service.cookie.StoredCookie;
+import org.example.auto_web.service.driver.PooledDriver;
+import org.example.auto_web.service.driver.WebDriverPool;
+import org.example.auto_web.service.execution.AdaptiveWait;
+import org.example.auto_web.service.execution.BatchTextExtractor;
+import org.example.auto_web.service.execution.CompiledStep;
+import org.example.auto_web.service.execution.ExecutionContext;
+import org.example.auto_web.service.execution.ExecutionLimiter;
+import org.example.auto_web.service.execution.ExecutionPlan;
+import org.example.auto_web.service.execution.KeySequence;
+import org.example.auto_web.service.execution.PlaceholderTemplate;
+import org.example.auto_web.service.execution.StepCompiler;
+import org.example.auto_web.service.execution.TextOutputWriter;
+import org.example.auto_web.service.execution.WaitPolicy;
+import org.example.auto_web.service.execution.WindowState;
+import org.example.auto_web.service.log.JobLog;
+import org.example.auto_web.service.log.LogPipeline;
+import org.example.auto_web.service.log.LoopLogger;
 import org.openqa.selenium.*;
 import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
@@ -16,38 +37,39 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import tools.jackson.databind.ObjectMapper;
 
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.io.IOException;
+import java.net.URI;
 import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
+import java.util.concurrent.CancellationException;
 
 @Service
 public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
     @Autowired
-    private LogWebSocket logWebSocket;
+    private LogPipeline logPipeline;
 
     @Autowired
     private SeleniumConfig seleniumConfig;
 
+    @Autowired
+    private WebDriverPool webDriverPool;
+
+    @Autowired
+    private ExecutionLimiter executionLimiter;
+
+    @Autowired
+    private StepCompiler stepCompiler;
+
+    @Autowired
+    private CookieStore cookieStore;
+
     private static final Logger logger = LoggerFactory.getLogger(SeleniumAutoWebServiceImpl.class);
 //    private static final String CHROME_DRIVER_PATH = "C:\\chromedriver-win64\\chromedriver-win64\\chromedriver.exe";
 //    private static final boolean HEADLESS_MODE = false;
 //    private static final int TIMEOUT_SECONDS = 30;
 
-    private String getChromeDriverPath() {
-        return seleniumConfig.getChrome().getDriverPath();
-    }
-
-    private boolean isHeadlessMode() {
-        return seleniumConfig.getChrome().isHeadlessMode();
-    }
-
     private boolean isCloseBrowserAfterExec() {
         return seleniumConfig.getChrome().isCloseBrowserAfterExec();
     }
@@ -60,92 +82,103 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
         return seleniumConfig.getTimeout().getWaitAfterStep();
     }
 
-    // 存储窗口句柄状态
-    private static class WindowState {
-        String mainWindowHandle;
-        Set<String> previousHandles;
-
-        WindowState(String mainHandle, Set<String> handles) {
-            this.mainWindowHandle = mainHandle;
-            this.previousHandles = handles;
-        }
+    // 日志只放入异步日志管道，由日志线程推送到前端和写入后端日志；模板参数在日志线程中才拼接
+    private void logInfo(String message, Object... args) {
+        logPipeline.log(LogLevel.INFO, message, args);
     }
 
-    private void logInfo(String message) {
-        try {
-            logWebSocket.broadcastLog("[INFO] " + message);
-            logger.info(message); // 同时记录到后端日志
-        } catch (Exception e) {
-            // 避免日志推送失败影响主流程
-            logger.warn("推送日志到前端失败: {}", e.getMessage());
-        }
+    private void logData(String message, Object... args) {
+        logPipeline.log(LogLevel.DATA, message, args);
     }
 
-    private void logData(String message) {
-        try {
-            logWebSocket.broadcastLog("[DATA] " + message);
-            logger.info("[DATA] " + message); // 同时记录到后端日志
-        } catch (Exception e) {
-            // 避免日志推送失败影响主流程
-            logger.warn("推送数据日志到前端失败: {}", e.getMessage());
-        }
+    private void logError(String message, Object... args) {
+        logPipeline.log(LogLevel.ERROR, message, args);
     }
 
-    private void logError(String message) {
-        try {
-            logWebSocket.broadcastLog("[ERROR] " + message);
-            logger.info("[ERROR] " + message); // 同时记录到后端日志
-        } catch (Exception e) {
-            // 避免日志推送失败影响主流程
-            logger.warn("推送数据日志到前端失败: {}", e.getMessage());
-        }
+    @Override
+    public void executeOperations(ExecuteRequest request) {
+        executeOperations(request, null);
     }
 
     @Override
-    public void executeOperations(ExecuteRequest request) {
-        WebDriver driver = null;
+    public void executeOperations(ExecuteRequest request, AutomationJob job) {
+        String jobId = job != null ? job.getJobId() : UUID.randomUUID().toString().replace("-", "");
+        PooledDriver pooledDriver = null;
+        ExecutionContext ctx = null;
+        boolean acquired = false;
+        // 绑定任务日志：之后本线程的日志都归属于该任务
+        JobLog jobLog = logPipeline.open(jobId);
 
         try {
-            logInfo("开始执行自动化操作");
-//            System.setProperty("webdriver.chrome.driver", CHROME_DRIVER_PATH);
-            System.setProperty("webdriver.chrome.driver", getChromeDriverPath());
-            driver = createWebDriver();
-            logInfo("ChromeDriver 初始化完成");
+            // 请求中指定的任务日志级别
+            if (request.getLogLevel() != null) {
+                jobLog.setLevel(LogLevel.parse(request.getLogLevel()));
+            }
+            logInfo("开始执行自动化操作，任务ID: {}", jobId);
+            // 先编译执行计划，脚本有误时不必占用浏览器
+            ExecutionPlan plan = stepCompiler.compile(request.getSteps());
+            executionLimiter.acquire();
+            acquired = true;
+            pooledDriver = webDriverPool.borrow();
+            WebDriver driver = pooledDriver.getDriver();
+            if (webDriverPool.isEnabled()) {
+                logInfo("ChromeDriver 初始化完成（驱动池第 {} 次使用）", pooledDriver.getUseCount());
+            } else {
+                logInfo("ChromeDriver 初始化完成");
+            }
+            ctx = new ExecutionContext(jobId, driver, new AdaptiveWait(driver, seleniumConfig.getTimeout()),
+                    WaitPolicy.from(seleniumConfig.getTimeout()));
+
+//            driver.manage().timeouts().implicitlyWait(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            // 只使用显式等待：隐式等待会叠加在每次显式轮询上，使失败要很久才能暴露
+            driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+            if (getTimeoutSeconds() > 0) {
+                driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(getTimeoutSeconds()));
+            }
+
+            // 开头的导入Cookie步骤在首次导航前写入，页面第一次加载就带上Cookie
+            preloadCookies(ctx, plan.getSteps());
 
             if (request.getUrl() != null && !request.getUrl().isEmpty()) {
 //                logInfo("正在访问: " + request.getUrl());
                 driver.get(request.getUrl());
-                logInfo("成功访问网址: " + request.getUrl());
+                logInfo("成功访问网址: {}", request.getUrl());
             }
 
-//            driver.manage().timeouts().implicitlyWait(TIMEOUT_SECONDS, TimeUnit.SECONDS);
-            driver.manage().timeouts().implicitlyWait(getTimeoutSeconds(), TimeUnit.SECONDS);
-
             // 初始化窗口状态
             WindowState windowState = new WindowState(
                     driver.getWindowHandle(),
                     driver.getWindowHandles()
             );
 
-            logInfo("开始执行操作步骤，共 " + request.getSteps().size() + " 步");
+            logInfo("开始执行操作步骤，共 {} 步", plan.getSteps().size());
 
             // 执行操作步骤
-            executeSteps(driver, request.getSteps(), new HashMap<>(), windowState);
+            executeSteps(ctx, plan.getSteps(), windowState);
 
-            logInfo("所有操作执行完成");
+            logInfo("所有操作执行完成，耗时 {} 毫秒", System.currentTimeMillis() - ctx.getStartedAt());
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logError("任务已取消: {}", jobId);
+            throw new CancellationException("任务已取消");
+        } catch (CancellationException e) {
+            logError("任务已取消: {}", jobId);
+            throw e;
         } catch (Exception e) {
-            String errorMsg = "执行自动化操作失败: " + e.getMessage();
-            logError(errorMsg);
+            logError("执行自动化操作失败: {}", e.getMessage());
             logger.error("执行自动化操作失败", e);
             throw new RuntimeException("执行失败: " + e.getMessage(), e);
         } finally {
-            if (driver != null && isCloseBrowserAfterExec()) {
-                driver.quit();
-                logInfo("浏览器已关闭");
-            } else if (driver != null) {
-                logInfo("保留浏览器窗口");
+            if (job != null && ctx != null) {
+                job.setResults(new ArrayList<>(ctx.getResults()));
+                job.setVariables(new HashMap<>(ctx.getVariables()));
+            }
+            releaseDriver(pooledDriver, ctx != null ? ctx.getVisitedOrigins() : Collections.emptySet());
+            if (acquired) {
+                executionLimiter.release();
             }
+            logPipeline.close(jobLog);
         }
     }
 
@@ -159,54 +192,35 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
             }
 
             logInfo("开始导出Cookie操作");
-//            System.setProperty("webdriver.chrome.driver", CHROME_DRIVER_PATH);
-            System.setProperty("webdriver.chrome.driver", getChromeDriverPath());
-            driver = createWebDriver();
+            // 导出Cookie需要用户手动登录，必须使用全新的浏览器，不从驱动池借用
+            driver = webDriverPool.createDriver();
             logInfo("ChromeDriver 初始化完成");
 
             // 导航到目标网站
 //            logInfo("正在导航到目标网站: " + request.getUrl());
             driver.get(request.getUrl());
-            logInfo("已导航到目标网站: " + request.getUrl());
+            logInfo("已导航到目标网站: {}", request.getUrl());
 
             // 等待用户操作
             if (request.getWaitSeconds() != null && request.getWaitSeconds() > 0) {
-                logInfo("请手动操作网站，等待 " + request.getWaitSeconds() + " 秒后自动导出Cookie...");
+                logInfo("请手动操作网站，等待 {} 秒后自动导出Cookie...", request.getWaitSeconds());
                 Thread.sleep(request.getWaitSeconds() * 1000L);
             }
 
             // 获取所有Cookie
             logInfo("正在获取Cookie...");
             Set<Cookie> cookies = driver.manage().getCookies();
-            List<Map<String, Object>> cookieList = new ArrayList<>();
-
-            for (Cookie cookie : cookies) {
-                Map<String, Object> cookieMap = new HashMap<>();
-                cookieMap.put("name", cookie.getName());
-                cookieMap.put("value", cookie.getValue());
-                cookieMap.put("domain", cookie.getDomain());
-                cookieMap.put("path", cookie.getPath());
-                cookieMap.put("expiry", cookie.getExpiry());
-                cookieMap.put("secure", cookie.isSecure());
-                cookieMap.put("httpOnly", cookie.isHttpOnly());
-                cookieList.add(cookieMap);
-            }
-
-            ObjectMapper objectMapper = new ObjectMapper();
-            String cookieJson = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(cookieList);
 
             // 保存到文件 - 必须提供文件路径
             String filePath = request.getFilePath();
 
-            Files.write(Paths.get(filePath), cookieJson.getBytes(StandardCharsets.UTF_8));
+            cookieStore.save(Paths.get(filePath), cookies);
 
-            String successMsg = "成功导出 " + cookies.size() + " 个Cookie到文件: " + filePath;
-            logInfo(successMsg);
+            logInfo("成功导出 {} 个Cookie到文件: {}", cookies.size(), filePath);
             return "Cookie已导出到: " + filePath;
 
         } catch (Exception e) {
-            String errorMsg = "导出Cookie失败: " + e.getMessage();
-            logError(errorMsg);
+            logError("导出Cookie失败: {}", e.getMessage());
             logger.error("导出Cookie失败", e);
             throw new RuntimeException("导出Cookie失败: " + e.getMessage(), e);
         } finally {
@@ -217,71 +231,106 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
         }
     }
 
-    private void executeSteps(WebDriver driver, List<OperationStep> steps,
-                              Map<String, Object> context, WindowState windowState) {
+    /**
+     * 执行结束后处理浏览器：启用驱动池时清理后归还，否则按配置关闭或保留
+     */
+    private void releaseDriver(PooledDriver pooledDriver, Set<String> visitedOrigins) {
+        if (pooledDriver == null) {
+            return;
+        }
+        if (!isCloseBrowserAfterExec()) {
+            // 保留窗口供查看：不重置也不归还，从驱动池中移出（不关闭浏览器）
+            webDriverPool.detach(pooledDriver);
+            logInfo("保留浏览器窗口");
+        } else if (webDriverPool.isEnabled()) {
+            webDriverPool.release(pooledDriver, visitedOrigins);
+            logInfo("浏览器已归还驱动池");
+        } else {
+            webDriverPool.invalidate(pooledDriver);
+            logInfo("浏览器已关闭");
+        }
+    }
+
+    private void executeSteps(ExecutionContext ctx, List<CompiledStep> steps, WindowState windowState) {
+        WebDriver driver = ctx.getDriver();
+        JobLog jobLog = logPipeline.current();
         if (steps == null || steps.isEmpty()) {
             logInfo("没有要执行的操作步骤");
             return;
         }
 
         for (int i = 0; i < steps.size(); i++) {
-            OperationStep step = steps.get(i);
+            checkCancelled();
+            CompiledStep step = steps.get(i);
+            // 步骤级别只在该步骤（含子步骤）执行期间生效
+            LogLevel inheritedLevel = jobLog != null ? jobLog.getLevel() : null;
             try {
+                if (jobLog != null) {
+                    jobLog.setStepIndex(i + 1);
+                    if (step.getLogLevel() != null) {
+                        jobLog.setLevel(step.getLogLevel());
+                    }
+                }
                 // 打印步骤备注
                 if (step.getRemark() != null && !step.getRemark().isEmpty()) {
-                    logInfo("步骤备注: " + step.getRemark());
+                    logInfo("步骤备注: {}", step.getRemark());
                 }
-                logInfo("执行第 " + (i + 1) + " 步: " + step.getType());
+                logInfo("执行第 {} 步: {}", i + 1, step.getType());
 
-                // 在执行步骤前检查并切换到最新窗口
-                autoSwitchToNewWindow(driver, windowState);
+                executeSingleStep(ctx, step, windowState);
 
-                executeSingleStep(driver, step, context, windowState);
-
-                // 在执行步骤后再次检查窗口状态，确保及时切换到新窗口
-                checkAndUpdateWindowState(driver, windowState);
+                // 只有可能打开新窗口的步骤（点击、按键、跳转等）之后才检查窗口变化
+                if (step.isTracksWindows()) {
+                    checkAndUpdateWindowState(driver, windowState);
+                }
 
-                logInfo("第 " + (i + 1) + " 步执行完成");
+                logInfo("第 {} 步执行完成", i + 1);
 
+            } catch (CancellationException e) {
+                // 用户取消不是步骤失败，直接交给任务处理
+                throw e;
             } catch (Exception e) {
-                String errorMsg = "执行步骤失败: " + step.getType() + " - " + e.getMessage();
-                logError(errorMsg);
+                logError("执行步骤失败: {} - {}", step.getType(), e.getMessage());
                 logger.error("执行步骤失败: {}", step.getType(), e);
                 throw new RuntimeException("步骤执行失败: " + step.getType(), e);
+            } finally {
+                if (jobLog != null) {
+                    jobLog.setLevel(inheritedLevel);
+                }
             }
         }
     }
 
-    private void executeSingleStep(WebDriver driver, OperationStep step,
-                                   Map<String, Object> context, WindowState windowState) {
+    private void executeSingleStep(ExecutionContext ctx, CompiledStep step, WindowState windowState) {
+        WebDriver driver = ctx.getDriver();
         // 操作前等待
         performWait(step.getWaitBeforeMs(), "操作前");
 
         // 执行具体操作
         switch (step.getType()) {
             case CLICK:
-                executeClick(driver, step, context);
+                executeClick(ctx, step);
                 break;
             case INPUT:
-                executeInput(driver, step, context);
+                executeInput(ctx, step);
                 break;
             case GET_TEXT:
-                executeGetText(driver, step, context);
+                executeGetText(ctx, step);
                 break;
             case LOOP_GET_TEXT:
-                executeLoopGetText(driver, step, context);
+                executeLoopGetText(ctx, step);
                 break;
             case LOOP_CLICK:
-                executeLoopClick(driver, step, context);
+                executeLoopClick(ctx, step);
                 break;
             case LOOP_INPUT:
-                executeLoopInput(driver, step, context);
+                executeLoopInput(ctx, step);
                 break;
             case LOOP_TASK:
-                executeLoopTask(driver, step, context, windowState);
+                executeLoopTask(ctx, step, windowState);
                 break;
             case DYNAMIC_LOOP:
-                executeDynamicLoop(driver, step, context, windowState);
+                executeDynamicLoop(ctx, step, windowState);
                 break;
             case WAIT:
                 executeWait(step);
@@ -290,28 +339,28 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
                 executeNavigate(driver, step);
                 break;
             case SWITCH_IFRAME:
-                executeSwitchIframe(driver, step, context);
+                executeSwitchIframe(ctx, step);
                 break;
             case GET_CURRENT_URL:
-                executeGetCurrentUrl(driver, step, context);
+                executeGetCurrentUrl(ctx, step);
                 break;
             case PRESS_KEYS:
-                executePressKeys(driver, step, context);
+                executePressKeys(ctx, step);
                 break;
             case KEYBOARD_INPUT:
-                executeKeyboardInput(driver, step, context);
+                executeKeyboardInput(ctx, step);
                 break;
             case GO_BACK:
                 executeGoBack(driver);
                 break;
             case HANDLE_ALERT:
-                executeHandleAlert(driver, step);
+                executeHandleAlert(ctx, step);
                 break;
             case CLOSE_TAB:
-                executeCloseTab(driver, windowState);
+                executeCloseTab(ctx, windowState);
                 break;
             case IMPORT_COOKIE:
-                executeImportCookie(driver, step);
+                executeImportCookie(ctx, step);
                 break;
             default:
                 throw new IllegalArgumentException("不支持的操作类型: " + step.getType());
@@ -321,222 +370,182 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
         performWait(step.getWaitAfterMs(), "操作后");
     }
 
-    /**
-     * 解析表达式，支持简单的数学运算
-     * 支持：{i+1}, {index*2}, {n-3}, {page/2} 等
-     */
-    private int parseExpression(String expression, Map<String, Object> context) {
-        // 移除花括号
-        String expr = expression.replace("{", "").replace("}", "").trim();
-
-        // 检查是否是简单的数字
-        if (expr.matches("\\d+")) {
-            return Integer.parseInt(expr);
+    // 表达式解析日志：逐个替换的成功记录为TRACE级别，任务或步骤级别为TRACE时才输出
+    private final PlaceholderTemplate.Listener xpathExpressionLogger = new PlaceholderTemplate.Listener() {
+        @Override
+        public void onResolved(String placeholder, int value) {
+            if (logPipeline.isEnabled(LogLevel.TRACE)) {
+                logPipeline.log(LogLevel.TRACE, "表达式解析成功: {} -> {}", placeholder, value);
+            }
         }
 
-        // 检查是否包含变量和运算符
-        for (Map.Entry<String, Object> entry : context.entrySet()) {
-            String varName = entry.getKey();
-            if (expr.startsWith(varName)) {
-                int baseValue = Integer.parseInt(entry.getValue().toString());
-                String operatorPart = expr.substring(varName.length()).trim();
-
-                if (operatorPart.isEmpty()) {
-                    return baseValue;
-                }
-
-                // 解析运算符和数值
-                if (operatorPart.matches("[+\\-*/]\\s*\\d+")) {
-                    char operator = operatorPart.charAt(0);
-                    int number = Integer.parseInt(operatorPart.substring(1).trim());
-
-                    switch (operator) {
-                        case '+':
-                            return baseValue + number;
-                        case '-':
-                            return baseValue - number;
-                        case '*':
-                            return baseValue * number;
-                        case '/':
-                            return baseValue / number;
-                        default:
-                            throw new IllegalArgumentException("不支持的运算符: " + operator);
-                    }
-                }
-            }
+        @Override
+        public void onUnresolved(String placeholder) {
+            // XPath中残留占位符通常会导致定位失败，需要提示用户
+            logError("表达式解析失败: {}, 使用原始文本", placeholder);
         }
+    };
 
-        // 如果没有匹配的变量，尝试直接计算
-        try {
-            // 简单的表达式计算（仅支持单个变量）
-            for (Map.Entry<String, Object> entry : context.entrySet()) {
-                String varName = entry.getKey();
-                if (expr.contains(varName)) {
-                    int value = Integer.parseInt(entry.getValue().toString());
-                    String calcExpr = expr.replace(varName, String.valueOf(value));
-                    // 简单的表达式求值
-                    return evaluateSimpleExpression(calcExpr);
-                }
+    private final PlaceholderTemplate.Listener valueExpressionLogger = new PlaceholderTemplate.Listener() {
+        @Override
+        public void onResolved(String placeholder, int value) {
+            if (logPipeline.isEnabled(LogLevel.TRACE)) {
+                logPipeline.log(LogLevel.TRACE, "值表达式解析成功: {} -> {}", placeholder, value);
             }
-        } catch (Exception e) {
-            logInfo("表达式解析失败: " + expression + ", 使用默认值1");
         }
 
-        return 1;
-    }
-
-    /**
-     * 简单表达式求值
-     */
-    private int evaluateSimpleExpression(String expression) {
-        try {
-            // 使用JavaScript引擎进行简单计算
-            javax.script.ScriptEngineManager manager = new javax.script.ScriptEngineManager();
-            javax.script.ScriptEngine engine = manager.getEngineByName("JavaScript");
-            Object result = engine.eval(expression);
-            return Integer.parseInt(result.toString());
-        } catch (Exception e) {
-            logError("表达式计算失败: " + expression + ", 使用默认值1");
-            return 1;
+        @Override
+        public void onUnresolved(String placeholder) {
+            // 按键占位符在编译期已按文字处理，这里只有变量未绑定或运算错误的表达式
+            if (logPipeline.isEnabled(LogLevel.TRACE)) {
+                logPipeline.log(LogLevel.TRACE, "值表达式未解析，使用原始文本: {}", placeholder);
+            }
         }
-    }
+    };
 
     /**
      * 解析XPath中的表达式 - 通用方法
+     * 支持：{i+1}, {index*2}, {(i-1)%3+1}, {i>5 ? i : 5} 等，表达式在编译期已解析
      */
-    private String resolveXpathWithExpression(String xpath, Map<String, Object> context) {
+    private String resolveXpathWithExpression(ExecutionContext ctx, PlaceholderTemplate xpath) {
         if (xpath == null) return null;
-
-        String result = xpath;
-        Pattern pattern = Pattern.compile("\\{([^}]+)\\}");
-        Matcher matcher = pattern.matcher(xpath);
-
-        while (matcher.find()) {
-            String fullMatch = matcher.group(0); // 完整的 {i+1}
-            String expression = matcher.group(1); // 表达式部分 i+1
-
-            try {
-                int value = parseExpression(fullMatch, context);
-                result = result.replace(fullMatch, String.valueOf(value));
-                logInfo("表达式解析成功: " + fullMatch + " -> " + value);
-            } catch (Exception e) {
-                logError("表达式解析失败: " + fullMatch + ", 使用原始文本");
-            }
-        }
-
-        return result;
+        if (xpath.isConstant()) return xpath.getConstantValue();
+        StringBuilder buffer = ctx.renderBuffer();
+        xpath.appendTo(buffer, ctx.getVariables(), xpathExpressionLogger);
+        return buffer.toString();
     }
 
     /**
      * 解析值中的表达式 - 通用方法
      */
-    private String resolveValueWithExpression(String value, Map<String, Object> context) {
+    private String resolveValueWithExpression(ExecutionContext ctx, PlaceholderTemplate value) {
         if (value == null) return null;
+        if (value.isConstant()) return value.getConstantValue();
+        StringBuilder buffer = ctx.renderBuffer();
+        value.appendTo(buffer, ctx.getVariables(), valueExpressionLogger);
+        return buffer.toString();
+    }
 
-        String result = value;
-        Pattern pattern = Pattern.compile("\\{([^}]+)\\}");
-        Matcher matcher = pattern.matcher(value);
-
-        while (matcher.find()) {
-            String fullMatch = matcher.group(0); // 完整的 {i+1}
-            String expression = matcher.group(1); // 表达式部分 i+1
 
+    /**
+     * 开头连续的导入Cookie步骤在首次导航前通过CDP写入浏览器，执行到这些步骤时不再导入和刷新页面
+     */
+    private void preloadCookies(ExecutionContext ctx, List<CompiledStep> steps) {
+        if (!(ctx.getDriver() instanceof ChromeDriver)) {
+            return;
+        }
+        for (CompiledStep step : steps) {
+            if (step.getType() != OperationType.IMPORT_COOKIE) {
+                return;
+            }
+            if (step.getFilePath() == null || step.getFilePath().isEmpty()) {
+                continue;
+            }
             try {
-                int exprValue = parseExpression(fullMatch, context);
-                result = result.replace(fullMatch, String.valueOf(exprValue));
-                logInfo("值表达式解析成功: " + fullMatch + " -> " + exprValue);
+                CookieJar jar = cookieStore.load(Paths.get(step.getFilePath()));
+                int importedCount = setCookies(ctx.getDriver(), jar);
+                ctx.markCookiesPreloaded(step);
+                logInfo("首次导航前从文件导入 {} 个Cookie: {}", importedCount, step.getFilePath());
             } catch (Exception e) {
-                logError("值表达式解析失败: " + fullMatch + ", 使用原始文本");
+                // 保持导入顺序：这一步及之后的导入留到执行步骤时进行，失败时在那里报告
+                logError("首次导航前导入Cookie失败: {}", e.getMessage());
+                return;
             }
         }
-
-        return result;
     }
 
-
     /**
      * 导入Cookie（从文件）
      */
-    private void executeImportCookie(WebDriver driver, OperationStep step) {
+    private void executeImportCookie(ExecutionContext ctx, CompiledStep step) {
         if (step.getFilePath() == null || step.getFilePath().isEmpty()) {
             logInfo("没有提供Cookie文件路径，跳过导入");
             return;
         }
+        if (ctx.isCookiesPreloaded(step)) {
+            logInfo("Cookie已在首次导航前导入: {}", step.getFilePath());
+            return;
+        }
 
+        WebDriver driver = ctx.getDriver();
         try {
-            logInfo("开始从文件导入Cookie: " + step.getFilePath());
+            logInfo("开始从文件导入Cookie: {}", step.getFilePath());
 
-            // 读取Cookie文件
-            String cookieJson = new String(Files.readAllBytes(Paths.get(step.getFilePath())), StandardCharsets.UTF_8);
+            // 文件未变化时直接使用缓存的解析结果
+            CookieJar jar = cookieStore.load(Paths.get(step.getFilePath()));
+            logInfo("解析到 {} 个Cookie", jar.size());
 
-            // 解析JSON格式的Cookie数据
-            ObjectMapper objectMapper = new ObjectMapper();
-            List<Map<String, Object>> cookies = objectMapper.readValue(cookieJson,
-                    objectMapper.getTypeFactory().constructCollectionType(List.class, Map.class));
+            int importedCount = setCookies(driver, jar);
+            logInfo("成功导入 {} 个Cookie", importedCount);
 
-            logInfo("解析到 " + cookies.size() + " 个Cookie");
+            // 刷新页面使Cookie生效
+            logInfo("正在刷新页面使Cookie生效...");
+            driver.navigate().refresh();
+            logInfo("已刷新页面使Cookie生效");
+
+        } catch (Exception e) {
+            logError("导入Cookie失败: {}", e.getMessage());
+            throw new RuntimeException("导入Cookie失败", e);
+        }
+    }
 
-            // 导入Cookie
+    /**
+     * 写入Cookie，返回成功写入的数量
+     * Chrome通过CDP一次写入全部Cookie（不受当前页面域名限制），其他浏览器逐个添加当前域名可用的Cookie
+     */
+    private int setCookies(WebDriver driver, CookieJar jar) {
+        if (driver instanceof ChromeDriver) {
+            ChromeDriver chromeDriver = (ChromeDriver) driver;
+            List<Map<String, Object>> cdpCookies = new ArrayList<>(jar.size());
+            for (StoredCookie cookie : jar.getCookies()) {
+                cdpCookies.add(cookie.toCdpCookie());
+            }
+            try {
+                chromeDriver.executeCdpCommand("Network.setCookies", Map.of("cookies", cdpCookies));
+                return cdpCookies.size();
+            } catch (Exception e) {
+                // 有一个Cookie不合法时整批失败，改为逐个写入以跳过有问题的Cookie
+                logError("批量导入Cookie失败，改为逐个导入: {}", e.getMessage());
+            }
             int importedCount = 0;
-            for (Map<String, Object> cookieMap : cookies) {
+            for (StoredCookie cookie : jar.getCookies()) {
                 try {
-                    Cookie.Builder cookieBuilder = new Cookie.Builder(
-                            cookieMap.get("name").toString(),
-                            cookieMap.get("value").toString()
-                    );
-
-                    cookieBuilder.domain(cookieMap.get("domain").toString());
-
-                    if (cookieMap.containsKey("path")) {
-                        cookieBuilder.path(cookieMap.get("path").toString());
-                    } else {
-                        cookieBuilder.path("/");
-                    }
-
-                    if (cookieMap.containsKey("expiry") && cookieMap.get("expiry") != null) {
-                        String expiryStr = cookieMap.get("expiry").toString();
-                        try {
-                            if (expiryStr.contains("T") && expiryStr.contains("Z")) {
-                                Date expiryDate = Date.from(java.time.Instant.parse(expiryStr));
-                                cookieBuilder.expiresOn(expiryDate);
-                            } else {
-                                long expiryTimestamp = Long.parseLong(expiryStr);
-                                cookieBuilder.expiresOn(new Date(expiryTimestamp));
-                            }
-                        } catch (Exception e) {
-                            logError("解析Cookie过期时间失败: " + expiryStr);
-                        }
-                    }
-
-                    if (cookieMap.containsKey("secure")) {
-                        cookieBuilder.isSecure(Boolean.parseBoolean(cookieMap.get("secure").toString()));
-                    }
-
-                    driver.manage().addCookie(cookieBuilder.build());
+                    chromeDriver.executeCdpCommand("Network.setCookie", cookie.toCdpCookie());
                     importedCount++;
-                    logInfo("导入Cookie: " + cookieMap.get("name"));
                 } catch (Exception e) {
-                    logError("导入单个Cookie失败: " + e.getMessage());
+                    logError("导入单个Cookie失败: {} - {}", cookie.name(), e.getMessage());
                 }
             }
+            return importedCount;
+        }
 
-            logInfo("成功导入 " + importedCount + " 个Cookie");
-
-            // 刷新页面使Cookie生效
-            logInfo("正在刷新页面使Cookie生效...");
-            driver.navigate().refresh();
-            logInfo("已刷新页面使Cookie生效");
-
+        String host = null;
+        try {
+            host = URI.create(driver.getCurrentUrl()).getHost();
         } catch (Exception e) {
-            logError("导入Cookie失败: " + e.getMessage());
-            throw new RuntimeException("导入Cookie失败", e);
+            logger.debug("解析当前页面地址失败: {}", e.getMessage());
+        }
+        List<StoredCookie> cookies = jar.forHost(host);
+        if (cookies.size() < jar.size()) {
+            logInfo("跳过 {} 个不属于当前域名的Cookie", jar.size() - cookies.size());
+        }
+        int importedCount = 0;
+        for (StoredCookie cookie : cookies) {
+            try {
+                driver.manage().addCookie(cookie.toSeleniumCookie());
+                importedCount++;
+            } catch (Exception e) {
+                logError("导入单个Cookie失败: {} - {}", cookie.name(), e.getMessage());
+            }
         }
+        return importedCount;
     }
 
     /**
      * 关闭当前标签页
      */
-    private void executeCloseTab(WebDriver driver, WindowState windowState) {
+    private void executeCloseTab(ExecutionContext ctx, WindowState windowState) {
+        WebDriver driver = ctx.getDriver();
         String currentHandle = driver.getWindowHandle();
         Set<String> handles = driver.getWindowHandles();
 
@@ -547,7 +556,8 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
 
         logInfo("准备关闭当前标签页");
 
-        // 关闭当前标签页
+        // 关闭当前标签页；先记下它访问过的来源，归还驱动池时清理这些来源的存储
+        WebDriverPool.collectOrigins(driver, ctx.getVisitedOrigins());
         driver.close();
 
         // 切换到剩余的第一个标签页
@@ -556,65 +566,142 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
             String newHandle = handles.iterator().next();
             driver.switchTo().window(newHandle);
             logInfo("已关闭标签页，切换到新标签页");
-            logInfo("当前URL: " + driver.getCurrentUrl());
+            if (logPipeline.isEnabled(LogLevel.INFO)) {
+                logInfo("当前URL: {}", driver.getCurrentUrl());
+            }
         }
 
         // 更新窗口状态
-        windowState.previousHandles = handles;
+        windowState.setPreviousHandles(handles);
         if (!handles.isEmpty()) {
-            windowState.mainWindowHandle = handles.iterator().next();
+            windowState.setMainWindowHandle(handles.iterator().next());
         }
     }
 
     /**
      * 遍历获取内容并写入文件 - 支持表达式
+     * 每获取一行立即写入输出流，中途失败时已获取的数据保留在文件中
      */
-    private void executeLoopGetText(WebDriver driver, OperationStep step, Map<String, Object> context) {
-        Integer startIndex = step.getStartIndex() != null ? step.getStartIndex() : 1;
-        Integer endIndex = step.getEndIndex() != null ? step.getEndIndex() : 1;
-        Integer increment = step.getIncrement() != null ? step.getIncrement() : 1;
+    private void executeLoopGetText(ExecutionContext ctx, CompiledStep step) {
+        int startIndex = step.getStartIndex();
+        int endIndex = step.getEndIndex();
+        int increment = step.getIncrement();
+        SeleniumConfig.Output outputConfig = seleniumConfig.getOutput();
+        Map<String, Object> parameters = step.getParameters();
+        // 步骤参数在编译期已校验，这里只补上配置的默认值
+        TextOutputWriter.Format format = step.getOutputFormat() != null
+                ? step.getOutputFormat() : TextOutputWriter.Format.parse(outputConfig.getFormat());
+        TextOutputWriter.FsyncPolicy fsyncPolicy = step.getFsyncPolicy() != null
+                ? step.getFsyncPolicy() : TextOutputWriter.FsyncPolicy.parse(outputConfig.getFsync());
+        long flushIntervalMs = step.getFlushIntervalMs() != null
+                ? step.getFlushIntervalMs() : outputConfig.getFlushIntervalMs();
         String filePath = step.getFilePath() != null ? step.getFilePath() :
-                "text_output_" + System.currentTimeMillis() + ".txt";
+                "text_output_" + System.currentTimeMillis() + defaultExtension(format);
+        boolean gzip = Boolean.parseBoolean(stringParameter(parameters, "gzip", String.valueOf(outputConfig.isGzip())))
+                || filePath.endsWith(".gz");
+        if (step.getFilePath() == null && gzip) {
+            filePath += ".gz";
+        }
 
         logInfo("准备遍历获取文本并写入文件");
-        logInfo("   - 索引范围: " + startIndex + " - " + endIndex + " (增量: " + increment + ")");
-        logInfo("   - 输出文件: " + filePath);
-
-        List<String> textList = new ArrayList<>();
+        logInfo("   - 索引范围: {} - {} (增量: {})", startIndex, endIndex, increment);
+        logInfo("   - 输出文件: {} (格式: {}{})", filePath, format, gzip ? ", gzip" : "");
 
-        for (int i = startIndex; i <= endIndex; i += increment) {
-            // 设置上下文变量
-            context.put("i", i);
-            context.put("index", i);
-            context.put("current", i);
-
-            // 使用表达式解析XPath
-            String resolvedXpath = resolveXpathWithExpression(step.getXpath(), context);
+        TextOutputWriter output;
+        try {
+            output = new TextOutputWriter(Paths.get(filePath), format, gzip, flushIntervalMs, fsyncPolicy,
+                    outputConfig.getBufferSize());
+        } catch (IOException e) {
+            logError("打开输出文件失败: {}", filePath);
+            throw new RuntimeException("打开输出文件失败: " + filePath, e);
+        }
 
+        boolean completed = false;
+        try {
+            if (step.isBatchMode()) {
+                loopGetTextBatch(ctx, step, output);
+            } else {
+                loopGetTextOneByOne(ctx, step, output);
+            }
+            completed = true;
+        } catch (IOException e) {
+            logError("写入文件失败: {}", filePath);
+            throw new RuntimeException("写入文件失败: " + filePath, e);
+        } finally {
             try {
-                WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-                WebElement element = wait.until(ExpectedConditions.presenceOfElementLocated(By.xpath(resolvedXpath)));
+                output.close();
+            } catch (IOException e) {
+                logError("关闭输出文件失败: {}", filePath);
+                if (completed) {
+                    throw new RuntimeException("写入文件失败: " + filePath, e);
+                }
+            }
+            if (!completed) {
+                logError("遍历获取中断，已写入 {} 条文本: {}", output.getRowCount(), filePath);
+            }
+        }
+        logInfo("💾 成功将 {} 条文本写入文件: {}", output.getRowCount(), filePath);
+        ctx.addResult("文件: " + filePath + " (" + output.getRowCount() + " 条)");
+    }
 
-                String text = element.getText().trim();
-                textList.add(text);
-                // 使用数据日志记录获取的文本内容
-                logData("获取文本 [" + i + "]: '" + text + "'");
+    private static String stringParameter(Map<String, Object> parameters, String name, String defaultValue) {
+        Object value = parameters.get(name);
+        return value != null ? value.toString() : defaultValue;
+    }
 
-                long waitTime = step.getWaitAfterMs() != null ? step.getWaitAfterMs() : 500;
-                Thread.sleep(waitTime);
-            } catch (Exception e) {
-                logError("获取文本失败，索引: " + i);
-                textList.add(""); // 添加空行保持顺序
-            }
+    private static String defaultExtension(TextOutputWriter.Format format) {
+        switch (format) {
+            case CSV:
+                return ".csv";
+            case JSONL:
+                return ".jsonl";
+            default:
+                return ".txt";
         }
+    }
+
+    /**
+     * 逐个元素获取文本：每个索引等待元素出现后读取
+     */
+    private void loopGetTextOneByOne(ExecutionContext ctx, CompiledStep step, TextOutputWriter output) throws IOException {
+        Map<String, Object> context = ctx.getVariables();
 
-        // 写入文件
+        LoopLogger loopLogger = logPipeline.loop("遍历获取文本", rangeCount(step), step.getLogEvery());
+        int ordinal = 0;
         try {
-            Files.write(Paths.get(filePath), textList, StandardCharsets.UTF_8);
-            logInfo("💾 成功将 " + textList.size() + " 条文本写入文件: " + filePath);
-        } catch (Exception e) {
-            logError("写入文件失败: " + filePath);
-            throw new RuntimeException("写入文件失败: " + filePath, e);
+            for (int i = step.getStartIndex(); i <= step.getEndIndex(); i += step.getIncrement()) {
+                checkCancelled();
+                loopLogger.beginIteration(ordinal++);
+                // 设置上下文变量
+                context.put("i", i);
+                context.put("index", i);
+                context.put("current", i);
+
+                // 使用表达式解析XPath
+                String resolvedXpath = resolveXpathWithExpression(ctx, step.getXpath());
+
+                String text;
+                try {
+                    WebDriverWait wait = ctx.elementWait(step);
+                    WebElement element = wait.until(ExpectedConditions.presenceOfElementLocated(step.locator(resolvedXpath)));
+
+                    text = element.getText().trim();
+                    // 使用数据日志记录获取的文本内容
+                    logData("获取文本 [{}]: '{}'", i, text);
+                } catch (Exception e) {
+                    logError("获取文本失败，索引: {}", i);
+                    text = ""; // 添加空行保持顺序
+                }
+                output.writeRow(i, text);
+
+                // 读取文本不会改变页面，只有显式配置时才固定等待
+                if (step.getWaitAfterMs() != null || step.getWaitMode() == WaitMode.FIXED) {
+                    sleepQuietly(step.getWaitAfterMs() != null ? step.getWaitAfterMs() : 500L);
+                }
+                loopLogger.endIteration();
+            }
+        } finally {
+            loopLogger.finish();
         }
 
         // 清理上下文变量
@@ -623,6 +710,87 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
         context.remove("current");
     }
 
+    /**
+     * 批量获取文本：先解析出全部XPath，再通过一次脚本调用提取；
+     * XPath不含表达式时视为节点集合，按位置 startIndex..endIndex 取元素
+     */
+    private void loopGetTextBatch(ExecutionContext ctx, CompiledStep step, TextOutputWriter output) throws IOException {
+        WebDriver driver = ctx.getDriver();
+        Map<String, Object> context = ctx.getVariables();
+        List<Integer> indexes = new ArrayList<>();
+        List<String> xpaths = new ArrayList<>();
+
+        for (int i = step.getStartIndex(); i <= step.getEndIndex(); i += step.getIncrement()) {
+            indexes.add(i);
+            if (!step.getXpath().isConstant()) {
+                context.put("i", i);
+                context.put("index", i);
+                context.put("current", i);
+                xpaths.add(resolveXpathWithExpression(ctx, step.getXpath()));
+            }
+        }
+        context.remove("i");
+        context.remove("index");
+        context.remove("current");
+        if (indexes.isEmpty()) {
+            return;
+        }
+
+        // 只等待第一个元素出现，之后整批提取
+        String firstXpath = xpaths.isEmpty() ? step.getXpath().getConstantValue() : xpaths.get(0);
+        try {
+            ctx.elementWait(step)
+                    .until(ExpectedConditions.presenceOfElementLocated(By.xpath(firstXpath)));
+        } catch (TimeoutException e) {
+            logError("等待元素超时，继续批量提取: {}", firstXpath);
+        }
+        checkCancelled();
+
+        long start = System.currentTimeMillis();
+        List<String> textList = xpaths.isEmpty()
+                ? BatchTextExtractor.extractNodeSet(driver, step.getXpath().getConstantValue(),
+                        step.getStartIndex(), step.getEndIndex(), step.getIncrement())
+                : BatchTextExtractor.extract(driver, xpaths);
+        logInfo("批量提取完成: {} 条，耗时 {}ms", textList.size(), System.currentTimeMillis() - start);
+
+        LoopLogger loopLogger = logPipeline.loop("写入文本", textList.size(), step.getLogEvery());
+        try {
+            for (int k = 0; k < textList.size(); k++) {
+                loopLogger.beginIteration(k);
+                String text = textList.get(k);
+                if (text == null) {
+                    // 只有找不到元素才算失败，内容为空的单元格照常写入空行
+                    logError("获取文本失败，索引: {}", indexes.get(k));
+                    text = "";
+                } else {
+                    logData("获取文本 [{}]: '{}'", indexes.get(k), text);
+                }
+                output.writeRow(indexes.get(k), text);
+                loopLogger.endIteration();
+            }
+        } finally {
+            loopLogger.finish();
+        }
+    }
+
+    /**
+     * 索引循环（startIndex..endIndex）的迭代次数
+     */
+    private static int rangeCount(CompiledStep step) {
+        if (step.getEndIndex() < step.getStartIndex()) {
+            return 0;
+        }
+        return (step.getEndIndex() - step.getStartIndex()) / Math.max(1, step.getIncrement()) + 1;
+    }
+
+    /**
+     * 次数循环（0..iterations）的迭代次数
+     */
+    private static int loopCount(CompiledStep step) {
+        int increment = Math.max(1, step.getIncrement());
+        return Math.max(0, (step.getIterations() + increment - 1) / increment);
+    }
+
     /**
      * 返回上一个页面
      */
@@ -630,20 +798,23 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
         String currentUrl = driver.getCurrentUrl();
         driver.navigate().back();
         String newUrl = driver.getCurrentUrl();
-        logInfo("返回上一页: " + currentUrl + " -> " + newUrl);
+        logInfo("返回上一页: {} -> {}", currentUrl, newUrl);
     }
 
     /**
      * 处理弹窗
      */
-    private void executeHandleAlert(WebDriver driver, OperationStep step) {
+    private void executeHandleAlert(ExecutionContext ctx, CompiledStep step) {
         try {
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(5));
+            // 弹窗默认只等待5秒，步骤设置了 timeoutMs 时按步骤参数
+            WebDriverWait wait = step.hasWaitOverride()
+                    ? ctx.elementWait(step)
+                    : new WebDriverWait(ctx.getDriver(), Duration.ofSeconds(5), ctx.getWaitPolicy().getPolling());
             Alert alert = wait.until(ExpectedConditions.alertIsPresent());
 
             if (step.getAlertText() != null && !step.getAlertText().isEmpty()) {
                 alert.sendKeys(step.getAlertText());
-                logInfo("在弹窗中输入文本: " + step.getAlertText());
+                logInfo("在弹窗中输入文本: {}", step.getAlertText());
             }
 
             if (step.getAcceptAlert() != null) {
@@ -658,7 +829,7 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
         } catch (TimeoutException e) {
             logError("在指定时间内未检测到弹窗");
         } catch (Exception e) {
-            logError("处理弹窗失败: " + e.getMessage());
+            logError("处理弹窗失败: {}", e.getMessage());
             throw new RuntimeException("处理弹窗失败", e);
         }
     }
@@ -666,29 +837,38 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
     /**
      * 动态循环 - 支持表达式
      */
-    private void executeDynamicLoop(WebDriver driver, OperationStep step,
-                                    Map<String, Object> context, WindowState windowState) {
-        String loopVar = step.getValue() != null ? step.getValue() : "dynamic_index";
-        Integer iterations = step.getIterations() != null ? step.getIterations() : 1;
-        Integer increment = step.getIncrement() != null ? step.getIncrement() : 1;
-
-        for (int i = 0; i < iterations; i += increment) {
-            context.put(loopVar, i);
-            context.put("i", i);
-            context.put("index", i);
-            logInfo("开始动态循环迭代: " + (i + 1) + "/" + iterations + " (增量: " + increment + ")");
-
-            if (step.getSubSteps() != null) {
-                // 为子步骤创建新的窗口状态副本
-                WindowState subWindowState = new WindowState(
-                        windowState.mainWindowHandle,
-                        new HashSet<>(driver.getWindowHandles())
-                );
-                executeSteps(driver, step.getSubSteps(), context, subWindowState);
-            }
+    private void executeDynamicLoop(ExecutionContext ctx, CompiledStep step, WindowState windowState) {
+        Map<String, Object> context = ctx.getVariables();
+        String loopVar = step.getVariableName();
+        int iterations = step.getIterations();
+        int increment = step.getIncrement();
+
+        LoopLogger loopLogger = logPipeline.loop("动态循环", loopCount(step), step.getLogEvery());
+        int ordinal = 0;
+        try {
+            for (int i = 0; i < iterations; i += increment) {
+                checkCancelled();
+                loopLogger.beginIteration(ordinal++);
+                context.put(loopVar, i);
+                context.put("i", i);
+                context.put("index", i);
+                logInfo("开始动态循环迭代: {}/{} (增量: {})", i + 1, iterations, increment);
+
+                if (step.getSubSteps() != null) {
+                    // 子步骤与外层共用窗口状态，子步骤打开或关闭窗口后外层状态仍然准确
+                    executeSteps(ctx, step.getSubSteps(), windowState);
+                }
 
-            // 每次循环后等待一下，避免操作过快
-            performWait(step.getWaitAfterMs() != null ? step.getWaitAfterMs() : 1000L, "动态循环后");
+                // 每次循环后等待页面稳定，避免操作过快
+                if (step.getWaitAfterMs() != null) {
+                    performWait(step.getWaitAfterMs(), "动态循环后");
+                } else {
+                    settleAfterAction(ctx, step, 1000L);
+                }
+                loopLogger.endIteration();
+            }
+        } finally {
+            loopLogger.finish();
         }
 
         // 清理上下文变量
@@ -700,26 +880,31 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
     /**
      * 循环任务 - 支持表达式
      */
-    private void executeLoopTask(WebDriver driver, OperationStep step,
-                                 Map<String, Object> context, WindowState windowState) {
-        String loopVar = step.getValue() != null ? step.getValue() : "i";
-        Integer iterations = step.getIterations() != null ? step.getIterations() : 1;
-        Integer increment = step.getIncrement() != null ? step.getIncrement() : 1;
-
-        for (int i = 0; i < iterations; i += increment) {
-            context.put(loopVar, i);
-            context.put("i", i);
-            context.put("index", i);
-            logInfo("开始循环任务迭代: " + (i + 1) + "/" + iterations + " (增量: " + increment + ")");
-
-            if (step.getSubSteps() != null) {
-                // 为子步骤创建新的窗口状态副本
-                WindowState subWindowState = new WindowState(
-                        windowState.mainWindowHandle,
-                        new HashSet<>(driver.getWindowHandles())
-                );
-                executeSteps(driver, step.getSubSteps(), context, subWindowState);
+    private void executeLoopTask(ExecutionContext ctx, CompiledStep step, WindowState windowState) {
+        Map<String, Object> context = ctx.getVariables();
+        String loopVar = step.getVariableName();
+        int iterations = step.getIterations();
+        int increment = step.getIncrement();
+
+        LoopLogger loopLogger = logPipeline.loop("循环任务", loopCount(step), step.getLogEvery());
+        int ordinal = 0;
+        try {
+            for (int i = 0; i < iterations; i += increment) {
+                checkCancelled();
+                loopLogger.beginIteration(ordinal++);
+                context.put(loopVar, i);
+                context.put("i", i);
+                context.put("index", i);
+                logInfo("开始循环任务迭代: {}/{} (增量: {})", i + 1, iterations, increment);
+
+                if (step.getSubSteps() != null) {
+                    // 子步骤与外层共用窗口状态，子步骤打开或关闭窗口后外层状态仍然准确
+                    executeSteps(ctx, step.getSubSteps(), windowState);
+                }
+                loopLogger.endIteration();
             }
+        } finally {
+            loopLogger.finish();
         }
 
         // 清理上下文变量
@@ -731,20 +916,24 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
     /**
      * 获取当前URL
      */
-    private void executeGetCurrentUrl(WebDriver driver, OperationStep step, Map<String, Object> context) {
+    private void executeGetCurrentUrl(ExecutionContext ctx, CompiledStep step) {
+        WebDriver driver = ctx.getDriver();
+        Map<String, Object> context = ctx.getVariables();
         String currentUrl = driver.getCurrentUrl();
-        String key = step.getValue() != null ? step.getValue() : "current_url";
+        String key = step.getVariableName();
 
         context.put(key, currentUrl);
-        logData("获取当前URL: " + currentUrl);
-        logInfo("已保存到上下文: " + key + " = " + currentUrl);
+        ctx.addResult(currentUrl);
+        logData("获取当前URL: {}", currentUrl);
+        logInfo("已保存到上下文: {} = {}", key, currentUrl);
     }
 
     /**
      * 切换iframe - 支持表达式
      */
-    private void executeSwitchIframe(WebDriver driver, OperationStep step, Map<String, Object> context) {
-        String resolvedXpath = resolveXpathWithExpression(step.getXpath(), context);
+    private void executeSwitchIframe(ExecutionContext ctx, CompiledStep step) {
+        WebDriver driver = ctx.getDriver();
+        String resolvedXpath = resolveXpathWithExpression(ctx, step.getXpath());
 
         logInfo("准备切换iframe");
 
@@ -759,13 +948,13 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
                 logInfo("已切换回父级iframe");
             } else {
                 // 切换到指定iframe
-                WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-                WebElement iframeElement = wait.until(ExpectedConditions.presenceOfElementLocated(By.xpath(resolvedXpath)));
+                WebDriverWait wait = ctx.elementWait(step);
+                WebElement iframeElement = wait.until(ExpectedConditions.presenceOfElementLocated(step.locator(resolvedXpath)));
                 driver.switchTo().frame(iframeElement);
                 logInfo("已切换到iframe");
             }
         } catch (Exception e) {
-            logError("切换iframe失败: " + e.getMessage());
+            logError("切换iframe失败: {}", e.getMessage());
             throw new RuntimeException("切换iframe失败: " + resolvedXpath, e);
         }
     }
@@ -773,88 +962,25 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
     /**
      * 模拟按键操作
      */
-    private void executePressKeys(WebDriver driver, OperationStep step, Map<String, Object> context) {
-        String resolvedValue = resolveValueWithExpression(step.getValue(), context);
+    private void executePressKeys(ExecutionContext ctx, CompiledStep step) {
+        WebDriver driver = ctx.getDriver();
+        String resolvedValue = resolveValueWithExpression(ctx, step.getValue());
 
-        logInfo("准备模拟按键操作: " + resolvedValue);
+        logInfo("准备模拟按键操作: {}", resolvedValue);
 
         try {
             Actions actions = new Actions(driver);
 
-            // 解析按键序列（支持组合键，用+连接）
-            String[] keySequence = resolvedValue.split("\\+");
-            for (String key : keySequence) {
-                key = key.trim().toUpperCase();
-                switch (key) {
-                    case "CTRL":
-                        actions.keyDown(Keys.CONTROL);
-                        break;
-                    case "SHIFT":
-                        actions.keyDown(Keys.SHIFT);
-                        break;
-                    case "ALT":
-                        actions.keyDown(Keys.ALT);
-                        break;
-                    case "ENTER":
-                        actions.sendKeys(Keys.ENTER);
-                        break;
-                    case "TAB":
-                        actions.sendKeys(Keys.TAB);
-                        break;
-                    case "ESC":
-                        actions.sendKeys(Keys.ESCAPE);
-                        break;
-                    case "BACKSPACE":
-                        actions.sendKeys(Keys.BACK_SPACE);
-                        break;
-                    case "DELETE":
-                        actions.sendKeys(Keys.DELETE);
-                        break;
-                    case "HOME":
-                        actions.sendKeys(Keys.HOME);
-                        break;
-                    case "END":
-                        actions.sendKeys(Keys.END);
-                        break;
-                    case "PAGEUP":
-                        actions.sendKeys(Keys.PAGE_UP);
-                        break;
-                    case "PAGEDOWN":
-                        actions.sendKeys(Keys.PAGE_DOWN);
-                        break;
-                    case "ARROW_UP":
-                        actions.sendKeys(Keys.ARROW_UP);
-                        break;
-                    case "ARROW_DOWN":
-                        actions.sendKeys(Keys.ARROW_DOWN);
-                        break;
-                    case "ARROW_LEFT":
-                        actions.sendKeys(Keys.ARROW_LEFT);
-                        break;
-                    case "ARROW_RIGHT":
-                        actions.sendKeys(Keys.ARROW_RIGHT);
-                        break;
-                    case "F1": case "F2": case "F3": case "F4": case "F5": case "F6":
-                    case "F7": case "F8": case "F9": case "F10": case "F11": case "F12":
-                        actions.sendKeys(Keys.valueOf("F" + key.substring(1)));
-                        break;
-                    case "A": case "B": case "C": case "D": case "E": case "F": case "G":
-                    case "H": case "I": case "J": case "K": case "L": case "M": case "N":
-                    case "O": case "P": case "Q": case "R": case "S": case "T": case "U":
-                    case "V": case "W": case "X": case "Y": case "Z":
-                        // 将大写字母转换为小写，因为 sendKeys 需要小写字母
-                        actions.sendKeys(key.toLowerCase());
-                        break;
-                    case "0": case "1": case "2": case "3": case "4":
-                    case "5": case "6": case "7": case "8": case "9":
-                        // 添加数字键支持
-                        actions.sendKeys(key);
-                        break;
-                    case "SPACE":
-                        actions.sendKeys(Keys.SPACE);
-                        break;
-                    default:
-                        logInfo("不支持的按键: " + key);
+            // 解析按键序列（支持组合键，用+连接），常量值已在编译期解析
+            KeySequence keys = step.keys(resolvedValue);
+            for (String key : keys.getUnsupportedKeys()) {
+                logInfo("不支持的按键: {}", key);
+            }
+            for (int k = 0; k < keys.size(); k++) {
+                if (keys.isKeyDown(k)) {
+                    actions.keyDown(keys.getKey(k));
+                } else {
+                    actions.sendKeys(keys.getKey(k));
                 }
             }
 
@@ -862,10 +988,10 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
             actions.keyUp(Keys.CONTROL).keyUp(Keys.SHIFT).keyUp(Keys.ALT);
             actions.build().perform();
 
-            logInfo("模拟按键操作完成: " + resolvedValue);
+            logInfo("模拟按键操作完成: {}", resolvedValue);
 
         } catch (Exception e) {
-            logError("模拟按键操作失败: " + e.getMessage());
+            logError("模拟按键操作失败: {}", e.getMessage());
             throw new RuntimeException("模拟按键操作失败: " + resolvedValue, e);
         }
     }
@@ -873,165 +999,72 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
     /**
      * 模拟键盘输入 - 支持表达式
      */
-    private void executeKeyboardInput(WebDriver driver, OperationStep step, Map<String, Object> context) {
-        String resolvedValue = resolveValueWithExpression(step.getValue(), context);
-        String resolvedXpath = step.getXpath() != null ? resolveXpathWithExpression(step.getXpath(), context) : null;
+    private void executeKeyboardInput(ExecutionContext ctx, CompiledStep step) {
+        WebDriver driver = ctx.getDriver();
+        String resolvedValue = resolveValueWithExpression(ctx, step.getValue());
+        String resolvedXpath = step.getXpath() != null ? resolveXpathWithExpression(ctx, step.getXpath()) : null;
 
-        logInfo("准备模拟键盘输入: " + resolvedValue);
+        logInfo("准备模拟键盘输入: {}", resolvedValue);
 
         try {
             Actions actions = new Actions(driver);
 
             // 如果有指定元素，先点击元素获得焦点
             if (resolvedXpath != null) {
-                WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-                WebElement element = wait.until(ExpectedConditions.elementToBeClickable(By.xpath(resolvedXpath)));
+                WebDriverWait wait = ctx.elementWait(step);
+                WebElement element = wait.until(ExpectedConditions.elementToBeClickable(step.locator(resolvedXpath)));
                 element.click();
                 logInfo("已点击目标元素获得焦点");
             }
 
             // 解析并执行键盘输入
-            actions.sendKeys(parseKeySequence(resolvedValue)).perform();
+            KeySequence keys = step.keys(resolvedValue);
+            for (String key : keys.getUnsupportedKeys()) {
+                logInfo("不支持的特殊键: {}", key);
+            }
+            actions.sendKeys(keys.getKeys()).perform();
 
-            logInfo("模拟键盘输入完成: " + resolvedValue);
+            logInfo("模拟键盘输入完成: {}", resolvedValue);
 
         } catch (Exception e) {
-            logError("模拟键盘输入失败: " + e.getMessage());
+            logError("模拟键盘输入失败: {}", e.getMessage());
             throw new RuntimeException("模拟键盘输入失败: " + resolvedValue, e);
         }
     }
 
-    /**
-     * 解析键盘输入序列
-     */
-    private CharSequence[] parseKeySequence(String input) {
-        List<CharSequence> sequence = new ArrayList<>();
-        StringBuilder currentText = new StringBuilder();
-
-        for (int i = 0; i < input.length(); i++) {
-            char c = input.charAt(i);
-
-            if (c == '{' && i + 1 < input.length()) {
-                // 处理特殊键
-                int endIndex = input.indexOf('}', i);
-                if (endIndex != -1) {
-                    String specialKey = input.substring(i + 1, endIndex).toUpperCase();
-                    if (currentText.length() > 0) {
-                        sequence.add(currentText.toString());
-                        currentText.setLength(0);
-                    }
-
-                    switch (specialKey) {
-                        case "ENTER":
-                            sequence.add(Keys.ENTER);
-                            break;
-                        case "TAB":
-                            sequence.add(Keys.TAB);
-                            break;
-                        case "ESC":
-                        case "ESCAPE":
-                            sequence.add(Keys.ESCAPE);
-                            break;
-                        case "BACKSPACE":
-                            sequence.add(Keys.BACK_SPACE);
-                            break;
-                        case "DELETE":
-                            sequence.add(Keys.DELETE);
-                            break;
-                        case "HOME":
-                            sequence.add(Keys.HOME);
-                            break;
-                        case "END":
-                            sequence.add(Keys.END);
-                            break;
-                        case "PAGEUP":
-                            sequence.add(Keys.PAGE_UP);
-                            break;
-                        case "PAGEDOWN":
-                            sequence.add(Keys.PAGE_DOWN);
-                            break;
-                        case "UP":
-                        case "ARROW_UP":
-                            sequence.add(Keys.ARROW_UP);
-                            break;
-                        case "DOWN":
-                        case "ARROW_DOWN":
-                            sequence.add(Keys.ARROW_DOWN);
-                            break;
-                        case "LEFT":
-                        case "ARROW_LEFT":
-                            sequence.add(Keys.ARROW_LEFT);
-                            break;
-                        case "RIGHT":
-                        case "ARROW_RIGHT":
-                            sequence.add(Keys.ARROW_RIGHT);
-                            break;
-                        case "CTRL":
-                            sequence.add(Keys.CONTROL);
-                            break;
-                        case "SHIFT":
-                            sequence.add(Keys.SHIFT);
-                            break;
-                        case "ALT":
-                            sequence.add(Keys.ALT);
-                            break;
-                        default:
-                            // 如果是F1-F12
-                            if (specialKey.matches("F[1-9]|F1[0-2]")) {
-                                sequence.add(Keys.valueOf(specialKey));
-                            } else {
-                                logInfo("不支持的特殊键: " + specialKey);
-                                currentText.append("{" + specialKey + "}");
-                            }
-                    }
-
-                    i = endIndex; // 跳过已处理的部分
-                } else {
-                    currentText.append(c);
-                }
-            } else {
-                currentText.append(c);
-            }
-        }
-
-        // 添加剩余文本
-        if (currentText.length() > 0) {
-            sequence.add(currentText.toString());
-        }
-
-        return sequence.toArray(new CharSequence[0]);
-    }
-
-
     /**
      * 点击操作 - 支持表达式
      */
-    private void executeClick(WebDriver driver, OperationStep step, Map<String, Object> context) {
-        String resolvedXpath = resolveXpathWithExpression(step.getXpath(), context);
+    private void executeClick(ExecutionContext ctx, CompiledStep step) {
+        WebDriver driver = ctx.getDriver();
+        String resolvedXpath = resolveXpathWithExpression(ctx, step.getXpath());
 
         logInfo("准备点击操作");
-        logInfo("当前URL: " + driver.getCurrentUrl());
+        // 读取当前URL需要一次浏览器往返，INFO级别关闭时不读取
+        if (logPipeline.isEnabled(LogLevel.INFO)) {
+            logInfo("当前URL: {}", driver.getCurrentUrl());
+        }
 
         try {
             // 增加显式等待，确保元素存在
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-            WebElement element = wait.until(ExpectedConditions.elementToBeClickable(By.xpath(resolvedXpath)));
+            WebDriverWait wait = ctx.elementWait(step);
+            WebElement element = wait.until(ExpectedConditions.elementToBeClickable(step.locator(resolvedXpath)));
 
             element.click();
             logInfo("点击元素成功");
 
             // 点击后等待页面可能的变化
-            Thread.sleep(1000);
+            settleAfterAction(ctx, step, 1000L);
 
         } catch (TimeoutException e) {
             logError("元素查找超时");
             logError("可能的原因:");
             logError("  - XPath 不正确");
             logError("  - 元素尚未加载完成");
-            logError("  - 当前页面URL: " + driver.getCurrentUrl());
+            logError("  - 当前页面URL: {}", driver.getCurrentUrl());
             throw new RuntimeException("元素查找超时: " + resolvedXpath, e);
         } catch (Exception e) {
-            logError("点击元素失败: " + e.getMessage());
+            logError("点击元素失败: {}", e.getMessage());
             throw new RuntimeException("点击元素失败: " + resolvedXpath, e);
         }
     }
@@ -1039,24 +1072,27 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
     /**
      * 输入操作 - 支持表达式
      */
-    private void executeInput(WebDriver driver, OperationStep step, Map<String, Object> context) {
-        String resolvedXpath = resolveXpathWithExpression(step.getXpath(), context);
-        String resolvedValue = resolveValueWithExpression(step.getValue(), context);
+    private void executeInput(ExecutionContext ctx, CompiledStep step) {
+        WebDriver driver = ctx.getDriver();
+        String resolvedXpath = resolveXpathWithExpression(ctx, step.getXpath());
+        String resolvedValue = resolveValueWithExpression(ctx, step.getValue());
 
         logInfo("准备输入操作");
-        logInfo("  - 输入值: " + resolvedValue);
-        logInfo("  - 当前URL: " + driver.getCurrentUrl());
+        logInfo("  - 输入值: {}", resolvedValue);
+        if (logPipeline.isEnabled(LogLevel.INFO)) {
+            logInfo("  - 当前URL: {}", driver.getCurrentUrl());
+        }
 
         try {
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-            WebElement element = wait.until(ExpectedConditions.presenceOfElementLocated(By.xpath(resolvedXpath)));
+            WebDriverWait wait = ctx.elementWait(step);
+            WebElement element = wait.until(ExpectedConditions.presenceOfElementLocated(step.locator(resolvedXpath)));
 
             element.clear();
             element.sendKeys(resolvedValue);
-            logInfo("输入内容成功: '" + resolvedValue + "'");
+            logInfo("输入内容成功: '{}'", resolvedValue);
 
         } catch (Exception e) {
-            logError("输入内容失败: " + e.getMessage());
+            logError("输入内容失败: {}", e.getMessage());
             throw new RuntimeException("输入内容失败: " + resolvedXpath, e);
         }
     }
@@ -1064,23 +1100,27 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
     /**
      * 获取文本操作 - 支持表达式
      */
-    private void executeGetText(WebDriver driver, OperationStep step, Map<String, Object> context) {
-        String resolvedXpath = resolveXpathWithExpression(step.getXpath(), context);
+    private void executeGetText(ExecutionContext ctx, CompiledStep step) {
+        WebDriver driver = ctx.getDriver();
+        String resolvedXpath = resolveXpathWithExpression(ctx, step.getXpath());
 
         logInfo("准备获取文本操作");
-        logInfo("  - 当前URL: " + driver.getCurrentUrl());
+        if (logPipeline.isEnabled(LogLevel.INFO)) {
+            logInfo("  - 当前URL: {}", driver.getCurrentUrl());
+        }
 
         try {
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-            WebElement element = wait.until(ExpectedConditions.presenceOfElementLocated(By.xpath(resolvedXpath)));
+            WebDriverWait wait = ctx.elementWait(step);
+            WebElement element = wait.until(ExpectedConditions.presenceOfElementLocated(step.locator(resolvedXpath)));
 
             String text = element.getText();
+            ctx.addResult(text);
             // 使用数据日志记录获取的文本内容
-            logData("获取文本: '" + text + "'");
+            logData("获取文本: '{}'", text);
             logInfo("获取文本成功");
 
         } catch (Exception e) {
-            logError("获取文本失败: " + e.getMessage());
+            logError("获取文本失败: {}", e.getMessage());
             throw new RuntimeException("获取文本失败: " + resolvedXpath, e);
         }
     }
@@ -1088,35 +1128,53 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
     /**
      * 遍历点击 - 支持表达式
      */
-    private void executeLoopClick(WebDriver driver, OperationStep step, Map<String, Object> context) {
-        Integer startIndex = step.getStartIndex() != null ? step.getStartIndex() : 1;
-        Integer endIndex = step.getEndIndex() != null ? step.getEndIndex() : 1;
-        Integer increment = step.getIncrement() != null ? step.getIncrement() : 1;
+    private void executeLoopClick(ExecutionContext ctx, CompiledStep step) {
+        Map<String, Object> context = ctx.getVariables();
+        int startIndex = step.getStartIndex();
+        int endIndex = step.getEndIndex();
+        int increment = step.getIncrement();
 
         logInfo("准备遍历点击操作");
-        logInfo("  - 索引范围: " + startIndex + " - " + endIndex + " (增量: " + increment + ")");
+        logInfo("  - 索引范围: {} - {} (增量: {})", startIndex, endIndex, increment);
 
-        for (int i = startIndex; i <= endIndex; i += increment) {
-            // 设置上下文变量
-            context.put("i", i);
-            context.put("index", i);
-            context.put("current", i);
+        LoopLogger loopLogger = logPipeline.loop("遍历点击", rangeCount(step), step.getLogEvery());
+        int ordinal = 0;
+        try {
+            for (int i = startIndex; i <= endIndex; i += increment) {
+                checkCancelled();
+                loopLogger.beginIteration(ordinal++);
+                // 设置上下文变量
+                context.put("i", i);
+                context.put("index", i);
+                context.put("current", i);
 
-            // 使用表达式解析XPath
-            String resolvedXpath = resolveXpathWithExpression(step.getXpath(), context);
+                // 使用表达式解析XPath
+                String resolvedXpath = resolveXpathWithExpression(ctx, step.getXpath());
 
-            try {
-                WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-                WebElement element = wait.until(ExpectedConditions.elementToBeClickable(By.xpath(resolvedXpath)));
+                try {
+                    WebDriverWait wait = ctx.elementWait(step);
+                    WebElement element = wait.until(ExpectedConditions.elementToBeClickable(step.locator(resolvedXpath)));
 
-                element.click();
-                logInfo("遍历点击成功: 索引: " + i);
+                    element.click();
+                    logInfo("遍历点击成功: 索引: {}", i);
 
-                long waitTime = step.getWaitAfterMs() != null ? step.getWaitAfterMs() : 500;
-                Thread.sleep(waitTime);
-            } catch (Exception e) {
-                logError("遍历点击失败，索引: " + i);
+                    if (step.getWaitAfterMs() != null) {
+                        Thread.sleep(step.getWaitAfterMs());
+                    } else {
+                        settleAfterAction(ctx, step, 500L);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("任务已取消");
+                } catch (CancellationException e) {
+                    throw e;
+                } catch (Exception e) {
+                    logError("遍历点击失败，索引: {}", i);
+                }
+                loopLogger.endIteration();
             }
+        } finally {
+            loopLogger.finish();
         }
 
         // 清理上下文变量
@@ -1128,38 +1186,56 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
     /**
      * 遍历输入 - 支持表达式
      */
-    private void executeLoopInput(WebDriver driver, OperationStep step, Map<String, Object> context) {
-        Integer startIndex = step.getStartIndex() != null ? step.getStartIndex() : 1;
-        Integer endIndex = step.getEndIndex() != null ? step.getEndIndex() : 1;
-        Integer increment = step.getIncrement() != null ? step.getIncrement() : 1;
+    private void executeLoopInput(ExecutionContext ctx, CompiledStep step) {
+        Map<String, Object> context = ctx.getVariables();
+        int startIndex = step.getStartIndex();
+        int endIndex = step.getEndIndex();
+        int increment = step.getIncrement();
 
         logInfo("准备遍历输入操作");
-        logInfo("  - 索引范围: " + startIndex + " - " + endIndex + " (增量: " + increment + ")");
+        logInfo("  - 索引范围: {} - {} (增量: {})", startIndex, endIndex, increment);
 
-        for (int i = startIndex; i <= endIndex; i += increment) {
-            // 设置上下文变量
-            context.put("i", i);
-            context.put("index", i);
-            context.put("current", i);
-
-            // 使用表达式解析XPath和值
-            String resolvedXpath = resolveXpathWithExpression(step.getXpath(), context);
-            String resolvedValue = resolveValueWithExpression(step.getValue(), context);
+        LoopLogger loopLogger = logPipeline.loop("遍历输入", rangeCount(step), step.getLogEvery());
+        int ordinal = 0;
+        try {
+            for (int i = startIndex; i <= endIndex; i += increment) {
+                checkCancelled();
+                loopLogger.beginIteration(ordinal++);
+                // 设置上下文变量
+                context.put("i", i);
+                context.put("index", i);
+                context.put("current", i);
+
+                // 使用表达式解析XPath和值
+                String resolvedXpath = resolveXpathWithExpression(ctx, step.getXpath());
+                String resolvedValue = resolveValueWithExpression(ctx, step.getValue());
 
-            try {
-                WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-                WebElement element = wait.until(ExpectedConditions.presenceOfElementLocated(By.xpath(resolvedXpath)));
+                try {
+                    WebDriverWait wait = ctx.elementWait(step);
+                    WebElement element = wait.until(ExpectedConditions.presenceOfElementLocated(step.locator(resolvedXpath)));
 
-                element.clear();
-                element.sendKeys(resolvedValue);
-                logInfo("遍历输入成功: 索引: " + i);
-                logInfo("   - 输入的值: " + resolvedValue);
+                    element.clear();
+                    element.sendKeys(resolvedValue);
+                    logInfo("遍历输入成功: 索引: {}", i);
+                    logInfo("   - 输入的值: {}", resolvedValue);
 
-                long waitTime = step.getWaitAfterMs() != null ? step.getWaitAfterMs() : 500;
-                Thread.sleep(waitTime);
-            } catch (Exception e) {
-                logError("遍历输入失败，索引: " + i);
+                    if (step.getWaitAfterMs() != null) {
+                        Thread.sleep(step.getWaitAfterMs());
+                    } else {
+                        settleAfterAction(ctx, step, 500L);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("任务已取消");
+                } catch (CancellationException e) {
+                    throw e;
+                } catch (Exception e) {
+                    logError("遍历输入失败，索引: {}", i);
+                }
+                loopLogger.endIteration();
             }
+        } finally {
+            loopLogger.finish();
         }
 
         // 清理上下文变量
@@ -1168,84 +1244,53 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
         context.remove("current");
     }
 
-    private void executeWait(OperationStep step) {
-        long waitTime = 1000L;
-        if (step.getParameters() != null && step.getParameters().containsKey("milliseconds")) {
-            waitTime = Long.parseLong(step.getParameters().get("milliseconds").toString());
-        } else if (step.getWaitBeforeMs() != null) {
-            waitTime = step.getWaitBeforeMs();
-        } else if (step.getWaitAfterMs() != null) {
-            waitTime = step.getWaitAfterMs();
-        }
+    private void executeWait(CompiledStep step) {
+        long waitTime = step.getWaitMillis();
 
-        try {
-            logInfo("等待 " + waitTime + " 毫秒");
-            Thread.sleep(waitTime);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("等待被中断", e);
-        }
+        logInfo("等待 {} 毫秒", waitTime);
+        // 等待中被取消时抛出 CancellationException，与其他步骤的取消处理一致
+        sleepQuietly(waitTime);
     }
 
-    private void executeNavigate(WebDriver driver, OperationStep step) {
+    private void executeNavigate(WebDriver driver, CompiledStep step) {
         if (step.getValue() != null) {
             String currentUrl = driver.getCurrentUrl();
-            driver.get(step.getValue());
+            driver.get(step.getValue().getSource());
             String newUrl = driver.getCurrentUrl();
-            logInfo("页面跳转: " + currentUrl + " -> " + newUrl);
+            logInfo("页面跳转: {} -> {}", currentUrl, newUrl);
         }
     }
 
 
     /**
-     * 自动切换到最新窗口
-     */
-    private void autoSwitchToNewWindow(WebDriver driver, WindowState windowState) {
-        Set<String> currentHandles = driver.getWindowHandles();
-        String currentHandle = driver.getWindowHandle();
-
-        logInfo("窗口检查 - 总数: " + currentHandles.size());
-
-        // 如果有多个窗口，且当前不是最后一个窗口，就切换到最后一个窗口
-        if (currentHandles.size() > 1) {
-            // 获取最后一个窗口句柄（通常是最新打开的）
-            String lastHandle = getLastWindowHandle(currentHandles);
-
-            if (!lastHandle.equals(currentHandle)) {
-                String currentUrl = driver.getCurrentUrl();
-                driver.switchTo().window(lastHandle);
-                String newUrl = driver.getCurrentUrl();
-
-                logInfo("切换到最新窗口");
-                logInfo("   - 从: " + currentUrl);
-                logInfo("   - 到: " + newUrl);
-            } else {
-                logInfo("已在最新窗口: " + driver.getCurrentUrl());
-            }
-        } else {
-            logInfo("只有一个窗口: " + driver.getCurrentUrl());
-        }
-
-        // 更新窗口状态
-        windowState.previousHandles = currentHandles;
-    }
-
-    /**
-     * 检查并更新窗口状态
+     * 检查并更新窗口状态：窗口增加时切换到新打开的窗口，当前窗口被关闭时切换到最后一个窗口
+     * 只调用一次 getWindowHandles，窗口没有变化时不产生额外日志
      */
     private void checkAndUpdateWindowState(WebDriver driver, WindowState windowState) {
         Set<String> currentHandles = driver.getWindowHandles();
-
-        // 如果窗口数量增加了，说明操作可能打开了新窗口
-        if (currentHandles.size() > windowState.previousHandles.size()) {
-            logInfo("检测到操作后窗口数量变化: " + windowState.previousHandles.size() + " -> " + currentHandles.size());
-
-            // 立即切换到最新窗口
-            autoSwitchToNewWindow(driver, windowState);
+        Set<String> previousHandles = windowState.getPreviousHandles();
+
+        if (currentHandles.size() > previousHandles.size()) {
+            // 新打开的窗口：不在之前句柄集合中的最后一个
+            String newHandle = null;
+            for (String handle : currentHandles) {
+                if (!previousHandles.contains(handle)) {
+                    newHandle = handle;
+                }
+            }
+            if (newHandle == null) {
+                newHandle = getLastWindowHandle(currentHandles);
+            }
+            driver.switchTo().window(newHandle);
+            logInfo("检测到新窗口，已切换 (窗口数: {} -> {})", previousHandles.size(), currentHandles.size());
+        } else if (currentHandles.size() < previousHandles.size() && !currentHandles.isEmpty()) {
+            // 操作导致窗口关闭，当前句柄可能已失效
+            driver.switchTo().window(getLastWindowHandle(currentHandles));
+            logInfo("检测到窗口关闭，已切换到最新窗口 (窗口数: {} -> {})", previousHandles.size(), currentHandles.size());
         }
 
         // 更新窗口状态
-        windowState.previousHandles = currentHandles;
+        windowState.setPreviousHandles(currentHandles);
     }
 
     /**
@@ -1260,36 +1305,53 @@ public class SeleniumAutoWebServiceImpl implements SeleniumAutoWebService {
     }
 
     /**
-     * 等待方法
+     * 检查任务是否已被取消（执行线程被中断）
      */
-    private void performWait(Long waitMs, String type) {
-        if (waitMs != null && waitMs > 0) {
-            try {
-                logInfo( type + "等待 " + waitMs + " 毫秒");
-                Thread.sleep(waitMs);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException("等待被中断", e);
-            }
+    private void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("任务已取消");
+        }
+    }
+
+    /**
+     * 操作后等待：默认等待文档加载完成（waitMode=SMART 等更严格的方式需显式指定）；waitMode=FIXED 时使用旧的固定时长
+     */
+    private void settleAfterAction(ExecutionContext ctx, CompiledStep step, long fixedDelayMs) {
+        WaitMode mode = step.getWaitMode();
+        if (mode == WaitMode.NONE) {
+            return;
+        }
+        if (mode == WaitMode.FIXED) {
+            sleepQuietly(fixedDelayMs);
+            return;
+        }
+        try {
+            ctx.getAdaptiveWait().settle(mode, step.getWaitCondition());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("任务已取消");
         }
     }
 
     /**
-     * 创建WebDriver实例
+     * 固定时长等待，被中断时视为任务取消
      */
-    private WebDriver createWebDriver() {
-        ChromeOptions options = new ChromeOptions();
-        if (isHeadlessMode()) {
-            options.addArguments("--headless");
-            options.addArguments("--disable-gpu");
-            options.addArguments("--no-sandbox");
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("任务已取消");
         }
-        options.addArguments("--disable-blink-features=AutomationControlled");
-        options.addArguments("--disable-extensions");
-        options.addArguments("--start-maximized");
-        options.setExperimentalOption("excludeSwitches", new String[]{"enable-automation"});
+    }
 
-        logInfo("创建ChromeDriver实例，无头模式: " + isHeadlessMode());
-        return new ChromeDriver(options);
+    /**
+     * 等待方法
+     */
+    private void performWait(Long waitMs, String type) {
+        if (waitMs != null && waitMs > 0) {
+            logInfo("{}等待 {} 毫秒", type, waitMs);
+            sleepQuietly(waitMs);
+        }
     }
-}
\ No newline at end of file
+}
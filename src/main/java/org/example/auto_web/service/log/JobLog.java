@@ -0,0 +1,108 @@
+package org.example.auto_web.service.log;
+
+import org.example.auto_web.pojo.enums.LogLevel;
+import org.example.auto_web.pojo.other.LogEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个任务的日志生产端，只由执行该任务的线程写入
+ * 写入只是把一条小记录放进环形缓冲区，缓冲区满时丢弃并计数，由消费线程补发丢弃提示；
+ * 低于当前级别或处于循环采样静默期的日志在入队前直接丢弃（ERROR 始终保留）
+ */
+public class JobLog {
+
+    private final String jobId;
+    private final LogRingBuffer buffer;
+    private final LogPipeline pipeline;
+    private final AtomicLong dropped = new AtomicLong();
+    private long nextSeq = 1;
+    private int stepIndex;
+    // 当前生效的日志级别（任务级别，执行步骤时可被步骤级别覆盖）
+    private LogLevel level;
+    // 循环采样：未被采样的迭代中只保留ERROR
+    private boolean muted;
+    private volatile boolean closed;
+
+    JobLog(String jobId, int capacity, LogLevel level, LogPipeline pipeline) {
+        this.jobId = jobId;
+        this.buffer = new LogRingBuffer(capacity);
+        this.level = level;
+        this.pipeline = pipeline;
+    }
+
+    public boolean isEnabled(LogLevel eventLevel) {
+        if (eventLevel == LogLevel.ERROR) {
+            return true;
+        }
+        return !muted && eventLevel.ordinal() >= level.ordinal();
+    }
+
+    public void log(LogLevel eventLevel, String template, Object... args) {
+        if (isEnabled(eventLevel)) {
+            enqueue(eventLevel, template, args);
+        }
+    }
+
+    /**
+     * 不受循环采样影响的日志（进度汇总），仍然遵守日志级别
+     */
+    void logUnmuted(LogLevel eventLevel, String template, Object... args) {
+        if (eventLevel.ordinal() >= level.ordinal()) {
+            enqueue(eventLevel, template, args);
+        }
+    }
+
+    private void enqueue(LogLevel eventLevel, String template, Object[] args) {
+        if (buffer.offer(new LogEvent(jobId, nextSeq, stepIndex, eventLevel, template, args))) {
+            nextSeq++;
+            pipeline.signal();
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setStepIndex(int stepIndex) {
+        this.stepIndex = stepIndex;
+    }
+
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    public void setLevel(LogLevel level) {
+        this.level = level;
+    }
+
+    public boolean isMuted() {
+        return muted;
+    }
+
+    void setMuted(boolean muted) {
+        this.muted = muted;
+    }
+
+    LogEvent poll() {
+        return buffer.poll();
+    }
+
+    boolean isDrained() {
+        return buffer.isEmpty();
+    }
+
+    long takeDropped() {
+        return dropped.getAndSet(0);
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+}
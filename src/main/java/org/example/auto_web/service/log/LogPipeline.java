@@ -0,0 +1,197 @@
+package org.example.auto_web.service.log;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.auto_web.config.SeleniumConfig;
+import org.example.auto_web.pojo.enums.LogLevel;
+import org.example.auto_web.pojo.other.LogEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步日志管道
+ * 每个任务一个单生产者环形缓冲区（执行线程只负责入队），由一个消费线程依次取出，
+ * 再分发给WebSocket、SLF4J等输出目标；操作浏览器的线程不会因为日志推送而等待
+ */
+@Component
+public class LogPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogPipeline.class);
+    // 消费线程空闲时的最长休眠时间
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Autowired
+    private SeleniumConfig seleniumConfig;
+
+    @Autowired
+    private List<LogSink> sinks;
+
+    // 当前线程正在执行的任务日志
+    private final ThreadLocal<JobLog> currentJob = new ThreadLocal<>();
+    private final List<JobLog> jobLogs = new CopyOnWriteArrayList<>();
+    // 不属于任何任务的系统消息（可能来自多个线程）
+    private final Queue<LogEvent> systemEvents = new ConcurrentLinkedQueue<>();
+
+    private Thread consumer;
+    private volatile boolean consumerParked;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        consumer = new Thread(this::consume, "log-pipeline");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 为任务创建日志并绑定到当前线程，日志级别为配置的默认级别
+     */
+    public JobLog open(String jobId) {
+        SeleniumConfig.Log config = seleniumConfig.getLog();
+        JobLog jobLog = new JobLog(jobId, config.getRingBufferSize(), LogLevel.parse(config.getLevel()), this);
+        jobLogs.add(jobLog);
+        currentJob.set(jobLog);
+        return jobLog;
+    }
+
+    /**
+     * 任务结束：解除线程绑定，剩余日志由消费线程发送完后移除
+     */
+    public void close(JobLog jobLog) {
+        currentJob.remove();
+        if (jobLog != null) {
+            jobLog.close();
+            signal();
+        }
+    }
+
+    /**
+     * 记录日志：当前线程绑定了任务时写入该任务的缓冲区，否则作为系统消息
+     */
+    public void log(LogLevel level, String template, Object... args) {
+        JobLog jobLog = currentJob.get();
+        if (jobLog != null) {
+            jobLog.log(level, template, args);
+        } else {
+            systemEvents.offer(new LogEvent(null, 0, 0, level, template, args));
+            signal();
+        }
+    }
+
+    /**
+     * 当前任务是否会记录该级别的日志，用于避免构造不会输出的日志参数
+     */
+    public boolean isEnabled(LogLevel level) {
+        JobLog jobLog = currentJob.get();
+        return jobLog == null || jobLog.isEnabled(level);
+    }
+
+    public JobLog current() {
+        return currentJob.get();
+    }
+
+    /**
+     * 为当前任务的一个循环创建采样与进度日志
+     *
+     * @param name        循环名称，用于进度日志
+     * @param total       总迭代次数
+     * @param sampleEvery 采样间隔，为null时使用配置值
+     */
+    public LoopLogger loop(String name, int total, Integer sampleEvery) {
+        SeleniumConfig.Log config = seleniumConfig.getLog();
+        return new LoopLogger(currentJob.get(), name, total,
+                sampleEvery != null ? sampleEvery : config.getLoopSampleEvery(),
+                config.getProgressIntervalMs());
+    }
+
+    /**
+     * 唤醒休眠中的消费线程（无锁，只有消费线程休眠时才需要unpark）
+     */
+    void signal() {
+        if (consumerParked) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    private void consume() {
+        while (running || hasPending()) {
+            if (drainOnce() == 0) {
+                consumerParked = true;
+                // 休眠前再检查一次，避免错过生产者在设置标志前写入的事件
+                if (!hasPending() && running) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                consumerParked = false;
+            }
+        }
+    }
+
+    private int drainOnce() {
+        int count = 0;
+        LogEvent event;
+        while ((event = systemEvents.poll()) != null) {
+            dispatch(event);
+            count++;
+        }
+        for (JobLog jobLog : jobLogs) {
+            long dropped = jobLog.takeDropped();
+            // 每轮每个任务最多处理一批，避免单个任务占满消费线程
+            for (int i = 0; i < 1024 && (event = jobLog.poll()) != null; i++) {
+                dispatch(event);
+                count++;
+            }
+            if (dropped > 0) {
+                dispatch(new LogEvent(jobLog.getJobId(), 0, 0, LogLevel.ERROR,
+                        "日志产生过快，已丢弃 {} 条", new Object[]{dropped}));
+                count++;
+            }
+            if (jobLog.isClosed() && jobLog.isDrained()) {
+                jobLogs.remove(jobLog);
+            }
+        }
+        return count;
+    }
+
+    private boolean hasPending() {
+        if (!systemEvents.isEmpty()) {
+            return true;
+        }
+        for (JobLog jobLog : jobLogs) {
+            if (!jobLog.isDrained()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void dispatch(LogEvent event) {
+        for (LogSink sink : sinks) {
+            try {
+                sink.accept(event);
+            } catch (Exception e) {
+                logger.warn("日志输出失败: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.auto_web.service.log;
+
+import org.example.auto_web.config.SeleniumConfig;
+import org.example.auto_web.pojo.other.LogEvent;
+import org.example.auto_web.pojo.other.LogPage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 任务日志回放缓冲区
+ * 每个任务保留最近的若干条日志（按条数和时间淘汰），供晚连接或重连的客户端从指定序号补齐，
+ * 也可通过REST分页查询；必须排在WebSocket输出之前，保证订阅时不会漏掉日志
+ */
+@Component
+@Order(1)
+public class LogReplayStore implements LogSink {
+
+    // 两次过期清理之间的最短间隔
+    private static final long EVICT_INTERVAL_MS = 60_000;
+
+    @Autowired
+    private SeleniumConfig seleniumConfig;
+
+    private final Map<String, JobHistory> histories = new ConcurrentHashMap<>();
+    private volatile long lastEvictAt = System.currentTimeMillis();
+
+    @Override
+    public void accept(LogEvent event) {
+        // 只保留任务内有序号的日志，系统消息和丢弃提示不参与回放
+        if (event.getJobId() == null || event.getSeq() <= 0) {
+            return;
+        }
+        histories.computeIfAbsent(event.getJobId(), id -> new JobHistory())
+                .append(event, Math.max(1, seleniumConfig.getLog().getReplayBufferSize()));
+        evictExpired();
+    }
+
+    /**
+     * 获取序号不小于 fromSeq 的日志，最多 limit 条
+     */
+    public LogPage getPage(String jobId, long fromSeq, int limit) {
+        JobHistory history = histories.get(jobId);
+        if (history == null) {
+            return null;
+        }
+        return history.page(jobId, fromSeq, Math.max(1, limit));
+    }
+
+    /**
+     * 获取序号不小于 fromSeq 的全部保留日志（用于WebSocket订阅时回放）
+     */
+    public List<LogEvent> getSince(String jobId, long fromSeq) {
+        JobHistory history = histories.get(jobId);
+        if (history == null) {
+            return new ArrayList<>();
+        }
+        return history.page(jobId, fromSeq, Integer.MAX_VALUE).getEvents();
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        if (now - lastEvictAt < EVICT_INTERVAL_MS) {
+            return;
+        }
+        lastEvictAt = now;
+        long retentionMs = seleniumConfig.getLog().getReplayRetentionMinutes() * 60_000L;
+        histories.values().removeIf(history -> now - history.lastEventAt > retentionMs);
+    }
+
+    private static class JobHistory {
+        private final ArrayDeque<LogEvent> events = new ArrayDeque<>();
+        private volatile long lastEventAt = System.currentTimeMillis();
+
+        synchronized void append(LogEvent event, int capacity) {
+            events.addLast(event);
+            while (events.size() > capacity) {
+                events.removeFirst();
+            }
+            lastEventAt = event.getTimestamp();
+        }
+
+        synchronized LogPage page(String jobId, long fromSeq, int limit) {
+            List<LogEvent> result = new ArrayList<>(Math.min(limit, events.size()));
+            Long oldestSeq = events.isEmpty() ? null : events.peekFirst().getSeq();
+            long nextSeq = fromSeq;
+            boolean hasMore = false;
+            Iterator<LogEvent> iterator = events.iterator();
+            while (iterator.hasNext()) {
+                LogEvent event = iterator.next();
+                if (event.getSeq() < fromSeq) {
+                    continue;
+                }
+                if (result.size() >= limit) {
+                    hasMore = true;
+                    break;
+                }
+                result.add(event);
+                nextSeq = event.getSeq() + 1;
+            }
+            return new LogPage(jobId, result, oldestSeq, nextSeq, hasMore);
+        }
+    }
+}
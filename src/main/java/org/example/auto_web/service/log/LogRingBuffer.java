@@ -0,0 +1,52 @@
+package org.example.auto_web.service.log;
+
+import org.example.auto_web.pojo.other.LogEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单生产者单消费者的无锁环形缓冲区
+ * 生产者是执行任务的线程，消费者是日志消费线程；写满时 offer 立即返回false，不阻塞生产者
+ */
+final class LogRingBuffer {
+
+    private final LogEvent[] slots;
+    private final int mask;
+    // 下一个写入位置（只由生产者修改）
+    private final AtomicLong tail = new AtomicLong();
+    // 下一个读取位置（只由消费者修改）
+    private final AtomicLong head = new AtomicLong();
+
+    LogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new LogEvent[size];
+        this.mask = size - 1;
+    }
+
+    boolean offer(LogEvent event) {
+        long t = tail.get();
+        if (t - head.get() >= slots.length) {
+            return false;
+        }
+        slots[(int) (t & mask)] = event;
+        // 发布写入：消费者读到新的tail后一定能看到槽位中的事件
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    LogEvent poll() {
+        long h = head.get();
+        if (h >= tail.get()) {
+            return null;
+        }
+        int index = (int) (h & mask);
+        LogEvent event = slots[index];
+        slots[index] = null;
+        head.lazySet(h + 1);
+        return event;
+    }
+
+    boolean isEmpty() {
+        return head.get() >= tail.get();
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.auto_web.service.log;
+
+import org.example.auto_web.pojo.other.LogEvent;
+
+/**
+ * 日志输出目标，只在日志消费线程中调用
+ */
+public interface LogSink {
+
+    void accept(LogEvent event);
+}
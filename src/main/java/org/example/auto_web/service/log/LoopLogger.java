@@ -0,0 +1,92 @@
+package org.example.auto_web.service.log;
+
+import org.example.auto_web.pojo.enums.LogLevel;
+
+/**
+ * 循环日志采样与进度汇总
+ * 只有第一次、最后一次和每隔N次的迭代输出逐条日志（错误始终输出），
+ * 其余迭代静默；按时间间隔输出一条带速率和预计剩余时间的进度汇总
+ */
+public class LoopLogger {
+
+    private final JobLog jobLog;
+    private final String name;
+    private final int total;
+    private final int sampleEvery;
+    private final long progressIntervalMs;
+    // 外层循环的静默状态，结束后恢复；外层静默时内层也静默
+    private final boolean outerMuted;
+    private final long startedAt = System.currentTimeMillis();
+    private long lastProgressAt = startedAt;
+    private int completed;
+
+    LoopLogger(JobLog jobLog, String name, int total, int sampleEvery, long progressIntervalMs) {
+        this.jobLog = jobLog;
+        this.name = name;
+        this.total = total;
+        this.sampleEvery = sampleEvery;
+        this.progressIntervalMs = progressIntervalMs;
+        this.outerMuted = jobLog != null && jobLog.isMuted();
+    }
+
+    /**
+     * 开始第 ordinal 次迭代（从0开始），决定本次迭代是否输出逐条日志
+     */
+    public void beginIteration(int ordinal) {
+        if (jobLog == null) {
+            return;
+        }
+        boolean sampled = sampleEvery <= 1
+                || ordinal == 0
+                || ordinal == total - 1
+                || (ordinal + 1) % sampleEvery == 0;
+        jobLog.setMuted(outerMuted || !sampled);
+    }
+
+    /**
+     * 迭代结束，到达间隔时输出进度汇总
+     */
+    public void endIteration() {
+        completed++;
+        if (jobLog == null || outerMuted) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastProgressAt >= progressIntervalMs && completed < total) {
+            lastProgressAt = now;
+            double rate = completed * 1000.0 / Math.max(1, now - startedAt);
+            long etaSeconds = rate > 0 ? Math.round((total - completed) / rate) : -1;
+            jobLog.logUnmuted(LogLevel.INFO, "{}进度: {}/{} ({}%)，速率 {}/秒，预计剩余 {}",
+                    name, completed, total, String.format("%.1f", completed * 100.0 / total),
+                    String.format("%.1f", rate), formatDuration(etaSeconds));
+        }
+    }
+
+    /**
+     * 循环结束：恢复外层静默状态并输出汇总
+     */
+    public void finish() {
+        if (jobLog == null) {
+            return;
+        }
+        jobLog.setMuted(outerMuted);
+        if (!outerMuted && total > 0) {
+            long elapsed = System.currentTimeMillis() - startedAt;
+            jobLog.log(LogLevel.INFO, "{}完成: {}/{}，耗时 {}ms，平均速率 {}/秒", name, completed, total, elapsed,
+                    String.format("%.1f", completed * 1000.0 / Math.max(1, elapsed)));
+        }
+    }
+
+    private static String formatDuration(long seconds) {
+        if (seconds < 0) {
+            return "未知";
+        }
+        if (seconds < 60) {
+            return seconds + "秒";
+        }
+        if (seconds < 3600) {
+            return seconds / 60 + "分" + seconds % 60 + "秒";
+        }
+        return seconds / 3600 + "小时" + seconds % 3600 / 60 + "分";
+    }
+}
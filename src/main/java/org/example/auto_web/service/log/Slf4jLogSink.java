@@ -0,0 +1,48 @@
+package org.example.auto_web.service.log;
+
+import org.example.auto_web.pojo.other.LogEvent;
+import org.example.auto_web.service.impl.SeleniumAutoWebServiceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 写入后端日志，沿用执行服务的日志名称，任务ID放入MDC
+ */
+@Component
+@Order(2)
+public class Slf4jLogSink implements LogSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeleniumAutoWebServiceImpl.class);
+    private static final String JOB_ID_KEY = "jobId";
+
+    @Override
+    public void accept(LogEvent event) {
+        if (event.getJobId() != null) {
+            MDC.put(JOB_ID_KEY, event.getJobId());
+        }
+        try {
+            switch (event.getLevel()) {
+                case TRACE:
+                    if (logger.isTraceEnabled()) {
+                        logger.trace(event.getMessage());
+                    }
+                    break;
+                case DEBUG:
+                    if (logger.isDebugEnabled()) {
+                        logger.debug(event.getMessage());
+                    }
+                    break;
+                case INFO:
+                    logger.info(event.getMessage());
+                    break;
+                default:
+                    logger.info("[{}] {}", event.getLevel(), event.getMessage());
+            }
+        } finally {
+            MDC.remove(JOB_ID_KEY);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.auto_web.service.log;
+
+import org.example.auto_web.pojo.other.LogEvent;
+import org.example.auto_web.websocket.LogWebSocket;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 推送到前端实时日志，日志级别已在任务写入时过滤
+ */
+@Component
+@Order(3)
+public class WebSocketLogSink implements LogSink {
+
+    @Autowired
+    private LogWebSocket logWebSocket;
+
+    @Override
+    public void accept(LogEvent event) {
+        logWebSocket.publish(event);
+    }
+}
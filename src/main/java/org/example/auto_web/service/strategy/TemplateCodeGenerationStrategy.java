@@ -0,0 +1,244 @@
+package org.example.auto_web.service.strategy;
+
+import org.example.auto_web.pojo.enums.OperationType;
+import org.example.auto_web.service.CodeGenerationStrategy;
+import org.example.auto_web.service.codegen.ActionStep;
+import org.example.auto_web.service.codegen.BlockLoopStep;
+import org.example.auto_web.service.codegen.CodeTemplate;
+import org.example.auto_web.service.codegen.CodeWriter;
+import org.example.auto_web.service.codegen.GenerationPlan;
+import org.example.auto_web.service.codegen.HelperUsage;
+import org.example.auto_web.service.codegen.RangeLoopStep;
+import org.example.auto_web.service.codegen.StepNode;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于代码模板的生成策略
+ * 步骤代码来自模板的 step.类型 片段，生成时只填入该步骤的内容（XPath、值、索引等）、缩进和输出目标；
+ * 各语言只提供模板、辅助函数规则以及程序开头和结尾的写法
+ */
+public abstract class TemplateCodeGenerationStrategy implements CodeGenerationStrategy {
+
+    protected final CodeTemplate template;
+    private final HelperUsage helperUsage;
+    // 主流程中步骤代码的缩进
+    private final String stepIndent;
+    // 循环体相对于循环语句增加的缩进
+    private final String blockIndent;
+
+    protected TemplateCodeGenerationStrategy(String templateName, HelperUsage helperUsage,
+                                             String stepIndent, String blockIndent) {
+        this.template = CodeTemplate.load(templateName);
+        this.helperUsage = helperUsage;
+        this.stepIndent = stepIndent;
+        this.blockIndent = blockIndent;
+    }
+
+    @Override
+    public void writeCode(GenerationPlan plan, CodeWriter code) {
+        Set<String> helpers = helperUsage.resolve(plan);
+        writeStart(plan, helpers, code);
+
+        // 生成步骤代码
+        List<StepNode> steps = plan.steps();
+        for (int i = 0; i < steps.size(); i++) {
+            writeStep(code, steps.get(i), i + 1, plan.includeComments(), stepIndent, mainOutput());
+        }
+
+        writeEnd(plan, helpers, code);
+    }
+
+    /**
+     * 步骤之前的内容：导入、注释、主函数开头、初始导航等
+     */
+    protected abstract void writeStart(GenerationPlan plan, Set<String> helpers, CodeWriter code);
+
+    /**
+     * 步骤之后的内容：主函数结尾、工作函数、辅助函数等
+     */
+    protected abstract void writeEnd(GenerationPlan plan, Set<String> helpers, CodeWriter code);
+
+    /**
+     * 并行循环任务的工作函数名
+     */
+    protected String workerName(int stepNumber) {
+        return "loopTask" + stepNumber;
+    }
+
+    /**
+     * 工作函数中分到的迭代范围 [from, to) 的变量名
+     */
+    protected String[] workerRange() {
+        return new String[]{"rangeStart", "rangeEnd"};
+    }
+
+    /**
+     * 动态循环未指定变量名时的默认名
+     */
+    protected String dynamicLoopVariable() {
+        return "dynamicIndex";
+    }
+
+    /**
+     * 主流程中步骤代码的输出目标，填入步骤片段的 out
+     */
+    protected abstract String mainOutput();
+
+    /**
+     * 工作函数中步骤代码的输出目标，指向工作函数自己的缓冲区
+     */
+    protected abstract String workerOutput();
+
+    protected void writeHelpers(Set<String> helpers, CodeWriter code) {
+        for (String helper : helpers) {
+            template.write(code, "helper." + helper);
+        }
+    }
+
+    /**
+     * 并行循环任务的工作函数：使用独立的浏览器和上下文执行分到的迭代，输出写入各自的缓冲区，由主流程按分区顺序合并
+     */
+    protected void writeWorkers(GenerationPlan plan, CodeWriter code) {
+        List<StepNode> steps = plan.steps();
+        for (int i = 0; i < steps.size(); i++) {
+            StepNode step = steps.get(i);
+            if (step instanceof BlockLoopStep && ((BlockLoopStep) step).parallel()) {
+                writeWorker(code, (BlockLoopStep) step, i + 1, plan.initialUrl());
+            }
+        }
+    }
+
+    private void writeWorker(CodeWriter code, BlockLoopStep step, int stepNumber, String initialUrl) {
+        Map<String, Object> slots = Map.of(
+                "worker", workerName(stepNumber),
+                "iterations", step.iterations(),
+                "increment", step.increment());
+        template.write(code, "worker-start", slots);
+        if (initialUrl != null && !initialUrl.isEmpty()) {
+            template.write(code, "worker-navigate", Map.of("initialUrl", initialUrl));
+        }
+        template.write(code, "worker-range", slots);
+        String[] range = workerRange();
+        writeBlockLoop(code, step, range[0], range[1], stepIndent, workerOutput());
+        template.write(code, "worker-end");
+    }
+
+    private void writeStep(CodeWriter code, StepNode step, int stepNumber, boolean includeComments,
+                           String indent, String out) {
+        // 步骤注释
+        if (includeComments) {
+            String remark = step.remark();
+            template.write(code, "step-comment", Map.of(
+                    CodeTemplate.INDENT, indent,
+                    "number", stepNumber,
+                    "remark", remark != null && !remark.isEmpty() ? ": " + remark : ""));
+        }
+
+        // 操作前等待
+        if (step.waitBeforeMs() > 0) {
+            template.write(code, "step-wait", Map.of(CodeTemplate.INDENT, indent, "milliseconds", step.waitBeforeMs()));
+        }
+
+        String section = "step." + step.type();
+        if (step instanceof RangeLoopStep && ((RangeLoopStep) step).batch()) {
+            section += ".batch";
+        }
+        if (step instanceof BlockLoopStep) {
+            writeBlockLoop(code, (BlockLoopStep) step, stepNumber, indent, out);
+        } else if (!template.hasSection(section)) {
+            template.write(code, "step-unsupported", Map.of(CodeTemplate.INDENT, indent, "type", step.type()));
+        } else if (step.type() == OperationType.HANDLE_ALERT) {
+            writeHandleAlert(code, (ActionStep) step, indent, out);
+        } else {
+            template.write(code, section, slots(step, indent, out));
+        }
+
+        // 操作后等待
+        if (step.waitAfterMs() > 0) {
+            template.write(code, "step-wait", Map.of(CodeTemplate.INDENT, indent, "milliseconds", step.waitAfterMs()));
+        }
+        code.append("\n");
+    }
+
+    /**
+     * 步骤片段的填充内容
+     */
+    private Map<String, Object> slots(StepNode step, String indent, String out) {
+        Map<String, Object> slots = new HashMap<>();
+        slots.put(CodeTemplate.INDENT, indent);
+        slots.put("out", out);
+        if (step instanceof ActionStep) {
+            ActionStep action = (ActionStep) step;
+            slots.put("xpath", action.xpath());
+            slots.put("value", action.value());
+            slots.put("filePath", action.filePath());
+            slots.put("contextKey", action.value() != null ? action.value() : "current_url");
+            slots.put("milliseconds", action.waitMillis());
+        } else if (step instanceof RangeLoopStep) {
+            RangeLoopStep loop = (RangeLoopStep) step;
+            slots.put("xpath", loop.xpath());
+            slots.put("value", loop.value());
+            slots.put("filePath", loop.filePath());
+            slots.put("startIndex", loop.startIndex());
+            slots.put("endIndex", loop.endIndex());
+            slots.put("increment", loop.increment());
+        }
+        return slots;
+    }
+
+    private void writeHandleAlert(CodeWriter code, ActionStep step, String indent, String out) {
+        Map<String, Object> slots = slots(step, indent, out);
+        slots.put("alertText", step.alertText());
+        template.write(code, "step.HANDLE_ALERT", slots);
+        if (step.alertText() != null && !step.alertText().isEmpty()) {
+            template.write(code, "step.HANDLE_ALERT.text", slots);
+        }
+        if (step.acceptAlert() != null) {
+            template.write(code, step.acceptAlert() ? "step.HANDLE_ALERT.accept" : "step.HANDLE_ALERT.dismiss", slots);
+        }
+        template.write(code, "step.HANDLE_ALERT.end", slots);
+    }
+
+    private void writeBlockLoop(CodeWriter code, BlockLoopStep step, int stepNumber, String indent, String out) {
+        if (step.parallel()) {
+            template.write(code, "parallel-loop", Map.of(
+                    CodeTemplate.INDENT, indent,
+                    "worker", workerName(stepNumber),
+                    "iterations", step.iterations(),
+                    "increment", step.increment(),
+                    "workers", step.workers()));
+        } else {
+            writeBlockLoop(code, step, "0", String.valueOf(step.iterations()), indent, out);
+        }
+    }
+
+    /**
+     * 带子步骤的循环，循环变量从 from 到 to（不含），两者为生成代码中的表达式
+     */
+    private void writeBlockLoop(CodeWriter code, BlockLoopStep step, String from, String to,
+                                String indent, String out) {
+        String section = "step." + step.type();
+        Map<String, Object> slots = Map.of(
+                CodeTemplate.INDENT, indent,
+                "loopVar", step.variableOr(step.type() == OperationType.LOOP_TASK ? "i" : dynamicLoopVariable()),
+                "from", from,
+                "to", to,
+                "iterations", step.iterations(),
+                "increment", step.increment(),
+                "out", out);
+        template.write(code, section, slots);
+
+        // 生成子步骤代码
+        String bodyIndent = indent + blockIndent;
+        List<StepNode> subSteps = step.subSteps();
+        for (int i = 0; i < subSteps.size(); i++) {
+            writeStep(code, subSteps.get(i), i + 1, false, bodyIndent, out);
+        }
+
+        template.write(code, section + ".end", slots);
+    }
+}
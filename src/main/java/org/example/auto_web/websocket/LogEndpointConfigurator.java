@@ -0,0 +1,28 @@
+package org.example.auto_web.websocket;
+
+import jakarta.websocket.Extension;
+import jakarta.websocket.server.ServerEndpointConfig;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 日志端点握手配置：按 selenium.log.compression 决定是否同意客户端的 permessage-deflate 压缩扩展
+ * （Tomcat内置该扩展，开启时由容器协商并压缩每条消息）
+ */
+public class LogEndpointConfigurator extends ServerEndpointConfig.Configurator {
+
+    private static volatile boolean compression = true;
+
+    static void setCompression(boolean enabled) {
+        compression = enabled;
+    }
+
+    @Override
+    public List<Extension> getNegotiatedExtensions(List<Extension> installed, List<Extension> requested) {
+        if (!compression) {
+            return Collections.emptyList();
+        }
+        return super.getNegotiatedExtensions(installed, requested);
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.auto_web.websocket;
+
+import org.example.auto_web.pojo.other.LogEvent;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 将一批日志编码为一帧（文本协议为一条日志一帧）
+ *
+ * JSON：[{"j":任务ID,"s":序号,"t":步骤序号,"l":"级别","ts":毫秒时间戳,"m":"消息"}, ...]，系统消息的 j 为 null
+ *
+ * 二进制（整数均为无符号LEB128变长编码）：
+ * <pre>
+ * 帧   := 版本(1字节，当前为1) 条数 记录*
+ * 记录 := 级别(1字节，LogLevel序号) 任务引用 序号 步骤序号 时间差 消息长度 消息(UTF-8)
+ * 任务引用：0=系统消息，1=与上一条相同，n+2=新任务ID，后跟n字节UTF-8
+ * 时间差：与上一条的毫秒差（第一条相对0），ZigZag编码
+ * </pre>
+ * 只由发送线程调用，内部缓冲区复用
+ */
+class LogFrameEncoder {
+
+    private static final byte BINARY_VERSION = 1;
+
+    private final StringBuilder text = new StringBuilder(4096);
+    private byte[] bytes = new byte[4096];
+    private int position;
+
+    /**
+     * 文本协议每帧只有一条日志：[级别] 消息
+     */
+    String encodeText(LogEvent event) {
+        text.setLength(0);
+        text.append('[').append(event.getLevel()).append("] ").append(event.getMessage());
+        return text.toString();
+    }
+
+    String encodeJson(List<LogEvent> events) {
+        text.setLength(0);
+        text.append('[');
+        for (int i = 0; i < events.size(); i++) {
+            LogEvent event = events.get(i);
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append("{\"j\":");
+            if (event.getJobId() == null) {
+                text.append("null");
+            } else {
+                text.append('"');
+                appendJson(text, event.getJobId());
+                text.append('"');
+            }
+            text.append(",\"s\":").append(event.getSeq())
+                    .append(",\"t\":").append(event.getStepIndex())
+                    .append(",\"l\":\"").append(event.getLevel())
+                    .append("\",\"ts\":").append(event.getTimestamp())
+                    .append(",\"m\":\"");
+            appendJson(text, event.getMessage());
+            text.append("\"}");
+        }
+        text.append(']');
+        return text.toString();
+    }
+
+    ByteBuffer encodeBinary(List<LogEvent> events) {
+        position = 0;
+        ensureCapacity(16);
+        bytes[position++] = BINARY_VERSION;
+        writeVarLong(events.size());
+        String previousJobId = null;
+        long previousTimestamp = 0;
+        for (LogEvent event : events) {
+            ensureCapacity(32);
+            bytes[position++] = (byte) event.getLevel().ordinal();
+            String jobId = event.getJobId();
+            if (jobId == null) {
+                writeVarLong(0);
+            } else if (jobId.equals(previousJobId)) {
+                writeVarLong(1);
+            } else {
+                byte[] jobBytes = jobId.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(jobBytes.length + 2L);
+                writeBytes(jobBytes);
+            }
+            previousJobId = jobId;
+            writeVarLong(event.getSeq());
+            writeVarLong(event.getStepIndex());
+            long delta = event.getTimestamp() - previousTimestamp;
+            writeVarLong((delta << 1) ^ (delta >> 63));
+            previousTimestamp = event.getTimestamp();
+            byte[] message = event.getMessage().getBytes(StandardCharsets.UTF_8);
+            writeVarLong(message.length);
+            writeBytes(message);
+        }
+        // 异步发送期间缓冲区可能被下一帧复用，这里复制一份
+        return ByteBuffer.wrap(Arrays.copyOf(bytes, position));
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[position++] = (byte) value;
+    }
+
+    private void writeBytes(byte[] data) {
+        ensureCapacity(data.length);
+        System.arraycopy(data, 0, bytes, position, data.length);
+        position += data.length;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (position + additional > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + additional));
+        }
+    }
+
+    private static void appendJson(StringBuilder sb, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+    }
+}
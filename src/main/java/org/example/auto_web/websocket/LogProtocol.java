@@ -0,0 +1,45 @@
+package org.example.auto_web.websocket;
+
+import java.util.Locale;
+
+/**
+ * 日志推送协议，通过WebSocket子协议（Sec-WebSocket-Protocol）协商，
+ * 也可用查询参数 format=text|json|binary 指定；都未指定时为文本协议，兼容旧客户端
+ */
+enum LogProtocol {
+    // 文本帧：[级别] 消息，每帧一条，与旧客户端按帧读取一行日志的方式一致
+    TEXT("autoweb.text"),
+    // 文本帧：JSON数组，每条日志一个对象
+    JSON("autoweb.json"),
+    // 二进制帧：紧凑编码，格式见 LogFrameEncoder
+    BINARY("autoweb.binary");
+
+    private final String subprotocol;
+
+    LogProtocol(String subprotocol) {
+        this.subprotocol = subprotocol;
+    }
+
+    String getSubprotocol() {
+        return subprotocol;
+    }
+
+    /**
+     * 按协商的子协议或查询参数确定协议
+     */
+    static LogProtocol resolve(String negotiatedSubprotocol, String format) {
+        for (LogProtocol protocol : values()) {
+            if (protocol.subprotocol.equals(negotiatedSubprotocol)) {
+                return protocol;
+            }
+        }
+        if (format != null) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return TEXT;
+            }
+        }
+        return TEXT;
+    }
+}
@@ -1,21 +1,40 @@
 package org.example.auto_web.websocket;
 
+import org.example.auto_web.config.SeleniumConfig;
+import org.example.auto_web.pojo.enums.LogLevel;
+import org.example.auto_web.pojo.other.LogEvent;
+import org.example.auto_web.service.log.LogReplayStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jakarta.websocket.*;
 import jakarta.websocket.server.ServerEndpoint;
-import java.util.Collections;
-import java.util.Set;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 // 关键1：移除@Component（避免Spring重复实例化，JSR-356会自己管理实例）
 // 关键2：移除SpringConfigurator配置
-@ServerEndpoint("/ws/logs")
+// 连接时可通过 /ws/logs?jobId=xxx 只订阅某个任务的日志，也可发送 "subscribe:xxx" / "subscribe:*" 切换；
+// 带上 fromSeq=n 时先回放该任务序号从n开始的历史日志，断线重连后可以接着看；
+// 发送 "replay:任务ID@序号" 只补齐该任务的历史日志，不改变订阅范围
+// 帧格式通过子协议 autoweb.text / autoweb.json / autoweb.binary 或参数 format 协商，默认文本；
+// 客户端请求 permessage-deflate 时按 selenium.log.compression 开启压缩
+@ServerEndpoint(value = "/ws/logs",
+        subprotocols = {"autoweb.binary", "autoweb.json", "autoweb.text"},
+        configurator = LogEndpointConfigurator.class)
 public class LogWebSocket {
 
     private static final Logger logger = LoggerFactory.getLogger(LogWebSocket.class);
-    private static final Set<Session> sessions = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    // 连接ID -> 待发送队列
+    private static final Map<String, SessionOutbox> outboxes = new ConcurrentHashMap<>();
+
+    private static volatile SeleniumConfig.Log config = new SeleniumConfig.Log();
+    private static volatile LogReplayStore replayStore;
+    private static ScheduledExecutorService flushExecutor;
 
     // 静态单例（确保JSR-356和Spring能共用同一个实例）
     private static LogWebSocket instance;
@@ -37,67 +56,110 @@ public class LogWebSocket {
         return instance;
     }
 
+    /**
+     * 应用配置并启动定时合并发送
+     */
+    public static synchronized void configure(SeleniumConfig.Log logConfig, LogReplayStore store) {
+        config = logConfig;
+        replayStore = store;
+        LogEndpointConfigurator.setCompression(logConfig.isCompression());
+        if (flushExecutor != null) {
+            flushExecutor.shutdownNow();
+        }
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "log-websocket-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(10, logConfig.getFlushIntervalMs());
+        flushExecutor.scheduleWithFixedDelay(LogWebSocket::flushAll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized void shutdown() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdownNow();
+            flushExecutor = null;
+        }
+    }
+
     @OnOpen
     public void onOpen(Session session) {
-        sessions.add(session);
-        logger.info("🎯 WebSocket 连接建立成功! ID: {}, 总连接数: {}", session.getId(), sessions.size());
-        sendMessage(session, "🔗 WebSocket 连接成功！");
+        String jobId = getParameter(session, "jobId");
+        LogProtocol protocol = LogProtocol.resolve(session.getNegotiatedSubprotocol(), getParameter(session, "format"));
+        SessionOutbox outbox = new SessionOutbox(session, protocol, jobId, config.getSessionQueueCapacity());
+        outboxes.put(session.getId(), outbox);
+        logger.info("🎯 WebSocket 连接建立成功! ID: {}, 订阅任务: {}, 协议: {}, 压缩: {}, 总连接数: {}",
+                session.getId(), jobId != null ? jobId : "全部", protocol,
+                !session.getNegotiatedExtensions().isEmpty(), outboxes.size());
+        outbox.offer(LogEvent.system(LogLevel.INFO, "🔗 WebSocket 连接成功！" + (jobId != null ? "订阅任务: " + jobId : "")));
+        replay(outbox, jobId, getParameter(session, "fromSeq"));
     }
 
     @OnClose
     public void onClose(Session session) {
-        boolean removed = sessions.remove(session);
+        boolean removed = outboxes.remove(session.getId()) != null;
         if (removed) {
-            logger.info("❌ WebSocket 连接关闭: {}, 剩余连接数: {}", session.getId(), sessions.size());
+            logger.info("❌ WebSocket 连接关闭: {}, 剩余连接数: {}", session.getId(), outboxes.size());
         }
     }
 
     @OnError
     public void onError(Session session, Throwable error) {
-        sessions.remove(session);
+        outboxes.remove(session.getId());
         logger.error("💥 WebSocket 错误: {}, 连接ID: {}", error.getMessage(), session.getId(), error);
     }
 
     @OnMessage
     public void onMessage(String message, Session session) {
         logger.info("📨 收到客户端消息: {} 来自连接ID: {}", message, session.getId());
-        sendMessage(session, "✅ 服务端已收到消息: " + message);
-    }
-
-    // 静态方法，支持外部调用
-    private static void sendMessage(Session session, String message) {
-        if (session == null || !session.isOpen()) {
-            logger.warn("⚠️ 会话已关闭，跳过消息发送");
+        SessionOutbox outbox = outboxes.get(session.getId());
+        if (outbox == null) {
             return;
         }
-        session.getAsyncRemote().sendText(message, new SendHandler() {
-            @Override
-            public void onResult(SendResult result) {
-                if (result.isOK()) {
-                    logger.debug("✅ 消息发送成功: {} 到连接ID: {}", message, session.getId());
-                } else {
-                    logger.error("❌ 发送消息失败: {}", result.getException().getMessage());
-                }
+        if (message.startsWith("subscribe:")) {
+            // subscribe:任务ID 或 subscribe:任务ID@起始序号
+            String target = message.substring("subscribe:".length()).trim();
+            String fromSeq = null;
+            int at = target.indexOf('@');
+            if (at >= 0) {
+                fromSeq = target.substring(at + 1);
+                target = target.substring(0, at);
             }
-        });
+            outbox.setJobId(target.isEmpty() || "*".equals(target) ? null : target);
+            outbox.offer(LogEvent.system(LogLevel.INFO, "✅ 已订阅任务: " + (outbox.getJobId() != null ? outbox.getJobId() : "全部")));
+            replay(outbox, outbox.getJobId(), fromSeq);
+            return;
+        }
+        if (message.startsWith("replay:")) {
+            // replay:任务ID@起始序号，补齐断线期间的日志
+            String target = message.substring("replay:".length()).trim();
+            int at = target.indexOf('@');
+            if (at > 0) {
+                replay(outbox, target.substring(0, at), target.substring(at + 1));
+            }
+            return;
+        }
+        outbox.offer(LogEvent.system(LogLevel.INFO, "✅ 服务端已收到消息: " + message));
+    }
+
+    /**
+     * 推送日志事件：只进入订阅了该任务的连接的队列，不阻塞调用线程；
+     * 任务ID为null的系统消息发给所有连接
+     */
+    public void publish(LogEvent event) {
+        for (SessionOutbox outbox : outboxes.values()) {
+            if (outbox.accepts(event.getJobId())) {
+                outbox.offer(event);
+            }
+        }
     }
 
     // 改为实例方法，通过单例调用
     public void broadcastLog(String logMessage) {
         if (logMessage == null || logMessage.isEmpty()) {
-            logger.warn("⚠️ 广播消息为空，跳过发送");
-            return;
-        }
-        logger.info("📢 开始广播消息: {}, 当前活跃连接数: {}", logMessage, sessions.size());
-
-        if (sessions.isEmpty()) {
-            logger.warn("⚠️ 没有活跃的 WebSocket 连接，广播终止");
             return;
         }
-
-        for (Session session : sessions.toArray(new Session[0])) {
-            sendMessage(session, logMessage);
-        }
+        publish(LogEvent.system(LogLevel.INFO, logMessage));
     }
 
     // 静态包装方法（兼容原有调用方式）
@@ -106,6 +168,36 @@ public class LogWebSocket {
     }
 
     public static int getConnectionCount() {
-        return sessions.size();
+        return outboxes.size();
+    }
+
+    private static void flushAll() {
+        int maxBatchSize = Math.max(1, config.getMaxBatchSize());
+        for (SessionOutbox outbox : outboxes.values()) {
+            try {
+                outbox.flush(maxBatchSize);
+            } catch (Exception e) {
+                logger.debug("合并发送日志失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static void replay(SessionOutbox outbox, String jobId, String fromSeq) {
+        if (jobId == null || fromSeq == null || replayStore == null) {
+            return;
+        }
+        try {
+            outbox.replay(replayStore.getSince(jobId, Long.parseLong(fromSeq.trim())));
+        } catch (NumberFormatException e) {
+            outbox.offer(LogEvent.system(LogLevel.ERROR, "无效的起始序号: " + fromSeq));
+        }
+    }
+
+    private static String getParameter(Session session, String name) {
+        List<String> values = session.getRequestParameterMap().get(name);
+        if (values == null || values.isEmpty() || values.get(0).isEmpty()) {
+            return null;
+        }
+        return values.get(0);
     }
-}
\ No newline at end of file
+}
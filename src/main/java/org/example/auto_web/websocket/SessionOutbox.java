@@ -0,0 +1,207 @@
+package org.example.auto_web.websocket;
+
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.example.auto_web.pojo.enums.LogLevel;
+import org.example.auto_web.pojo.other.LogEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个WebSocket连接的待发送队列
+ * 日志先进入有界队列，由定时任务合并成一帧发送；上一帧未发送完成时不再发送，
+ * 队列满后丢弃新日志并计数，下一帧开头提示丢弃条数，避免慢客户端拖垮服务端；
+ * 帧格式由连接协商的协议决定（JSON数组或二进制合并为一帧，文本协议兼容旧客户端，仍是一条日志一帧）
+ */
+class SessionOutbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionOutbox.class);
+
+    private final Session session;
+    private final LogProtocol protocol;
+    private final ArrayBlockingQueue<LogEvent> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicBoolean sending = new AtomicBoolean();
+    // 订阅的任务ID，null表示接收全部任务的日志
+    private volatile String jobId;
+    // 任务ID -> 已回放到的序号，之后实时推送中序号不大于它的日志不再重复发送
+    private final Map<String, Long> replayedUpTo = new HashMap<>();
+    // 以下只由发送线程使用
+    private final List<LogEvent> batch = new ArrayList<>();
+    private final LogFrameEncoder encoder = new LogFrameEncoder();
+    // 文本协议本轮待发送的帧，上一帧发送完成后依次发送
+    private final ArrayDeque<String> textFrames = new ArrayDeque<>();
+
+    SessionOutbox(Session session, LogProtocol protocol, String jobId, int capacity) {
+        this.session = session;
+        this.protocol = protocol;
+        this.jobId = jobId;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    Session getSession() {
+        return session;
+    }
+
+    LogProtocol getProtocol() {
+        return protocol;
+    }
+
+    String getJobId() {
+        return jobId;
+    }
+
+    void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    /**
+     * 是否接收指定任务的日志；eventJobId为null的系统消息发给所有连接
+     */
+    boolean accepts(String eventJobId) {
+        String subscribed = jobId;
+        return subscribed == null || eventJobId == null || subscribed.equals(eventJobId);
+    }
+
+    /**
+     * 加入待发送队列，不阻塞调用线程
+     */
+    synchronized void offer(LogEvent event) {
+        if (isReplayed(event)) {
+            return;
+        }
+        if (!queue.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * 回放历史日志：放在已排队的实时日志之前，并去掉两者重复的部分；
+     * 超出队列容量的最早日志计入丢弃数
+     */
+    synchronized void replay(List<LogEvent> history) {
+        if (history.isEmpty()) {
+            return;
+        }
+        List<LogEvent> pending = new ArrayList<>(queue.size());
+        queue.drainTo(pending);
+        LogEvent last = history.get(history.size() - 1);
+        replayedUpTo.merge(last.getJobId(), last.getSeq(), Math::max);
+
+        // 连接提示等系统消息保持在最前面
+        for (LogEvent event : pending) {
+            if (event.getJobId() == null) {
+                queue.offer(event);
+            }
+        }
+        int skip = Math.max(0, history.size() - queue.remainingCapacity());
+        dropped.addAndGet(skip);
+        for (int i = skip; i < history.size(); i++) {
+            queue.offer(history.get(i));
+        }
+        for (LogEvent event : pending) {
+            if (event.getJobId() != null && !isReplayed(event)) {
+                if (!queue.offer(event)) {
+                    dropped.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private boolean isReplayed(LogEvent event) {
+        if (event.getJobId() == null || event.getSeq() <= 0) {
+            return false;
+        }
+        Long upTo = replayedUpTo.get(event.getJobId());
+        return upTo != null && event.getSeq() <= upTo;
+    }
+
+    /**
+     * 合并队列中的日志发送一帧
+     */
+    void flush(int maxBatchSize) {
+        if (queue.isEmpty() && dropped.get() == 0) {
+            return;
+        }
+        if (!session.isOpen() || !sending.compareAndSet(false, true)) {
+            // 上一帧尚未发送完成，继续积压（超出容量的会被丢弃）
+            return;
+        }
+        batch.clear();
+        long droppedCount = dropped.getAndSet(0);
+        if (droppedCount > 0) {
+            batch.add(LogEvent.system(LogLevel.ERROR, "客户端接收过慢，已丢弃 " + droppedCount + " 条日志"));
+        }
+        LogEvent event;
+        while (batch.size() < maxBatchSize && (event = queue.poll()) != null) {
+            batch.add(event);
+        }
+        if (batch.isEmpty()) {
+            sending.set(false);
+            return;
+        }
+        try {
+            if (protocol == LogProtocol.BINARY) {
+                ByteBuffer frame = encoder.encodeBinary(batch);
+                session.getAsyncRemote().sendBinary(frame, this::onSent);
+            } else if (protocol == LogProtocol.JSON) {
+                session.getAsyncRemote().sendText(encoder.encodeJson(batch), this::onSent);
+            } else {
+                for (LogEvent text : batch) {
+                    textFrames.add(encoder.encodeText(text));
+                }
+                sendNextText();
+            }
+        } catch (Exception e) {
+            textFrames.clear();
+            sending.set(false);
+            logger.debug("发送日志失败: {}, 连接ID: {}", e.getMessage(), session.getId());
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * 发送下一条文本帧，本轮发完后才允许下一轮发送
+     */
+    private void sendNextText() {
+        String frame = textFrames.poll();
+        if (frame == null) {
+            sending.set(false);
+            return;
+        }
+        session.getAsyncRemote().sendText(frame, this::onTextSent);
+    }
+
+    private void onTextSent(SendResult result) {
+        if (!result.isOK()) {
+            textFrames.clear();
+            onSent(result);
+            return;
+        }
+        try {
+            sendNextText();
+        } catch (Exception e) {
+            textFrames.clear();
+            sending.set(false);
+            logger.debug("发送日志失败: {}, 连接ID: {}", e.getMessage(), session.getId());
+        }
+    }
+
+    private void onSent(SendResult result) {
+        sending.set(false);
+        if (!result.isOK()) {
+            logger.debug("发送日志失败: {}, 连接ID: {}", result.getException().getMessage(), session.getId());
+        }
+    }
+}
@@ -0,0 +1,616 @@
+#@# C++代码生成模板，启动时预编译，静态片段只编码一次
+#@# 以 "#@ 名称" 开始一个片段，{{@名称}} 为生成时填入的内容；以 "#@#" 开头的行为注释
+#@ header
+#include <webdriverxx/webdriverxx.h>
+#include <webdriverxx/wait.h>
+#include <webdriverxx/keys.h>
+#include <iostream>
+#include <thread>
+#include <chrono>
+#include <fstream>
+#include <vector>
+#include <string>
+#include <algorithm>
+#include <map>
+#@ include-regex
+#include <regex>
+#@ header-end
+#include <sstream>
+
+#@ comment
+/*
+ * 自动生成的Selenium测试程序
+ * 生成时间: {{@generatedAt}}
+ * 步骤数量: {{@stepCount}}
+ */
+
+#@ declarations-start
+// 辅助函数声明
+#@ declare.safeWait
+void safeWait(int milliseconds);
+#@ declare.resolveXpathWithExpression
+std::string resolveXpathWithExpression(const std::string& xpath, const std::map<std::string, int>& context);
+#@ declare.resolveValueWithExpression
+std::string resolveValueWithExpression(const std::string& value, const std::map<std::string, int>& context);
+#@ declare.parseExpression
+int parseExpression(const std::string& expression, const std::map<std::string, int>& context);
+#@ declare.batchGetText
+std::vector<std::string> batchGetText(webdriverxx::WebDriver& driver, const std::vector<std::string>& xpaths, std::ostream& out);
+#@ declarations-end
+
+#@ worker-start
+// 并行循环任务的工作线程：使用独立的浏览器执行分到的迭代，返回该线程的输出
+std::string {{@worker}}(int workerIndex, int workerCount) {
+    using namespace webdriverxx;
+    std::ostringstream out;
+    std::map<std::string, int> context;
+    
+    try {
+        // 启动失败也在本线程内报告，不终止整个程序
+        WebDriver driver = Start(Chrome());
+        // 离开作用域（包括抛出异常）时关闭浏览器
+        struct DriverGuard {
+            WebDriver& driver;
+            ~DriverGuard() {
+                try {
+                    driver.Quit();
+                } catch (...) {
+                }
+            }
+        } driverGuard{driver};
+#@ worker-navigate
+        // 初始导航
+        driver.Navigate("{{@initialUrl}}");
+        out << "✅ 初始导航到: {{@initialUrl}}" << std::endl;
+        safeWait(2000);
+
+#@ worker-range
+        // 按迭代轮次连续分区，合并输出时保持原有顺序
+        int rounds = ({{@iterations}} + {{@increment}} - 1) / {{@increment}};
+        int rangeStart = workerIndex * rounds / workerCount * {{@increment}};
+        int rangeEnd = (workerIndex + 1) * rounds / workerCount * {{@increment}};
+        out << "🧵 工作线程 " << (workerIndex + 1) << "/" << workerCount << "，迭代范围: [" << rangeStart << ", " << rangeEnd << ")" << std::endl;
+#@ worker-end
+    } catch (const std::exception& e) {
+        out << "❌ 工作线程 " << (workerIndex + 1) << " 执行失败: " << e.what() << std::endl;
+    } catch (...) {
+        out << "❌ 工作线程 " << (workerIndex + 1) << " 执行失败: 未知错误" << std::endl;
+    }
+    return out.str();
+}
+
+#@ main-start
+int main() {
+    using namespace webdriverxx;
+    WebDriver driver = Start(Chrome());
+    std::map<std::string, int> context;
+    
+    try {
+#@ navigate
+        // 初始导航
+        driver.Navigate("{{@initialUrl}}");
+        std::cout << "✅ 初始导航到: {{@initialUrl}}" << std::endl;
+        safeWait(2000);
+
+#@ main-end
+        std::cout << "🎉 所有操作执行完成" << std::endl;
+        
+    } catch (const std::exception& e) {
+        std::cerr << "❌ 执行失败: " << e.what() << std::endl;
+    }
+    
+    driver.Quit();
+    std::cout << "🔚 浏览器已关闭" << std::endl;
+    return 0;
+}
+
+#@ parallel-loop
+{
+    std::cout << "🚀 开始并行循环任务，迭代次数: {{@iterations}}，增量: {{@increment}}，并行数: {{@workers}}" << std::endl;
+    std::vector<std::string> workerOutputs({{@workers}});
+    std::vector<std::thread> workers;
+    for (int workerIndex = 0; workerIndex < {{@workers}}; workerIndex++) {
+        workers.emplace_back([&workerOutputs, workerIndex]() {
+            workerOutputs[workerIndex] = {{@worker}}(workerIndex, {{@workers}});
+        });
+    }
+    for (auto& worker : workers) {
+        worker.join();
+    }
+    // 按分区顺序合并各工作线程的输出
+    for (const auto& output : workerOutputs) {
+        std::cout << output;
+    }
+}
+#@ helper.safeWait
+void safeWait(int milliseconds) {
+    std::this_thread::sleep_for(std::chrono::milliseconds(milliseconds));
+}
+
+#@ helper.resolveXpathWithExpression
+std::string resolveXpathWithExpression(const std::string& xpath, const std::map<std::string, int>& context) {
+    if (xpath.empty()) return xpath;
+    std::string result = xpath;
+    std::regex pattern("\\{([^}]+)\\}");
+    std::smatch matches;
+    
+    std::string::const_iterator searchStart(xpath.cbegin());
+    while (std::regex_search(searchStart, xpath.cend(), matches, pattern)) {
+        std::string fullMatch = matches[0];
+        std::string expression = matches[1];
+        try {
+            int value = parseExpression(fullMatch, context);
+            size_t pos = result.find(fullMatch);
+            if (pos != std::string::npos) {
+                result.replace(pos, fullMatch.length(), std::to_string(value));
+            }
+        } catch (const std::exception& e) {
+            // 解析失败，保持原样
+        }
+        searchStart = matches.suffix().first;
+    }
+    return result;
+}
+
+#@ helper.resolveValueWithExpression
+std::string resolveValueWithExpression(const std::string& value, const std::map<std::string, int>& context) {
+    if (value.empty()) return value;
+    std::string result = value;
+    std::regex pattern("\\{([^}]+)\\}");
+    std::smatch matches;
+    
+    std::string::const_iterator searchStart(value.cbegin());
+    while (std::regex_search(searchStart, value.cend(), matches, pattern)) {
+        std::string fullMatch = matches[0];
+        std::string expression = matches[1];
+        try {
+            int exprValue = parseExpression(fullMatch, context);
+            size_t pos = result.find(fullMatch);
+            if (pos != std::string::npos) {
+                result.replace(pos, fullMatch.length(), std::to_string(exprValue));
+            }
+        } catch (const std::exception& e) {
+            // 解析失败，保持原样
+        }
+        searchStart = matches.suffix().first;
+    }
+    return result;
+}
+
+#@ helper.parseExpression
+int parseExpression(const std::string& expression, const std::map<std::string, int>& context) {
+    std::string expr = expression;
+    expr.erase(0, 1); // 移除开头的 {
+    expr.erase(expr.length() - 1); // 移除结尾的 }
+    
+    // 去除首尾空格
+    expr.erase(0, expr.find_first_not_of(" \t\n\r\f\v"));
+    expr.erase(expr.find_last_not_of(" \t\n\r\f\v") + 1);
+    
+    // 检查是否是纯数字
+    if (std::regex_match(expr, std::regex("^\\d+$"))) {
+        return std::stoi(expr);
+    }
+    
+    // 检查是否包含变量和运算符
+    for (const auto& pair : context) {
+        const std::string& varName = pair.first;
+        if (expr.find(varName) == 0) {
+            int baseValue = pair.second;
+            std::string operatorPart = expr.substr(varName.length());
+            
+            // 去除运算符部分的首尾空格
+            operatorPart.erase(0, operatorPart.find_first_not_of(" \t\n\r\f\v"));
+            operatorPart.erase(operatorPart.find_last_not_of(" \t\n\r\f\v") + 1);
+            
+            if (operatorPart.empty()) {
+                return baseValue;
+            }
+            
+            if (std::regex_match(operatorPart, std::regex("^[+\\-*/]\\s*\\d+$"))) {
+                char operatorChar = operatorPart[0];
+                std::string numberStr = operatorPart.substr(1);
+                numberStr.erase(0, numberStr.find_first_not_of(" \t\n\r\f\v"));
+                int number = std::stoi(numberStr);
+                
+                switch (operatorChar) {
+                    case '+': return baseValue + number;
+                    case '-': return baseValue - number;
+                    case '*': return baseValue * number;
+                    case '/': return baseValue / number;
+                    default: return baseValue;
+                }
+            }
+        }
+    }
+    
+    return 1;
+}
+
+#@ helper.batchGetText
+// 批量提取文本：一次脚本调用计算全部XPath，脚本失败时逐个提取；提示写入 out
+const char* BATCH_TEXT_SCRIPT =
+    "var textOf = function(node) {"
+    "  if (!node) return '';"
+    "  var text = node.innerText !== undefined ? node.innerText : node.textContent;"
+    "  return text ? text.trim() : '';"
+    "};"
+    "var xpaths = arguments[0], texts = [];"
+    "for (var i = 0; i < xpaths.length; i++) {"
+    "  var node = null;"
+    "  try {"
+    "    node = document.evaluate(xpaths[i], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+    "  } catch (e) {}"
+    "  texts.push(textOf(node));"
+    "}"
+    "return texts;";
+
+std::vector<std::string> batchGetText(webdriverxx::WebDriver& driver, const std::vector<std::string>& xpaths, std::ostream& out) {
+    try {
+        std::vector<std::string> texts = driver.Eval<std::vector<std::string>>(
+            BATCH_TEXT_SCRIPT, webdriverxx::JsArgs() << xpaths);
+        if (texts.size() == xpaths.size()) {
+            return texts;
+        }
+    } catch (const std::exception& e) {
+        out << "⚠️ 批量提取失败: " << e.what() << std::endl;
+    }
+    out << "⚠️ 改为逐个提取文本" << std::endl;
+    std::vector<std::string> texts;
+    for (const auto& xpath : xpaths) {
+        try {
+            std::string text = driver.FindElement(webdriverxx::ByXPath(xpath)).GetText();
+            text.erase(text.begin(), std::find_if(text.begin(), text.end(), [](unsigned char ch) {
+                return !std::isspace(ch);
+            }));
+            text.erase(std::find_if(text.rbegin(), text.rend(), [](unsigned char ch) {
+                return !std::isspace(ch);
+            }).base(), text.end());
+            texts.push_back(text);
+        } catch (const std::exception& e) {
+            texts.push_back("");
+        }
+    }
+    return texts;
+}
+
+#@# 步骤片段按相对缩进书写，生成时通过 indent 填入所在层级的缩进
+#@ step-comment
+// 步骤 {{@number}}{{@remark}}
+#@ step-wait
+safeWait({{@milliseconds}});
+#@ step-unsupported
+// 不支持的操作类型: {{@type}}
+#@ step.CLICK
+{
+    std::string resolvedXpath = resolveXpathWithExpression("{{@xpath}}", context);
+    auto element = driver.FindElement(webdriverxx::ByXPath(resolvedXpath));
+    element.Click();
+    {{@out}} << "✅ 点击元素: " << resolvedXpath << std::endl;
+}
+#@ step.INPUT
+{
+    std::string resolvedXpath = resolveXpathWithExpression("{{@xpath}}", context);
+    std::string resolvedValue = resolveValueWithExpression("{{@value}}", context);
+    auto element = driver.FindElement(webdriverxx::ByXPath(resolvedXpath));
+    element.Clear();
+    element.SendKeys(resolvedValue);
+    {{@out}} << "✅ 输入内容: '" << resolvedValue << "' 到元素: " << resolvedXpath << std::endl;
+}
+#@ step.GET_TEXT
+{
+    std::string resolvedXpath = resolveXpathWithExpression("{{@xpath}}", context);
+    auto element = driver.FindElement(webdriverxx::ByXPath(resolvedXpath));
+    std::string text = element.GetText();
+    {{@out}} << "📖 获取文本: '" << text << "' 从元素: " << resolvedXpath << std::endl;
+}
+#@ step.LOOP_CLICK
+{
+    {{@out}} << "🔄 开始遍历点击操作，范围: {{@startIndex}} - {{@endIndex}}，增量: {{@increment}}" << std::endl;
+    for (int i = {{@startIndex}}; i <= {{@endIndex}}; i += {{@increment}}) {
+        context["i"] = i;
+        context["index"] = i;
+        context["current"] = i;
+        std::string resolvedXpath = resolveXpathWithExpression("{{@xpath}}", context);
+        try {
+            auto element = driver.FindElement(webdriverxx::ByXPath(resolvedXpath));
+            element.Click();
+            {{@out}} << "✅ 遍历点击成功: 索引: " << i << ", XPath: " << resolvedXpath << std::endl;
+            safeWait(500);
+        } catch (const std::exception& e) {
+            {{@out}} << "⚠️ 遍历点击失败，索引: " << i << ", XPath: " << resolvedXpath << std::endl;
+        }
+    }
+    context.erase("i");
+    context.erase("index");
+    context.erase("current");
+}
+#@ step.LOOP_INPUT
+{
+    {{@out}} << "🔄 开始遍历输入操作，范围: {{@startIndex}} - {{@endIndex}}，增量: {{@increment}}" << std::endl;
+    for (int i = {{@startIndex}}; i <= {{@endIndex}}; i += {{@increment}}) {
+        context["i"] = i;
+        context["index"] = i;
+        context["current"] = i;
+        std::string resolvedXpath = resolveXpathWithExpression("{{@xpath}}", context);
+        std::string resolvedValue = resolveValueWithExpression("{{@value}}", context);
+        try {
+            auto element = driver.FindElement(webdriverxx::ByXPath(resolvedXpath));
+            element.Clear();
+            element.SendKeys(resolvedValue);
+            {{@out}} << "✅ 遍历输入成功: 索引: " << i << ", 值: '" << resolvedValue << "', XPath: " << resolvedXpath << std::endl;
+            safeWait(500);
+        } catch (const std::exception& e) {
+            {{@out}} << "⚠️ 遍历输入失败，索引: " << i << ", XPath: " << resolvedXpath << std::endl;
+        }
+    }
+    context.erase("i");
+    context.erase("index");
+    context.erase("current");
+}
+#@ step.LOOP_GET_TEXT
+{
+    {{@out}} << "🔄 开始遍历获取文本操作，范围: {{@startIndex}} - {{@endIndex}}，增量: {{@increment}}" << std::endl;
+    std::vector<std::string> textList;
+    for (int i = {{@startIndex}}; i <= {{@endIndex}}; i += {{@increment}}) {
+        context["i"] = i;
+        context["index"] = i;
+        context["current"] = i;
+        std::string resolvedXpath = resolveXpathWithExpression("{{@xpath}}", context);
+        try {
+            auto element = driver.FindElement(webdriverxx::ByXPath(resolvedXpath));
+            std::string text = element.GetText();
+            // 去除首尾空格
+            text.erase(text.begin(), std::find_if(text.begin(), text.end(), [](unsigned char ch) {
+                return !std::isspace(ch);
+            }));
+            text.erase(std::find_if(text.rbegin(), text.rend(), [](unsigned char ch) {
+                return !std::isspace(ch);
+            }).base(), text.end());
+            textList.push_back(text);
+            {{@out}} << "📖 获取文本 [" << i << "]: '" << text << "'" << std::endl;
+            safeWait(500);
+        } catch (const std::exception& e) {
+            {{@out}} << "⚠️ 获取文本失败，索引: " << i << std::endl;
+            textList.push_back("");
+        }
+    }
+    context.erase("i");
+    context.erase("index");
+    context.erase("current");
+    // 写入文件
+    try {
+        std::ofstream file("{{@filePath}}");
+        for (const auto& text : textList) {
+            file << text << "\n";
+        }
+        file.close();
+        {{@out}} << "💾 成功将 " << textList.size() << " 条文本写入文件: {{@filePath}}" << std::endl;
+    } catch (const std::exception& e) {
+        {{@out}} << "❌ 写入文件失败: {{@filePath}}" << std::endl;
+    }
+}
+#@# 批量提取：先解析全部XPath，再通过一次脚本调用提取文本，脚本失败时逐个提取
+#@ step.LOOP_GET_TEXT.batch
+{
+    {{@out}} << "🔄 开始批量获取文本操作，范围: {{@startIndex}} - {{@endIndex}}，增量: {{@increment}}" << std::endl;
+    std::vector<std::string> xpathList;
+    std::vector<int> indexList;
+    for (int i = {{@startIndex}}; i <= {{@endIndex}}; i += {{@increment}}) {
+        context["i"] = i;
+        context["index"] = i;
+        context["current"] = i;
+        xpathList.push_back(resolveXpathWithExpression("{{@xpath}}", context));
+        indexList.push_back(i);
+    }
+    context.erase("i");
+    context.erase("index");
+    context.erase("current");
+    std::vector<std::string> textList = batchGetText(driver, xpathList, {{@out}});
+    for (size_t k = 0; k < textList.size(); k++) {
+        if (textList[k].empty()) {
+            {{@out}} << "⚠️ 获取文本失败，索引: " << indexList[k] << std::endl;
+        } else {
+            {{@out}} << "📖 获取文本 [" << indexList[k] << "]: '" << textList[k] << "'" << std::endl;
+        }
+    }
+    // 写入文件
+    try {
+        std::ofstream file("{{@filePath}}");
+        for (const auto& text : textList) {
+            file << text << "\n";
+        }
+        file.close();
+        {{@out}} << "💾 成功将 " << textList.size() << " 条文本写入文件: {{@filePath}}" << std::endl;
+    } catch (const std::exception& e) {
+        {{@out}} << "❌ 写入文件失败: {{@filePath}}" << std::endl;
+    }
+}
+#@# 循环任务：子步骤写在 step.LOOP_TASK 和 step.LOOP_TASK.end 之间，循环变量从 from 到 to（不含）
+#@ step.LOOP_TASK
+{
+    {{@out}} << "🔄 开始循环任务，迭代次数: {{@iterations}}，增量: {{@increment}}" << std::endl;
+    for (int {{@loopVar}} = {{@from}}; {{@loopVar}} < {{@to}}; {{@loopVar}} += {{@increment}}) {
+        context["{{@loopVar}}"] = {{@loopVar}};
+        context["i"] = {{@loopVar}};
+        context["index"] = {{@loopVar}};
+        {{@out}} << "🔄 循环任务迭代: " << ({{@loopVar}} + 1) << "/{{@iterations}}" << std::endl;
+#@ step.LOOP_TASK.end
+    }
+    context.erase("{{@loopVar}}");
+    context.erase("i");
+    context.erase("index");
+}
+#@ step.DYNAMIC_LOOP
+{
+    {{@out}} << "🔄 开始动态循环，迭代次数: {{@iterations}}，增量: {{@increment}}" << std::endl;
+    for (int {{@loopVar}} = {{@from}}; {{@loopVar}} < {{@to}}; {{@loopVar}} += {{@increment}}) {
+        context["{{@loopVar}}"] = {{@loopVar}};
+        context["i"] = {{@loopVar}};
+        context["index"] = {{@loopVar}};
+        {{@out}} << "🔄 动态循环迭代: " << ({{@loopVar}} + 1) << "/{{@iterations}}" << std::endl;
+#@ step.DYNAMIC_LOOP.end
+        safeWait(1000);
+    }
+    context.erase("{{@loopVar}}");
+    context.erase("i");
+    context.erase("index");
+}
+#@ step.WAIT
+{{@out}} << "⏳ 等待 {{@milliseconds}} 毫秒" << std::endl;
+safeWait({{@milliseconds}});
+#@ step.NAVIGATE
+driver.Navigate("{{@value}}");
+{{@out}} << "🌐 导航到: {{@value}}" << std::endl;
+#@ step.SWITCH_IFRAME
+{
+    std::string resolvedXpath = resolveXpathWithExpression("{{@xpath}}", context);
+    if (resolvedXpath == "default" || resolvedXpath == "DEFAULT") {
+        driver.SwitchTo().DefaultContent();
+        {{@out}} << "✅ 已切换回默认内容" << std::endl;
+    } else if (resolvedXpath == "parent" || resolvedXpath == "PARENT") {
+        // C++版本暂不支持直接切换到父级frame
+        driver.SwitchTo().DefaultContent();
+        {{@out}} << "✅ 已切换回默认内容" << std::endl;
+    } else {
+        auto iframeElement = driver.FindElement(webdriverxx::ByXPath(resolvedXpath));
+        driver.SwitchTo().Frame(iframeElement);
+        {{@out}} << "✅ 已切换到iframe: " << resolvedXpath << std::endl;
+    }
+}
+#@ step.GET_CURRENT_URL
+{
+    std::string currentUrl = driver.GetCurrentUrl();
+    context["{{@contextKey}}"] = 0; // C++版本上下文只存储int类型
+    {{@out}} << "🌐 获取当前URL: " << currentUrl << std::endl;
+    {{@out}} << "💾 已保存到上下文: {{@contextKey}} = " << currentUrl << std::endl;
+}
+#@ step.PRESS_KEYS
+{
+    std::string resolvedValue = resolveValueWithExpression("{{@value}}", context);
+    auto actions = driver.Actions();
+    std::vector<std::string> keySequence;
+    size_t start = 0;
+    size_t end = resolvedValue.find('+');
+    while (end != std::string::npos) {
+        keySequence.push_back(resolvedValue.substr(start, end - start));
+        start = end + 1;
+        end = resolvedValue.find('+', start);
+    }
+    keySequence.push_back(resolvedValue.substr(start));
+
+    for (const auto& key : keySequence) {
+        std::string trimmedKey = key;
+        trimmedKey.erase(0, trimmedKey.find_first_not_of(" \t\n\r\f\v"));
+        trimmedKey.erase(trimmedKey.find_last_not_of(" \t\n\r\f\v") + 1);
+        std::transform(trimmedKey.begin(), trimmedKey.end(), trimmedKey.begin(), ::toupper);
+
+        if (trimmedKey == "CTRL") {
+            actions.KeyDown(webdriverxx::Keys::CONTROL);
+        } else if (trimmedKey == "SHIFT") {
+            actions.KeyDown(webdriverxx::Keys::SHIFT);
+        } else if (trimmedKey == "ALT") {
+            actions.KeyDown(webdriverxx::Keys::ALT);
+        } else if (trimmedKey == "ENTER") {
+            actions.SendKeys(webdriverxx::Keys::ENTER);
+        } else if (trimmedKey == "TAB") {
+            actions.SendKeys(webdriverxx::Keys::TAB);
+        } else if (trimmedKey == "ESC") {
+            actions.SendKeys(webdriverxx::Keys::ESCAPE);
+        } else if (trimmedKey == "BACKSPACE") {
+            actions.SendKeys(webdriverxx::Keys::BACKSPACE);
+        } else if (trimmedKey == "DELETE") {
+            actions.SendKeys(webdriverxx::Keys::DELETE);
+        } else if (trimmedKey == "HOME") {
+            actions.SendKeys(webdriverxx::Keys::HOME);
+        } else if (trimmedKey == "END") {
+            actions.SendKeys(webdriverxx::Keys::END);
+        } else if (trimmedKey == "PAGEUP") {
+            actions.SendKeys(webdriverxx::Keys::PAGE_UP);
+        } else if (trimmedKey == "PAGEDOWN") {
+            actions.SendKeys(webdriverxx::Keys::PAGE_DOWN);
+        } else if (trimmedKey == "ARROW_UP") {
+            actions.SendKeys(webdriverxx::Keys::ARROW_UP);
+        } else if (trimmedKey == "ARROW_DOWN") {
+            actions.SendKeys(webdriverxx::Keys::ARROW_DOWN);
+        } else if (trimmedKey == "ARROW_LEFT") {
+            actions.SendKeys(webdriverxx::Keys::ARROW_LEFT);
+        } else if (trimmedKey == "ARROW_RIGHT") {
+            actions.SendKeys(webdriverxx::Keys::ARROW_RIGHT);
+        } else {
+            if (trimmedKey.length() == 2 && trimmedKey[0] == 'F') {
+                char fn = trimmedKey[1];
+                if (fn >= '1' && fn <= '9') {
+                    actions.SendKeys(webdriverxx::Keys::if (fn == '1') { return webdriverxx::Keys::F1; } else if (fn == '2') { return webdriverxx::Keys::F2; } else if (fn == '3') { return webdriverxx::Keys::F3; } else if (fn == '4') { return webdriverxx::Keys::F4; } else if (fn == '5') { return webdriverxx::Keys::F5; } else if (fn == '6') { return webdriverxx::Keys::F6; } else if (fn == '7') { return webdriverxx::Keys::F7; } else if (fn == '8') { return webdriverxx::Keys::F8; } else if (fn == '9') { return webdriverxx::Keys::F9; } else if (fn == '10') { return webdriverxx::Keys::F10; } else if (fn == '11') { return webdriverxx::Keys::F11; } else if (fn == '12') { return webdriverxx::Keys::F12; } else { return ""; });
+                }
+            } else if (trimmedKey.length() == 1 && std::isalpha(trimmedKey[0])) {
+                actions.SendKeys(trimmedKey);
+            } else {
+                {{@out}} << "⚠️ 不支持的按键: " << trimmedKey << std::endl;
+            }
+        }
+    }
+    actions.KeyUp(webdriverxx::Keys::CONTROL).KeyUp(webdriverxx::Keys::SHIFT).KeyUp(webdriverxx::Keys::ALT);
+    actions.Perform();
+    {{@out}} << "⌨️ 模拟按键: " << resolvedValue << std::endl;
+}
+#@ step.KEYBOARD_INPUT
+{
+    std::string resolvedXpath = resolveXpathWithExpression("{{@xpath}}", context);
+    std::string resolvedValue = resolveValueWithExpression("{{@value}}", context);
+    auto actions = driver.Actions();
+    auto element = driver.FindElement(webdriverxx::ByXPath(resolvedXpath));
+    element.Click();
+    // C++版本暂不支持复杂的键盘输入序列
+    element.SendKeys(resolvedValue);
+    {{@out}} << "⌨️ 键盘输入: '" << resolvedValue << "' 到元素: " << resolvedXpath << std::endl;
+}
+#@ step.GO_BACK
+driver.GoBack();
+{{@out}} << "↩️ 返回上一页" << std::endl;
+#@# 处理弹窗：按是否输入文本、接受或取消依次输出 .text、.accept/.dismiss，最后输出 .end
+#@ step.HANDLE_ALERT
+try {
+    auto alert = driver.SwitchTo().Alert();
+#@ step.HANDLE_ALERT.text
+    alert.SendKeys("{{@alertText}}");
+    {{@out}} << "⌨️ 在弹窗中输入文本: {{@alertText}}" << std::endl;
+#@ step.HANDLE_ALERT.accept
+    alert.Accept();
+    {{@out}} << "✅ 接受弹窗" << std::endl;
+#@ step.HANDLE_ALERT.dismiss
+    alert.Dismiss();
+    {{@out}} << "❌ 取消弹窗" << std::endl;
+#@ step.HANDLE_ALERT.end
+} catch (const std::exception& e) {
+    {{@out}} << "⚠️ 未检测到弹窗" << std::endl;
+}
+#@ step.CLOSE_TAB
+{
+    std::string currentHandle = driver.GetWindowHandle();
+    auto handles = driver.GetWindowHandles();
+    if (handles.size() > 1) {
+        driver.Close();
+        handles = driver.GetWindowHandles();
+        if (!handles.empty()) {
+            std::string newHandle = *handles.begin();
+            driver.SwitchTo().Window(newHandle);
+            std::string currentUrl = driver.GetCurrentUrl();
+            {{@out}} << "✅ 关闭标签页，切换到新标签页" << std::endl;
+            {{@out}} << "🌐 当前URL: " << currentUrl << std::endl;
+        }
+    } else {
+        {{@out}} << "⚠️ 只有一个标签页，无法关闭" << std::endl;
+    }
+}
+#@ step.IMPORT_COOKIE
+{
+    {{@out}} << "🍪 开始从文件导入Cookie: {{@filePath}}" << std::endl;
+    // C++版本Cookie导入需要手动实现JSON解析
+    {{@out}} << "⚠️ C++版本需要手动实现Cookie导入功能" << std::endl;
+    {{@out}} << "📁 Cookie文件路径: {{@filePath}}" << std::endl;
+    // 刷新页面
+    driver.Refresh();
+    {{@out}} << "🔄 已刷新页面使Cookie生效" << std::endl;
+    safeWait(2000);
+}
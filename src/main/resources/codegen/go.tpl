@@ -0,0 +1,604 @@
+#@# Go代码生成模板，启动时预编译，静态片段只编码一次
+#@# 以 "#@ 名称" 开始一个片段，{{@名称}} 为生成时填入的内容；以 "#@#" 开头的行为注释
+#@ header
+package main
+
+import (
+{{@imports}}    
+    "github.com/tebeka/selenium"
+    "github.com/tebeka/selenium/chrome"
+)
+
+#@ comment
+/*
+ * 自动生成的Selenium测试程序 - Go语言版本
+ * 生成时间: {{@generatedAt}}
+ * 步骤数量: {{@stepCount}}
+ */
+
+#@ main-start
+func main() {
+    // 设置ChromeDriver选项
+    caps := selenium.Capabilities{
+        "browserName": "chrome",
+    }
+    
+    chromeCaps := chrome.Capabilities{
+        Args: []string{
+            "--start-maximized",
+            "--disable-blink-features=AutomationControlled",
+        },
+        ExcludeSwitches: []string{"enable-automation"},
+    }
+    caps.AddChrome(chromeCaps)
+    
+    // 连接WebDriver
+    wd, err := selenium.NewRemote(caps, "")
+    if err != nil {
+        log.Fatalf("❌ 连接WebDriver失败: %v", err)
+    }
+    defer wd.Quit()
+    
+    // 设置隐式等待
+    wd.SetImplicitWaitTimeout(10 * time.Second)
+    
+    context := make(map[string]interface{})
+    err = executeSteps(wd, context, os.Stdout)
+    if err != nil {
+        log.Fatalf("❌ 执行失败: %v", err)
+    }
+    
+    fmt.Println("🎉 所有操作执行完成")
+}
+
+// executeSteps 执行全部步骤，输出写入 out
+func executeSteps(wd selenium.WebDriver, context map[string]interface{}, out io.Writer) error {
+#@ navigate
+    // 初始导航
+    err := wd.Get("{{@initialUrl}}")
+    if err != nil {
+        return fmt.Errorf("初始导航失败: %v", err)
+    }
+    fmt.Fprintln(out, "✅ 初始导航到: {{@initialUrl}}")
+    safeWait(2000)
+
+#@ main-end
+    return nil
+}
+#@ parallel-loop
+{
+    fmt.Fprintln(out, "🚀 开始并行循环任务，迭代次数: {{@iterations}}，增量: {{@increment}}，并行数: {{@workers}}")
+    workerOutputs := make([]bytes.Buffer, {{@workers}})
+    workerErrors := make([]error, {{@workers}})
+    var workerGroup sync.WaitGroup
+    for workerIndex := 0; workerIndex < {{@workers}}; workerIndex++ {
+        workerGroup.Add(1)
+        go func(workerIndex int) {
+            defer workerGroup.Done()
+            workerErrors[workerIndex] = {{@worker}}(workerIndex, {{@workers}}, &workerOutputs[workerIndex])
+        }(workerIndex)
+    }
+    workerGroup.Wait()
+    // 按分区顺序合并各工作协程的输出
+    for workerIndex := range workerOutputs {
+        fmt.Fprint(out, workerOutputs[workerIndex].String())
+        if workerErrors[workerIndex] != nil {
+            fmt.Fprintf(out, "❌ 工作协程 %d 执行失败: %v\n", workerIndex+1, workerErrors[workerIndex])
+        }
+    }
+}
+#@ worker-start
+
+// {{@worker}} 并行循环任务的工作协程：使用独立的浏览器执行分到的迭代，输出写入 out
+func {{@worker}}(workerIndex, workerCount int, out *bytes.Buffer) error {
+    caps := selenium.Capabilities{
+        "browserName": "chrome",
+    }
+    caps.AddChrome(chrome.Capabilities{
+        Args: []string{
+            "--start-maximized",
+            "--disable-blink-features=AutomationControlled",
+        },
+        ExcludeSwitches: []string{"enable-automation"},
+    })
+    wd, err := selenium.NewRemote(caps, "")
+    if err != nil {
+        return fmt.Errorf("连接WebDriver失败: %v", err)
+    }
+    defer wd.Quit()
+    wd.SetImplicitWaitTimeout(10 * time.Second)
+    context := make(map[string]interface{})
+
+#@ worker-navigate
+    // 初始导航
+    if err = wd.Get("{{@initialUrl}}"); err != nil {
+        return fmt.Errorf("初始导航失败: %v", err)
+    }
+    fmt.Fprintln(out, "✅ 初始导航到: {{@initialUrl}}")
+    safeWait(2000)
+
+#@ worker-range
+    // 按迭代轮次连续分区，合并输出时保持原有顺序
+    rounds := ({{@iterations}} + {{@increment}} - 1) / {{@increment}}
+    rangeStart := workerIndex * rounds / workerCount * {{@increment}}
+    rangeEnd := (workerIndex + 1) * rounds / workerCount * {{@increment}}
+    fmt.Fprintf(out, "🧵 工作协程 %d/%d，迭代范围: [%d, %d)\n", workerIndex+1, workerCount, rangeStart, rangeEnd)
+#@ worker-end
+    return nil
+}
+
+#@ helper.safeWait
+func safeWait(milliseconds int) {
+    time.Sleep(time.Duration(milliseconds) * time.Millisecond)
+}
+
+#@ helper.resolveXpathWithExpression
+func resolveXpathWithExpression(xpath string, context map[string]interface{}) string {
+    if xpath == "" {
+        return xpath
+    }
+    result := xpath
+    re := regexp.MustCompile(`\\{([^}]+)\\}`)
+    matches := re.FindAllStringSubmatch(xpath, -1)
+    
+    for _, match := range matches {
+        fullMatch := match[0]
+        expression := match[1]
+        value := parseExpression(fullMatch, context)
+        result = strings.Replace(result, fullMatch, fmt.Sprintf("%d", value), -1)
+    }
+    return result
+}
+
+#@ helper.resolveValueWithExpression
+func resolveValueWithExpression(value string, context map[string]interface{}) string {
+    if value == "" {
+        return value
+    }
+    result := value
+    re := regexp.MustCompile(`\\{([^}]+)\\}`)
+    matches := re.FindAllStringSubmatch(value, -1)
+    
+    for _, match := range matches {
+        fullMatch := match[0]
+        expression := match[1]
+        exprValue := parseExpression(fullMatch, context)
+        result = strings.Replace(result, fullMatch, fmt.Sprintf("%d", exprValue), -1)
+    }
+    return result
+}
+
+#@ helper.parseExpression
+func parseExpression(expression string, context map[string]interface{}) int {
+    expr := strings.Trim(expression, "{}")
+    expr = strings.TrimSpace(expr)
+    
+    if matched, _ := regexp.MatchString(`^\\d+$`, expr); matched {
+        value, _ := strconv.Atoi(expr)
+        return value
+    }
+    
+    for varName, varValue := range context {
+        if strings.HasPrefix(expr, varName) {
+            baseValue := int(varValue.(int))
+            operatorPart := strings.TrimSpace(expr[len(varName):])
+            
+            if operatorPart == "" {
+                return baseValue
+            }
+            
+            if matched, _ := regexp.MatchString(`^[+\\-*/]\\s*\\d+$`, operatorPart); matched {
+                operator := operatorPart[0]
+                numberStr := strings.TrimSpace(operatorPart[1:])
+                number, _ := strconv.Atoi(numberStr)
+                
+                switch operator {
+                case '+':
+                    return baseValue + number
+                case '-':
+                    return baseValue - number
+                case '*':
+                    return baseValue * number
+                case '/':
+                    return baseValue / number
+                }
+            }
+        }
+    }
+    
+    return 1
+}
+
+#@ helper.batchGetText
+// 批量提取文本：一次脚本调用计算全部XPath，脚本失败时逐个提取；提示写入 out
+const batchTextScript = "var textOf = function(node) {" +
+    "  if (!node) return '';" +
+    "  var text = node.innerText !== undefined ? node.innerText : node.textContent;" +
+    "  return text ? text.trim() : '';" +
+    "};" +
+    "var xpaths = arguments[0], texts = [];" +
+    "for (var i = 0; i < xpaths.length; i++) {" +
+    "  var node = null;" +
+    "  try {" +
+    "    node = document.evaluate(xpaths[i], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;" +
+    "  } catch (e) {}" +
+    "  texts.push(textOf(node));" +
+    "}" +
+    "return texts;"
+
+func batchGetText(wd selenium.WebDriver, xpaths []string, out io.Writer) []string {
+    result, err := wd.ExecuteScript(batchTextScript, []interface{}{xpaths})
+    if err != nil {
+        fmt.Fprintf(out, "⚠️ 批量提取失败: %v\n", err)
+    } else if values, ok := result.([]interface{}); ok && len(values) == len(xpaths) {
+        texts := make([]string, len(values))
+        for k, value := range values {
+            if text, ok := value.(string); ok {
+                texts[k] = text
+            }
+        }
+        return texts
+    }
+    fmt.Fprintln(out, "⚠️ 改为逐个提取文本")
+    texts := make([]string, 0, len(xpaths))
+    for _, xpath := range xpaths {
+        elem, err := wd.FindElement(selenium.ByXPATH, xpath)
+        if err != nil {
+            texts = append(texts, "")
+            continue
+        }
+        text, err := elem.Text()
+        if err != nil {
+            texts = append(texts, "")
+            continue
+        }
+        texts = append(texts, strings.TrimSpace(text))
+    }
+    return texts
+}
+#@# 步骤片段按相对缩进书写，生成时通过 indent 填入所在层级的缩进
+#@ step-comment
+// 步骤 {{@number}}{{@remark}}
+#@ step-wait
+safeWait({{@milliseconds}})
+#@ step-unsupported
+// 不支持的操作类型: {{@type}}
+#@ step.CLICK
+resolvedXpath := resolveXpathWithExpression("{{@xpath}}", context)
+elem, err := wd.FindElement(selenium.ByXPATH, resolvedXpath)
+if err != nil {
+    return fmt.Errorf("查找元素失败: %v", err)
+}
+err = elem.Click()
+if err != nil {
+    return fmt.Errorf("点击元素失败: %v", err)
+}
+fmt.Fprintf({{@out}}, "✅ 点击元素: %s\n", resolvedXpath)
+#@ step.INPUT
+resolvedXpath := resolveXpathWithExpression("{{@xpath}}", context)
+resolvedValue := resolveValueWithExpression("{{@value}}", context)
+elem, err := wd.FindElement(selenium.ByXPATH, resolvedXpath)
+if err != nil {
+    return fmt.Errorf("查找元素失败: %v", err)
+}
+err = elem.Clear()
+if err != nil {
+    return fmt.Errorf("清除输入框失败: %v", err)
+}
+err = elem.SendKeys(resolvedValue)
+if err != nil {
+    return fmt.Errorf("输入内容失败: %v", err)
+}
+fmt.Fprintf({{@out}}, "✅ 输入内容: '%s' 到元素: %s\n", resolvedValue, resolvedXpath)
+#@ step.GET_TEXT
+resolvedXpath := resolveXpathWithExpression("{{@xpath}}", context)
+elem, err := wd.FindElement(selenium.ByXPATH, resolvedXpath)
+if err != nil {
+    return fmt.Errorf("查找元素失败: %v", err)
+}
+text, err := elem.Text()
+if err != nil {
+    return fmt.Errorf("获取文本失败: %v", err)
+}
+fmt.Fprintf({{@out}}, "📖 获取文本: '%s' 从元素: %s\n", text, resolvedXpath)
+#@ step.LOOP_CLICK
+fmt.Fprintf({{@out}}, "🔄 开始遍历点击操作，范围: {{@startIndex}} - {{@endIndex}}，增量: {{@increment}}\n")
+for i := {{@startIndex}}; i <= {{@endIndex}}; i += {{@increment}} {
+    context["i"] = i
+    context["index"] = i
+    context["current"] = i
+    resolvedXpath := resolveXpathWithExpression("{{@xpath}}", context)
+    elem, err := wd.FindElement(selenium.ByXPATH, resolvedXpath)
+    if err != nil {
+        fmt.Fprintf({{@out}}, "⚠️ 遍历点击失败，索引: %d, XPath: %s\n", i, resolvedXpath)
+        continue
+    }
+    err = elem.Click()
+    if err != nil {
+        fmt.Fprintf({{@out}}, "⚠️ 遍历点击失败，索引: %d, XPath: %s\n", i, resolvedXpath)
+        continue
+    }
+    fmt.Fprintf({{@out}}, "✅ 遍历点击成功: 索引: %d, XPath: %s\n", i, resolvedXpath)
+    safeWait(500)
+}
+delete(context, "i")
+delete(context, "index")
+delete(context, "current")
+#@ step.LOOP_INPUT
+fmt.Fprintf({{@out}}, "🔄 开始遍历输入操作，范围: {{@startIndex}} - {{@endIndex}}，增量: {{@increment}}\n")
+for i := {{@startIndex}}; i <= {{@endIndex}}; i += {{@increment}} {
+    context["i"] = i
+    context["index"] = i
+    context["current"] = i
+    resolvedXpath := resolveXpathWithExpression("{{@xpath}}", context)
+    resolvedValue := resolveValueWithExpression("{{@value}}", context)
+    elem, err := wd.FindElement(selenium.ByXPATH, resolvedXpath)
+    if err != nil {
+        fmt.Fprintf({{@out}}, "⚠️ 遍历输入失败，索引: %d, XPath: %s\n", i, resolvedXpath)
+        continue
+    }
+    err = elem.Clear()
+    if err != nil {
+        fmt.Fprintf({{@out}}, "⚠️ 遍历输入失败，索引: %d, XPath: %s\n", i, resolvedXpath)
+        continue
+    }
+    err = elem.SendKeys(resolvedValue)
+    if err != nil {
+        fmt.Fprintf({{@out}}, "⚠️ 遍历输入失败，索引: %d, XPath: %s\n", i, resolvedXpath)
+        continue
+    }
+    fmt.Fprintf({{@out}}, "✅ 遍历输入成功: 索引: %d, 值: '%s', XPath: %s\n", i, resolvedValue, resolvedXpath)
+    safeWait(500)
+}
+delete(context, "i")
+delete(context, "index")
+delete(context, "current")
+#@ step.LOOP_GET_TEXT
+fmt.Fprintf({{@out}}, "🔄 开始遍历获取文本操作，范围: {{@startIndex}} - {{@endIndex}}，增量: {{@increment}}\n")
+var textList []string
+for i := {{@startIndex}}; i <= {{@endIndex}}; i += {{@increment}} {
+    context["i"] = i
+    context["index"] = i
+    context["current"] = i
+    resolvedXpath := resolveXpathWithExpression("{{@xpath}}", context)
+    elem, err := wd.FindElement(selenium.ByXPATH, resolvedXpath)
+    if err != nil {
+        fmt.Fprintf({{@out}}, "⚠️ 获取文本失败，索引: %d\n", i)
+        textList = append(textList, "")
+        continue
+    }
+    text, err := elem.Text()
+    if err != nil {
+        fmt.Fprintf({{@out}}, "⚠️ 获取文本失败，索引: %d\n", i)
+        textList = append(textList, "")
+        continue
+    }
+    text = strings.TrimSpace(text)
+    textList = append(textList, text)
+    fmt.Fprintf({{@out}}, "📖 获取文本 [%d]: '%s'\n", i, text)
+    safeWait(500)
+}
+delete(context, "i")
+delete(context, "index")
+delete(context, "current")
+// 写入文件
+content := strings.Join(textList, "\n")
+err := ioutil.WriteFile("{{@filePath}}", []byte(content), 0644)
+if err != nil {
+    return fmt.Errorf("写入文件失败: %v", err)
+}
+fmt.Fprintf({{@out}}, "💾 成功将 %d 条文本写入文件: {{@filePath}}\n", len(textList))
+#@# 批量提取：先解析全部XPath，再通过一次脚本调用提取文本，脚本失败时逐个提取
+#@ step.LOOP_GET_TEXT.batch
+{
+    fmt.Fprintf({{@out}}, "🔄 开始批量获取文本操作，范围: {{@startIndex}} - {{@endIndex}}，增量: {{@increment}}\n")
+    var xpathList []string
+    var indexList []int
+    for i := {{@startIndex}}; i <= {{@endIndex}}; i += {{@increment}} {
+        context["i"] = i
+        context["index"] = i
+        context["current"] = i
+        xpathList = append(xpathList, resolveXpathWithExpression("{{@xpath}}", context))
+        indexList = append(indexList, i)
+    }
+    delete(context, "i")
+    delete(context, "index")
+    delete(context, "current")
+    textList := batchGetText(wd, xpathList, {{@out}})
+    for k, text := range textList {
+        if text == "" {
+            fmt.Fprintf({{@out}}, "⚠️ 获取文本失败，索引: %d\n", indexList[k])
+        } else {
+            fmt.Fprintf({{@out}}, "📖 获取文本 [%d]: '%s'\n", indexList[k], text)
+        }
+    }
+    // 写入文件
+    content := strings.Join(textList, "\n")
+    if err := ioutil.WriteFile("{{@filePath}}", []byte(content), 0644); err != nil {
+        return fmt.Errorf("写入文件失败: %v", err)
+    }
+    fmt.Fprintf({{@out}}, "💾 成功将 %d 条文本写入文件: {{@filePath}}\n", len(textList))
+}
+#@# 循环任务：子步骤写在 step.LOOP_TASK 和 step.LOOP_TASK.end 之间，循环变量从 from 到 to（不含）
+#@ step.LOOP_TASK
+fmt.Fprintf({{@out}}, "🔄 开始循环任务，迭代次数: {{@iterations}}，增量: {{@increment}}\n")
+for {{@loopVar}} := {{@from}}; {{@loopVar}} < {{@to}}; {{@loopVar}} += {{@increment}} {
+    context["{{@loopVar}}"] = {{@loopVar}}
+    context["i"] = {{@loopVar}}
+    context["index"] = {{@loopVar}}
+    fmt.Fprintf({{@out}}, "🔄 循环任务迭代: %d/{{@iterations}}\n", {{@loopVar}}+1)
+#@ step.LOOP_TASK.end
+}
+delete(context, "{{@loopVar}}")
+delete(context, "i")
+delete(context, "index")
+#@ step.DYNAMIC_LOOP
+fmt.Fprintf({{@out}}, "🔄 开始动态循环，迭代次数: {{@iterations}}，增量: {{@increment}}\n")
+for {{@loopVar}} := {{@from}}; {{@loopVar}} < {{@to}}; {{@loopVar}} += {{@increment}} {
+    context["{{@loopVar}}"] = {{@loopVar}}
+    context["i"] = {{@loopVar}}
+    context["index"] = {{@loopVar}}
+    fmt.Fprintf({{@out}}, "🔄 动态循环迭代: %d/{{@iterations}}\n", {{@loopVar}}+1)
+#@ step.DYNAMIC_LOOP.end
+    safeWait(1000)
+}
+delete(context, "{{@loopVar}}")
+delete(context, "i")
+delete(context, "index")
+#@ step.WAIT
+fmt.Fprintf({{@out}}, "⏳ 等待 %d 毫秒\n", {{@milliseconds}})
+safeWait({{@milliseconds}})
+#@ step.NAVIGATE
+err := wd.Get("{{@value}}")
+if err != nil {
+    return fmt.Errorf("导航失败: %v", err)
+}
+fmt.Fprintln({{@out}}, "🌐 导航到: {{@value}}")
+#@ step.SWITCH_IFRAME
+resolvedXpath := resolveXpathWithExpression("{{@xpath}}", context)
+if strings.ToLower(resolvedXpath) == "default" {
+    wd.SwitchFrame(nil)
+    fmt.Fprintln({{@out}}, "✅ 已切换回默认内容")
+} else if strings.ToLower(resolvedXpath) == "parent" {
+    // Go版本暂不支持直接切换到父级frame
+    wd.SwitchFrame(nil)
+    fmt.Fprintln({{@out}}, "✅ 已切换回默认内容")
+} else {
+    iframe, err := wd.FindElement(selenium.ByXPATH, resolvedXpath)
+    if err != nil {
+        return fmt.Errorf("查找iframe失败: %v", err)
+    }
+    err = wd.SwitchFrame(iframe)
+    if err != nil {
+        return fmt.Errorf("切换iframe失败: %v", err)
+    }
+    fmt.Fprintf({{@out}}, "✅ 已切换到iframe: %s\n", resolvedXpath)
+}
+#@ step.GET_CURRENT_URL
+currentUrl, err := wd.CurrentURL()
+if err != nil {
+    return fmt.Errorf("获取当前URL失败: %v", err)
+}
+context["{{@contextKey}}"] = currentUrl
+fmt.Fprintf({{@out}}, "🌐 获取当前URL: %s\n", currentUrl)
+fmt.Fprintf({{@out}}, "💾 已保存到上下文: {{@contextKey}} = %s\n", currentUrl)
+#@ step.PRESS_KEYS
+resolvedValue := resolveValueWithExpression("{{@value}}", context)
+// Go版本组合键支持有限，使用SendKeys模拟
+fmt.Fprintf({{@out}}, "⌨️ 模拟按键: %s\n", resolvedValue)
+// 实际使用时需要根据具体按键实现
+#@ step.KEYBOARD_INPUT
+resolvedXpath := resolveXpathWithExpression("{{@xpath}}", context)
+resolvedValue := resolveValueWithExpression("{{@value}}", context)
+elem, err := wd.FindElement(selenium.ByXPATH, resolvedXpath)
+if err != nil {
+    return fmt.Errorf("查找元素失败: %v", err)
+}
+err = elem.Click()
+if err != nil {
+    return fmt.Errorf("点击元素失败: %v", err)
+}
+// Go版本暂不支持复杂的键盘输入序列
+err = elem.SendKeys(resolvedValue)
+if err != nil {
+    return fmt.Errorf("键盘输入失败: %v", err)
+}
+fmt.Fprintf({{@out}}, "⌨️ 键盘输入: '%s' 到元素: %s\n", resolvedValue, resolvedXpath)
+#@ step.GO_BACK
+err := wd.Back()
+if err != nil {
+    return fmt.Errorf("返回上一页失败: %v", err)
+}
+fmt.Fprintln({{@out}}, "↩️ 返回上一页")
+#@# 处理弹窗：按是否输入文本、接受或取消依次输出 .text、.accept/.dismiss，最后输出 .end
+#@ step.HANDLE_ALERT
+alert, err := wd.AlertText()
+if err != nil {
+    fmt.Fprintln({{@out}}, "⚠️ 未检测到弹窗")
+} else {
+#@ step.HANDLE_ALERT.text
+    // Go版本暂不支持向alert输入文本
+    fmt.Fprintf({{@out}}, "⌨️ 在弹窗中输入文本: {{@alertText}}\n")
+#@ step.HANDLE_ALERT.accept
+    err = wd.AcceptAlert()
+    if err != nil {
+        return fmt.Errorf("接受弹窗失败: %v", err)
+    }
+    fmt.Fprintln({{@out}}, "✅ 接受弹窗")
+#@ step.HANDLE_ALERT.dismiss
+    err = wd.DismissAlert()
+    if err != nil {
+        return fmt.Errorf("取消弹窗失败: %v", err)
+    }
+    fmt.Fprintln({{@out}}, "❌ 取消弹窗")
+#@ step.HANDLE_ALERT.end
+}
+#@ step.CLOSE_TAB
+windows, err := wd.WindowHandles()
+if err != nil {
+    return fmt.Errorf("获取窗口句柄失败: %v", err)
+}
+if len(windows) > 1 {
+    err = wd.Close()
+    if err != nil {
+        return fmt.Errorf("关闭标签页失败: %v", err)
+    }
+    windows, err = wd.WindowHandles()
+    if err != nil {
+        return fmt.Errorf("获取窗口句柄失败: %v", err)
+    }
+    if len(windows) > 0 {
+        err = wd.SwitchWindow(windows[0])
+        if err != nil {
+            return fmt.Errorf("切换窗口失败: %v", err)
+        }
+        currentUrl, _ := wd.CurrentURL()
+        fmt.Fprintln({{@out}}, "✅ 关闭标签页，切换到新标签页")
+        fmt.Fprintf({{@out}}, "🌐 当前URL: %s\n", currentUrl)
+    }
+} else {
+    fmt.Fprintln({{@out}}, "⚠️ 只有一个标签页，无法关闭")
+}
+#@ step.IMPORT_COOKIE
+// 读取Cookie文件
+data, err := ioutil.ReadFile("{{@filePath}}")
+if err != nil {
+    return fmt.Errorf("读取Cookie文件失败: %v", err)
+}
+
+var cookies []map[string]interface{}
+err = json.Unmarshal(data, &cookies)
+if err != nil {
+    return fmt.Errorf("解析Cookie JSON失败: %v", err)
+}
+
+importedCount := 0
+for _, cookieData := range cookies {
+    cookie := &selenium.Cookie{
+        Name:   cookieData["name"].(string),
+        Value:  cookieData["value"].(string),
+        Domain: cookieData["domain"].(string),
+        Path:   "/",
+    }
+    if path, ok := cookieData["path"].(string); ok {
+        cookie.Path = path
+    }
+
+    err = wd.AddCookie(cookie)
+    if err != nil {
+        fmt.Fprintf({{@out}}, "⚠️ 导入单个Cookie失败: %s\n", cookie.Name)
+        continue
+    }
+    importedCount++
+    fmt.Fprintf({{@out}}, "✅ 导入Cookie: %s\n", cookie.Name)
+}
+
+fmt.Fprintf({{@out}}, "✅ 成功导入 %d 个Cookie\n", importedCount)
+
+// 刷新页面使Cookie生效
+err = wd.Refresh()
+if err != nil {
+    return fmt.Errorf("刷新页面失败: %v", err)
+}
+fmt.Fprintln({{@out}}, "🔄 已刷新页面使Cookie生效")
+safeWait(2000)
@@ -0,0 +1,716 @@
+#@# Java代码生成模板，启动时预编译，静态片段只编码一次
+#@# 以 "#@ 名称" 开始一个片段，{{@名称}} 为生成时填入的内容；以 "#@#" 开头的行为注释
+#@ header
+package com.generated.selenium;
+
+import org.openqa.selenium.*;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import org.openqa.selenium.interactions.Actions;
+import java.time.Duration;
+import java.util.*;
+import java.io.*;
+import java.nio.file.*;
+import java.nio.charset.StandardCharsets;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+#@ import-parallel
+import java.util.concurrent.*;
+#@ header-end
+
+#@ comment
+/**
+ * 自动生成的Selenium测试类
+ * 生成时间: {{@generatedAt}}
+ * 步骤数量: {{@stepCount}}
+ */
+#@ main-start
+public class {{@className}} {
+
+    private static Map<String, Object> context = new HashMap<>();
+
+    public static void main(String[] args) {
+        // 设置ChromeDriver路径
+        System.setProperty("webdriver.chrome.driver", "chromedriver");
+        
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--start-maximized");
+        options.addArguments("--disable-blink-features=AutomationControlled");
+        options.setExperimentalOption("excludeSwitches", new String[]{"enable-automation"});
+        WebDriver driver = new ChromeDriver(options);
+        
+        try {
+#@ navigate
+            // 初始导航
+            driver.get("{{@initialUrl}}");
+            System.out.println("✅ 初始导航到: {{@initialUrl}}");
+            Thread.sleep(2000);
+
+#@ main-end
+            System.out.println("🎉 所有操作执行完成");
+            
+        } catch (Exception e) {
+            System.err.println("❌ 执行失败: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            driver.quit();
+            System.out.println("🔚 浏览器已关闭");
+        }
+    }
+
+#@ parallel-loop
+{
+    System.out.println("🚀 开始并行循环任务，迭代次数: {{@iterations}}，增量: {{@increment}}，并行数: {{@workers}}");
+    ExecutorService workerPool = Executors.newFixedThreadPool({{@workers}});
+    try {
+        List<Future<String>> workerResults = new ArrayList<>();
+        for (int workerIndex = 0; workerIndex < {{@workers}}; workerIndex++) {
+            int worker = workerIndex;
+            workerResults.add(workerPool.submit(() -> {{@worker}}(worker, {{@workers}})));
+        }
+        // 按分区顺序合并各工作线程的输出
+        for (Future<String> workerResult : workerResults) {
+            System.out.print(workerResult.get());
+        }
+    } finally {
+        workerPool.shutdown();
+    }
+}
+#@ worker-start
+    // 并行循环任务的工作线程：使用独立的浏览器执行分到的迭代，返回该线程的输出
+    private static String {{@worker}}(int workerIndex, int workerCount) throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, true, "UTF-8");
+        Map<String, Object> context = new HashMap<>();
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--start-maximized");
+        options.addArguments("--disable-blink-features=AutomationControlled");
+        options.setExperimentalOption("excludeSwitches", new String[]{"enable-automation"});
+        WebDriver driver = new ChromeDriver(options);
+        
+        try {
+#@ worker-navigate
+            // 初始导航
+            driver.get("{{@initialUrl}}");
+            out.println("✅ 初始导航到: {{@initialUrl}}");
+            Thread.sleep(2000);
+
+#@ worker-range
+            // 按迭代轮次连续分区，合并输出时保持原有顺序
+            int rounds = ({{@iterations}} + {{@increment}} - 1) / {{@increment}};
+            int rangeStart = workerIndex * rounds / workerCount * {{@increment}};
+            int rangeEnd = (workerIndex + 1) * rounds / workerCount * {{@increment}};
+            out.println("🧵 工作线程 " + (workerIndex + 1) + "/" + workerCount + "，迭代范围: [" + rangeStart + ", " + rangeEnd + ")");
+#@ worker-end
+        } catch (Exception e) {
+            out.println("❌ 工作线程 " + (workerIndex + 1) + " 执行失败: " + e.getMessage());
+        } finally {
+            driver.quit();
+        }
+        return buffer.toString("UTF-8");
+    }
+
+#@ helpers-start
+    // 辅助方法
+#@ helper.safeWait
+    private static void safeWait(long milliseconds) {
+        try {
+            Thread.sleep(milliseconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+#@ helper.resolveXpathWithExpression
+    // 表达式解析方法
+    private static String resolveXpathWithExpression(String xpath, Map<String, Object> context) {
+        if (xpath == null) return null;
+        String result = xpath;
+        java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("\\{([^}]+)\\}");
+        java.util.regex.Matcher matcher = pattern.matcher(xpath);
+        
+        while (matcher.find()) {
+            String fullMatch = matcher.group(0);
+            String expression = matcher.group(1);
+            try {
+                int value = parseExpression(fullMatch, context);
+                result = result.replace(fullMatch, String.valueOf(value));
+            } catch (Exception e) {
+                // 解析失败，保持原样
+            }
+        }
+        return result;
+    }
+
+#@ helper.resolveValueWithExpression
+    private static String resolveValueWithExpression(String value, Map<String, Object> context) {
+        if (value == null) return null;
+        String result = value;
+        java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("\\{([^}]+)\\}");
+        java.util.regex.Matcher matcher = pattern.matcher(value);
+        
+        while (matcher.find()) {
+            String fullMatch = matcher.group(0);
+            String expression = matcher.group(1);
+            try {
+                int exprValue = parseExpression(fullMatch, context);
+                result = result.replace(fullMatch, String.valueOf(exprValue));
+            } catch (Exception e) {
+                // 解析失败，保持原样
+            }
+        }
+        return result;
+    }
+
+#@ helper.parseExpression
+    private static int parseExpression(String expression, Map<String, Object> context) {
+        String expr = expression.replace("{", "").replace("}", "").trim();
+        
+        if (expr.matches("\\d+")) {
+            return Integer.parseInt(expr);
+        }
+        
+        for (Map.Entry<String, Object> entry : context.entrySet()) {
+            String varName = entry.getKey();
+            if (expr.startsWith(varName)) {
+                int baseValue = Integer.parseInt(entry.getValue().toString());
+                String operatorPart = expr.substring(varName.length()).trim();
+                
+                if (operatorPart.isEmpty()) {
+                    return baseValue;
+                }
+                
+                if (operatorPart.matches("[+\\-*/]\\s*\\d+")) {
+                    char operator = operatorPart.charAt(0);
+                    int number = Integer.parseInt(operatorPart.substring(1).trim());
+                    
+                    switch (operator) {
+                        case '+':
+                            return baseValue + number;
+                        case '-':
+                            return baseValue - number;
+                        case '*':
+                            return baseValue * number;
+                        case '/':
+                            return baseValue / number;
+                        default:
+                            return baseValue;
+                    }
+                }
+            }
+        }
+        
+        return 1;
+    }
+
+#@ helper.parseKeySequence
+    private static CharSequence[] parseKeySequence(String input) {
+        List<CharSequence> sequence = new ArrayList<>();
+        StringBuilder currentText = new StringBuilder();
+        
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            
+            if (c == '{' && i + 1 < input.length()) {
+                int endIndex = input.indexOf('}', i);
+                if (endIndex != -1) {
+                    String specialKey = input.substring(i + 1, endIndex).toUpperCase();
+                    if (currentText.length() > 0) {
+                        sequence.add(currentText.toString());
+                        currentText.setLength(0);
+                    }
+                    
+                    switch (specialKey) {
+                        case "ENTER":
+                            sequence.add(Keys.ENTER);
+                            break;
+                        case "TAB":
+                            sequence.add(Keys.TAB);
+                            break;
+                        case "ESC":
+                        case "ESCAPE":
+                            sequence.add(Keys.ESCAPE);
+                            break;
+                        case "BACKSPACE":
+                            sequence.add(Keys.BACK_SPACE);
+                            break;
+                        case "DELETE":
+                            sequence.add(Keys.DELETE);
+                            break;
+                        case "HOME":
+                            sequence.add(Keys.HOME);
+                            break;
+                        case "END":
+                            sequence.add(Keys.END);
+                            break;
+                        case "PAGEUP":
+                            sequence.add(Keys.PAGE_UP);
+                            break;
+                        case "PAGEDOWN":
+                            sequence.add(Keys.PAGE_DOWN);
+                            break;
+                        case "UP":
+                        case "ARROW_UP":
+                            sequence.add(Keys.ARROW_UP);
+                            break;
+                        case "DOWN":
+                        case "ARROW_DOWN":
+                            sequence.add(Keys.ARROW_DOWN);
+                            break;
+                        case "LEFT":
+                        case "ARROW_LEFT":
+                            sequence.add(Keys.ARROW_LEFT);
+                            break;
+                        case "RIGHT":
+                        case "ARROW_RIGHT":
+                            sequence.add(Keys.ARROW_RIGHT);
+                            break;
+                        case "CTRL":
+                            sequence.add(Keys.CONTROL);
+                            break;
+                        case "SHIFT":
+                            sequence.add(Keys.SHIFT);
+                            break;
+                        case "ALT":
+                            sequence.add(Keys.ALT);
+                            break;
+                        default:
+                            if (specialKey.matches("F[1-9]|F1[0-2]")) {
+                                sequence.add(Keys.valueOf(specialKey));
+                            } else {
+                                currentText.append("{" + specialKey + "}");
+                            }
+                    }
+                    i = endIndex;
+                } else {
+                    currentText.append(c);
+                }
+            } else {
+                currentText.append(c);
+            }
+        }
+        
+        if (currentText.length() > 0) {
+            sequence.add(currentText.toString());
+        }
+        
+        return sequence.toArray(new CharSequence[0]);
+    }
+
+#@ helper.batchGetText
+    // 批量提取文本：一次脚本调用计算全部XPath，脚本失败时逐个提取；提示写入 out
+    private static final String BATCH_TEXT_SCRIPT =
+            "var textOf = function(node) {" +
+            "  if (!node) return '';" +
+            "  var text = node.innerText !== undefined ? node.innerText : node.textContent;" +
+            "  return text ? text.trim() : '';" +
+            "};" +
+            "var xpaths = arguments[0], texts = [];" +
+            "for (var i = 0; i < xpaths.length; i++) {" +
+            "  var node = null;" +
+            "  try {" +
+            "    node = document.evaluate(xpaths[i], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;" +
+            "  } catch (e) {}" +
+            "  texts.push(textOf(node));" +
+            "}" +
+            "return texts;";
+
+    private static List<String> batchGetText(WebDriver driver, List<String> xpaths, PrintStream out) {
+        try {
+            Object result = ((JavascriptExecutor) driver).executeScript(BATCH_TEXT_SCRIPT, xpaths);
+            if (result instanceof List && ((List<?>) result).size() == xpaths.size()) {
+                List<String> texts = new ArrayList<>();
+                for (Object text : (List<?>) result) {
+                    texts.add(text != null ? text.toString() : "");
+                }
+                return texts;
+            }
+        } catch (Exception e) {
+            out.println("⚠️ 批量提取失败: " + e.getMessage());
+        }
+        out.println("⚠️ 改为逐个提取文本");
+        List<String> texts = new ArrayList<>();
+        for (String xpath : xpaths) {
+            try {
+                texts.add(driver.findElement(By.xpath(xpath)).getText().trim());
+            } catch (Exception e) {
+                texts.add("");
+            }
+        }
+        return texts;
+    }
+
+#@ class-end
+}
+#@# 步骤片段按相对缩进书写，生成时通过 indent 填入所在层级的缩进
+#@ step-comment
+// 步骤 {{@number}}{{@remark}}
+#@ step-wait
+safeWait({{@milliseconds}}L);
+#@ step-unsupported
+// 不支持的操作类型: {{@type}}
+#@ step.CLICK
+{
+    String resolvedXpath = resolveXpathWithExpression("{{@xpath}}", context);
+    WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+    WebElement element = wait.until(ExpectedConditions.elementToBeClickable(By.xpath(resolvedXpath)));
+    element.click();
+    {{@out}}.println("✅ 点击元素: " + resolvedXpath);
+}
+#@ step.INPUT
+{
+    String resolvedXpath = resolveXpathWithExpression("{{@xpath}}", context);
+    String resolvedValue = resolveValueWithExpression("{{@value}}", context);
+    WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+    WebElement element = wait.until(ExpectedConditions.presenceOfElementLocated(By.xpath(resolvedXpath)));
+    element.clear();
+    element.sendKeys(resolvedValue);
+    {{@out}}.println("✅ 输入内容: '" + resolvedValue + "' 到元素: " + resolvedXpath);
+}
+#@ step.GET_TEXT
+{
+    String resolvedXpath = resolveXpathWithExpression("{{@xpath}}", context);
+    WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+    WebElement element = wait.until(ExpectedConditions.presenceOfElementLocated(By.xpath(resolvedXpath)));
+    String text = element.getText();
+    {{@out}}.println("📖 获取文本: '" + text + "' 从元素: " + resolvedXpath);
+}
+#@ step.LOOP_CLICK
+{
+    {{@out}}.println("🔄 开始遍历点击操作，范围: {{@startIndex}} - {{@endIndex}}，增量: {{@increment}}");
+    for (int i = {{@startIndex}}; i <= {{@endIndex}}; i += {{@increment}}) {
+        context.put("i", i);
+        context.put("index", i);
+        context.put("current", i);
+        String resolvedXpath = resolveXpathWithExpression("{{@xpath}}", context);
+        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+        try {
+            WebElement element = wait.until(ExpectedConditions.elementToBeClickable(By.xpath(resolvedXpath)));
+            element.click();
+            {{@out}}.println("✅ 遍历点击成功: 索引: " + i + ", XPath: " + resolvedXpath);
+            safeWait(500);
+        } catch (Exception e) {
+            {{@out}}.println("⚠️ 遍历点击失败，索引: " + i + ", XPath: " + resolvedXpath);
+        }
+    }
+    context.remove("i");
+    context.remove("index");
+    context.remove("current");
+}
+#@ step.LOOP_INPUT
+{
+    {{@out}}.println("🔄 开始遍历输入操作，范围: {{@startIndex}} - {{@endIndex}}，增量: {{@increment}}");
+    for (int i = {{@startIndex}}; i <= {{@endIndex}}; i += {{@increment}}) {
+        context.put("i", i);
+        context.put("index", i);
+        context.put("current", i);
+        String resolvedXpath = resolveXpathWithExpression("{{@xpath}}", context);
+        String resolvedValue = resolveValueWithExpression("{{@value}}", context);
+        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+        try {
+            WebElement element = wait.until(ExpectedConditions.presenceOfElementLocated(By.xpath(resolvedXpath)));
+            element.clear();
+            element.sendKeys(resolvedValue);
+            {{@out}}.println("✅ 遍历输入成功: 索引: " + i + ", 值: '" + resolvedValue + "', XPath: " + resolvedXpath);
+            safeWait(500);
+        } catch (Exception e) {
+            {{@out}}.println("⚠️ 遍历输入失败，索引: " + i + ", XPath: " + resolvedXpath);
+        }
+    }
+    context.remove("i");
+    context.remove("index");
+    context.remove("current");
+}
+#@ step.LOOP_GET_TEXT
+{
+    {{@out}}.println("🔄 开始遍历获取文本操作，范围: {{@startIndex}} - {{@endIndex}}，增量: {{@increment}}");
+    List<String> textList = new ArrayList<>();
+    for (int i = {{@startIndex}}; i <= {{@endIndex}}; i += {{@increment}}) {
+        context.put("i", i);
+        context.put("index", i);
+        context.put("current", i);
+        String resolvedXpath = resolveXpathWithExpression("{{@xpath}}", context);
+        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+        try {
+            WebElement element = wait.until(ExpectedConditions.presenceOfElementLocated(By.xpath(resolvedXpath)));
+            String text = element.getText().trim();
+            textList.add(text);
+            {{@out}}.println("📖 获取文本 [" + i + "]: '" + text + "'");
+            safeWait(500);
+        } catch (Exception e) {
+            {{@out}}.println("⚠️ 获取文本失败，索引: " + i);
+            textList.add("");
+        }
+    }
+    context.remove("i");
+    context.remove("index");
+    context.remove("current");
+
+    // 写入文件
+    try {
+        Files.write(Paths.get("{{@filePath}}"), textList, StandardCharsets.UTF_8);
+        {{@out}}.println("💾 成功将 " + textList.size() + " 条文本写入文件: {{@filePath}}");
+    } catch (Exception e) {
+        {{@out}}.println("❌ 写入文件失败: {{@filePath}}");
+    }
+}
+#@# 批量提取：先解析全部XPath，再通过一次脚本调用提取文本，脚本失败时逐个提取
+#@ step.LOOP_GET_TEXT.batch
+{
+    {{@out}}.println("🔄 开始批量获取文本操作，范围: {{@startIndex}} - {{@endIndex}}，增量: {{@increment}}");
+    List<String> xpathList = new ArrayList<>();
+    List<Integer> indexList = new ArrayList<>();
+    for (int i = {{@startIndex}}; i <= {{@endIndex}}; i += {{@increment}}) {
+        context.put("i", i);
+        context.put("index", i);
+        context.put("current", i);
+        xpathList.add(resolveXpathWithExpression("{{@xpath}}", context));
+        indexList.add(i);
+    }
+    context.remove("i");
+    context.remove("index");
+    context.remove("current");
+    if (!xpathList.isEmpty()) {
+        try {
+            new WebDriverWait(driver, Duration.ofSeconds(10))
+                    .until(ExpectedConditions.presenceOfElementLocated(By.xpath(xpathList.get(0))));
+        } catch (Exception e) {
+            {{@out}}.println("⚠️ 等待元素超时，继续批量提取");
+        }
+    }
+    List<String> textList = batchGetText(driver, xpathList, {{@out}});
+    for (int textIndex = 0; textIndex < textList.size(); textIndex++) {
+        String text = textList.get(textIndex);
+        if (text.isEmpty()) {
+            {{@out}}.println("⚠️ 获取文本失败，索引: " + indexList.get(textIndex));
+        } else {
+            {{@out}}.println("📖 获取文本 [" + indexList.get(textIndex) + "]: '" + text + "'");
+        }
+    }
+
+    // 写入文件
+    try {
+        Files.write(Paths.get("{{@filePath}}"), textList, StandardCharsets.UTF_8);
+        {{@out}}.println("💾 成功将 " + textList.size() + " 条文本写入文件: {{@filePath}}");
+    } catch (Exception e) {
+        {{@out}}.println("❌ 写入文件失败: {{@filePath}}");
+    }
+}
+#@# 循环任务：子步骤写在 step.LOOP_TASK 和 step.LOOP_TASK.end 之间，循环变量从 from 到 to（不含）
+#@ step.LOOP_TASK
+{
+    {{@out}}.println("🔄 开始循环任务，迭代次数: {{@iterations}}，增量: {{@increment}}");
+    for (int {{@loopVar}} = {{@from}}; {{@loopVar}} < {{@to}}; {{@loopVar}} += {{@increment}}) {
+        context.put("{{@loopVar}}", {{@loopVar}});
+        context.put("i", {{@loopVar}});
+        context.put("index", {{@loopVar}});
+        {{@out}}.println("🔄 循环任务迭代: " + ({{@loopVar}} + 1) + "/{{@iterations}}");
+#@ step.LOOP_TASK.end
+    }
+    context.remove("{{@loopVar}}");
+    context.remove("i");
+    context.remove("index");
+}
+#@ step.DYNAMIC_LOOP
+{
+    {{@out}}.println("🔄 开始动态循环，迭代次数: {{@iterations}}，增量: {{@increment}}");
+    for (int {{@loopVar}} = {{@from}}; {{@loopVar}} < {{@to}}; {{@loopVar}} += {{@increment}}) {
+        context.put("{{@loopVar}}", {{@loopVar}});
+        context.put("i", {{@loopVar}});
+        context.put("index", {{@loopVar}});
+        {{@out}}.println("🔄 动态循环迭代: " + ({{@loopVar}} + 1) + "/{{@iterations}}");
+#@ step.DYNAMIC_LOOP.end
+        safeWait(1000);
+    }
+    context.remove("{{@loopVar}}");
+    context.remove("i");
+    context.remove("index");
+}
+#@ step.WAIT
+{{@out}}.println("⏳ 等待 " + {{@milliseconds}} + " 毫秒");
+safeWait({{@milliseconds}}L);
+#@ step.NAVIGATE
+driver.get("{{@value}}");
+{{@out}}.println("🌐 导航到: {{@value}}");
+#@ step.SWITCH_IFRAME
+{
+    String resolvedXpath = resolveXpathWithExpression("{{@xpath}}", context);
+    if ("default".equalsIgnoreCase(resolvedXpath)) {
+        driver.switchTo().defaultContent();
+        {{@out}}.println("✅ 已切换回默认内容");
+    } else if ("parent".equalsIgnoreCase(resolvedXpath)) {
+        driver.switchTo().parentFrame();
+        {{@out}}.println("✅ 已切换回父级iframe");
+    } else {
+        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+        WebElement iframeElement = wait.until(ExpectedConditions.presenceOfElementLocated(By.xpath(resolvedXpath)));
+        driver.switchTo().frame(iframeElement);
+        {{@out}}.println("✅ 已切换到iframe: " + resolvedXpath);
+    }
+}
+#@ step.GET_CURRENT_URL
+{
+    String currentUrl = driver.getCurrentUrl();
+    context.put("{{@contextKey}}", currentUrl);
+    {{@out}}.println("🌐 获取当前URL: " + currentUrl);
+    {{@out}}.println("💾 已保存到上下文: {{@contextKey}} = " + currentUrl);
+}
+#@ step.PRESS_KEYS
+{
+    String resolvedValue = resolveValueWithExpression("{{@value}}", context);
+    Actions actions = new Actions(driver);
+    String[] keySequence = resolvedValue.split("\\+");
+    for (String key : keySequence) {
+        key = key.trim().toUpperCase();
+        switch (key) {
+            case "CTRL":
+                actions.keyDown(Keys.CONTROL);
+                break;
+            case "SHIFT":
+                actions.keyDown(Keys.SHIFT);
+                break;
+            case "ALT":
+                actions.keyDown(Keys.ALT);
+                break;
+            case "ENTER":
+                actions.sendKeys(Keys.ENTER);
+                break;
+            case "TAB":
+                actions.sendKeys(Keys.TAB);
+                break;
+            case "ESC":
+                actions.sendKeys(Keys.ESCAPE);
+                break;
+            case "BACKSPACE":
+                actions.sendKeys(Keys.BACK_SPACE);
+                break;
+            case "DELETE":
+                actions.sendKeys(Keys.DELETE);
+                break;
+            case "HOME":
+                actions.sendKeys(Keys.HOME);
+                break;
+            case "END":
+                actions.sendKeys(Keys.END);
+                break;
+            case "PAGEUP":
+                actions.sendKeys(Keys.PAGE_UP);
+                break;
+            case "PAGEDOWN":
+                actions.sendKeys(Keys.PAGE_DOWN);
+                break;
+            case "ARROW_UP":
+                actions.sendKeys(Keys.ARROW_UP);
+                break;
+            case "ARROW_DOWN":
+                actions.sendKeys(Keys.ARROW_DOWN);
+                break;
+            case "ARROW_LEFT":
+                actions.sendKeys(Keys.ARROW_LEFT);
+                break;
+            case "ARROW_RIGHT":
+                actions.sendKeys(Keys.ARROW_RIGHT);
+                break;
+            default:
+                if (key.matches("F[1-9]|F1[0-2]")) {
+                    actions.sendKeys(Keys.valueOf(key));
+                } else if (key.length() == 1 && Character.isLetter(key.charAt(0))) {
+                    actions.sendKeys(key);
+                } else {
+                    {{@out}}.println("⚠️ 不支持的按键: " + key);
+                }
+        }
+    }
+    actions.keyUp(Keys.CONTROL).keyUp(Keys.SHIFT).keyUp(Keys.ALT);
+    actions.perform();
+    {{@out}}.println("⌨️ 模拟按键: " + resolvedValue);
+}
+#@ step.KEYBOARD_INPUT
+{
+    String resolvedXpath = resolveXpathWithExpression("{{@xpath}}", context);
+    String resolvedValue = resolveValueWithExpression("{{@value}}", context);
+    Actions actions = new Actions(driver);
+    WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+    WebElement element = wait.until(ExpectedConditions.elementToBeClickable(By.xpath(resolvedXpath)));
+    element.click();
+    actions.sendKeys(parseKeySequence(resolvedValue)).perform();
+    {{@out}}.println("⌨️ 键盘输入: '" + resolvedValue + "' 到元素: " + resolvedXpath);
+}
+#@ step.GO_BACK
+driver.navigate().back();
+{{@out}}.println("↩️ 返回上一页");
+#@# 处理弹窗：按是否输入文本、接受或取消依次输出 .text、.accept/.dismiss，最后输出 .end
+#@ step.HANDLE_ALERT
+try {
+    WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(5));
+    Alert alert = wait.until(ExpectedConditions.alertIsPresent());
+#@ step.HANDLE_ALERT.text
+    alert.sendKeys("{{@alertText}}");
+    {{@out}}.println("⌨️ 在弹窗中输入文本: {{@alertText}}");
+#@ step.HANDLE_ALERT.accept
+    alert.accept();
+    {{@out}}.println("✅ 接受弹窗");
+#@ step.HANDLE_ALERT.dismiss
+    alert.dismiss();
+    {{@out}}.println("❌ 取消弹窗");
+#@ step.HANDLE_ALERT.end
+} catch (Exception e) {
+    {{@out}}.println("⚠️ 未检测到弹窗");
+}
+#@ step.CLOSE_TAB
+{
+    String currentHandle = driver.getWindowHandle();
+    Set<String> handles = driver.getWindowHandles();
+    if (handles.size() > 1) {
+        driver.close();
+        handles = driver.getWindowHandles();
+        if (!handles.isEmpty()) {
+            String newHandle = handles.iterator().next();
+            driver.switchTo().window(newHandle);
+            {{@out}}.println("✅ 关闭标签页，切换到新标签页");
+            {{@out}}.println("🌐 当前URL: " + driver.getCurrentUrl());
+        }
+    } else {
+        {{@out}}.println("⚠️ 只有一个标签页，无法关闭");
+    }
+}
+#@ step.IMPORT_COOKIE
+{
+    try {
+        {{@out}}.println("🍪 开始从文件导入Cookie: {{@filePath}}");
+        String cookieJson = new String(Files.readAllBytes(Paths.get("{{@filePath}}")), StandardCharsets.UTF_8);
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Map<String, Object>> cookies = objectMapper.readValue(cookieJson, new TypeReference<List<Map<String, Object>>>(){});
+
+        int importedCount = 0;
+        for (Map<String, Object> cookieMap : cookies) {
+            try {
+                Cookie.Builder cookieBuilder = new Cookie.Builder(
+                    cookieMap.get("name").toString(),
+                    cookieMap.get("value").toString()
+                );
+                cookieBuilder.domain(cookieMap.get("domain").toString());
+                if (cookieMap.containsKey("path")) {
+                    cookieBuilder.path(cookieMap.get("path").toString());
+                } else {
+                    cookieBuilder.path("/");
+                }
+                driver.manage().addCookie(cookieBuilder.build());
+                importedCount++;
+                {{@out}}.println("✅ 导入Cookie: " + cookieMap.get("name"));
+            } catch (Exception e) {
+                {{@out}}.println("⚠️ 导入单个Cookie失败: " + cookieMap.get("name"));
+            }
+        }
+        {{@out}}.println("✅ 成功导入 " + importedCount + " 个Cookie");
+
+        // 刷新页面使Cookie生效
+        driver.navigate().refresh();
+        {{@out}}.println("🔄 已刷新页面使Cookie生效");
+        safeWait(2000);
+    } catch (Exception e) {
+        {{@out}}.println("❌ 导入Cookie失败: " + e.getMessage());
+    }
+}
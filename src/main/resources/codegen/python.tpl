@@ -0,0 +1,568 @@
+#@# Python代码生成模板，启动时预编译，静态片段只编码一次
+#@# 以 "#@ 名称" 开始一个片段，{{@名称}} 为生成时填入的内容；以 "#@#" 开头的行为注释
+#@ header
+from selenium import webdriver
+from selenium.webdriver.common.by import By
+from selenium.webdriver.support.ui import WebDriverWait
+from selenium.webdriver.support import expected_conditions as EC
+from selenium.webdriver.common.keys import Keys
+from selenium.webdriver.common.action_chains import ActionChains
+import time
+import json
+import re
+#@ import-parallel
+from concurrent.futures import ThreadPoolExecutor
+import io
+#@ header-end
+
+#@ comment
+"""
+自动生成的Selenium测试脚本
+生成时间: {{@generatedAt}}
+步骤数量: {{@stepCount}}
+"""
+
+#@ main-start
+def {{@functionName}}():
+    driver = webdriver.Chrome()
+    context = {}
+    
+    try:
+#@ navigate
+        # 初始导航
+        driver.get("{{@initialUrl}}")
+        print("✅ 初始导航到: {{@initialUrl}}")
+        time.sleep(2)
+
+#@ main-end
+        print("🎉 所有操作执行完成")
+        
+    except Exception as e:
+        print(f"❌ 执行失败: {e}")
+    finally:
+        driver.quit()
+        print("🔚 浏览器已关闭")
+
+#@ parallel-loop
+print("🚀 开始并行循环任务，迭代次数: {{@iterations}}，增量: {{@increment}}，并行数: {{@workers}}")
+with ThreadPoolExecutor(max_workers={{@workers}}) as worker_pool:
+    worker_results = [worker_pool.submit({{@worker}}, worker_index, {{@workers}})
+                      for worker_index in range({{@workers}})]
+    # 按分区顺序合并各工作线程的输出
+    for worker_result in worker_results:
+        print(worker_result.result(), end='')
+#@ worker-start
+def {{@worker}}(worker_index, worker_count):
+    """并行循环任务的工作线程：使用独立的浏览器执行分到的迭代，返回该线程的输出"""
+    out = io.StringIO()
+
+    def log(*args):
+        print(*args, file=out)
+
+    driver = webdriver.Chrome()
+    context = {}
+    
+    try:
+#@ worker-navigate
+        # 初始导航
+        driver.get("{{@initialUrl}}")
+        log("✅ 初始导航到: {{@initialUrl}}")
+        time.sleep(2)
+
+#@ worker-range
+        # 按迭代轮次连续分区，合并输出时保持原有顺序
+        rounds = ({{@iterations}} + {{@increment}} - 1) // {{@increment}}
+        range_start = worker_index * rounds // worker_count * {{@increment}}
+        range_end = (worker_index + 1) * rounds // worker_count * {{@increment}}
+        log(f"🧵 工作线程 {worker_index + 1}/{worker_count}，迭代范围: [{range_start}, {range_end})")
+#@ worker-end
+    except Exception as e:
+        log(f"❌ 工作线程 {worker_index + 1} 执行失败: {e}")
+    finally:
+        driver.quit()
+    return out.getvalue()
+
+#@ helper.safe_wait
+def safe_wait(milliseconds):
+    """安全等待方法"""
+    time.sleep(milliseconds / 1000.0)
+
+#@ helper.resolve_xpath_with_expression
+def resolve_xpath_with_expression(xpath, context):
+    """解析XPath中的表达式"""
+    if xpath is None:
+        return None
+    result = xpath
+    pattern = r'\{([^}]+)\}'
+    matches = re.finditer(pattern, xpath)
+    
+    for match in matches:
+        full_match = match.group(0)
+        expression = match.group(1)
+        try:
+            value = parse_expression(full_match, context)
+            result = result.replace(full_match, str(value))
+        except Exception as e:
+            # 解析失败，保持原样
+            pass
+    return result
+
+#@ helper.resolve_value_with_expression
+def resolve_value_with_expression(value, context):
+    """解析值中的表达式"""
+    if value is None:
+        return None
+    result = value
+    pattern = r'\{([^}]+)\}'
+    matches = re.finditer(pattern, value)
+    
+    for match in matches:
+        full_match = match.group(0)
+        expression = match.group(1)
+        try:
+            expr_value = parse_expression(full_match, context)
+            result = result.replace(full_match, str(expr_value))
+        except Exception as e:
+            # 解析失败，保持原样
+            pass
+    return result
+
+#@ helper.parse_expression
+def parse_expression(expression, context):
+    """解析表达式"""
+    expr = expression.replace('{', '').replace('}', '').strip()
+    
+    if re.match(r'^\d+$', expr):
+        return int(expr)
+    
+    for var_name, var_value in context.items():
+        if expr.startswith(var_name):
+            base_value = int(var_value)
+            operator_part = expr[len(var_name):].strip()
+            
+            if not operator_part:
+                return base_value
+            
+            if re.match(r'[+\-*/]\s*\d+', operator_part):
+                operator = operator_part[0]
+                number = int(operator_part[1:].strip())
+                
+                if operator == '+':
+                    return base_value + number
+                elif operator == '-':
+                    return base_value - number
+                elif operator == '*':
+                    return base_value * number
+                elif operator == '/':
+                    return base_value // number
+    
+    return 1
+
+#@ helper.parse_key_sequence
+def parse_key_sequence(input_str):
+    """解析键盘输入序列"""
+    sequence = []
+    current_text = []
+    i = 0
+    
+    while i < len(input_str):
+        c = input_str[i]
+        
+        if c == '{' and i + 1 < len(input_str):
+            end_index = input_str.find('}', i)
+            if end_index != -1:
+                special_key = input_str[i+1:end_index].upper()
+                if current_text:
+                    sequence.append(''.join(current_text))
+                    current_text = []
+                
+                if special_key == 'ENTER':
+                    sequence.append(Keys.ENTER)
+                elif special_key == 'TAB':
+                    sequence.append(Keys.TAB)
+                elif special_key in ['ESC', 'ESCAPE']:
+                    sequence.append(Keys.ESCAPE)
+                elif special_key == 'BACKSPACE':
+                    sequence.append(Keys.BACKSPACE)
+                elif special_key == 'DELETE':
+                    sequence.append(Keys.DELETE)
+                elif special_key == 'HOME':
+                    sequence.append(Keys.HOME)
+                elif special_key == 'END':
+                    sequence.append(Keys.END)
+                elif special_key == 'PAGEUP':
+                    sequence.append(Keys.PAGE_UP)
+                elif special_key == 'PAGEDOWN':
+                    sequence.append(Keys.PAGE_DOWN)
+                elif special_key in ['UP', 'ARROW_UP']:
+                    sequence.append(Keys.ARROW_UP)
+                elif special_key in ['DOWN', 'ARROW_DOWN']:
+                    sequence.append(Keys.ARROW_DOWN)
+                elif special_key in ['LEFT', 'ARROW_LEFT']:
+                    sequence.append(Keys.ARROW_LEFT)
+                elif special_key in ['RIGHT', 'ARROW_RIGHT']:
+                    sequence.append(Keys.ARROW_RIGHT)
+                elif special_key == 'CTRL':
+                    sequence.append(Keys.CONTROL)
+                elif special_key == 'SHIFT':
+                    sequence.append(Keys.SHIFT)
+                elif special_key == 'ALT':
+                    sequence.append(Keys.ALT)
+                else:
+                    if re.match(r'F[1-9]|F1[0-2]', special_key):
+                        sequence.append(getattr(Keys, special_key))
+                    else:
+                        current_text.append('{' + special_key + '}')
+                i = end_index
+            else:
+                current_text.append(c)
+        else:
+            current_text.append(c)
+        i += 1
+    
+    if current_text:
+        sequence.append(''.join(current_text))
+    
+    return sequence
+
+#@ helper.batch_get_text
+# 批量提取文本：一次脚本调用计算全部XPath，脚本失败时逐个提取
+BATCH_TEXT_SCRIPT = (
+    "var textOf = function(node) {"
+    "  if (!node) return '';"
+    "  var text = node.innerText !== undefined ? node.innerText : node.textContent;"
+    "  return text ? text.trim() : '';"
+    "};"
+    "var xpaths = arguments[0], texts = [];"
+    "for (var i = 0; i < xpaths.length; i++) {"
+    "  var node = null;"
+    "  try {"
+    "    node = document.evaluate(xpaths[i], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+    "  } catch (e) {}"
+    "  texts.push(textOf(node));"
+    "}"
+    "return texts;"
+)
+
+def batch_get_text(driver, xpaths, log=print):
+    """批量提取文本，提示通过 log 输出"""
+    try:
+        texts = driver.execute_script(BATCH_TEXT_SCRIPT, xpaths)
+        if isinstance(texts, list) and len(texts) == len(xpaths):
+            return [text if text is not None else '' for text in texts]
+    except Exception as e:
+        log(f"⚠️ 批量提取失败: {e}")
+    log("⚠️ 改为逐个提取文本")
+    texts = []
+    for xpath in xpaths:
+        try:
+            texts.append(driver.find_element(By.XPATH, xpath).text.strip())
+        except Exception:
+            texts.append('')
+    return texts
+
+#@ entry
+if __name__ == "__main__":
+    {{@functionName}}()
+#@# 步骤片段按相对缩进书写，生成时通过 indent 填入所在层级的缩进
+#@ step-comment
+# 步骤 {{@number}}{{@remark}}
+#@ step-wait
+safe_wait({{@milliseconds}})
+#@ step-unsupported
+# 不支持的操作类型: {{@type}}
+#@ step.CLICK
+resolved_xpath = resolve_xpath_with_expression("{{@xpath}}", context)
+element = WebDriverWait(driver, 10).until(
+    EC.element_to_be_clickable((By.XPATH, resolved_xpath))
+)
+element.click()
+{{@out}}(f"✅ 点击元素: {resolved_xpath}")
+#@ step.INPUT
+resolved_xpath = resolve_xpath_with_expression("{{@xpath}}", context)
+resolved_value = resolve_value_with_expression("{{@value}}", context)
+element = WebDriverWait(driver, 10).until(
+    EC.presence_of_element_located((By.XPATH, resolved_xpath))
+)
+element.clear()
+element.send_keys(resolved_value)
+{{@out}}(f"✅ 输入内容: '{resolved_value}' 到元素: {resolved_xpath}")
+#@ step.GET_TEXT
+resolved_xpath = resolve_xpath_with_expression("{{@xpath}}", context)
+element = WebDriverWait(driver, 10).until(
+    EC.presence_of_element_located((By.XPATH, resolved_xpath))
+)
+text = element.text
+{{@out}}(f"📖 获取文本: '{text}' 从元素: {resolved_xpath}")
+#@ step.LOOP_CLICK
+{{@out}}(f"🔄 开始遍历点击操作，范围: {{@startIndex}} - {{@endIndex}}，增量: {{@increment}}")
+for i in range({{@startIndex}}, {{@endIndex}} + 1, {{@increment}}):
+    context['i'] = i
+    context['index'] = i
+    context['current'] = i
+    resolved_xpath = resolve_xpath_with_expression("{{@xpath}}", context)
+    try:
+        element = WebDriverWait(driver, 10).until(
+            EC.element_to_be_clickable((By.XPATH, resolved_xpath))
+        )
+        element.click()
+        {{@out}}(f"✅ 遍历点击成功: 索引: {i}, XPath: {resolved_xpath}")
+        safe_wait(500)
+    except Exception as e:
+        {{@out}}(f"⚠️ 遍历点击失败，索引: {i}, XPath: {resolved_xpath}")
+context.pop('i', None)
+context.pop('index', None)
+context.pop('current', None)
+#@ step.LOOP_INPUT
+{{@out}}(f"🔄 开始遍历输入操作，范围: {{@startIndex}} - {{@endIndex}}，增量: {{@increment}}")
+for i in range({{@startIndex}}, {{@endIndex}} + 1, {{@increment}}):
+    context['i'] = i
+    context['index'] = i
+    context['current'] = i
+    resolved_xpath = resolve_xpath_with_expression("{{@xpath}}", context)
+    resolved_value = resolve_value_with_expression("{{@value}}", context)
+    try:
+        element = WebDriverWait(driver, 10).until(
+            EC.presence_of_element_located((By.XPATH, resolved_xpath))
+        )
+        element.clear()
+        element.send_keys(resolved_value)
+        {{@out}}(f"✅ 遍历输入成功: 索引: {i}, 值: '{resolved_value}', XPath: {resolved_xpath}")
+        safe_wait(500)
+    except Exception as e:
+        {{@out}}(f"⚠️ 遍历输入失败，索引: {i}, XPath: {resolved_xpath}")
+context.pop('i', None)
+context.pop('index', None)
+context.pop('current', None)
+#@ step.LOOP_GET_TEXT
+{{@out}}(f"🔄 开始遍历获取文本操作，范围: {{@startIndex}} - {{@endIndex}}，增量: {{@increment}}")
+text_list = []
+for i in range({{@startIndex}}, {{@endIndex}} + 1, {{@increment}}):
+    context['i'] = i
+    context['index'] = i
+    context['current'] = i
+    resolved_xpath = resolve_xpath_with_expression("{{@xpath}}", context)
+    try:
+        element = WebDriverWait(driver, 10).until(
+            EC.presence_of_element_located((By.XPATH, resolved_xpath))
+        )
+        text = element.text.strip()
+        text_list.append(text)
+        {{@out}}(f"📖 获取文本 [{i}]: '{text}'")
+        safe_wait(500)
+    except Exception as e:
+        {{@out}}(f"⚠️ 获取文本失败，索引: {i}")
+        text_list.append("")
+context.pop('i', None)
+context.pop('index', None)
+context.pop('current', None)
+# 写入文件
+try:
+    with open("{{@filePath}}", 'w', encoding='utf-8') as f:
+        for text in text_list:
+            f.write(text + '\n')
+    {{@out}}(f"💾 成功将 {len(text_list)} 条文本写入文件: {{@filePath}}")
+except Exception as e:
+    {{@out}}(f"❌ 写入文件失败: {{@filePath}}")
+#@# 批量提取：先解析全部XPath，再通过一次脚本调用提取文本，脚本失败时逐个提取
+#@ step.LOOP_GET_TEXT.batch
+{{@out}}(f"🔄 开始批量获取文本操作，范围: {{@startIndex}} - {{@endIndex}}，增量: {{@increment}}")
+xpath_list = []
+index_list = []
+for i in range({{@startIndex}}, {{@endIndex}} + 1, {{@increment}}):
+    context['i'] = i
+    context['index'] = i
+    context['current'] = i
+    xpath_list.append(resolve_xpath_with_expression("{{@xpath}}", context))
+    index_list.append(i)
+context.pop('i', None)
+context.pop('index', None)
+context.pop('current', None)
+if xpath_list:
+    try:
+        WebDriverWait(driver, 10).until(
+            EC.presence_of_element_located((By.XPATH, xpath_list[0]))
+        )
+    except Exception:
+        {{@out}}("⚠️ 等待元素超时，继续批量提取")
+text_list = batch_get_text(driver, xpath_list, {{@out}})
+for index, text in zip(index_list, text_list):
+    if text:
+        {{@out}}(f"📖 获取文本 [{index}]: '{text}'")
+    else:
+        {{@out}}(f"⚠️ 获取文本失败，索引: {index}")
+# 写入文件
+try:
+    with open("{{@filePath}}", 'w', encoding='utf-8') as f:
+        for text in text_list:
+            f.write(text + '\n')
+    {{@out}}(f"💾 成功将 {len(text_list)} 条文本写入文件: {{@filePath}}")
+except Exception as e:
+    {{@out}}(f"❌ 写入文件失败: {{@filePath}}")
+#@# 循环任务：子步骤写在 step.LOOP_TASK 和 step.LOOP_TASK.end 之间，循环变量从 from 到 to（不含）
+#@ step.LOOP_TASK
+{{@out}}(f"🔄 开始循环任务，迭代次数: {{@iterations}}，增量: {{@increment}}")
+for {{@loopVar}} in range({{@from}}, {{@to}}, {{@increment}}):
+    context['{{@loopVar}}'] = {{@loopVar}}
+    context['i'] = {{@loopVar}}
+    context['index'] = {{@loopVar}}
+    {{@out}}(f"🔄 循环任务迭代: {{{@loopVar}} + 1}/{{@iterations}}")
+#@ step.LOOP_TASK.end
+context.pop('{{@loopVar}}', None)
+context.pop('i', None)
+context.pop('index', None)
+#@ step.DYNAMIC_LOOP
+{{@out}}(f"🔄 开始动态循环，迭代次数: {{@iterations}}，增量: {{@increment}}")
+for {{@loopVar}} in range({{@from}}, {{@to}}, {{@increment}}):
+    context['{{@loopVar}}'] = {{@loopVar}}
+    context['i'] = {{@loopVar}}
+    context['index'] = {{@loopVar}}
+    {{@out}}(f"🔄 动态循环迭代: {{{@loopVar}} + 1}/{{@iterations}}")
+#@ step.DYNAMIC_LOOP.end
+    safe_wait(1000)
+context.pop('{{@loopVar}}', None)
+context.pop('i', None)
+context.pop('index', None)
+#@ step.WAIT
+{{@out}}(f"⏳ 等待 {{@milliseconds}} 毫秒")
+safe_wait({{@milliseconds}})
+#@ step.NAVIGATE
+driver.get("{{@value}}")
+{{@out}}(f"🌐 导航到: {{@value}}")
+#@ step.SWITCH_IFRAME
+resolved_xpath = resolve_xpath_with_expression("{{@xpath}}", context)
+if resolved_xpath.lower() == "default":
+    driver.switch_to.default_content()
+    {{@out}}("✅ 已切换回默认内容")
+elif resolved_xpath.lower() == "parent":
+    driver.switch_to.parent_frame()
+    {{@out}}("✅ 已切换回父级iframe")
+else:
+    iframe_element = WebDriverWait(driver, 10).until(
+        EC.presence_of_element_located((By.XPATH, resolved_xpath))
+    )
+    driver.switch_to.frame(iframe_element)
+    {{@out}}(f"✅ 已切换到iframe: {resolved_xpath}")
+#@ step.GET_CURRENT_URL
+current_url = driver.current_url
+context['{{@contextKey}}'] = current_url
+{{@out}}(f"🌐 获取当前URL: {current_url}")
+{{@out}}(f"💾 已保存到上下文: {{@contextKey}} = {current_url}")
+#@ step.PRESS_KEYS
+resolved_value = resolve_value_with_expression("{{@value}}", context)
+actions = ActionChains(driver)
+key_sequence = resolved_value.split('+')
+for key in key_sequence:
+    key = key.strip().upper()
+    if key == 'CTRL':
+        actions.key_down(Keys.CONTROL)
+    elif key == 'SHIFT':
+        actions.key_down(Keys.SHIFT)
+    elif key == 'ALT':
+        actions.key_down(Keys.ALT)
+    elif key == 'ENTER':
+        actions.send_keys(Keys.ENTER)
+    elif key == 'TAB':
+        actions.send_keys(Keys.TAB)
+    elif key == 'ESC':
+        actions.send_keys(Keys.ESCAPE)
+    elif key == 'BACKSPACE':
+        actions.send_keys(Keys.BACKSPACE)
+    elif key == 'DELETE':
+        actions.send_keys(Keys.DELETE)
+    elif key == 'HOME':
+        actions.send_keys(Keys.HOME)
+    elif key == 'END':
+        actions.send_keys(Keys.END)
+    elif key == 'PAGEUP':
+        actions.send_keys(Keys.PAGE_UP)
+    elif key == 'PAGEDOWN':
+        actions.send_keys(Keys.PAGE_DOWN)
+    elif key == 'ARROW_UP':
+        actions.send_keys(Keys.ARROW_UP)
+    elif key == 'ARROW_DOWN':
+        actions.send_keys(Keys.ARROW_DOWN)
+    elif key == 'ARROW_LEFT':
+        actions.send_keys(Keys.ARROW_LEFT)
+    elif key == 'ARROW_RIGHT':
+        actions.send_keys(Keys.ARROW_RIGHT)
+    else:
+        if re.match(r'F[1-9]|F1[0-2]', key):
+            actions.send_keys(getattr(Keys, key))
+        elif len(key) == 1 and key.isalpha():
+            actions.send_keys(key)
+        else:
+            {{@out}}(f"⚠️ 不支持的按键: {key}")
+actions.key_up(Keys.CONTROL)
+actions.key_up(Keys.SHIFT)
+actions.key_up(Keys.ALT)
+actions.perform()
+{{@out}}(f"⌨️ 模拟按键: {resolved_value}")
+#@ step.KEYBOARD_INPUT
+resolved_xpath = resolve_xpath_with_expression("{{@xpath}}", context)
+resolved_value = resolve_value_with_expression("{{@value}}", context)
+actions = ActionChains(driver)
+element = WebDriverWait(driver, 10).until(
+    EC.element_to_be_clickable((By.XPATH, resolved_xpath))
+)
+element.click()
+actions.send_keys(parse_key_sequence(resolved_value))
+actions.perform()
+{{@out}}(f"⌨️ 键盘输入: '{resolved_value}' 到元素: {resolved_xpath}")
+#@ step.GO_BACK
+driver.back()
+{{@out}}("↩️ 返回上一页")
+#@# 处理弹窗：按是否输入文本、接受或取消依次输出 .text、.accept/.dismiss，最后输出 .end
+#@ step.HANDLE_ALERT
+try:
+    WebDriverWait(driver, 5).until(EC.alert_is_present())
+    alert = driver.switch_to.alert
+#@ step.HANDLE_ALERT.text
+    alert.send_keys("{{@alertText}}")
+    {{@out}}(f"⌨️ 在弹窗中输入文本: {{@alertText}}")
+#@ step.HANDLE_ALERT.accept
+    alert.accept()
+    {{@out}}("✅ 接受弹窗")
+#@ step.HANDLE_ALERT.dismiss
+    alert.dismiss()
+    {{@out}}("❌ 取消弹窗")
+#@ step.HANDLE_ALERT.end
+except Exception as e:
+    {{@out}}("⚠️ 未检测到弹窗")
+#@ step.CLOSE_TAB
+current_handle = driver.current_window_handle
+handles = driver.window_handles
+if len(handles) > 1:
+    driver.close()
+    handles = driver.window_handles
+    if handles:
+        new_handle = handles[0]
+        driver.switch_to.window(new_handle)
+        {{@out}}("✅ 关闭标签页，切换到新标签页")
+        {{@out}}(f"🌐 当前URL: {driver.current_url}")
+else:
+    {{@out}}("⚠️ 只有一个标签页，无法关闭")
+#@ step.IMPORT_COOKIE
+try:
+    {{@out}}(f"🍪 开始从文件导入Cookie: {{@filePath}}")
+    with open("{{@filePath}}", 'r', encoding='utf-8') as f:
+        cookie_json = f.read()
+    cookies = json.loads(cookie_json)
+
+    imported_count = 0
+    for cookie_data in cookies:
+        try:
+            driver.add_cookie(cookie_data)
+            imported_count += 1
+            {{@out}}(f"✅ 导入Cookie: {cookie_data.get('name')}")
+        except Exception as e:
+            {{@out}}(f"⚠️ 导入单个Cookie失败: {cookie_data.get('name')}")
+
+    {{@out}}(f"✅ 成功导入 {imported_count} 个Cookie")
+
+    # 刷新页面使Cookie生效
+    driver.refresh()
+    {{@out}}("🔄 已刷新页面使Cookie生效")
+    safe_wait(2000)
+except Exception as e:
+    {{@out}}(f"❌ 导入Cookie失败: {e}")
@@ -0,0 +1,93 @@
+package org.example.auto_web.service.codegen;
+
+import org.example.auto_web.pojo.dto.CodeGenerationRequest;
+import org.example.auto_web.pojo.enums.OperationType;
+import org.example.auto_web.pojo.other.OperationStep;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CodeGenerationCacheTest {
+
+    private static OperationStep step(OperationType type, String xpath, Map<String, Object> parameters) {
+        OperationStep step = new OperationStep();
+        step.setType(type);
+        step.setXpath(xpath);
+        step.setParameters(parameters);
+        return step;
+    }
+
+    private static CodeGenerationRequest request(String language, OperationStep... steps) {
+        CodeGenerationRequest request = new CodeGenerationRequest();
+        request.setLanguage(language);
+        request.setClassName("Demo");
+        request.setInitialUrl("https://example.com");
+        request.setSteps(new ArrayList<>(List.of(steps)));
+        return request;
+    }
+
+    @Test
+    void keyIsStableAcrossParameterOrder() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("batchMode", true);
+        first.put("workers", 2);
+        first.put("nested", new LinkedHashMap<>(Map.of("a", 1, "b", 2)));
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("nested", new HashMap<>(Map.of("b", 2, "a", 1)));
+        second.put("workers", 2);
+        second.put("batchMode", true);
+
+        String a = CodeGenerationCache.keyOf(request("java", step(OperationType.CLICK, "//a", first)));
+        String b = CodeGenerationCache.keyOf(request("java", step(OperationType.CLICK, "//a", second)));
+        assertEquals(a, b);
+        assertEquals(64, a.length());
+    }
+
+    @Test
+    void keyIgnoresLanguageCase() {
+        OperationStep click = step(OperationType.CLICK, "//a", null);
+        assertEquals(CodeGenerationCache.keyOf(request("java", click)),
+                CodeGenerationCache.keyOf(request("JAVA", click)));
+    }
+
+    @Test
+    void keyChangesWithContent() {
+        String base = CodeGenerationCache.keyOf(request("java", step(OperationType.CLICK, "//a", null)));
+        assertNotEquals(base, CodeGenerationCache.keyOf(request("python", step(OperationType.CLICK, "//a", null))));
+        assertNotEquals(base, CodeGenerationCache.keyOf(request("java", step(OperationType.CLICK, "//b", null))));
+        assertNotEquals(base, CodeGenerationCache.keyOf(request("java", step(OperationType.INPUT, "//a", null))));
+
+        CodeGenerationRequest comments = request("java", step(OperationType.CLICK, "//a", null));
+        comments.setIncludeComments(false);
+        assertNotEquals(base, CodeGenerationCache.keyOf(comments));
+    }
+
+    @Test
+    void keyDistinguishesFieldBoundariesAndTypes() {
+        // 字段带长度写入，内容拼接相同的请求不会冲突
+        OperationStep left = step(OperationType.CLICK, "ab", null);
+        left.setValue("c");
+        OperationStep right = step(OperationType.CLICK, "a", null);
+        right.setValue("bc");
+        assertNotEquals(CodeGenerationCache.keyOf(request("java", left)), CodeGenerationCache.keyOf(request("java", right)));
+
+        assertNotEquals(CodeGenerationCache.keyOf(request("java", step(OperationType.CLICK, "//a", Map.of("workers", 1)))),
+                CodeGenerationCache.keyOf(request("java", step(OperationType.CLICK, "//a", Map.of("workers", "1")))));
+    }
+
+    @Test
+    void keyCoversSubSteps() {
+        OperationStep loop = step(OperationType.LOOP_TASK, null, null);
+        loop.setSubSteps(List.of(step(OperationType.CLICK, "//a", null)));
+        OperationStep other = step(OperationType.LOOP_TASK, null, null);
+        other.setSubSteps(List.of(step(OperationType.CLICK, "//b", null)));
+        assertNotEquals(CodeGenerationCache.keyOf(request("java", loop)), CodeGenerationCache.keyOf(request("java", other)));
+    }
+}
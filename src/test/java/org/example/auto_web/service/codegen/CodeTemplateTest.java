@@ -0,0 +1,113 @@
+package org.example.auto_web.service.codegen;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CodeTemplateTest {
+
+    private static String write(CodeTemplate template, String section, Map<String, ?> slots) {
+        StringBuilder out = new StringBuilder();
+        template.write(new CodeWriter(out), section, slots);
+        return out.toString();
+    }
+
+    @Test
+    void splitsSectionsAndSkipsComments() {
+        CodeTemplate template = CodeTemplate.parse("t", "#@ header\n"
+                + "import a;\n"
+                + "#@# 注释行不输出\n"
+                + "import b;\n"
+                + "#@ footer\n"
+                + "}\n");
+        assertTrue(template.hasSection("header"));
+        assertTrue(template.hasSection("footer"));
+        assertFalse(template.hasSection("missing"));
+        assertEquals("import a;\nimport b;\n", write(template, "header", Map.of()));
+        assertEquals("}\n", write(template, "footer", Map.of()));
+    }
+
+    @Test
+    void fillsSlots() {
+        CodeTemplate template = CodeTemplate.parse("t", "#@ click\n"
+                + "click(\"{{@xpath}}\"); // {{@ remark }}\n"
+                + "{{@out}}.println({{@count}});\n");
+        assertEquals("click(\"//a[1]\"); // 按钮\nSystem.out.println(3);\n",
+                write(template, "click", Map.of("xpath", "//a[1]", "remark", "按钮", "out", "System.out", "count", 3)));
+    }
+
+    @Test
+    void indentPrefixesEveryNonEmptyLine() {
+        CodeTemplate template = CodeTemplate.parse("t", "#@ loop\n"
+                + "for (;;) {\n"
+                + "\n"
+                + "    step();\n"
+                + "}\n");
+        assertEquals("for (;;) {\n\n    step();\n}\n", write(template, "loop", Map.of()));
+        assertEquals("        for (;;) {\n\n            step();\n        }\n",
+                write(template, "loop", Map.of(CodeTemplate.INDENT, "        ")));
+    }
+
+    @Test
+    void handlesCrlfLineEndings() {
+        CodeTemplate template = CodeTemplate.parse("t", "#@ a\r\nfirst {{@x}}\r\nsecond\r\n#@ b\r\nthird\r\n");
+        assertEquals("first 1\nsecond\n", write(template, "a", Map.of("x", 1)));
+        assertEquals("third\n", write(template, "b", Map.of()));
+    }
+
+    @Test
+    void keepsLastLineWithoutTrailingNewline() {
+        CodeTemplate template = CodeTemplate.parse("t", "#@ a\nline");
+        assertEquals("line\n", write(template, "a", Map.of()));
+    }
+
+    @Test
+    void writesSameTextToByteStream() {
+        CodeTemplate template = CodeTemplate.parse("t", "#@ a\n// 步骤 {{@number}}\n");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodeWriter writer = new CodeWriter(bytes, 1024);
+        template.write(writer, "a", Map.of("number", 2, CodeTemplate.INDENT, "  "));
+        String expected = "  // 步骤 2\n";
+        assertEquals(expected, bytes.toString(StandardCharsets.UTF_8));
+        assertEquals(expected, writer.getCapturedContent());
+        assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, writer.getByteCount());
+    }
+
+    @Test
+    void missingSlotIsAnError() {
+        CodeTemplate template = CodeTemplate.parse("t", "#@ a\nclick({{@xpath}});\n");
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> write(template, "a", Map.of("value", "x")));
+        assertTrue(e.getMessage().contains("xpath"), e.getMessage());
+    }
+
+    @Test
+    void missingSectionIsAnError() {
+        CodeTemplate template = CodeTemplate.parse("t", "#@ a\nx\n");
+        assertThrows(IllegalArgumentException.class, () -> write(template, "b", Map.of()));
+    }
+
+    @Test
+    void rejectsMalformedTemplates() {
+        assertThrows(IllegalStateException.class, () -> CodeTemplate.parse("t", "orphan\n#@ a\nx\n"));
+        assertThrows(IllegalStateException.class, () -> CodeTemplate.parse("t", "#@ a\nx\n#@ a\ny\n"));
+        assertThrows(IllegalStateException.class, () -> CodeTemplate.parse("t", "#@ a\nclick({{@xpath);\n"));
+    }
+
+    @Test
+    void bundledTemplatesLoad() {
+        for (String language : new String[]{"java", "python", "go", "cpp"}) {
+            CodeTemplate template = CodeTemplate.load(language);
+            assertEquals(language, template.getName());
+            assertTrue(template.hasSection("step-comment"), language);
+            assertTrue(template.hasSection("step.CLICK"), language);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.auto_web.service.codegen;
+
+import org.example.auto_web.pojo.dto.CodeGenerationRequest;
+import org.example.auto_web.pojo.enums.OperationType;
+import org.example.auto_web.pojo.other.OperationStep;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HelperUsageTest {
+
+    private static final HelperUsage HELPERS = new HelperUsage("safeWait", "resolveXpath", "resolveValue", "parseExpression", "batchGetText")
+            .onStepWait("safeWait")
+            .onInitialUrl("safeWait")
+            .use(OperationType.CLICK, "resolveXpath")
+            .use(OperationType.INPUT, "resolveXpath", "resolveValue")
+            .use(OperationType.LOOP_GET_TEXT, "safeWait", "resolveXpath")
+            .useBatched(OperationType.LOOP_GET_TEXT, "batchGetText")
+            .depends("resolveXpath", "parseExpression")
+            .depends("resolveValue", "parseExpression")
+            .depends("batchGetText", "resolveXpath");
+
+    private static OperationStep step(OperationType type) {
+        OperationStep step = new OperationStep();
+        step.setType(type);
+        return step;
+    }
+
+    private static GenerationPlan plan(String initialUrl, boolean batch, OperationStep... steps) {
+        CodeGenerationRequest request = new CodeGenerationRequest();
+        request.setLanguage("java");
+        request.setClassName("T");
+        request.setInitialUrl(initialUrl);
+        request.setBatchExtraction(batch);
+        request.setSteps(new ArrayList<>(List.of(steps)));
+        return GenerationPlan.from(request);
+    }
+
+    @Test
+    void emptyPlanUsesNoHelpers() {
+        assertEquals(List.of(), new ArrayList<>(HELPERS.resolve(plan(null, false))));
+    }
+
+    @Test
+    void includesDependenciesInTemplateOrder() {
+        GenerationPlan plan = plan(null, false, step(OperationType.INPUT));
+        assertEquals(List.of("resolveXpath", "resolveValue", "parseExpression"), new ArrayList<>(HELPERS.resolve(plan)));
+    }
+
+    @Test
+    void followsTransitiveDependencies() {
+        GenerationPlan plan = plan(null, true, step(OperationType.LOOP_GET_TEXT));
+        // 批量模式只声明了 batchGetText，resolveXpath 和 parseExpression 来自依赖链
+        assertEquals(List.of("resolveXpath", "parseExpression", "batchGetText"), new ArrayList<>(HELPERS.resolve(plan)));
+    }
+
+    @Test
+    void collectsSubStepsAndWaits() {
+        OperationStep click = step(OperationType.CLICK);
+        click.setWaitAfterMs(500L);
+        OperationStep loop = step(OperationType.LOOP_TASK);
+        loop.setSubSteps(List.of(click));
+        assertEquals(List.of("safeWait", "resolveXpath", "parseExpression"),
+                new ArrayList<>(HELPERS.resolve(plan(null, false, loop))));
+    }
+
+    @Test
+    void initialUrlAddsItsHelpers() {
+        assertEquals(List.of("safeWait"), new ArrayList<>(HELPERS.resolve(plan("https://example.com", false))));
+        assertEquals(List.of(), new ArrayList<>(HELPERS.resolve(plan("", false))));
+    }
+
+    @Test
+    void batchRuleOnlyAppliesToBatchedSteps() {
+        OperationStep text = step(OperationType.LOOP_GET_TEXT);
+        text.setParameters(Map.of("batchMode", false));
+        assertEquals(List.of("safeWait", "resolveXpath", "parseExpression"),
+                new ArrayList<>(HELPERS.resolve(plan(null, true, text))));
+    }
+
+    @Test
+    void rejectsUndeclaredHelpers() {
+        HelperUsage usage = new HelperUsage("a", "b");
+        assertThrows(IllegalArgumentException.class, () -> usage.use(OperationType.CLICK, "c"));
+        assertThrows(IllegalArgumentException.class, () -> usage.depends("a", "c"));
+        assertThrows(IllegalArgumentException.class, () -> usage.depends("c", "a"));
+    }
+}
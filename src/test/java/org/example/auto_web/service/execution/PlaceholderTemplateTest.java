@@ -0,0 +1,202 @@
+package org.example.auto_web.service.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlaceholderTemplateTest {
+
+    @Test
+    void rendersExpressionsWithPrecedence() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("//tr[{i + 1}]/td[{(i - 1) % 3 + 1 * 2}]");
+        assertFalse(template.isConstant());
+        assertEquals("//tr[5]/td[2]", template.render(Map.of("i", 4)));
+    }
+
+    @Test
+    void rendersUnaryMinus() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("{-i + 10}");
+        assertEquals("7", template.render(Map.of("i", 3)));
+    }
+
+    @Test
+    void foldsConstantExpressions() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("//li[{2 * 3 - -1}]");
+        assertTrue(template.isConstant());
+        assertEquals("//li[7]", template.getConstantValue());
+    }
+
+    @Test
+    void divisionByZeroLeavesPlaceholderUnchanged() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("//li[{10 / (i - 1)}]");
+        assertEquals("//li[5]", template.render(Map.of("i", 3)));
+
+        List<String> unresolved = new ArrayList<>();
+        StringBuilder out = new StringBuilder();
+        template.appendTo(out, Map.of("i", 1), new RecordingListener(unresolved));
+        assertEquals("//li[{10 / (i - 1)}]", out.toString());
+        assertEquals(List.of("{10 / (i - 1)}"), unresolved);
+
+        // 常量除零在编译期无法折叠，同样保留原文
+        PlaceholderTemplate constant = PlaceholderTemplate.compile("//li[{1 / 0}]");
+        assertTrue(constant.isConstant());
+        assertEquals("//li[{1 / 0}]", constant.getConstantValue());
+    }
+
+    @Test
+    void unboundVariablesLeavePlaceholderUnchanged() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("//li[{row + 1}]");
+        assertEquals("//li[{row + 1}]", template.render(Map.of("i", 1)));
+        assertEquals("//li[{row + 1}]", template.render(Map.of("row", "abc")));
+    }
+
+    @Test
+    void keyTokensPassThroughAsConstants() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("hello{ENTER}{TAB}{F5}");
+        assertTrue(template.isConstant());
+        assertEquals("hello{ENTER}{TAB}{F5}", template.getConstantValue());
+
+        // 小写名称仍然是变量
+        PlaceholderTemplate variable = PlaceholderTemplate.compile("{end}");
+        assertFalse(variable.isConstant());
+        assertEquals("3", variable.render(Map.of("end", 3)));
+
+        PlaceholderTemplate mixed = PlaceholderTemplate.compile("item{i}{ENTER}");
+        assertEquals("item2{ENTER}", mixed.render(Map.of("i", 2)));
+    }
+
+    @Test
+    void constantKeyValuesArePrecompiled() {
+        KeySequence keys = KeySequence.parseKeyboardInput(
+                PlaceholderTemplate.compile("abc{ENTER}").getConstantValue());
+        assertEquals(2, keys.size());
+        assertTrue(keys.getUnsupportedKeys().isEmpty());
+    }
+
+    @Test
+    void nestedBracesReplaceInnermostPlaceholder() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("{{i * 2}}");
+        assertEquals("{4}", template.render(Map.of("i", 2)));
+
+        PlaceholderTemplate json = PlaceholderTemplate.compile("{\"row\": {i}}");
+        assertEquals("{\"row\": 3}", json.render(Map.of("i", 3)));
+    }
+
+    @Test
+    void nonExpressionBracesKeptAsLiteral() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("//div[@class='{a b}']");
+        assertTrue(template.isConstant());
+        assertEquals("//div[@class='{a b}']", template.getConstantValue());
+    }
+
+    @Test
+    void compiledTemplatesAreCached() {
+        String source = "//table/tr[{i}]/td[{j + 1}]";
+        PlaceholderTemplate first = PlaceholderTemplate.compile(source);
+        PlaceholderTemplate second = PlaceholderTemplate.compile(new String(source));
+        assertSame(first, second);
+        assertEquals("//table/tr[1]/td[3]", second.render(Map.of("i", 1, "j", 2)));
+        assertNull(PlaceholderTemplate.compile(null));
+    }
+
+    @Test
+    void cacheEvictsLeastRecentlyUsed() {
+        PlaceholderTemplate kept = PlaceholderTemplate.compile("//kept[{i}]");
+        PlaceholderTemplate evicted = PlaceholderTemplate.compile("//evicted[{i}]");
+        for (int n = 0; n < 1100; n++) {
+            // 持续访问的模板保持在缓存中
+            assertSame(kept, PlaceholderTemplate.compile("//kept[{i}]"));
+            PlaceholderTemplate.compile("//filler" + n + "[{i}]");
+        }
+        assertSame(kept, PlaceholderTemplate.compile("//kept[{i}]"));
+        PlaceholderTemplate recompiled = PlaceholderTemplate.compile("//evicted[{i}]");
+        assertNotSame(evicted, recompiled);
+        assertEquals(evicted.render(Map.of("i", 2)), recompiled.render(Map.of("i", 2)));
+    }
+
+    @Test
+    void appendsIntoReusedBuffer() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("//ul/li[{i}]/a[{i * 2}]");
+        StringBuilder buffer = new StringBuilder();
+        for (int i = 1; i <= 3; i++) {
+            buffer.setLength(0);
+            template.appendTo(buffer, Map.of("i", i), null);
+            assertEquals("//ul/li[" + i + "]/a[" + (i * 2) + "]", buffer.toString());
+        }
+
+        // 追加到已有内容之后，不清空调用方的缓冲区
+        buffer.setLength(0);
+        buffer.append("prefix:");
+        PlaceholderTemplate.compile("//const[1]").appendTo(buffer, Map.of(), null);
+        assertEquals("prefix://const[1]", buffer.toString());
+    }
+
+    @Test
+    void listenerSeesEachPlaceholder() {
+        List<String> resolved = new ArrayList<>();
+        List<String> unresolved = new ArrayList<>();
+        PlaceholderTemplate.compile("{i}-{j}-{i + 1}").appendTo(new StringBuilder(), Map.of("i", 4),
+                new PlaceholderTemplate.Listener() {
+                    @Override
+                    public void onResolved(String placeholder, int value) {
+                        resolved.add(placeholder + "=" + value);
+                    }
+
+                    @Override
+                    public void onUnresolved(String placeholder) {
+                        unresolved.add(placeholder);
+                    }
+                });
+        assertEquals(List.of("{i}=4", "{i + 1}=5"), resolved);
+        assertEquals(List.of("{j}"), unresolved);
+    }
+
+    @Test
+    void concurrentCompilesShareResults() throws Exception {
+        String source = "//concurrent[{i}]";
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<PlaceholderTemplate>> results = new ArrayList<>();
+            for (int n = 0; n < 32; n++) {
+                results.add(executor.submit(() -> PlaceholderTemplate.compile(source)));
+            }
+            PlaceholderTemplate cached = PlaceholderTemplate.compile(source);
+            for (Future<PlaceholderTemplate> result : results) {
+                // 并发未命中时可能各自编译一次，结果相同
+                assertEquals("//concurrent[7]", result.get().render(Map.of("i", 7)));
+            }
+            assertSame(cached, PlaceholderTemplate.compile(source));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class RecordingListener implements PlaceholderTemplate.Listener {
+        private final List<String> unresolved;
+
+        private RecordingListener(List<String> unresolved) {
+            this.unresolved = unresolved;
+        }
+
+        @Override
+        public void onResolved(String placeholder, int value) {
+        }
+
+        @Override
+        public void onUnresolved(String placeholder) {
+            unresolved.add(placeholder);
+        }
+    }
+}
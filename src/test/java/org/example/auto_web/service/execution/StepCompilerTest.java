@@ -0,0 +1,62 @@
+package org.example.auto_web.service.execution;
+
+import org.example.auto_web.config.SeleniumConfig;
+import org.example.auto_web.pojo.enums.OperationType;
+import org.example.auto_web.pojo.other.OperationStep;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StepCompilerTest {
+
+    private static StepCompiler compiler() {
+        StepCompiler compiler = new StepCompiler();
+        ReflectionTestUtils.setField(compiler, "seleniumConfig", new SeleniumConfig());
+        return compiler;
+    }
+
+    private static OperationStep loopGetText(Map<String, Object> parameters) {
+        OperationStep step = new OperationStep();
+        step.setType(OperationType.LOOP_GET_TEXT);
+        step.setXpath("//li[{i}]");
+        step.setParameters(parameters);
+        return step;
+    }
+
+    private static String compileError(Map<String, Object> parameters) {
+        return assertThrows(IllegalArgumentException.class,
+                () -> compiler().compile(List.of(loopGetText(parameters)))).getMessage();
+    }
+
+    @Test
+    void compilesOutputParameters() {
+        CompiledStep step = compiler().compile(List.of(loopGetText(
+                Map.of("outputFormat", "jsonl", "fsync", "FLUSH", "flushIntervalMs", "50")))).getSteps().get(0);
+        assertEquals(TextOutputWriter.Format.JSONL, step.getOutputFormat());
+        assertEquals(TextOutputWriter.FsyncPolicy.FLUSH, step.getFsyncPolicy());
+        assertEquals(50L, step.getFlushIntervalMs());
+    }
+
+    @Test
+    void missingOutputParametersUseConfig() {
+        CompiledStep step = compiler().compile(List.of(loopGetText(null))).getSteps().get(0);
+        assertNull(step.getOutputFormat());
+        assertNull(step.getFsyncPolicy());
+        assertNull(step.getFlushIntervalMs());
+    }
+
+    @Test
+    void rejectsInvalidOutputParameters() {
+        assertTrue(compileError(Map.of("outputFormat", "xml")).contains("输出格式"));
+        assertTrue(compileError(Map.of("fsync", "always")).contains("fsync"));
+        assertTrue(compileError(Map.of("flushIntervalMs", "1s")).contains("flushIntervalMs"));
+        assertTrue(compileError(Map.of("flushIntervalMs", -1)).contains("flushIntervalMs"));
+    }
+}
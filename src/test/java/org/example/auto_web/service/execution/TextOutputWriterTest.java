@@ -0,0 +1,136 @@
+package org.example.auto_web.service.execution;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TextOutputWriterTest {
+
+    private static final List<String> ROWS = List.of(
+            "plain",
+            "a,b",
+            "say \"hi\"",
+            "two\nlines",
+            "back\\slash\ttab\r\u0001",
+            "中文 ✓",
+            "");
+
+    @TempDir
+    Path dir;
+
+    private static void writeAll(TextOutputWriter writer) throws IOException {
+        try (writer) {
+            for (int i = 0; i < ROWS.size(); i++) {
+                writer.writeRow(i + 1, ROWS.get(i));
+            }
+            assertEquals(ROWS.size(), writer.getRowCount());
+        }
+    }
+
+    private TextOutputWriter open(Path path, TextOutputWriter.Format format, boolean gzip, long flushIntervalMs)
+            throws IOException {
+        return new TextOutputWriter(path, format, gzip, flushIntervalMs, TextOutputWriter.FsyncPolicy.CLOSE, 64);
+    }
+
+    private static String gunzip(Path path) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(path))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void writesLines() throws IOException {
+        Path path = dir.resolve("out.txt");
+        try (TextOutputWriter writer = open(path, TextOutputWriter.Format.LINES, false, 1000)) {
+            writer.writeRow(1, "first");
+            writer.writeRow(2, "second");
+        }
+        assertEquals("first\nsecond\n", Files.readString(path));
+    }
+
+    @Test
+    void quotesCsvFields() throws IOException {
+        Path path = dir.resolve("out.csv");
+        writeAll(open(path, TextOutputWriter.Format.CSV, false, 1000));
+        assertEquals("index,text\n"
+                + "1,plain\n"
+                + "2,\"a,b\"\n"
+                + "3,\"say \"\"hi\"\"\"\n"
+                + "4,\"two\nlines\"\n"
+                + "5,\"back\\slash\ttab\r\u0001\"\n"
+                + "6,中文 ✓\n"
+                + "7,\n", Files.readString(path));
+    }
+
+    @Test
+    void escapesJsonLines() throws IOException {
+        Path path = dir.resolve("out.jsonl");
+        writeAll(open(path, TextOutputWriter.Format.JSONL, false, 1000));
+        List<String> lines = Files.readAllLines(path);
+        // 文本中的换行被转义，每条记录仍然占一行
+        assertEquals(ROWS.size(), lines.size());
+        assertEquals("{\"index\":5,\"text\":\"back\\\\slash\\ttab\\r\\u0001\"}", lines.get(4));
+
+        ObjectMapper mapper = new ObjectMapper();
+        for (int i = 0; i < lines.size(); i++) {
+            JsonNode node = mapper.readTree(lines.get(i));
+            assertEquals(i + 1, node.get("index").asInt());
+            assertEquals(ROWS.get(i), node.get("text").asString());
+        }
+    }
+
+    @Test
+    void gzipOutputIsCompleteAfterClose() throws IOException {
+        Path path = dir.resolve("out.jsonl.gz");
+        // 刷新间隔为0：每行都输出同步压缩块，关闭时再写入gzip结尾
+        writeAll(open(path, TextOutputWriter.Format.JSONL, true, 0));
+        String content = gunzip(path);
+        assertEquals(ROWS.size(), content.split("\n", -1).length - 1);
+        assertEquals("{\"index\":1,\"text\":\"plain\"}", content.substring(0, content.indexOf('\n')));
+    }
+
+    @Test
+    void gzipLinesRoundTrip() throws IOException {
+        Path path = dir.resolve("out.txt.gz");
+        try (TextOutputWriter writer = open(path, TextOutputWriter.Format.LINES, true, 1000)) {
+            for (int i = 0; i < 1000; i++) {
+                writer.writeRow(i, "row " + i);
+            }
+        }
+        String[] lines = gunzip(path).split("\n");
+        assertEquals(1000, lines.length);
+        assertEquals("row 999", lines[999]);
+    }
+
+    @Test
+    void closeIsIdempotent() throws IOException {
+        Path path = dir.resolve("twice.csv.gz");
+        TextOutputWriter writer = open(path, TextOutputWriter.Format.CSV, true, 1000);
+        writer.writeRow(1, "x");
+        writer.close();
+        writer.close();
+        assertEquals("index,text\n1,x\n", gunzip(path));
+    }
+
+    @Test
+    void parsesFormatAndFsyncNames() {
+        assertEquals(TextOutputWriter.Format.LINES, TextOutputWriter.Format.parse(null));
+        assertEquals(TextOutputWriter.Format.CSV, TextOutputWriter.Format.parse(" csv "));
+        assertEquals(TextOutputWriter.FsyncPolicy.CLOSE, TextOutputWriter.FsyncPolicy.parse(""));
+        assertEquals(TextOutputWriter.FsyncPolicy.FLUSH, TextOutputWriter.FsyncPolicy.parse("flush"));
+        assertThrows(IllegalArgumentException.class, () -> TextOutputWriter.Format.parse("xml"));
+        assertThrows(IllegalArgumentException.class, () -> TextOutputWriter.FsyncPolicy.parse("always"));
+    }
+}
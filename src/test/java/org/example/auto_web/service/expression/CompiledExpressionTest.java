@@ -0,0 +1,62 @@
+package org.example.auto_web.service.expression;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledExpressionTest {
+
+    private static int eval(String expression, Map<String, Object> variables) {
+        return CompiledExpression.compile(expression).evaluate(variables);
+    }
+
+    @Test
+    void operatorPrecedence() {
+        assertEquals(7, eval("1 + 2 * 3", Map.of()));
+        assertEquals(9, eval("(1 + 2) * 3", Map.of()));
+        assertEquals(2, eval("(i - 1) % 3 + 1", Map.of("i", 5)));
+        assertEquals(1, eval("10 - 4 - 5", Map.of()));
+        assertEquals(1, eval("1 + 2 > 2 && 3 < 4", Map.of()));
+        assertEquals(1, eval("0 || 1 && 1", Map.of()));
+        assertEquals(5, eval("i > 5 ? i : 5", Map.of("i", 3)));
+        assertEquals(8, eval("i > 5 ? i : 5", Map.of("i", 8)));
+    }
+
+    @Test
+    void unaryMinus() {
+        assertEquals(-3, eval("-3", Map.of()));
+        assertEquals(-6, eval("-i * 2", Map.of("i", 3)));
+        assertEquals(5, eval("2 - -3", Map.of()));
+        assertEquals(-1, eval("-(i - 2)", Map.of("i", 3)));
+        assertEquals(0, eval("!i", Map.of("i", 3)));
+    }
+
+    @Test
+    void variablesBoundAsNumbersOrIntegerStrings() {
+        CompiledExpression expression = CompiledExpression.compile("i + offset");
+        assertFalse(expression.isConstant());
+        assertTrue(expression.canEvaluate(Map.of("i", 1, "offset", "2")));
+        assertEquals(3, expression.evaluate(Map.of("i", 1, "offset", "2")));
+        assertFalse(expression.canEvaluate(Map.of("i", 1)));
+        assertFalse(expression.canEvaluate(Map.of("i", 1, "offset", "abc")));
+    }
+
+    @Test
+    void divisionByZeroThrows() {
+        CompiledExpression expression = CompiledExpression.compile("10 / (i - 1)");
+        assertEquals(5, expression.evaluate(Map.of("i", 3)));
+        assertThrows(ArithmeticException.class, () -> expression.evaluate(Map.of("i", 1)));
+    }
+
+    @Test
+    void syntaxErrorsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CompiledExpression.compile(""));
+        assertThrows(IllegalArgumentException.class, () -> CompiledExpression.compile("1 +"));
+        assertThrows(IllegalArgumentException.class, () -> CompiledExpression.compile("(i"));
+    }
+}